@@ -40,6 +40,7 @@ import org.openjdk.jmh.annotations.Warmup;
 public class HttpTraceContextExtractBenchmark {
 
   private static final String TRACEPARENT = "traceparent";
+  private static final String TRACESTATE = "tracestate";
   private static final int COUNT = 5;
   private static final List<String> traceparentsHeaders =
       Arrays.asList(
@@ -48,6 +49,7 @@ public class HttpTraceContextExtractBenchmark {
           "00-2e7d0ad2390617702e7d0ad239061770-d49582a2de984b86-01",
           "00-905734c59b913b4a905734c59b913b4a-776ff807b787538a-00",
           "00-68ec932c33b3f2ee68ec932c33b3f2ee-68ec932c33b3f2ee-00");
+  private static final String TRACESTATE_HEADER = "congo=t61rcWkgMzE,rojo=00f067aa0ba902b7";
   private final HttpTraceContext httpTraceContext = new HttpTraceContext();
   private final Getter<Map<String, String>> getter =
       new Getter<Map<String, String>>() {
@@ -57,7 +59,9 @@ public class HttpTraceContextExtractBenchmark {
         }
       };
   private static final List<Map<String, String>> carriers =
-      getCarrierForHeader(traceparentsHeaders);
+      getCarrierForHeader(traceparentsHeaders, null);
+  private static final List<Map<String, String>> carriersWithTraceState =
+      getCarrierForHeader(traceparentsHeaders, TRACESTATE_HEADER);
 
   /** Benchmark for measuring HttpTraceContext extract. */
   @Benchmark
@@ -76,11 +80,32 @@ public class HttpTraceContextExtractBenchmark {
     return result;
   }
 
-  private static List<Map<String, String>> getCarrierForHeader(List<String> headers) {
+  /** Benchmark for measuring HttpTraceContext extract with a tracestate header. */
+  @Benchmark
+  @BenchmarkMode({Mode.AverageTime})
+  @Fork(1)
+  @Measurement(iterations = 15, time = 1)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Warmup(iterations = 5, time = 1)
+  @OperationsPerInvocation(COUNT)
+  @Nullable
+  public Context measureExtractWithTraceState() {
+    Context result = null;
+    for (int i = 0; i < COUNT; i++) {
+      result = httpTraceContext.extract(Context.ROOT, carriersWithTraceState.get(i), getter);
+    }
+    return result;
+  }
+
+  private static List<Map<String, String>> getCarrierForHeader(
+      List<String> headers, @Nullable String traceStateHeader) {
     List<Map<String, String>> carriers = new ArrayList<>();
     for (String header : headers) {
       Map<String, String> carrier = new HashMap<>();
       carrier.put(TRACEPARENT, header);
+      if (traceStateHeader != null) {
+        carrier.put(TRACESTATE, traceStateHeader);
+      }
       carriers.add(carrier);
     }
     return carriers;
@@ -45,13 +45,12 @@ import org.openjdk.jmh.annotations.Warmup;
 @State(Scope.Thread)
 public class HttpTraceContextInjectBenchmark {
 
+  private static final TraceState TRACE_STATE =
+      TraceState.builder().set("rojo", "00f067aa0ba902b7").set("congo", "t61rcWkgMzE").build();
   private static final List<SpanContext> spanContexts =
-      Arrays.asList(
-          createTestSpanContext("905734c59b913b4a905734c59b913b4a", "9909983295041501"),
-          createTestSpanContext("21196a77f299580e21196a77f299580e", "993a97ee3691eb26"),
-          createTestSpanContext("2e7d0ad2390617702e7d0ad239061770", "d49582a2de984b86"),
-          createTestSpanContext("905734c59b913b4a905734c59b913b4a", "776ff807b787538a"),
-          createTestSpanContext("68ec932c33b3f2ee68ec932c33b3f2ee", "68ec932c33b3f2ee"));
+      createTestSpanContexts(TraceState.getDefault());
+  private static final List<SpanContext> spanContextsWithTraceState =
+      createTestSpanContexts(TRACE_STATE);
   private static final int COUNT = 5; // spanContexts.size()
   private final HttpTraceContext httpTraceContext = new HttpTraceContext();
   private final Map<String, String> carrier = new HashMap<>();
@@ -63,6 +62,7 @@ public class HttpTraceContextInjectBenchmark {
         }
       };
   private final List<Context> contexts = createContexts(spanContexts);
+  private final List<Context> contextsWithTraceState = createContexts(spanContextsWithTraceState);
 
   /** Benchmark for measuring inject with default trace state and sampled trace options. */
   @Benchmark
@@ -79,15 +79,39 @@ public class HttpTraceContextInjectBenchmark {
     return carrier;
   }
 
-  private static SpanContext createTestSpanContext(String traceId, String spanId) {
+  /** Benchmark for measuring inject with a trace state and sampled trace options. */
+  @Benchmark
+  @BenchmarkMode({Mode.AverageTime})
+  @Fork(1)
+  @Measurement(iterations = 15, time = 1)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Warmup(iterations = 5, time = 1)
+  @OperationsPerInvocation(COUNT)
+  public Map<String, String> measureInjectWithTraceState() {
+    for (int i = 0; i < COUNT; i++) {
+      httpTraceContext.inject(contextsWithTraceState.get(i), carrier, setter);
+    }
+    return carrier;
+  }
+
+  private static List<SpanContext> createTestSpanContexts(TraceState traceState) {
+    return Arrays.asList(
+        createTestSpanContext("905734c59b913b4a905734c59b913b4a", "9909983295041501", traceState),
+        createTestSpanContext("21196a77f299580e21196a77f299580e", "993a97ee3691eb26", traceState),
+        createTestSpanContext("2e7d0ad2390617702e7d0ad239061770", "d49582a2de984b86", traceState),
+        createTestSpanContext("905734c59b913b4a905734c59b913b4a", "776ff807b787538a", traceState),
+        createTestSpanContext("68ec932c33b3f2ee68ec932c33b3f2ee", "68ec932c33b3f2ee", traceState));
+  }
+
+  private static SpanContext createTestSpanContext(
+      String traceId, String spanId, TraceState traceState) {
     byte sampledTraceOptionsBytes = 1;
     TraceFlags sampledTraceOptions = TraceFlags.fromByte(sampledTraceOptionsBytes);
-    TraceState traceStateDefault = TraceState.builder().build();
     return SpanContext.create(
         TraceId.fromLowerBase16(traceId, 0),
         SpanId.fromLowerBase16(spanId, 0),
         sampledTraceOptions,
-        traceStateDefault);
+        traceState);
   }
 
   private static List<Context> createContexts(List<SpanContext> spanContexts) {
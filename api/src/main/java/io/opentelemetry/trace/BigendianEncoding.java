@@ -28,6 +28,7 @@ final class BigendianEncoding {
   private static final String ALPHABET = "0123456789abcdef";
   private static final int ASCII_CHARACTERS = 128;
   private static final char[] ENCODING = buildEncodingArray();
+  private static final byte[] ASCII_ENCODING = buildAsciiEncodingArray();
   private static final byte[] DECODING = buildDecodingArray();
 
   private static char[] buildEncodingArray() {
@@ -39,6 +40,14 @@ final class BigendianEncoding {
     return encoding;
   }
 
+  private static byte[] buildAsciiEncodingArray() {
+    byte[] encoding = new byte[ENCODING.length];
+    for (int i = 0; i < ENCODING.length; i++) {
+      encoding[i] = (byte) ENCODING[i];
+    }
+    return encoding;
+  }
+
   private static byte[] buildDecodingArray() {
     byte[] decoding = new byte[ASCII_CHARACTERS];
     Arrays.fill(decoding, (byte) -1);
@@ -127,6 +136,27 @@ final class BigendianEncoding {
     byteToBase16((byte) (value & 0xFFL), dest, destOffset + 7 * BYTE_BASE16);
   }
 
+  /**
+   * Stores the base16 encoding of the specified {@code value} as ASCII characters in the {@code
+   * dest}, so encoders writing bytes do not need to build a {@code String} first.
+   *
+   * @param value the value to be converted.
+   * @param dest the destination byte array.
+   * @param destOffset the starting offset in the destination byte array.
+   * @throws IndexOutOfBoundsException if {@code destOffset + 16} is greater than {@code
+   *     dest.length}.
+   */
+  static void longToBase16Ascii(long value, byte[] dest, int destOffset) {
+    byteToBase16Ascii((byte) (value >> 56 & 0xFFL), dest, destOffset);
+    byteToBase16Ascii((byte) (value >> 48 & 0xFFL), dest, destOffset + BYTE_BASE16);
+    byteToBase16Ascii((byte) (value >> 40 & 0xFFL), dest, destOffset + 2 * BYTE_BASE16);
+    byteToBase16Ascii((byte) (value >> 32 & 0xFFL), dest, destOffset + 3 * BYTE_BASE16);
+    byteToBase16Ascii((byte) (value >> 24 & 0xFFL), dest, destOffset + 4 * BYTE_BASE16);
+    byteToBase16Ascii((byte) (value >> 16 & 0xFFL), dest, destOffset + 5 * BYTE_BASE16);
+    byteToBase16Ascii((byte) (value >> 8 & 0xFFL), dest, destOffset + 6 * BYTE_BASE16);
+    byteToBase16Ascii((byte) (value & 0xFFL), dest, destOffset + 7 * BYTE_BASE16);
+  }
+
   /**
    * Encodes the specified byte, and returns the encoded {@code String}.
    *
@@ -165,5 +195,11 @@ final class BigendianEncoding {
     dest[destOffset + 1] = ENCODING[b | 0x100];
   }
 
+  private static void byteToBase16Ascii(byte value, byte[] dest, int destOffset) {
+    int b = value & 0xFF;
+    dest[destOffset] = ASCII_ENCODING[b];
+    dest[destOffset + 1] = ASCII_ENCODING[b | 0x100];
+  }
+
   private BigendianEncoding() {}
 }
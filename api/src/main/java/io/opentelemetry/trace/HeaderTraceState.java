@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * A {@link TraceState} backed by a canonical {@code tracestate} header, already validated by {@link
+ * TraceState#fromHeader(String)}. The entries are only decoded the first time they are accessed, a
+ * {@code TraceState} that is propagated unchanged is re-injected with the received header.
+ */
+@Immutable
+final class HeaderTraceState extends TraceState {
+  private final String header;
+  // Decoded lazily, racing threads decode equal lists.
+  @Nullable private volatile List<Entry> entries;
+
+  HeaderTraceState(String header) {
+    this.header = header;
+  }
+
+  @Nullable
+  @Override
+  public String get(String key) {
+    if (entries != null || key == null) {
+      return super.get(key);
+    }
+    int length = header.length();
+    int memberStart = 0;
+    while (memberStart < length) {
+      int delimiter = header.indexOf('=', memberStart);
+      int memberEnd = header.indexOf(',', delimiter);
+      if (memberEnd < 0) {
+        memberEnd = length;
+      }
+      if (delimiter - memberStart == key.length()
+          && header.regionMatches(memberStart, key, 0, key.length())) {
+        return header.substring(delimiter + 1, memberEnd);
+      }
+      memberStart = memberEnd + 1;
+    }
+    return null;
+  }
+
+  @Override
+  public List<Entry> getEntries() {
+    List<Entry> result = entries;
+    if (result == null) {
+      result = decodeEntries(header);
+      entries = result;
+    }
+    return result;
+  }
+
+  @Override
+  public String toHeader() {
+    return header;
+  }
+
+  // Same as the AutoValue implementation, so both implementations are interchangeable.
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (o instanceof HeaderTraceState) {
+      return header.equals(((HeaderTraceState) o).header);
+    }
+    if (o instanceof TraceState) {
+      return getEntries().equals(((TraceState) o).getEntries());
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode() {
+    int h = 1;
+    h *= 1000003;
+    h ^= getEntries().hashCode();
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return "TraceState{entries=" + getEntries() + "}";
+  }
+
+  private static List<Entry> decodeEntries(String header) {
+    List<Entry> entries = new ArrayList<>();
+    int length = header.length();
+    int memberStart = 0;
+    while (memberStart < length) {
+      int delimiter = header.indexOf('=', memberStart);
+      int memberEnd = header.indexOf(',', delimiter);
+      if (memberEnd < 0) {
+        memberEnd = length;
+      }
+      entries.add(
+          Entry.create(
+              header.substring(memberStart, delimiter),
+              header.substring(delimiter + 1, memberEnd)));
+      memberStart = memberEnd + 1;
+    }
+    return Collections.unmodifiableList(entries);
+  }
+}
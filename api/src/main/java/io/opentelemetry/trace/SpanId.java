@@ -37,6 +37,8 @@ public final class SpanId implements Comparable<SpanId> {
 
   // The internal representation of the SpanId.
   private final long id;
+  // Encoded lazily, racing threads encode equal strings.
+  @Nullable private String lowerBase16;
 
   /**
    * Constructs a {@code SpanId} whose representation is specified by a long value.
@@ -150,9 +152,28 @@ public final class SpanId implements Comparable<SpanId> {
    * @since 0.1.0
    */
   public void copyLowerBase16To(char[] dest, int destOffset) {
+    String encoded = lowerBase16;
+    if (encoded != null) {
+      encoded.getChars(0, BASE16_SIZE, dest, destOffset);
+      return;
+    }
     BigendianEncoding.longToBase16String(id, dest, destOffset);
   }
 
+  /**
+   * Copies the lowercase base16 representations of the {@code SpanId} into the {@code dest} as
+   * ASCII characters, beginning at the {@code destOffset} offset.
+   *
+   * @param dest the destination buffer.
+   * @param destOffset the starting offset in the destination buffer.
+   * @throws IndexOutOfBoundsException if {@code destOffset + 2 * SpanId.getSize()} is greater than
+   *     {@code dest.length}.
+   * @since 0.5.0
+   */
+  public void copyLowerBase16To(byte[] dest, int destOffset) {
+    BigendianEncoding.longToBase16Ascii(id, dest, destOffset);
+  }
+
   /**
    * Returns whether the span identifier is valid. A valid span identifier is an 8-byte array with
    * at least one non-zero byte.
@@ -165,15 +186,21 @@ public final class SpanId implements Comparable<SpanId> {
   }
 
   /**
-   * Returns the lowercase base16 encoding of this {@code SpanId}.
+   * Returns the lowercase base16 encoding of this {@code SpanId}. The encoding is computed once and
+   * reused by the next calls.
    *
    * @return the lowercase base16 encoding of this {@code SpanId}.
    * @since 0.1.0
    */
   public String toLowerBase16() {
-    char[] chars = new char[BASE16_SIZE];
-    copyLowerBase16To(chars, 0);
-    return new String(chars);
+    String result = lowerBase16;
+    if (result == null) {
+      char[] chars = new char[BASE16_SIZE];
+      copyLowerBase16To(chars, 0);
+      result = new String(chars);
+      lowerBase16 = result;
+    }
+    return result;
   }
 
   @Override
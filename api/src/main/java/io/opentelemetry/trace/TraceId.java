@@ -38,6 +38,8 @@ public final class TraceId implements Comparable<TraceId> {
   // The internal representation of the TraceId.
   private final long idHi;
   private final long idLo;
+  // Encoded lazily, racing threads encode equal strings.
+  @Nullable private String lowerBase16;
 
   /**
    * Constructs a {@code TraceId} whose representation is specified by two long values representing
@@ -161,10 +163,30 @@ public final class TraceId implements Comparable<TraceId> {
    * @since 0.1.0
    */
   public void copyLowerBase16To(char[] dest, int destOffset) {
+    String encoded = lowerBase16;
+    if (encoded != null) {
+      encoded.getChars(0, BASE16_SIZE, dest, destOffset);
+      return;
+    }
     BigendianEncoding.longToBase16String(idHi, dest, destOffset);
     BigendianEncoding.longToBase16String(idLo, dest, destOffset + BASE16_SIZE / 2);
   }
 
+  /**
+   * Copies the lowercase base16 representations of the {@code TraceId} into the {@code dest} as
+   * ASCII characters, beginning at the {@code destOffset} offset.
+   *
+   * @param dest the destination buffer.
+   * @param destOffset the starting offset in the destination buffer.
+   * @throws IndexOutOfBoundsException if {@code destOffset + 2 * TraceId.getSize()} is greater than
+   *     {@code dest.length}.
+   * @since 0.5.0
+   */
+  public void copyLowerBase16To(byte[] dest, int destOffset) {
+    BigendianEncoding.longToBase16Ascii(idHi, dest, destOffset);
+    BigendianEncoding.longToBase16Ascii(idLo, dest, destOffset + BASE16_SIZE / 2);
+  }
+
   /**
    * Returns whether the {@code TraceId} is valid. A valid trace identifier is a 16-byte array with
    * at least one non-zero byte.
@@ -177,15 +199,21 @@ public final class TraceId implements Comparable<TraceId> {
   }
 
   /**
-   * Returns the lowercase base16 encoding of this {@code TraceId}.
+   * Returns the lowercase base16 encoding of this {@code TraceId}. The encoding is computed once
+   * and reused by the next calls.
    *
    * @return the lowercase base16 encoding of this {@code TraceId}.
    * @since 0.1.0
    */
   public String toLowerBase16() {
-    char[] chars = new char[BASE16_SIZE];
-    copyLowerBase16To(chars, 0);
-    return new String(chars);
+    String result = lowerBase16;
+    if (result == null) {
+      char[] chars = new char[BASE16_SIZE];
+      copyLowerBase16To(chars, 0);
+      result = new String(chars);
+      lowerBase16 = result;
+    }
+    return result;
   }
 
   @Override
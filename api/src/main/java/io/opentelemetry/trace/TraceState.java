@@ -44,6 +44,9 @@ public abstract class TraceState {
   private static final int KEY_MAX_SIZE = 256;
   private static final int VALUE_MAX_SIZE = 256;
   private static final int MAX_KEY_VALUE_PAIRS = 32;
+  private static final char KEY_VALUE_DELIMITER = '=';
+  private static final char LIST_MEMBER_DELIMITER = ',';
+  private static final int HEADER_INITIAL_CAPACITY = 128;
   private static final TraceState DEFAULT = TraceState.builder().build();
 
   /**
@@ -83,6 +86,56 @@ public abstract class TraceState {
    */
   public abstract List<Entry> getEntries();
 
+  /**
+   * Returns the value of the W3C {@code tracestate} header that encodes this {@code TraceState},
+   * the list-members in the order of {@link #getEntries()} separated by a comma. The value is empty
+   * if this {@code TraceState} has no entries.
+   *
+   * @return the value of the {@code tracestate} header that encodes this {@code TraceState}.
+   * @since 0.5.0
+   */
+  public String toHeader() {
+    List<Entry> entries = getEntries();
+    if (entries.isEmpty()) {
+      return "";
+    }
+    StringBuilder stringBuilder = new StringBuilder(HEADER_INITIAL_CAPACITY);
+    for (int i = 0; i < entries.size(); i++) {
+      Entry entry = entries.get(i);
+      if (i > 0) {
+        stringBuilder.append(LIST_MEMBER_DELIMITER);
+      }
+      stringBuilder.append(entry.getKey()).append(KEY_VALUE_DELIMITER).append(entry.getValue());
+    }
+    return stringBuilder.toString();
+  }
+
+  /**
+   * Returns the {@code TraceState} encoded in the given value of a W3C {@code tracestate} header.
+   *
+   * <p>A value in the canonical form, the one returned by {@link #toHeader()}, is only validated:
+   * the entries are decoded the first time they are accessed and {@link #toHeader()} returns the
+   * given value, so propagating the {@code TraceState} unchanged does not re-encode it. Other
+   * values, with optional whitespace, empty list-members or duplicate keys, are decoded immediately
+   * and the first list-member of a duplicate key wins.
+   *
+   * @param header the value of the {@code tracestate} header.
+   * @return the {@code TraceState} encoded in the header, the default {@code TraceState} if the
+   *     header is empty.
+   * @throws IllegalArgumentException if the header is not a valid {@code tracestate} value.
+   * @since 0.5.0
+   */
+  public static TraceState fromHeader(String header) {
+    Utils.checkNotNull(header, "header");
+    if (header.isEmpty()) {
+      return getDefault();
+    }
+    if (isCanonicalHeader(header)) {
+      return new HeaderTraceState(header);
+    }
+    return parseHeader(header);
+  }
+
   /**
    * Returns a {@code Builder} based on an empty {@code TraceState}.
    *
@@ -260,7 +313,9 @@ public abstract class TraceState {
   // Value is opaque string up to 256 characters printable ASCII RFC0020 characters (i.e., the range
   // 0x20 to 0x7E) except comma , and =.
   private static boolean validateValue(String value) {
-    if (value.length() > VALUE_MAX_SIZE || value.charAt(value.length() - 1) == ' ' /* '\u0020' */) {
+    if (value.isEmpty()
+        || value.length() > VALUE_MAX_SIZE
+        || value.charAt(value.length() - 1) == ' ' /* '\u0020' */) {
       return false;
     }
     for (int i = 0; i < value.length(); i++) {
@@ -272,6 +327,138 @@ public abstract class TraceState {
     return true;
   }
 
+  // Returns true if the header is made of valid list-members separated by a single comma, without
+  // whitespace around them, with unique keys and no more than MAX_KEY_VALUE_PAIRS list-members.
+  // Does not allocate.
+  private static boolean isCanonicalHeader(String header) {
+    int length = header.length();
+    int members = 0;
+    int keyStart = 0;
+    while (true) {
+      if (++members > MAX_KEY_VALUE_PAIRS) {
+        return false;
+      }
+      int keyEnd = scanKey(header, keyStart);
+      if (keyEnd < 0 || containsKey(header, keyStart, keyEnd)) {
+        return false;
+      }
+      int valueEnd = scanValue(header, keyEnd + 1);
+      if (valueEnd < 0) {
+        return false;
+      }
+      if (valueEnd == length) {
+        return true;
+      }
+      keyStart = valueEnd + 1;
+    }
+  }
+
+  // Returns the index of the '=' that ends the valid key starting at the given index, or -1.
+  private static int scanKey(String header, int start) {
+    int length = header.length();
+    if (start >= length || !isNumberOrDigit(header.charAt(start))) {
+      return -1;
+    }
+    int atSeenCount = 0;
+    for (int i = start + 1; i < length && i - start <= KEY_MAX_SIZE; i++) {
+      char c = header.charAt(i);
+      if (c == KEY_VALUE_DELIMITER) {
+        return i;
+      }
+      if (!isNumberOrDigit(c) && c != '_' && c != '-' && c != '@' && c != '*' && c != '/') {
+        return -1;
+      }
+      if ((c == '@') && (++atSeenCount > 1)) {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  // Returns the index of the ',' or the end of the header that ends the valid value starting at the
+  // given index, or -1.
+  private static int scanValue(String header, int start) {
+    int length = header.length();
+    int i = start;
+    for (; i < length; i++) {
+      char c = header.charAt(i);
+      if (c == LIST_MEMBER_DELIMITER) {
+        break;
+      }
+      if (c == KEY_VALUE_DELIMITER || c < ' ' /* '\u0020' */ || c > '~' /* '\u007E' */) {
+        return -1;
+      }
+    }
+    if (i == start || i - start > VALUE_MAX_SIZE || header.charAt(i - 1) == ' ') {
+      return -1;
+    }
+    return i;
+  }
+
+  // Returns true if one of the canonical list-members before keyStart has the same key.
+  private static boolean containsKey(String header, int keyStart, int keyEnd) {
+    int keyLength = keyEnd - keyStart;
+    int memberStart = 0;
+    while (memberStart < keyStart) {
+      int delimiter = header.indexOf(KEY_VALUE_DELIMITER, memberStart);
+      if (delimiter - memberStart == keyLength
+          && header.regionMatches(memberStart, header, keyStart, keyLength)) {
+        return true;
+      }
+      memberStart = header.indexOf(LIST_MEMBER_DELIMITER, delimiter) + 1;
+    }
+    return false;
+  }
+
+  // Decodes a header that is not canonical, trimming the whitespace around the list-members and
+  // skipping the empty ones.
+  private static TraceState parseHeader(String header) {
+    List<Entry> entries = new ArrayList<>();
+    int length = header.length();
+    int memberStart = 0;
+    while (memberStart <= length) {
+      int memberEnd = header.indexOf(LIST_MEMBER_DELIMITER, memberStart);
+      if (memberEnd < 0) {
+        memberEnd = length;
+      }
+      int start = memberStart;
+      int end = memberEnd;
+      while (start < end && isWhitespace(header.charAt(start))) {
+        start++;
+      }
+      while (end > start && isWhitespace(header.charAt(end - 1))) {
+        end--;
+      }
+      if (start < end) {
+        int delimiter = header.indexOf(KEY_VALUE_DELIMITER, start);
+        Utils.checkArgument(
+            delimiter >= 0 && delimiter < end, "Invalid TraceState list-member format.");
+        Entry entry =
+            Entry.create(header.substring(start, delimiter), header.substring(delimiter + 1, end));
+        if (!hasEntry(entries, entry.getKey())) {
+          entries.add(entry);
+        }
+      }
+      memberStart = memberEnd + 1;
+    }
+    Utils.checkArgument(entries.size() <= MAX_KEY_VALUE_PAIRS, "TraceState has too many elements.");
+    return entries.isEmpty() ? getDefault() : create(entries);
+  }
+
+  private static boolean hasEntry(List<Entry> entries, String key) {
+    for (Entry entry : entries) {
+      if (entry.getKey().equals(key)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // The optional whitespace allowed around the list-members.
+  private static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t';
+  }
+
   private static TraceState create(List<Entry> entries) {
     Utils.checkState(entries.size() <= MAX_KEY_VALUE_PAIRS, "Invalid size");
     return new AutoValue_TraceState(Collections.unmodifiableList(entries));
@@ -16,7 +16,6 @@
 
 package io.opentelemetry.trace.propagation;
 
-import static io.opentelemetry.internal.Utils.checkArgument;
 import static io.opentelemetry.internal.Utils.checkNotNull;
 
 import io.grpc.Context;
@@ -33,7 +32,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
 /**
@@ -63,12 +62,6 @@ public class HttpTraceContext implements HttpTextFormat {
   private static final int TRACE_OPTION_OFFSET =
       SPAN_ID_OFFSET + SPAN_ID_HEX_SIZE + TRACEPARENT_DELIMITER_SIZE;
   private static final int TRACEPARENT_HEADER_SIZE = TRACE_OPTION_OFFSET + TRACE_OPTION_HEX_SIZE;
-  private static final int TRACESTATE_MAX_SIZE = 512;
-  private static final int TRACESTATE_MAX_MEMBERS = 32;
-  private static final char TRACESTATE_KEY_VALUE_DELIMITER = '=';
-  private static final char TRACESTATE_ENTRY_DELIMITER = ',';
-  private static final Pattern TRACESTATE_ENTRY_DELIMITER_SPLIT_PATTERN =
-      Pattern.compile("[ \t]*" + TRACESTATE_ENTRY_DELIMITER + "[ \t]*");
 
   @Override
   public List<String> fields() {
@@ -89,6 +82,16 @@ public class HttpTraceContext implements HttpTextFormat {
   }
 
   private static <C> void injectImpl(SpanContext spanContext, C carrier, Setter<C> setter) {
+    setter.set(carrier, TRACE_PARENT, encodeTraceParent(spanContext));
+    String traceStateHeader = spanContext.getTraceState().toHeader();
+    if (traceStateHeader.isEmpty()) {
+      // No need to add an empty "tracestate" header.
+      return;
+    }
+    setter.set(carrier, TRACE_STATE, traceStateHeader);
+  }
+
+  private static String encodeTraceParent(SpanContext spanContext) {
     char[] chars = new char[TRACEPARENT_HEADER_SIZE];
     chars[0] = VERSION.charAt(0);
     chars[1] = VERSION.charAt(1);
@@ -98,23 +101,7 @@ public class HttpTraceContext implements HttpTextFormat {
     spanContext.getSpanId().copyLowerBase16To(chars, SPAN_ID_OFFSET);
     chars[TRACE_OPTION_OFFSET - 1] = TRACEPARENT_DELIMITER;
     spanContext.getTraceFlags().copyLowerBase16To(chars, TRACE_OPTION_OFFSET);
-    setter.set(carrier, TRACE_PARENT, new String(chars));
-    List<TraceState.Entry> entries = spanContext.getTraceState().getEntries();
-    if (entries.isEmpty()) {
-      // No need to add an empty "tracestate" header.
-      return;
-    }
-    StringBuilder stringBuilder = new StringBuilder(TRACESTATE_MAX_SIZE);
-    for (TraceState.Entry entry : entries) {
-      if (stringBuilder.length() != 0) {
-        stringBuilder.append(TRACESTATE_ENTRY_DELIMITER);
-      }
-      stringBuilder
-          .append(entry.getKey())
-          .append(TRACESTATE_KEY_VALUE_DELIMITER)
-          .append(entry.getValue());
-    }
-    setter.set(carrier, TRACE_STATE, stringBuilder.toString());
+    return new String(chars);
   }
 
   @Override
@@ -134,68 +121,48 @@ public class HttpTraceContext implements HttpTextFormat {
       return SpanContext.getInvalid();
     }
 
-    SpanContext contextFromParentHeader = extractContextFromTraceParent(traceParent);
-    if (!contextFromParentHeader.isValid()) {
-      return contextFromParentHeader;
-    }
-
-    String traceStateHeader = getter.get(carrier, TRACE_STATE);
-    if (traceStateHeader == null || traceStateHeader.isEmpty()) {
-      return contextFromParentHeader;
-    }
-
-    try {
-      TraceState traceState = extractTraceState(traceStateHeader);
-      return SpanContext.createFromRemoteParent(
-          contextFromParentHeader.getTraceId(),
-          contextFromParentHeader.getSpanId(),
-          contextFromParentHeader.getTraceFlags(),
-          traceState);
-    } catch (IllegalArgumentException e) {
-      logger.info("Unparseable tracestate header. Returning span context without state.");
-      return contextFromParentHeader;
-    }
-  }
-
-  private static SpanContext extractContextFromTraceParent(String traceparent) {
     // TODO(bdrutu): Do we need to verify that version is hex and that
     // for the version the length is the expected one?
     boolean isValid =
-        (traceparent.length() == TRACEPARENT_HEADER_SIZE
-                || (traceparent.length() > TRACEPARENT_HEADER_SIZE
-                    && traceparent.charAt(TRACEPARENT_HEADER_SIZE) == TRACEPARENT_DELIMITER))
-            && traceparent.charAt(TRACE_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
-            && traceparent.charAt(SPAN_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
-            && traceparent.charAt(TRACE_OPTION_OFFSET - 1) == TRACEPARENT_DELIMITER;
+        (traceParent.length() == TRACEPARENT_HEADER_SIZE
+                || (traceParent.length() > TRACEPARENT_HEADER_SIZE
+                    && traceParent.charAt(TRACEPARENT_HEADER_SIZE) == TRACEPARENT_DELIMITER))
+            && traceParent.charAt(TRACE_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
+            && traceParent.charAt(SPAN_ID_OFFSET - 1) == TRACEPARENT_DELIMITER
+            && traceParent.charAt(TRACE_OPTION_OFFSET - 1) == TRACEPARENT_DELIMITER;
     if (!isValid) {
       logger.info("Unparseable traceparent header. Returning INVALID span context.");
       return SpanContext.getInvalid();
     }
 
+    TraceId traceId;
+    SpanId spanId;
+    TraceFlags traceFlags;
     try {
-      TraceId traceId = TraceId.fromLowerBase16(traceparent, TRACE_ID_OFFSET);
-      SpanId spanId = SpanId.fromLowerBase16(traceparent, SPAN_ID_OFFSET);
-      TraceFlags traceFlags = TraceFlags.fromLowerBase16(traceparent, TRACE_OPTION_OFFSET);
-      return SpanContext.createFromRemoteParent(traceId, spanId, traceFlags, TRACE_STATE_DEFAULT);
+      traceId = TraceId.fromLowerBase16(traceParent, TRACE_ID_OFFSET);
+      spanId = SpanId.fromLowerBase16(traceParent, SPAN_ID_OFFSET);
+      traceFlags = TraceFlags.fromLowerBase16(traceParent, TRACE_OPTION_OFFSET);
     } catch (IllegalArgumentException e) {
       logger.info("Unparseable traceparent header. Returning INVALID span context.");
       return SpanContext.getInvalid();
     }
+    // The span context is only created once the trace state is known.
+    TraceState traceState =
+        traceId.isValid() && spanId.isValid()
+            ? extractTraceState(getter.get(carrier, TRACE_STATE))
+            : TRACE_STATE_DEFAULT;
+    return SpanContext.createFromRemoteParent(traceId, spanId, traceFlags, traceState);
   }
 
-  private static TraceState extractTraceState(String traceStateHeader) {
-    TraceState.Builder traceStateBuilder = TraceState.builder();
-    String[] listMembers = TRACESTATE_ENTRY_DELIMITER_SPLIT_PATTERN.split(traceStateHeader);
-    checkArgument(
-        listMembers.length <= TRACESTATE_MAX_MEMBERS, "TraceState has too many elements.");
-    // Iterate in reverse order because when call builder set the elements is added in the
-    // front of the list.
-    for (int i = listMembers.length - 1; i >= 0; i--) {
-      String listMember = listMembers[i];
-      int index = listMember.indexOf(TRACESTATE_KEY_VALUE_DELIMITER);
-      checkArgument(index != -1, "Invalid TraceState list-member format.");
-      traceStateBuilder.set(listMember.substring(0, index), listMember.substring(index + 1));
+  private static TraceState extractTraceState(@Nullable String traceStateHeader) {
+    if (traceStateHeader == null || traceStateHeader.isEmpty()) {
+      return TRACE_STATE_DEFAULT;
+    }
+    try {
+      return TraceState.fromHeader(traceStateHeader);
+    } catch (IllegalArgumentException e) {
+      logger.info("Unparseable tracestate header. Returning span context without state.");
+      return TRACE_STATE_DEFAULT;
     }
-    return traceStateBuilder.build();
   }
 }
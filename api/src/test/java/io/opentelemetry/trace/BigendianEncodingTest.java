@@ -19,6 +19,7 @@ package io.opentelemetry.trace;
 import static com.google.common.truth.Truth.assertThat;
 
 import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -137,6 +138,16 @@ public class BigendianEncodingTest {
     assertThat(chars3).isEqualTo(BOTH_CHAR_ARRAY);
   }
 
+  @Test
+  public void longToBase16Ascii() {
+    byte[] bytes = new byte[2 * BigendianEncoding.LONG_BASE16 + 1];
+    BigendianEncoding.longToBase16Ascii(FIRST_LONG, bytes, 1);
+    BigendianEncoding.longToBase16Ascii(SECOND_LONG, bytes, 1 + BigendianEncoding.LONG_BASE16);
+    assertThat(new String(bytes, 1, 2 * BigendianEncoding.LONG_BASE16, StandardCharsets.US_ASCII))
+        .isEqualTo(new String(BOTH_CHAR_ARRAY));
+    assertThat(bytes[0]).isEqualTo((byte) 0);
+  }
+
   @Test
   public void longFromBase16String_InputTooSmall() {
     // Valid base16 strings always have an even length.
@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.testing.EqualsTester;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -61,6 +62,23 @@ public class SpanIdTest {
     assertThat(second.toLowerBase16()).isEqualTo("ff00000000000041");
   }
 
+  @Test
+  public void toLowerBase16_Cached() {
+    SpanId id = SpanId.fromLowerBase16("ff00000000000041", 0);
+    assertThat(id.toLowerBase16()).isSameInstanceAs(id.toLowerBase16());
+    char[] chars = new char[2 * SpanId.getSize()];
+    id.copyLowerBase16To(chars, 0);
+    assertThat(new String(chars)).isEqualTo("ff00000000000041");
+  }
+
+  @Test
+  public void copyLowerBase16To_Bytes() {
+    byte[] bytes = new byte[2 * SpanId.getSize() + 1];
+    second.copyLowerBase16To(bytes, 1);
+    assertThat(new String(bytes, 1, 2 * SpanId.getSize(), StandardCharsets.US_ASCII))
+        .isEqualTo("ff00000000000041");
+  }
+
   @Test
   public void spanId_CompareTo() {
     assertThat(first.compareTo(second)).isGreaterThan(0);
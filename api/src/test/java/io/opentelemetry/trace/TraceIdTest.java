@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.common.testing.EqualsTester;
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -106,6 +107,23 @@ public class TraceIdTest {
     assertThat(second.toLowerBase16()).isEqualTo("ff000000000000000000000000000041");
   }
 
+  @Test
+  public void toLowerBase16_Cached() {
+    TraceId id = TraceId.fromLowerBase16("ff000000000000000000000000000041", 0);
+    assertThat(id.toLowerBase16()).isSameInstanceAs(id.toLowerBase16());
+    char[] chars = new char[2 * TraceId.getSize()];
+    id.copyLowerBase16To(chars, 0);
+    assertThat(new String(chars)).isEqualTo("ff000000000000000000000000000041");
+  }
+
+  @Test
+  public void copyLowerBase16To_Bytes() {
+    byte[] bytes = new byte[2 * TraceId.getSize() + 1];
+    second.copyLowerBase16To(bytes, 1);
+    assertThat(new String(bytes, 1, 2 * TraceId.getSize(), StandardCharsets.US_ASCII))
+        .isEqualTo("ff000000000000000000000000000041");
+  }
+
   @Test
   public void traceId_CompareTo() {
     assertThat(first.compareTo(second)).isGreaterThan(0);
@@ -250,4 +250,83 @@ public class TraceStateTest {
   public void traceState_ToString() {
     assertThat(EMPTY.toString()).isEqualTo("TraceState{entries=[]}");
   }
+
+  @Test
+  public void toHeader() {
+    assertThat(EMPTY.toHeader()).isEmpty();
+    assertThat(firstTraceState.toHeader()).isEqualTo("key_1=value.1");
+    assertThat(multiValueTraceState.toHeader()).isEqualTo("key_2=value.2,key_1=value.1");
+  }
+
+  @Test
+  public void fromHeader_Canonical() {
+    TraceState traceState = TraceState.fromHeader("key_2=value.2,key_1=value.1");
+    assertThat(traceState.get(FIRST_KEY)).isEqualTo(FIRST_VALUE);
+    assertThat(traceState.get(SECOND_KEY)).isEqualTo(SECOND_VALUE);
+    assertThat(traceState.get("key")).isNull();
+    assertThat(traceState.toHeader()).isSameInstanceAs(traceState.toHeader());
+    assertThat(traceState.toHeader()).isEqualTo("key_2=value.2,key_1=value.1");
+    assertThat(traceState.getEntries())
+        .containsExactly(
+            Entry.create(SECOND_KEY, SECOND_VALUE), Entry.create(FIRST_KEY, FIRST_VALUE))
+        .inOrder();
+    assertThat(traceState.toBuilder().remove(SECOND_KEY).build()).isEqualTo(firstTraceState);
+  }
+
+  @Test
+  public void fromHeader_NotCanonical() {
+    assertThat(TraceState.fromHeader(" key_2=value.2 ,\tkey_1=value.1,,"))
+        .isEqualTo(multiValueTraceState);
+    // The first list-member of a duplicate key wins.
+    assertThat(TraceState.fromHeader("key_2=value.2,key_1=value.1,key_2=other"))
+        .isEqualTo(multiValueTraceState);
+    assertThat(TraceState.fromHeader(" , ")).isSameInstanceAs(EMPTY);
+  }
+
+  @Test
+  public void fromHeader_Empty() {
+    assertThat(TraceState.fromHeader("")).isSameInstanceAs(TraceState.getDefault());
+  }
+
+  @Test
+  public void fromHeader_InvalidListMember() {
+    thrown.expect(IllegalArgumentException.class);
+    TraceState.fromHeader("key_1=value.1,key_2");
+  }
+
+  @Test
+  public void fromHeader_InvalidKey() {
+    thrown.expect(IllegalArgumentException.class);
+    TraceState.fromHeader("key_1=value.1,$key=value");
+  }
+
+  @Test
+  public void fromHeader_EmptyValue() {
+    thrown.expect(IllegalArgumentException.class);
+    TraceState.fromHeader("key_1=");
+  }
+
+  @Test
+  public void fromHeader_TooManyListMembers() {
+    StringBuilder header = new StringBuilder();
+    for (int i = 0; i < 33; i++) {
+      header.append(i == 0 ? "" : ",").append("key").append(i).append("=value");
+    }
+    thrown.expect(IllegalArgumentException.class);
+    TraceState.fromHeader(header.toString());
+  }
+
+  @Test
+  public void fromHeader_EqualsAndHashCode() {
+    new EqualsTester()
+        .addEqualityGroup(
+            multiValueTraceState,
+            TraceState.fromHeader("key_2=value.2,key_1=value.1"),
+            TraceState.fromHeader("key_2=value.2, key_1=value.1"))
+        .addEqualityGroup(firstTraceState, TraceState.fromHeader("key_1=value.1"))
+        .addEqualityGroup(TraceState.fromHeader("key_1=value.1,key_2=value.2"))
+        .testEquals();
+    assertThat(TraceState.fromHeader("key_1=value.1").toString())
+        .isEqualTo(firstTraceState.toString());
+  }
 }
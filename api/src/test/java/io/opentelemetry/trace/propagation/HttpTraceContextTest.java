@@ -346,4 +346,38 @@ public class HttpTraceContextTest {
     assertThat(getSpanContext(httpTraceContext.extract(Context.current(), emptyHeaders, getter)))
         .isSameInstanceAs(SpanContext.getInvalid());
   }
+
+  @Test
+  public void extract_ReinjectsTraceStateHeader() {
+    Map<String, String> carrier = new HashMap<>();
+    carrier.put(TRACE_PARENT, TRACEPARENT_HEADER_SAMPLED);
+    carrier.put(TRACE_STATE, TRACESTATE_NOT_DEFAULT_ENCODING);
+    SpanContext spanContext =
+        getSpanContext(httpTraceContext.extract(Context.current(), carrier, getter));
+    assertThat(spanContext.getTraceState()).isEqualTo(TRACE_STATE_NOT_DEFAULT);
+    Map<String, String> injected = new LinkedHashMap<>();
+    httpTraceContext.inject(withSpanContext(spanContext, Context.current()), injected, setter);
+    assertThat(injected.get(TRACE_STATE)).isSameInstanceAs(carrier.get(TRACE_STATE));
+  }
+
+  @Test
+  public void inject_SameContextTwice() {
+    Context context =
+        withSpanContext(
+            SpanContext.create(TRACE_ID, SPAN_ID, SAMPLED_TRACE_OPTIONS, TRACE_STATE_NOT_DEFAULT),
+            Context.current());
+    Map<String, String> first = new LinkedHashMap<>();
+    httpTraceContext.inject(context, first, setter);
+    Map<String, String> second = new LinkedHashMap<>();
+    httpTraceContext.inject(context, second, setter);
+    assertThat(second).containsExactlyEntriesIn(first);
+    Map<String, String> other = new LinkedHashMap<>();
+    httpTraceContext.inject(
+        withSpanContext(
+            SpanContext.create(TRACE_ID, SPAN_ID, TraceFlags.getDefault(), TRACE_STATE_DEFAULT),
+            Context.current()),
+        other,
+        setter);
+    assertThat(other).containsExactly(TRACE_PARENT, TRACEPARENT_HEADER_NOT_SAMPLED);
+  }
 }
@@ -18,24 +18,31 @@ package io.opentelemetry.exporters.jaeger;
 
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.grpc.stub.StreamObserver;
 import io.opentelemetry.exporters.jaeger.proto.api_v2.Collector;
 import io.opentelemetry.exporters.jaeger.proto.api_v2.CollectorServiceGrpc;
 import io.opentelemetry.exporters.jaeger.proto.api_v2.Model;
 import io.opentelemetry.sdk.trace.TracerSdkProvider;
 import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.AsyncSpanExporter;
 import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
-import io.opentelemetry.sdk.trace.export.SpanExporter;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.concurrent.ThreadSafe;
 
-/** Exports spans to Jaeger via gRPC, using Jaeger's protobuf model. */
+/**
+ * Exports spans to Jaeger via gRPC, using Jaeger's protobuf model.
+ *
+ * <p>The exporter also implements {@link AsyncSpanExporter}, so several batches can be in flight on
+ * the same channel without holding a thread each.
+ */
 @ThreadSafe
-public final class JaegerGrpcSpanExporter implements SpanExporter {
+public final class JaegerGrpcSpanExporter implements AsyncSpanExporter {
   private static final Logger logger = Logger.getLogger(JaegerGrpcSpanExporter.class.getName());
   private static final String JAEGER_SERVICE_NAME = "JAEGER_SERVICE_NAME";
   private static final String JAEGER_ENDPOINT = "JAEGER_ENDPOINT";
@@ -48,6 +55,7 @@ public final class JaegerGrpcSpanExporter implements SpanExporter {
   private static final String IP_DEFAULT = "0.0.0.0";
 
   private final CollectorServiceGrpc.CollectorServiceBlockingStub blockingStub;
+  private final CollectorServiceGrpc.CollectorServiceStub asyncStub;
   private final Model.Process process;
   private final ManagedChannel managedChannel;
   private final long deadlineMs;
@@ -97,6 +105,7 @@ public final class JaegerGrpcSpanExporter implements SpanExporter {
 
     this.managedChannel = channel;
     this.blockingStub = CollectorServiceGrpc.newBlockingStub(channel);
+    this.asyncStub = CollectorServiceGrpc.newStub(channel);
     this.deadlineMs = deadlineMs;
   }
 
@@ -108,14 +117,7 @@ public final class JaegerGrpcSpanExporter implements SpanExporter {
    */
   @Override
   public ResultCode export(Collection<SpanData> spans) {
-    Collector.PostSpansRequest request =
-        Collector.PostSpansRequest.newBuilder()
-            .setBatch(
-                Model.Batch.newBuilder()
-                    .addAllSpans(Adapter.toJaeger(spans))
-                    .setProcess(this.process)
-                    .build())
-            .build();
+    Collector.PostSpansRequest request = toPostSpansRequest(spans);
 
     try {
       CollectorServiceGrpc.CollectorServiceBlockingStub stub = this.blockingStub;
@@ -132,6 +134,39 @@ public final class JaegerGrpcSpanExporter implements SpanExporter {
     }
   }
 
+  /**
+   * Submits all the given spans in a single batch to the Jaeger collector, without waiting for the
+   * response.
+   *
+   * @param spans the list of sampled Spans to be exported.
+   * @param callback called with the result of the operation.
+   * @since 0.5.0
+   */
+  @Override
+  public void exportAsync(Collection<SpanData> spans, ExportCallback callback) {
+    PostSpansObserver observer = new PostSpansObserver(callback);
+    try {
+      Collector.PostSpansRequest request = toPostSpansRequest(spans);
+      CollectorServiceGrpc.CollectorServiceStub stub = this.asyncStub;
+      if (deadlineMs > 0) {
+        stub = stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS);
+      }
+      stub.postSpans(request, observer);
+    } catch (Throwable e) {
+      observer.onError(e);
+    }
+  }
+
+  private Collector.PostSpansRequest toPostSpansRequest(Collection<SpanData> spans) {
+    return Collector.PostSpansRequest.newBuilder()
+        .setBatch(
+            Model.Batch.newBuilder()
+                .addAllSpans(Adapter.toJaeger(spans))
+                .setProcess(this.process)
+                .build())
+        .build();
+  }
+
   /**
    * The Jaeger exporter does not batch spans, so this method will immediately return with success.
    *
@@ -164,6 +199,38 @@ public final class JaegerGrpcSpanExporter implements SpanExporter {
     }
   }
 
+  // Reports the end of an asynchronous export to its callback, exactly once.
+  private static final class PostSpansObserver
+      implements StreamObserver<Collector.PostSpansResponse> {
+    private final ExportCallback callback;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private PostSpansObserver(ExportCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void onNext(Collector.PostSpansResponse response) {
+      // for now, there's nothing to check in the response object
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      complete(ResultCode.FAILURE);
+    }
+
+    @Override
+    public void onCompleted() {
+      complete(ResultCode.SUCCESS);
+    }
+
+    private void complete(ResultCode resultCode) {
+      if (done.compareAndSet(false, true)) {
+        callback.onComplete(resultCode);
+      }
+    }
+  }
+
   /** Builder utility for this exporter. */
   public static class Builder {
     private String serviceName;
@@ -35,13 +35,17 @@ import io.opentelemetry.sdk.contrib.otproto.TraceProtoUtils;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.data.SpanData.Link;
 import io.opentelemetry.sdk.trace.data.SpanDataImpl;
+import io.opentelemetry.sdk.trace.export.AsyncSpanExporter.ExportCallback;
+import io.opentelemetry.sdk.trace.export.SpanExporter.ResultCode;
 import io.opentelemetry.trace.Span.Kind;
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.TraceId;
 import java.net.InetAddress;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -143,6 +147,66 @@ public class JaegerGrpcSpanExporterTest {
     assertTrue("a hostname tag should have been present", foundHostname);
   }
 
+  @Test
+  public void testExportAsync() throws Exception {
+    String serverName = InProcessServerBuilder.generateName();
+    ArgumentCaptor<PostSpansRequest> requestCaptor =
+        ArgumentCaptor.forClass(Collector.PostSpansRequest.class);
+
+    grpcCleanup.register(
+        InProcessServerBuilder.forName(serverName)
+            .directExecutor()
+            .addService(service)
+            .build()
+            .start());
+
+    ManagedChannel channel =
+        grpcCleanup.register(InProcessChannelBuilder.forName(serverName).directExecutor().build());
+
+    long startMs = System.currentTimeMillis();
+    SpanData span =
+        SpanDataImpl.newBuilder()
+            .setHasEnded(true)
+            .setTraceId(TraceId.fromLowerBase16(TRACE_ID, 0))
+            .setSpanId(SpanId.fromLowerBase16(SPAN_ID, 0))
+            .setName("GET /api/endpoint")
+            .setStartEpochNanos(TimeUnit.MILLISECONDS.toNanos(startMs))
+            .setEndEpochNanos(TimeUnit.MILLISECONDS.toNanos(startMs + 900))
+            .setStatus(Status.OK)
+            .setKind(Kind.CONSUMER)
+            .setLinks(Collections.<Link>emptyList())
+            .setTotalRecordedLinks(0)
+            .setTotalRecordedEvents(0)
+            .build();
+
+    // test
+    JaegerGrpcSpanExporter exporter =
+        JaegerGrpcSpanExporter.newBuilder().setServiceName("test").setChannel(channel).build();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicReference<ResultCode> result = new AtomicReference<>();
+    exporter.exportAsync(
+        Collections.singletonList(span),
+        new ExportCallback() {
+          @Override
+          public void onComplete(ResultCode resultCode) {
+            result.set(resultCode);
+            latch.countDown();
+          }
+        });
+
+    // verify
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+    assertEquals(ResultCode.SUCCESS, result.get());
+    verify(service)
+        .postSpans(
+            requestCaptor.capture(),
+            ArgumentMatchers.<StreamObserver<Collector.PostSpansResponse>>any());
+    Model.Batch batch = requestCaptor.getValue().getBatch();
+    assertEquals(1, batch.getSpansCount());
+    assertEquals("GET /api/endpoint", batch.getSpans(0).getOperationName());
+    assertEquals("test", batch.getProcess().getServiceName());
+  }
+
   static class MockCollectorService extends CollectorServiceGrpc.CollectorServiceImplBase {
     @Override
     public void postSpans(
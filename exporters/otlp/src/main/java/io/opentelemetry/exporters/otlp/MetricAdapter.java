@@ -18,6 +18,8 @@ package io.opentelemetry.exporters.otlp;
 
 import io.opentelemetry.proto.common.v1.StringKeyValue;
 import io.opentelemetry.proto.metrics.v1.DoubleDataPoint;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint.Bucket;
 import io.opentelemetry.proto.metrics.v1.InstrumentationLibraryMetrics;
 import io.opentelemetry.proto.metrics.v1.Int64DataPoint;
 import io.opentelemetry.proto.metrics.v1.Metric;
@@ -30,9 +32,11 @@ import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
 import io.opentelemetry.sdk.metrics.data.MetricData.DoublePoint;
+import io.opentelemetry.sdk.metrics.data.MetricData.HistogramPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.LongPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
 import io.opentelemetry.sdk.resources.Resource;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -43,41 +47,29 @@ import java.util.Map;
 
 final class MetricAdapter {
   static List<ResourceMetrics> toProtoResourceMetrics(Collection<MetricData> metricData) {
-    Map<Resource, Map<InstrumentationLibraryInfo, List<Metric>>> resourceAndLibraryMap =
-        groupByResourceAndLibrary(metricData);
-    List<ResourceMetrics> resourceMetrics = new ArrayList<>(resourceAndLibraryMap.size());
-    for (Map.Entry<Resource, Map<InstrumentationLibraryInfo, List<Metric>>> entryResource :
-        resourceAndLibraryMap.entrySet()) {
-      List<InstrumentationLibraryMetrics> instrumentationLibraryMetrics =
-          new ArrayList<>(entryResource.getValue().size());
-      for (Map.Entry<InstrumentationLibraryInfo, List<Metric>> entryLibrary :
-          entryResource.getValue().entrySet()) {
-        instrumentationLibraryMetrics.add(
-            InstrumentationLibraryMetrics.newBuilder()
-                .setInstrumentationLibrary(
-                    CommonAdapter.toProtoInstrumentationLibrary(entryLibrary.getKey()))
-                .addAllMetrics(entryLibrary.getValue())
-                .build());
-      }
-      resourceMetrics.add(
-          ResourceMetrics.newBuilder()
-              .setResource(ResourceAdapter.toProtoResource(entryResource.getKey()))
-              .addAllInstrumentationLibraryMetrics(instrumentationLibraryMetrics)
-              .build());
+    ResourceMetricsSink sink = new ResourceMetricsSink();
+    for (MetricData metric : metricData) {
+      sink.accept(metric);
     }
-    return resourceMetrics;
+    return sink.toProtoResourceMetrics();
   }
 
-  private static Map<Resource, Map<InstrumentationLibraryInfo, List<Metric>>>
-      groupByResourceAndLibrary(Collection<MetricData> metricDataList) {
-    Map<Resource, Map<InstrumentationLibraryInfo, List<Metric>>> result = new HashMap<>();
-    for (MetricData metricData : metricDataList) {
+  /**
+   * A {@link MetricSink} that converts every {@link MetricData} to its proto as soon as it is
+   * added, so the {@code MetricData} can be released while the remaining metrics are collected.
+   */
+  static final class ResourceMetricsSink implements MetricSink {
+    private final Map<Resource, Map<InstrumentationLibraryInfo, List<Metric>>>
+        resourceAndLibraryMap = new HashMap<>();
+
+    @Override
+    public void accept(MetricData metricData) {
       Resource resource = metricData.getResource();
       Map<InstrumentationLibraryInfo, List<Metric>> libraryInfoListMap =
-          result.get(metricData.getResource());
+          resourceAndLibraryMap.get(resource);
       if (libraryInfoListMap == null) {
         libraryInfoListMap = new HashMap<>();
-        result.put(resource, libraryInfoListMap);
+        resourceAndLibraryMap.put(resource, libraryInfoListMap);
       }
       List<Metric> metricList = libraryInfoListMap.get(metricData.getInstrumentationLibraryInfo());
       if (metricList == null) {
@@ -86,7 +78,30 @@ final class MetricAdapter {
       }
       metricList.add(toProtoMetric(metricData));
     }
-    return result;
+
+    List<ResourceMetrics> toProtoResourceMetrics() {
+      List<ResourceMetrics> resourceMetrics = new ArrayList<>(resourceAndLibraryMap.size());
+      for (Map.Entry<Resource, Map<InstrumentationLibraryInfo, List<Metric>>> entryResource :
+          resourceAndLibraryMap.entrySet()) {
+        List<InstrumentationLibraryMetrics> instrumentationLibraryMetrics =
+            new ArrayList<>(entryResource.getValue().size());
+        for (Map.Entry<InstrumentationLibraryInfo, List<Metric>> entryLibrary :
+            entryResource.getValue().entrySet()) {
+          instrumentationLibraryMetrics.add(
+              InstrumentationLibraryMetrics.newBuilder()
+                  .setInstrumentationLibrary(
+                      CommonAdapter.toProtoInstrumentationLibrary(entryLibrary.getKey()))
+                  .addAllMetrics(entryLibrary.getValue())
+                  .build());
+        }
+        resourceMetrics.add(
+            ResourceMetrics.newBuilder()
+                .setResource(ResourceAdapter.toProtoResource(entryResource.getKey()))
+                .addAllInstrumentationLibraryMetrics(instrumentationLibraryMetrics)
+                .build());
+      }
+      return resourceMetrics;
+    }
   }
 
   static Metric toProtoMetric(MetricData metricData) {
@@ -113,7 +128,7 @@ final class MetricAdapter {
         break;
       case GAUGE_HISTOGRAM:
       case CUMULATIVE_HISTOGRAM:
-        // TODO: Add support for histogram.
+        builder.addAllHistogramDataPoints(toHistogramDataPoints(metricData.getPoints()));
         break;
       case SUMMARY:
         builder.addAllSummaryDataPoints(toSummaryDataPoints(metricData.getPoints()));
@@ -198,6 +213,31 @@ final class MetricAdapter {
     return result;
   }
 
+  static Collection<HistogramDataPoint> toHistogramDataPoints(Collection<Point> points) {
+    List<HistogramDataPoint> result = new ArrayList<>(points.size());
+    for (Point point : points) {
+      HistogramPoint histogramPoint = (HistogramPoint) point;
+      HistogramDataPoint.Builder builder =
+          HistogramDataPoint.newBuilder()
+              .setStartTimeUnixNano(histogramPoint.getStartEpochNanos())
+              .setTimeUnixNano(histogramPoint.getEpochNanos())
+              .setCount(histogramPoint.getCount())
+              .setSum(histogramPoint.getSum())
+              .addAllExplicitBounds(histogramPoint.getBoundaries());
+      // Not calling directly addAllLabels because that generates couple of unnecessary allocations
+      // if empty list.
+      Collection<StringKeyValue> labels = toProtoLabels(histogramPoint.getLabels());
+      if (!labels.isEmpty()) {
+        builder.addAllLabels(labels);
+      }
+      for (Long count : histogramPoint.getCounts()) {
+        builder.addBuckets(Bucket.newBuilder().setCount(count).build());
+      }
+      result.add(builder.build());
+    }
+    return result;
+  }
+
   // TODO: Consider to pass the Builder and directly add values.
   @SuppressWarnings("MixedMutabilityReturnType")
   static List<ValueAtPercentile> toProtoValueAtPercentiles(
@@ -228,6 +268,8 @@ final class MetricAdapter {
         return Type.COUNTER_DOUBLE;
       case SUMMARY:
         return Type.SUMMARY;
+      case HISTOGRAM:
+        return Type.CUMULATIVE_HISTOGRAM;
     }
     return Type.UNSPECIFIED;
   }
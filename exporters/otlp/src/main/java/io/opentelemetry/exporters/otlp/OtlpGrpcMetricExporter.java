@@ -17,12 +17,17 @@
 package io.opentelemetry.exporters.otlp;
 
 import io.grpc.ManagedChannel;
+import io.opentelemetry.internal.Utils;
 import io.opentelemetry.proto.collector.metrics.v1.ExportMetricsServiceRequest;
 import io.opentelemetry.proto.collector.metrics.v1.MetricsServiceGrpc;
+import io.opentelemetry.proto.metrics.v1.ResourceMetrics;
 import io.opentelemetry.sdk.common.export.ConfigBuilder;
 import io.opentelemetry.sdk.metrics.data.MetricData;
-import io.opentelemetry.sdk.metrics.export.MetricExporter;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricExporter;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricProducer;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
@@ -42,6 +47,8 @@ import javax.annotation.concurrent.ThreadSafe;
  * <ul>
  *   <li>{@code otel.otlp.metric.timeout}: to set the max waiting time allowed to send each metric
  *       batch.
+ *   <li>{@code otel.otlp.metric.max.request.points}: to set the number of points above which the
+ *       metrics collected by a {@link StreamingMetricProducer} are sent in a new request.
  * </ul>
  *
  * <p>For environment variables, {@link OtlpGrpcMetricExporter} will look for the following names:
@@ -49,15 +56,18 @@ import javax.annotation.concurrent.ThreadSafe;
  * <ul>
  *   <li>{@code OTEL_OTLP_METRIC_TIMEOUT}: to set the max waiting time allowed to send each metric
  *       batch.
+ *   <li>{@code OTEL_OTLP_METRIC_MAX_REQUEST_POINTS}: to set the number of points above which the
+ *       metrics collected by a {@link StreamingMetricProducer} are sent in a new request.
  * </ul>
  */
 @ThreadSafe
-public final class OtlpGrpcMetricExporter implements MetricExporter {
+public final class OtlpGrpcMetricExporter implements StreamingMetricExporter {
   private static final Logger logger = Logger.getLogger(OtlpGrpcMetricExporter.class.getName());
 
   private final MetricsServiceGrpc.MetricsServiceBlockingStub blockingStub;
   private final ManagedChannel managedChannel;
   private final long deadlineMs;
+  private final int maxRequestPoints;
 
   /**
    * Creates a new OTLP gRPC Metric Reporter with the given name, using the given channel.
@@ -65,11 +75,14 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
    * @param channel the channel to use when communicating with the OpenTelemetry Collector.
    * @param deadlineMs max waiting time for the collector to process each metric batch. When set to
    *     0 or to a negative value, the exporter will wait indefinitely.
+   * @param maxRequestPoints the number of points above which the metrics of a {@link
+   *     StreamingMetricProducer} are sent in a new request.
    */
-  private OtlpGrpcMetricExporter(ManagedChannel channel, long deadlineMs) {
+  private OtlpGrpcMetricExporter(ManagedChannel channel, long deadlineMs, int maxRequestPoints) {
     this.managedChannel = channel;
     this.blockingStub = MetricsServiceGrpc.newBlockingStub(channel);
     this.deadlineMs = deadlineMs;
+    this.maxRequestPoints = maxRequestPoints;
   }
 
   /**
@@ -80,10 +93,30 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
    */
   @Override
   public ResultCode export(Collection<MetricData> metrics) {
+    return sendRequest(MetricAdapter.toProtoResourceMetrics(metrics));
+  }
+
+  /**
+   * Submits all the metrics of the given producer to the OpenTelemetry collector. The metrics are
+   * converted to protos while they are collected, and sent in a new request every time the
+   * converted metrics hold at least {@code maxRequestPoints} points, so the memory used by the
+   * export is bounded by {@code maxRequestPoints} plus the points of the largest metric. The
+   * deadline applies to each request.
+   *
+   * @param metricProducer the producer of the metrics to be exported.
+   * @return the result of the operation, a failure if any request failed.
+   * @since 0.5.0
+   */
+  @Override
+  public ResultCode export(StreamingMetricProducer metricProducer) {
+    RequestSink sink = new RequestSink();
+    metricProducer.collectAllMetrics(sink);
+    return sink.finish();
+  }
+
+  private ResultCode sendRequest(List<ResourceMetrics> resourceMetrics) {
     ExportMetricsServiceRequest exportMetricsServiceRequest =
-        ExportMetricsServiceRequest.newBuilder()
-            .addAllResourceMetrics(MetricAdapter.toProtoResourceMetrics(metrics))
-            .build();
+        ExportMetricsServiceRequest.newBuilder().addAllResourceMetrics(resourceMetrics).build();
 
     try {
       MetricsServiceGrpc.MetricsServiceBlockingStub stub = this.blockingStub;
@@ -100,6 +133,43 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
     }
   }
 
+  // Sends the converted metrics every time they hold at least maxRequestPoints points.
+  private final class RequestSink implements MetricSink {
+    private MetricAdapter.ResourceMetricsSink pending = new MetricAdapter.ResourceMetricsSink();
+    private int pendingMetrics;
+    private int pendingPoints;
+    private int sentRequests;
+    private ResultCode resultCode = ResultCode.SUCCESS;
+
+    @Override
+    public void accept(MetricData metricData) {
+      pending.accept(metricData);
+      pendingMetrics++;
+      pendingPoints += metricData.getPoints().size();
+      if (pendingPoints >= maxRequestPoints) {
+        send();
+      }
+    }
+
+    // Sends the last metrics, or an empty request if nothing was collected as export(Collection).
+    private ResultCode finish() {
+      if (pendingMetrics > 0 || sentRequests == 0) {
+        send();
+      }
+      return resultCode;
+    }
+
+    private void send() {
+      if (sendRequest(pending.toProtoResourceMetrics()) != ResultCode.SUCCESS) {
+        resultCode = ResultCode.FAILURE;
+      }
+      sentRequests++;
+      pending = new MetricAdapter.ResourceMetricsSink();
+      pendingMetrics = 0;
+      pendingPoints = 0;
+    }
+  }
+
   /**
    * The OTLP exporter does not batch metrics, so this method will immediately return with success.
    *
@@ -147,9 +217,14 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
   /** Builder utility for this exporter. */
   public static class Builder extends ConfigBuilder<Builder> {
     private static final String KEY_METRIC_TIMEOUT = "otel.otlp.metric.timeout";
+    private static final String KEY_MAX_REQUEST_POINTS = "otel.otlp.metric.max.request.points";
+    // Keeps the requests well below the default max size of the messages received by a gRPC
+    // server, 4 MiB, with the few hundred bytes of a point with its labels.
+    private static final int DEFAULT_MAX_REQUEST_POINTS = 8192;
 
     private ManagedChannel channel;
     private long deadlineMs = 1_000; // 1 second
+    private int maxRequestPoints = DEFAULT_MAX_REQUEST_POINTS;
 
     /**
      * Sets the managed chanel to use when communicating with the backend. Required.
@@ -173,13 +248,28 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
       return this;
     }
 
+    /**
+     * Sets the number of points above which the metrics collected by a {@link
+     * StreamingMetricProducer} are sent in a new request. Optional, the default is 8192.
+     *
+     * @param maxRequestPoints the number of points above which a new request is started.
+     * @return this builder's instance
+     * @throws IllegalArgumentException if {@code maxRequestPoints} is not positive.
+     * @since 0.5.0
+     */
+    public Builder setMaxRequestPoints(int maxRequestPoints) {
+      Utils.checkArgument(maxRequestPoints > 0, "maxRequestPoints must be positive.");
+      this.maxRequestPoints = maxRequestPoints;
+      return this;
+    }
+
     /**
      * Constructs a new instance of the exporter based on the builder's values.
      *
      * @return a new exporter's instance
      */
     public OtlpGrpcMetricExporter build() {
-      return new OtlpGrpcMetricExporter(channel, deadlineMs);
+      return new OtlpGrpcMetricExporter(channel, deadlineMs, maxRequestPoints);
     }
 
     private Builder() {}
@@ -198,6 +288,10 @@ public final class OtlpGrpcMetricExporter implements MetricExporter {
       if (value != null) {
         this.setDeadlineMs(value);
       }
+      Integer maxRequestPoints = getIntProperty(KEY_MAX_REQUEST_POINTS, configMap);
+      if (maxRequestPoints != null) {
+        this.setMaxRequestPoints(maxRequestPoints);
+      }
       return this;
     }
 
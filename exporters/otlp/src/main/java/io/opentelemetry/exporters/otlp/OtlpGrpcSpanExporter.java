@@ -16,18 +16,31 @@
 
 package io.opentelemetry.exporters.otlp;
 
+import io.grpc.CallOptions;
 import io.grpc.ManagedChannel;
-import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceResponse;
 import io.opentelemetry.proto.collector.trace.v1.TraceServiceGrpc;
 import io.opentelemetry.sdk.common.export.ConfigBuilder;
 import io.opentelemetry.sdk.trace.data.SpanData;
-import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.export.AsyncSpanExporter;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
@@ -42,6 +55,8 @@ import javax.annotation.concurrent.ThreadSafe;
  * <ul>
  *   <li>{@code otel.otlp.span.timeout}: to set the max waiting time allowed to send each span
  *       batch.
+ *   <li>{@code otel.otlp.span.compression}: to set the name of the compressor of the requests.
+ *   <li>{@code otel.otlp.span.max.request.size}: to set the max size in bytes of each request.
  * </ul>
  *
  * <p>For environment variables, {@link OtlpGrpcSpanExporter} will look for the following names:
@@ -49,15 +64,36 @@ import javax.annotation.concurrent.ThreadSafe;
  * <ul>
  *   <li>{@code OTEL_OTLP_SPAN_TIMEOUT}: to set the max waiting time allowed to send each span
  *       batch.
+ *   <li>{@code OTEL_OTLP_SPAN_COMPRESSION}: to set the name of the compressor of the requests.
+ *   <li>{@code OTEL_OTLP_SPAN_MAX_REQUEST_SIZE}: to set the max size in bytes of each request.
  * </ul>
+ *
+ * <p>A batch of spans is split in several requests when its encoded size is larger than the max
+ * request size, so the requests are not rejected by the collector.
+ *
+ * <p>The exporter also implements {@link AsyncSpanExporter}, {@link #exportAsync(Collection,
+ * ExportCallback)} sends the request without blocking, so several batches can be in flight on the
+ * same channel without holding a thread each.
  */
 @ThreadSafe
-public final class OtlpGrpcSpanExporter implements SpanExporter {
+public final class OtlpGrpcSpanExporter implements AsyncSpanExporter {
   private static final Logger logger = Logger.getLogger(OtlpGrpcSpanExporter.class.getName());
+  // Same method as TraceServiceGrpc.getExportMethod(), but the request is encoded directly from the
+  // SpanData instead of being built as protobuf messages first.
+  private static final MethodDescriptor<TraceRequestMarshaler, ExportTraceServiceResponse>
+      EXPORT_METHOD =
+          MethodDescriptor.<TraceRequestMarshaler, ExportTraceServiceResponse>newBuilder()
+              .setType(MethodDescriptor.MethodType.UNARY)
+              .setFullMethodName(TraceServiceGrpc.getExportMethod().getFullMethodName())
+              .setRequestMarshaller(TraceRequestMarshaler.MARSHALLER)
+              .setResponseMarshaller(
+                  ProtoUtils.marshaller(ExportTraceServiceResponse.getDefaultInstance()))
+              .build();
 
-  private final TraceServiceGrpc.TraceServiceBlockingStub blockingStub;
   private final ManagedChannel managedChannel;
   private final long deadlineMs;
+  @Nullable private final String compressorName;
+  private final int maxRequestSizeBytes;
 
   /**
    * Creates a new OTLP gRPC Span Reporter with the given name, using the given channel.
@@ -65,11 +101,19 @@ public final class OtlpGrpcSpanExporter implements SpanExporter {
    * @param channel the channel to use when communicating with the OpenTelemetry Collector.
    * @param deadlineMs max waiting time for the collector to process each span batch. When set to 0
    *     or to a negative value, the exporter will wait indefinitely.
+   * @param compressorName the name of the compressor of the requests, or {@code null} to send them
+   *     uncompressed.
+   * @param maxRequestSizeBytes max size of the encoded requests, larger batches are split.
    */
-  private OtlpGrpcSpanExporter(ManagedChannel channel, long deadlineMs) {
+  private OtlpGrpcSpanExporter(
+      ManagedChannel channel,
+      long deadlineMs,
+      @Nullable String compressorName,
+      int maxRequestSizeBytes) {
     this.managedChannel = channel;
-    this.blockingStub = TraceServiceGrpc.newBlockingStub(channel);
     this.deadlineMs = deadlineMs;
+    this.compressorName = compressorName;
+    this.maxRequestSizeBytes = maxRequestSizeBytes;
   }
 
   /**
@@ -80,24 +124,106 @@ public final class OtlpGrpcSpanExporter implements SpanExporter {
    */
   @Override
   public ResultCode export(Collection<SpanData> spans) {
-    ExportTraceServiceRequest exportTraceServiceRequest =
-        ExportTraceServiceRequest.newBuilder()
-            .addAllResourceSpans(SpanAdapter.toProtoResourceSpans(spans))
-            .build();
+    List<TraceRequestMarshaler> requests =
+        TraceRequestMarshaler.createSplit(spans, maxRequestSizeBytes);
+    // The deadline applies to the whole batch.
+    CallOptions callOptions = newCallOptions();
+    ResultCode resultCode = ResultCode.SUCCESS;
+    boolean someSucceeded = false;
+    for (TraceRequestMarshaler request : requests) {
+      try {
+        // for now, there's nothing to check in the response object
+        // noinspection ResultOfMethodCallIgnored
+        ClientCalls.blockingUnaryCall(managedChannel, EXPORT_METHOD, callOptions, request);
+        someSucceeded = true;
+      } catch (Throwable e) {
+        resultCode = worstOf(resultCode, toResultCode(e));
+      }
+    }
+    return splitResultCode(resultCode, someSucceeded);
+  }
 
+  /**
+   * Submits all the given spans in a single batch to the OpenTelemetry collector, without waiting
+   * for the response. The deadline applies to each call as for {@link #export(Collection)}.
+   *
+   * @param spans the list of sampled Spans to be exported.
+   * @param callback called with the result of the operation.
+   * @since 0.5.0
+   */
+  @Override
+  public void exportAsync(Collection<SpanData> spans, ExportCallback callback) {
+    List<TraceRequestMarshaler> requests;
     try {
-      TraceServiceGrpc.TraceServiceBlockingStub stub = this.blockingStub;
-      if (deadlineMs > 0) {
-        stub = stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS);
+      requests = TraceRequestMarshaler.createSplit(spans, maxRequestSizeBytes);
+    } catch (Throwable e) {
+      callback.onComplete(ResultCode.FAILURE);
+      return;
+    }
+    ExportCallback requestCallback =
+        requests.size() > 1 ? new SplitExportCallback(callback, requests.size()) : callback;
+    CallOptions callOptions = newCallOptions();
+    for (TraceRequestMarshaler request : requests) {
+      ExportObserver observer = new ExportObserver(requestCallback);
+      try {
+        ClientCalls.asyncUnaryCall(
+            managedChannel.newCall(EXPORT_METHOD, callOptions), request, observer);
+      } catch (Throwable e) {
+        observer.onError(e);
       }
+    }
+  }
 
-      // for now, there's nothing to check in the response object
-      // noinspection ResultOfMethodCallIgnored
-      stub.export(exportTraceServiceRequest);
-      return ResultCode.SUCCESS;
-    } catch (Throwable e) {
+  // The status codes the OTLP specification defines as retryable are reported as
+  // FAILURE_RETRYABLE, the other errors as FAILURE. Nothing is retryable once the channel is shut
+  // down, it is never restarted.
+  private ResultCode toResultCode(Throwable t) {
+    if (managedChannel.isShutdown()) {
       return ResultCode.FAILURE;
     }
+    switch (Status.fromThrowable(t).getCode()) {
+      case CANCELLED:
+      case DEADLINE_EXCEEDED:
+      case RESOURCE_EXHAUSTED:
+      case ABORTED:
+      case OUT_OF_RANGE:
+      case UNAVAILABLE:
+      case DATA_LOSS:
+        return ResultCode.FAILURE_RETRYABLE;
+      default:
+        return ResultCode.FAILURE;
+    }
+  }
+
+  // Combines the results of the requests of a batch, the batch is only worth retrying if none of
+  // its requests failed with a non retryable error.
+  private static ResultCode worstOf(ResultCode first, ResultCode second) {
+    if (first == ResultCode.FAILURE || second == ResultCode.FAILURE) {
+      return ResultCode.FAILURE;
+    }
+    if (first == ResultCode.FAILURE_RETRYABLE || second == ResultCode.FAILURE_RETRYABLE) {
+      return ResultCode.FAILURE_RETRYABLE;
+    }
+    return ResultCode.SUCCESS;
+  }
+
+  // The result of a batch split in several requests. Retrying a batch re-sends all its spans, so a
+  // batch with some accepted requests is not retryable, the collector would receive duplicates.
+  private static ResultCode splitResultCode(ResultCode worstResultCode, boolean someSucceeded) {
+    return someSucceeded && worstResultCode == ResultCode.FAILURE_RETRYABLE
+        ? ResultCode.FAILURE
+        : worstResultCode;
+  }
+
+  private CallOptions newCallOptions() {
+    CallOptions callOptions = CallOptions.DEFAULT;
+    if (deadlineMs > 0) {
+      callOptions = callOptions.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS);
+    }
+    if (compressorName != null) {
+      callOptions = callOptions.withCompression(compressorName);
+    }
+    return callOptions;
   }
 
   /**
@@ -144,11 +270,78 @@ public final class OtlpGrpcSpanExporter implements SpanExporter {
     }
   }
 
+  // Reports the end of an asynchronous export to its callback, exactly once.
+  private final class ExportObserver implements StreamObserver<ExportTraceServiceResponse> {
+    private final ExportCallback callback;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private ExportObserver(ExportCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void onNext(ExportTraceServiceResponse response) {
+      // for now, there's nothing to check in the response object
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      complete(toResultCode(t));
+    }
+
+    @Override
+    public void onCompleted() {
+      complete(ResultCode.SUCCESS);
+    }
+
+    private void complete(ResultCode resultCode) {
+      if (done.compareAndSet(false, true)) {
+        callback.onComplete(resultCode);
+      }
+    }
+  }
+
+  // Completes the export of a batch split in several requests once all of them completed.
+  private static final class SplitExportCallback implements ExportCallback {
+    private final ExportCallback callback;
+    private final AtomicInteger pendingRequests;
+    private final AtomicReference<ResultCode> resultCode =
+        new AtomicReference<>(ResultCode.SUCCESS);
+    private final AtomicBoolean someSucceeded = new AtomicBoolean();
+
+    private SplitExportCallback(ExportCallback callback, int requests) {
+      this.callback = callback;
+      this.pendingRequests = new AtomicInteger(requests);
+    }
+
+    @Override
+    public void onComplete(ResultCode requestResultCode) {
+      if (requestResultCode == ResultCode.SUCCESS) {
+        someSucceeded.set(true);
+      }
+      while (true) {
+        ResultCode current = resultCode.get();
+        if (resultCode.compareAndSet(current, worstOf(current, requestResultCode))) {
+          break;
+        }
+      }
+      if (pendingRequests.decrementAndGet() == 0) {
+        callback.onComplete(splitResultCode(resultCode.get(), someSucceeded.get()));
+      }
+    }
+  }
+
   /** Builder utility for this exporter. */
   public static class Builder extends ConfigBuilder<Builder> {
     private static final String KEY_SPAN_TIMEOUT = "otel.otlp.span.timeout";
+    private static final String KEY_COMPRESSION = "otel.otlp.span.compression";
+    private static final String KEY_MAX_REQUEST_SIZE = "otel.otlp.span.max.request.size";
+    // Default max size of the messages received by a gRPC server.
+    private static final int DEFAULT_MAX_REQUEST_SIZE_BYTES = 4 * 1024 * 1024;
     private ManagedChannel channel;
     private long deadlineMs = 1_000; // 1 second
+    @Nullable private String compressorName;
+    private int maxRequestSizeBytes = DEFAULT_MAX_REQUEST_SIZE_BYTES;
 
     /**
      * Sets the managed chanel to use when communicating with the backend. Required.
@@ -172,13 +365,46 @@ public final class OtlpGrpcSpanExporter implements SpanExporter {
       return this;
     }
 
+    /**
+     * Sets the name of the compressor of the requests, for example {@code "gzip"}. Optional, the
+     * requests are not compressed by default.
+     *
+     * <p>The compressor must be known by the {@link io.grpc.CompressorRegistry} of the channel. The
+     * default registry only has {@code "gzip"}, other compressors such as zstd can be registered
+     * with {@link io.grpc.ManagedChannelBuilder#compressorRegistry}.
+     *
+     * @param compressorName the name of the compressor.
+     * @return this builder's instance
+     * @since 0.5.0
+     */
+    public Builder setCompression(String compressorName) {
+      this.compressorName = Objects.requireNonNull(compressorName, "compressorName");
+      return this;
+    }
+
+    /**
+     * Sets the max size in bytes of an encoded, uncompressed, export request. Larger batches of
+     * spans are split in several requests. Optional, the default value is 4 MiB, which is the
+     * default max size of the messages received by a gRPC server.
+     *
+     * @param maxRequestSizeBytes the max size of a request.
+     * @return this builder's instance
+     * @throws IllegalArgumentException if {@code maxRequestSizeBytes} is not positive.
+     * @since 0.5.0
+     */
+    public Builder setMaxRequestSizeBytes(int maxRequestSizeBytes) {
+      Utils.checkArgument(maxRequestSizeBytes > 0, "maxRequestSizeBytes must be positive.");
+      this.maxRequestSizeBytes = maxRequestSizeBytes;
+      return this;
+    }
+
     /**
      * Constructs a new instance of the exporter based on the builder's values.
      *
      * @return a new exporter's instance
      */
     public OtlpGrpcSpanExporter build() {
-      return new OtlpGrpcSpanExporter(channel, deadlineMs);
+      return new OtlpGrpcSpanExporter(channel, deadlineMs, compressorName, maxRequestSizeBytes);
     }
 
     private Builder() {}
@@ -197,6 +423,14 @@ public final class OtlpGrpcSpanExporter implements SpanExporter {
       if (value != null) {
         this.setDeadlineMs(value);
       }
+      String compression = configMap.get(KEY_COMPRESSION);
+      if (compression != null) {
+        this.setCompression(compression);
+      }
+      Integer maxRequestSize = getIntProperty(KEY_MAX_REQUEST_SIZE, configMap);
+      if (maxRequestSize != null) {
+        this.setMaxRequestSizeBytes(maxRequestSize);
+      }
       return this;
     }
 
@@ -0,0 +1,652 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.exporters.otlp;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+import io.grpc.MethodDescriptor;
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.common.v1.AttributeKeyValue;
+import io.opentelemetry.proto.common.v1.AttributeKeyValue.ValueType;
+import io.opentelemetry.proto.common.v1.InstrumentationLibrary;
+import io.opentelemetry.proto.trace.v1.InstrumentationLibrarySpans;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.proto.trace.v1.Span;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.SpanData.Event;
+import io.opentelemetry.sdk.trace.data.SpanData.Link;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceId;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Writes an {@link ExportTraceServiceRequest} directly from {@link SpanData}s, without building the
+ * intermediate protobuf messages.
+ *
+ * <p>The encoding has two passes. {@link #create(Collection)} computes the size of every nested
+ * message once, in the order the messages are written, and {@link #writeTo(CodedOutputStream)}
+ * writes the fields consuming these sizes in the same order. The bytes are the same as the ones of
+ * the request built from {@link SpanAdapter#toProtoResourceSpans(Collection)}.
+ *
+ * <p>{@link #createSplit(Collection, int)} splits the spans in several requests when the encoded
+ * request is larger than a given size.
+ */
+@NotThreadSafe
+final class TraceRequestMarshaler {
+  // Writes the request straight into the transport buffers when gRPC drains the stream.
+  static final MethodDescriptor.Marshaller<TraceRequestMarshaler> MARSHALLER =
+      new MethodDescriptor.Marshaller<TraceRequestMarshaler>() {
+        @Override
+        public InputStream stream(TraceRequestMarshaler value) {
+          return new MarshalerInputStream(value);
+        }
+
+        @Override
+        public TraceRequestMarshaler parse(InputStream stream) {
+          throw new UnsupportedOperationException("Only for serializing");
+        }
+      };
+
+  private static final int INITIAL_SIZES_LENGTH = 64;
+  private static final int MAX_BUFFER_SIZE = 4096;
+  // The tag of a field number below 16 and the longest length of a nested message.
+  private static final int MAX_MESSAGE_HEADER_SIZE = 1 + 5;
+
+  private final Map<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>>
+      resourceAndLibraryMap;
+  private final byte[] idBuffer = new byte[TraceId.getSize()];
+  // Sizes of the nested messages, in the order they are written.
+  private int[] sizes = new int[INITIAL_SIZES_LENGTH];
+  private int sizesCount;
+  // Index of the next size to read when writing.
+  private int sizesIndex;
+  private final int serializedSize;
+
+  static TraceRequestMarshaler create(Collection<SpanData> spans) {
+    return new TraceRequestMarshaler(groupByResourceAndLibrary(spans));
+  }
+
+  /**
+   * Returns the requests exporting the given spans, each one encoded in at most {@code
+   * maxRequestSize} bytes, except for a single span larger than that which is sent in its own
+   * request. The spans are added to a request in order until the next one does not fit, so the
+   * order of the spans is kept.
+   */
+  static List<TraceRequestMarshaler> createSplit(Collection<SpanData> spans, int maxRequestSize) {
+    TraceRequestMarshaler request = create(spans);
+    if (request.getSerializedSize() <= maxRequestSize || spans.size() <= 1) {
+      return Collections.singletonList(request);
+    }
+    List<SpanData> spanList =
+        spans instanceof List ? (List<SpanData>) spans : new ArrayList<>(spans);
+    List<TraceRequestMarshaler> requests = new ArrayList<>();
+    // The resources and libraries of the spans of the current request.
+    Map<Resource, Set<InstrumentationLibraryInfo>> groups = new HashMap<>();
+    int start = 0;
+    int requestSize = 0;
+    for (int i = 0; i < spanList.size(); i++) {
+      SpanData span = spanList.get(i);
+      // The request of the whole batch is not sent, its sizes are reused to size every span once.
+      int spanSize = request.computeSpanFieldSize(span);
+      int groupSize = request.computeGroupSize(span, groups);
+      if (i > start && requestSize + groupSize + spanSize > maxRequestSize) {
+        requests.add(create(spanList.subList(start, i)));
+        start = i;
+        requestSize = 0;
+        groups.clear();
+        groupSize = request.computeGroupSize(span, groups);
+      }
+      addGroup(span, groups);
+      requestSize += groupSize + spanSize;
+    }
+    requests.add(create(spanList.subList(start, spanList.size())));
+    return requests;
+  }
+
+  // Returns the size of the span field of an InstrumentationLibrarySpans message. Overwrites the
+  // sizes of this request, which cannot be written afterwards.
+  private int computeSpanFieldSize(SpanData span) {
+    sizesCount = 0;
+    return setSize(
+        reserveSize(), InstrumentationLibrarySpans.SPANS_FIELD_NUMBER, computeSpanSize(span));
+  }
+
+  // Returns an upper bound of the size the ResourceSpans and InstrumentationLibrarySpans headers of
+  // the span add to a request holding the given resources and libraries. Overwrites the sizes of
+  // this request, which cannot be written afterwards.
+  private int computeGroupSize(
+      SpanData span, Map<Resource, Set<InstrumentationLibraryInfo>> groups) {
+    Set<InstrumentationLibraryInfo> libraries = groups.get(span.getResource());
+    int size = 0;
+    if (libraries == null) {
+      sizesCount = 0;
+      size +=
+          2 * MAX_MESSAGE_HEADER_SIZE
+              + computeAttributesSize(
+                  io.opentelemetry.proto.resource.v1.Resource.ATTRIBUTES_FIELD_NUMBER,
+                  span.getResource().getAttributes());
+    } else if (libraries.contains(span.getInstrumentationLibraryInfo())) {
+      return 0;
+    }
+    InstrumentationLibraryInfo library = span.getInstrumentationLibraryInfo();
+    return size
+        + 2 * MAX_MESSAGE_HEADER_SIZE
+        + computeStringSize(InstrumentationLibrary.NAME_FIELD_NUMBER, library.getName())
+        + computeStringSize(InstrumentationLibrary.VERSION_FIELD_NUMBER, library.getVersion());
+  }
+
+  private static void addGroup(
+      SpanData span, Map<Resource, Set<InstrumentationLibraryInfo>> groups) {
+    Set<InstrumentationLibraryInfo> libraries = groups.get(span.getResource());
+    if (libraries == null) {
+      libraries = new HashSet<>();
+      groups.put(span.getResource(), libraries);
+    }
+    libraries.add(span.getInstrumentationLibraryInfo());
+  }
+
+  private TraceRequestMarshaler(
+      Map<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>> resourceAndLibraryMap) {
+    this.resourceAndLibraryMap = resourceAndLibraryMap;
+    this.serializedSize = computeRequestSize();
+  }
+
+  int getSerializedSize() {
+    return serializedSize;
+  }
+
+  void writeTo(CodedOutputStream output) throws IOException {
+    sizesIndex = 0;
+    for (Map.Entry<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>> entryResource :
+        resourceAndLibraryMap.entrySet()) {
+      writeMessageTag(output, ExportTraceServiceRequest.RESOURCE_SPANS_FIELD_NUMBER);
+      writeMessageTag(output, ResourceSpans.RESOURCE_FIELD_NUMBER);
+      writeAttributes(
+          output,
+          io.opentelemetry.proto.resource.v1.Resource.ATTRIBUTES_FIELD_NUMBER,
+          entryResource.getKey().getAttributes());
+      for (Map.Entry<InstrumentationLibraryInfo, List<SpanData>> entryLibrary :
+          entryResource.getValue().entrySet()) {
+        writeMessageTag(output, ResourceSpans.INSTRUMENTATION_LIBRARY_SPANS_FIELD_NUMBER);
+        writeMessageTag(output, InstrumentationLibrarySpans.INSTRUMENTATION_LIBRARY_FIELD_NUMBER);
+        writeString(
+            output, InstrumentationLibrary.NAME_FIELD_NUMBER, entryLibrary.getKey().getName());
+        writeString(
+            output,
+            InstrumentationLibrary.VERSION_FIELD_NUMBER,
+            entryLibrary.getKey().getVersion());
+        for (SpanData span : entryLibrary.getValue()) {
+          writeMessageTag(output, InstrumentationLibrarySpans.SPANS_FIELD_NUMBER);
+          writeSpan(output, span);
+        }
+      }
+    }
+  }
+
+  private static Map<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>>
+      groupByResourceAndLibrary(Collection<SpanData> spans) {
+    Map<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>> result = new HashMap<>();
+    for (SpanData span : spans) {
+      Map<InstrumentationLibraryInfo, List<SpanData>> libraryInfoListMap =
+          result.get(span.getResource());
+      if (libraryInfoListMap == null) {
+        libraryInfoListMap = new HashMap<>();
+        result.put(span.getResource(), libraryInfoListMap);
+      }
+      List<SpanData> spanList = libraryInfoListMap.get(span.getInstrumentationLibraryInfo());
+      if (spanList == null) {
+        spanList = new ArrayList<>();
+        libraryInfoListMap.put(span.getInstrumentationLibraryInfo(), spanList);
+      }
+      spanList.add(span);
+    }
+    return result;
+  }
+
+  private int computeRequestSize() {
+    int size = 0;
+    for (Map.Entry<Resource, Map<InstrumentationLibraryInfo, List<SpanData>>> entryResource :
+        resourceAndLibraryMap.entrySet()) {
+      int resourceSpansIndex = reserveSize();
+      int resourceIndex = reserveSize();
+      int resourceSize =
+          computeAttributesSize(
+              io.opentelemetry.proto.resource.v1.Resource.ATTRIBUTES_FIELD_NUMBER,
+              entryResource.getKey().getAttributes());
+      int resourceSpansSize =
+          setSize(resourceIndex, ResourceSpans.RESOURCE_FIELD_NUMBER, resourceSize);
+      for (Map.Entry<InstrumentationLibraryInfo, List<SpanData>> entryLibrary :
+          entryResource.getValue().entrySet()) {
+        int librarySpansIndex = reserveSize();
+        int libraryIndex = reserveSize();
+        int librarySize =
+            computeStringSize(
+                    InstrumentationLibrary.NAME_FIELD_NUMBER, entryLibrary.getKey().getName())
+                + computeStringSize(
+                    InstrumentationLibrary.VERSION_FIELD_NUMBER,
+                    entryLibrary.getKey().getVersion());
+        int librarySpansSize =
+            setSize(
+                libraryIndex,
+                InstrumentationLibrarySpans.INSTRUMENTATION_LIBRARY_FIELD_NUMBER,
+                librarySize);
+        for (SpanData span : entryLibrary.getValue()) {
+          int spanIndex = reserveSize();
+          librarySpansSize +=
+              setSize(
+                  spanIndex, InstrumentationLibrarySpans.SPANS_FIELD_NUMBER, computeSpanSize(span));
+        }
+        resourceSpansSize +=
+            setSize(
+                librarySpansIndex,
+                ResourceSpans.INSTRUMENTATION_LIBRARY_SPANS_FIELD_NUMBER,
+                librarySpansSize);
+      }
+      size +=
+          setSize(
+              resourceSpansIndex,
+              ExportTraceServiceRequest.RESOURCE_SPANS_FIELD_NUMBER,
+              resourceSpansSize);
+    }
+    return size;
+  }
+
+  private int computeSpanSize(SpanData span) {
+    int size =
+        computeBytesSize(Span.TRACE_ID_FIELD_NUMBER, TraceId.getSize())
+            + computeBytesSize(Span.SPAN_ID_FIELD_NUMBER, SpanId.getSize());
+    // TODO: Set TraceState;
+    if (span.getParentSpanId().isValid()) {
+      size += computeBytesSize(Span.PARENT_SPAN_ID_FIELD_NUMBER, SpanId.getSize());
+    }
+    size += computeStringSize(Span.NAME_FIELD_NUMBER, span.getName());
+    size += computeEnumSize(Span.KIND_FIELD_NUMBER, toProtoSpanKind(span));
+    size += computeFixed64Size(Span.START_TIME_UNIX_NANO_FIELD_NUMBER, span.getStartEpochNanos());
+    size += computeFixed64Size(Span.END_TIME_UNIX_NANO_FIELD_NUMBER, span.getEndEpochNanos());
+    size += computeAttributesSize(Span.ATTRIBUTES_FIELD_NUMBER, span.getAttributes());
+    size +=
+        computeUInt32Size(
+            Span.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+            span.getTotalAttributeCount() - span.getAttributes().size());
+    for (Event event : span.getEvents()) {
+      int eventIndex = reserveSize();
+      size += setSize(eventIndex, Span.EVENTS_FIELD_NUMBER, computeEventSize(event));
+    }
+    size +=
+        computeUInt32Size(
+            Span.DROPPED_EVENTS_COUNT_FIELD_NUMBER,
+            span.getTotalRecordedEvents() - span.getEvents().size());
+    for (Link link : span.getLinks()) {
+      int linkIndex = reserveSize();
+      size += setSize(linkIndex, Span.LINKS_FIELD_NUMBER, computeLinkSize(link));
+    }
+    size +=
+        computeUInt32Size(
+            Span.DROPPED_LINKS_COUNT_FIELD_NUMBER,
+            span.getTotalRecordedLinks() - span.getLinks().size());
+    int statusIndex = reserveSize();
+    size += setSize(statusIndex, Span.STATUS_FIELD_NUMBER, computeStatusSize(span.getStatus()));
+    return size;
+  }
+
+  private void writeSpan(CodedOutputStream output, SpanData span) throws IOException {
+    span.getTraceId().copyBytesTo(idBuffer, 0);
+    output.writeByteArray(Span.TRACE_ID_FIELD_NUMBER, idBuffer, 0, TraceId.getSize());
+    span.getSpanId().copyBytesTo(idBuffer, 0);
+    output.writeByteArray(Span.SPAN_ID_FIELD_NUMBER, idBuffer, 0, SpanId.getSize());
+    if (span.getParentSpanId().isValid()) {
+      span.getParentSpanId().copyBytesTo(idBuffer, 0);
+      output.writeByteArray(Span.PARENT_SPAN_ID_FIELD_NUMBER, idBuffer, 0, SpanId.getSize());
+    }
+    writeString(output, Span.NAME_FIELD_NUMBER, span.getName());
+    writeEnum(output, Span.KIND_FIELD_NUMBER, toProtoSpanKind(span));
+    writeFixed64(output, Span.START_TIME_UNIX_NANO_FIELD_NUMBER, span.getStartEpochNanos());
+    writeFixed64(output, Span.END_TIME_UNIX_NANO_FIELD_NUMBER, span.getEndEpochNanos());
+    writeAttributes(output, Span.ATTRIBUTES_FIELD_NUMBER, span.getAttributes());
+    writeUInt32(
+        output,
+        Span.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+        span.getTotalAttributeCount() - span.getAttributes().size());
+    for (Event event : span.getEvents()) {
+      writeMessageTag(output, Span.EVENTS_FIELD_NUMBER);
+      writeFixed64(output, Span.Event.TIME_UNIX_NANO_FIELD_NUMBER, event.getEpochNanos());
+      writeString(output, Span.Event.NAME_FIELD_NUMBER, event.getName());
+      writeAttributes(output, Span.Event.ATTRIBUTES_FIELD_NUMBER, event.getAttributes());
+      writeUInt32(
+          output,
+          Span.Event.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+          event.getTotalAttributeCount() - event.getAttributes().size());
+    }
+    writeUInt32(
+        output,
+        Span.DROPPED_EVENTS_COUNT_FIELD_NUMBER,
+        span.getTotalRecordedEvents() - span.getEvents().size());
+    for (Link link : span.getLinks()) {
+      writeMessageTag(output, Span.LINKS_FIELD_NUMBER);
+      link.getContext().getTraceId().copyBytesTo(idBuffer, 0);
+      output.writeByteArray(Span.Link.TRACE_ID_FIELD_NUMBER, idBuffer, 0, TraceId.getSize());
+      link.getContext().getSpanId().copyBytesTo(idBuffer, 0);
+      output.writeByteArray(Span.Link.SPAN_ID_FIELD_NUMBER, idBuffer, 0, SpanId.getSize());
+      writeAttributes(output, Span.Link.ATTRIBUTES_FIELD_NUMBER, link.getAttributes());
+      writeUInt32(
+          output,
+          Span.Link.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+          link.getTotalAttributeCount() - link.getAttributes().size());
+    }
+    writeUInt32(
+        output,
+        Span.DROPPED_LINKS_COUNT_FIELD_NUMBER,
+        span.getTotalRecordedLinks() - span.getLinks().size());
+    writeMessageTag(output, Span.STATUS_FIELD_NUMBER);
+    writeEnum(
+        output,
+        io.opentelemetry.proto.trace.v1.Status.CODE_FIELD_NUMBER,
+        span.getStatus().getCanonicalCode().value());
+    writeString(
+        output,
+        io.opentelemetry.proto.trace.v1.Status.MESSAGE_FIELD_NUMBER,
+        span.getStatus().getDescription());
+  }
+
+  private int computeEventSize(Event event) {
+    return computeFixed64Size(Span.Event.TIME_UNIX_NANO_FIELD_NUMBER, event.getEpochNanos())
+        + computeStringSize(Span.Event.NAME_FIELD_NUMBER, event.getName())
+        + computeAttributesSize(Span.Event.ATTRIBUTES_FIELD_NUMBER, event.getAttributes())
+        + computeUInt32Size(
+            Span.Event.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+            event.getTotalAttributeCount() - event.getAttributes().size());
+  }
+
+  private int computeLinkSize(Link link) {
+    // TODO: Set TraceState;
+    return computeBytesSize(Span.Link.TRACE_ID_FIELD_NUMBER, TraceId.getSize())
+        + computeBytesSize(Span.Link.SPAN_ID_FIELD_NUMBER, SpanId.getSize())
+        + computeAttributesSize(Span.Link.ATTRIBUTES_FIELD_NUMBER, link.getAttributes())
+        + computeUInt32Size(
+            Span.Link.DROPPED_ATTRIBUTES_COUNT_FIELD_NUMBER,
+            link.getTotalAttributeCount() - link.getAttributes().size());
+  }
+
+  private static int computeStatusSize(Status status) {
+    return computeEnumSize(
+            io.opentelemetry.proto.trace.v1.Status.CODE_FIELD_NUMBER,
+            status.getCanonicalCode().value())
+        + computeStringSize(
+            io.opentelemetry.proto.trace.v1.Status.MESSAGE_FIELD_NUMBER, status.getDescription());
+  }
+
+  private int computeAttributesSize(int fieldNumber, Map<String, AttributeValue> attributes) {
+    int size = 0;
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      int attributeIndex = reserveSize();
+      size +=
+          setSize(
+              attributeIndex, fieldNumber, computeAttributeSize(entry.getKey(), entry.getValue()));
+    }
+    return size;
+  }
+
+  private void writeAttributes(
+      CodedOutputStream output, int fieldNumber, Map<String, AttributeValue> attributes)
+      throws IOException {
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      writeMessageTag(output, fieldNumber);
+      writeAttribute(output, entry.getKey(), entry.getValue());
+    }
+  }
+
+  private static int computeAttributeSize(String key, AttributeValue attributeValue) {
+    int size = computeStringSize(AttributeKeyValue.KEY_FIELD_NUMBER, key);
+    switch (attributeValue.getType()) {
+      case STRING:
+        return size
+            + computeEnumSize(AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.STRING_VALUE)
+            + computeStringSize(
+                AttributeKeyValue.STRING_VALUE_FIELD_NUMBER, attributeValue.getStringValue());
+      case BOOLEAN:
+        return size
+            + computeEnumSize(AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.BOOL_VALUE)
+            + (attributeValue.getBooleanValue()
+                ? CodedOutputStream.computeBoolSize(AttributeKeyValue.BOOL_VALUE_FIELD_NUMBER, true)
+                : 0);
+      case LONG:
+        return size
+            + computeEnumSize(AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.INT_VALUE)
+            + (attributeValue.getLongValue() != 0
+                ? CodedOutputStream.computeInt64Size(
+                    AttributeKeyValue.INT_VALUE_FIELD_NUMBER, attributeValue.getLongValue())
+                : 0);
+      case DOUBLE:
+        return size
+            + computeEnumSize(AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.DOUBLE_VALUE)
+            + (Double.doubleToRawLongBits(attributeValue.getDoubleValue()) != 0
+                ? CodedOutputStream.computeDoubleSize(
+                    AttributeKeyValue.DOUBLE_VALUE_FIELD_NUMBER, attributeValue.getDoubleValue())
+                : 0);
+      case BOOLEAN_ARRAY:
+      case LONG_ARRAY:
+      case DOUBLE_ARRAY:
+      case STRING_ARRAY:
+        // Not supported by this version of the protocol, only the key is exported.
+        return size;
+    }
+    return size;
+  }
+
+  private static void writeAttribute(
+      CodedOutputStream output, String key, AttributeValue attributeValue) throws IOException {
+    writeString(output, AttributeKeyValue.KEY_FIELD_NUMBER, key);
+    switch (attributeValue.getType()) {
+      case STRING:
+        writeEnum(output, AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.STRING_VALUE);
+        writeString(
+            output, AttributeKeyValue.STRING_VALUE_FIELD_NUMBER, attributeValue.getStringValue());
+        return;
+      case BOOLEAN:
+        writeEnum(output, AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.BOOL_VALUE);
+        if (attributeValue.getBooleanValue()) {
+          output.writeBool(AttributeKeyValue.BOOL_VALUE_FIELD_NUMBER, true);
+        }
+        return;
+      case LONG:
+        writeEnum(output, AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.INT_VALUE);
+        if (attributeValue.getLongValue() != 0) {
+          output.writeInt64(
+              AttributeKeyValue.INT_VALUE_FIELD_NUMBER, attributeValue.getLongValue());
+        }
+        return;
+      case DOUBLE:
+        writeEnum(output, AttributeKeyValue.TYPE_FIELD_NUMBER, ValueType.DOUBLE_VALUE);
+        if (Double.doubleToRawLongBits(attributeValue.getDoubleValue()) != 0) {
+          output.writeDouble(
+              AttributeKeyValue.DOUBLE_VALUE_FIELD_NUMBER, attributeValue.getDoubleValue());
+        }
+        return;
+      case BOOLEAN_ARRAY:
+      case LONG_ARRAY:
+      case DOUBLE_ARRAY:
+      case STRING_ARRAY:
+        return;
+    }
+  }
+
+  private static int toProtoSpanKind(SpanData span) {
+    return SpanAdapter.toProtoSpanKind(span.getKind()).getNumber();
+  }
+
+  // Reserves the slot of the size of a nested message, before the sizes of its own nested messages.
+  private int reserveSize() {
+    if (sizesCount == sizes.length) {
+      sizes = Arrays.copyOf(sizes, sizes.length * 2);
+    }
+    return sizesCount++;
+  }
+
+  // Stores the size of a nested message and returns the size of the field holding it.
+  private int setSize(int index, int fieldNumber, int size) {
+    sizes[index] = size;
+    return CodedOutputStream.computeTagSize(fieldNumber)
+        + CodedOutputStream.computeUInt32SizeNoTag(size)
+        + size;
+  }
+
+  private void writeMessageTag(CodedOutputStream output, int fieldNumber) throws IOException {
+    output.writeTag(fieldNumber, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    output.writeUInt32NoTag(sizes[sizesIndex++]);
+  }
+
+  // The following methods skip the fields set to their default value, like protobuf does.
+
+  private static int computeBytesSize(int fieldNumber, int length) {
+    return CodedOutputStream.computeTagSize(fieldNumber)
+        + CodedOutputStream.computeUInt32SizeNoTag(length)
+        + length;
+  }
+
+  private static int computeStringSize(int fieldNumber, @Nullable String value) {
+    return value == null || value.isEmpty()
+        ? 0
+        : CodedOutputStream.computeStringSize(fieldNumber, value);
+  }
+
+  private static void writeString(CodedOutputStream output, int fieldNumber, @Nullable String value)
+      throws IOException {
+    if (value != null && !value.isEmpty()) {
+      output.writeString(fieldNumber, value);
+    }
+  }
+
+  private static int computeEnumSize(int fieldNumber, int value) {
+    return value == 0 ? 0 : CodedOutputStream.computeEnumSize(fieldNumber, value);
+  }
+
+  private static void writeEnum(CodedOutputStream output, int fieldNumber, int value)
+      throws IOException {
+    if (value != 0) {
+      output.writeEnum(fieldNumber, value);
+    }
+  }
+
+  private static int computeFixed64Size(int fieldNumber, long value) {
+    return value == 0 ? 0 : CodedOutputStream.computeFixed64Size(fieldNumber, value);
+  }
+
+  private static void writeFixed64(CodedOutputStream output, int fieldNumber, long value)
+      throws IOException {
+    if (value != 0) {
+      output.writeFixed64(fieldNumber, value);
+    }
+  }
+
+  private static int computeUInt32Size(int fieldNumber, int value) {
+    return value == 0 ? 0 : CodedOutputStream.computeUInt32Size(fieldNumber, value);
+  }
+
+  private static void writeUInt32(CodedOutputStream output, int fieldNumber, int value)
+      throws IOException {
+    if (value != 0) {
+      output.writeUInt32(fieldNumber, value);
+    }
+  }
+
+  // Like the stream of the gRPC protobuf marshaller: when the transport drains it, the request is
+  // written directly into the transport buffers, it is only copied to an array if read otherwise.
+  private static final class MarshalerInputStream extends InputStream
+      implements Drainable, KnownLength {
+    @Nullable private TraceRequestMarshaler marshaler;
+    @Nullable private ByteArrayInputStream partial;
+
+    private MarshalerInputStream(TraceRequestMarshaler marshaler) {
+      this.marshaler = marshaler;
+    }
+
+    @Override
+    public int drainTo(OutputStream target) throws IOException {
+      int written;
+      if (marshaler != null) {
+        written = marshaler.getSerializedSize();
+        CodedOutputStream output =
+            CodedOutputStream.newInstance(target, Math.min(written, MAX_BUFFER_SIZE));
+        marshaler.writeTo(output);
+        output.flush();
+        marshaler = null;
+      } else if (partial != null) {
+        written = partial.available();
+        byte[] remaining = new byte[written];
+        int read = partial.read(remaining, 0, written);
+        target.write(remaining, 0, Math.max(read, 0));
+        partial = null;
+      } else {
+        written = 0;
+      }
+      return written;
+    }
+
+    @Override
+    public int read() throws IOException {
+      ByteArrayInputStream stream = toPartial();
+      return stream == null ? -1 : stream.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      ByteArrayInputStream stream = toPartial();
+      return stream == null ? -1 : stream.read(b, off, len);
+    }
+
+    @Override
+    public int available() {
+      if (marshaler != null) {
+        return marshaler.getSerializedSize();
+      }
+      return partial == null ? 0 : partial.available();
+    }
+
+    @Nullable
+    private ByteArrayInputStream toPartial() throws IOException {
+      if (marshaler != null) {
+        byte[] bytes = new byte[marshaler.getSerializedSize()];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        marshaler.writeTo(output);
+        output.checkNoSpaceLeft();
+        partial = new ByteArrayInputStream(bytes);
+        marshaler = null;
+      }
+      return partial;
+    }
+  }
+}
@@ -26,6 +26,8 @@ import io.opentelemetry.proto.common.v1.AttributeKeyValue.ValueType;
 import io.opentelemetry.proto.common.v1.InstrumentationLibrary;
 import io.opentelemetry.proto.common.v1.StringKeyValue;
 import io.opentelemetry.proto.metrics.v1.DoubleDataPoint;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint;
+import io.opentelemetry.proto.metrics.v1.HistogramDataPoint.Bucket;
 import io.opentelemetry.proto.metrics.v1.InstrumentationLibraryMetrics;
 import io.opentelemetry.proto.metrics.v1.Int64DataPoint;
 import io.opentelemetry.proto.metrics.v1.Metric;
@@ -70,6 +72,8 @@ public class MetricAdapterTest {
         .isEqualTo(Type.COUNTER_INT64);
     assertThat(MetricAdapter.toProtoMetricDescriptorType(Descriptor.Type.SUMMARY))
         .isEqualTo(Type.SUMMARY);
+    assertThat(MetricAdapter.toProtoMetricDescriptorType(Descriptor.Type.HISTOGRAM))
+        .isEqualTo(Type.CUMULATIVE_HISTOGRAM);
   }
 
   @Test
@@ -172,6 +176,37 @@ public class MetricAdapterTest {
                 .build());
   }
 
+  @Test
+  public void toHistogramDataPoints() {
+    assertThat(MetricAdapter.toHistogramDataPoints(Collections.<MetricData.Point>emptyList()))
+        .isEmpty();
+    assertThat(
+            MetricAdapter.toHistogramDataPoints(
+                Collections.<Point>singletonList(
+                    MetricData.HistogramPoint.create(
+                        123,
+                        456,
+                        Collections.singletonMap("k", "v"),
+                        5,
+                        14.2,
+                        ImmutableList.of(1.0, 10.0),
+                        ImmutableList.of(1L, 3L, 1L)))))
+        .containsExactly(
+            HistogramDataPoint.newBuilder()
+                .setStartTimeUnixNano(123)
+                .setTimeUnixNano(456)
+                .addAllLabels(
+                    Collections.singletonList(
+                        StringKeyValue.newBuilder().setKey("k").setValue("v").build()))
+                .setCount(5)
+                .setSum(14.2)
+                .addAllExplicitBounds(ImmutableList.of(1.0, 10.0))
+                .addBuckets(Bucket.newBuilder().setCount(1).build())
+                .addBuckets(Bucket.newBuilder().setCount(3).build())
+                .addBuckets(Bucket.newBuilder().setCount(1).build())
+                .build());
+  }
+
   @Test
   public void toSummaryDataPoints() {
     assertThat(MetricAdapter.toSummaryDataPoints(Collections.<MetricData.Point>emptyList()))
@@ -34,21 +34,26 @@ import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
 import io.opentelemetry.sdk.metrics.data.MetricData.LongPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.export.MetricExporter.ResultCode;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricProducer;
 import io.opentelemetry.sdk.resources.Resource;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 /** Unit tests for {@link OtlpGrpcMetricExporter}. */
 @RunWith(JUnit4.class)
 public class OtlpGrpcMetricExporterTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
   @Rule public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
 
   private final FakeCollector fakeCollector = new FakeCollector();
@@ -98,6 +103,67 @@ public class OtlpGrpcMetricExporterTest {
     }
   }
 
+  @Test
+  public void testExport_StreamingMetricProducer() {
+    List<MetricData> metrics = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      metrics.add(generateFakeMetric());
+    }
+    OtlpGrpcMetricExporter exporter =
+        OtlpGrpcMetricExporter.newBuilder().setChannel(inProcessChannel).build();
+    try {
+      assertThat(exporter.export(newStreamingMetricProducer(metrics)))
+          .isEqualTo(ResultCode.SUCCESS);
+      assertThat(fakeCollector.getReceivedMetrics())
+          .isEqualTo(MetricAdapter.toProtoResourceMetrics(metrics));
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_StreamingMetricProducer_SplitByPoints() {
+    List<MetricData> metrics = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      metrics.add(generateFakeMetric());
+    }
+    OtlpGrpcMetricExporter exporter =
+        OtlpGrpcMetricExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestPoints(4)
+            .build();
+    try {
+      assertThat(exporter.export(newStreamingMetricProducer(metrics)))
+          .isEqualTo(ResultCode.SUCCESS);
+      List<ResourceMetrics> expected = new ArrayList<>();
+      expected.addAll(MetricAdapter.toProtoResourceMetrics(metrics.subList(0, 4)));
+      expected.addAll(MetricAdapter.toProtoResourceMetrics(metrics.subList(4, 8)));
+      expected.addAll(MetricAdapter.toProtoResourceMetrics(metrics.subList(8, 10)));
+      assertThat(fakeCollector.getReceivedMetrics()).isEqualTo(expected);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_StreamingMetricProducer_Empty() {
+    OtlpGrpcMetricExporter exporter =
+        OtlpGrpcMetricExporter.newBuilder().setChannel(inProcessChannel).build();
+    try {
+      assertThat(exporter.export(newStreamingMetricProducer(Collections.<MetricData>emptyList())))
+          .isEqualTo(ResultCode.SUCCESS);
+      assertThat(fakeCollector.getReceivedMetrics()).isEmpty();
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void setMaxRequestPoints_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    OtlpGrpcMetricExporter.newBuilder().setMaxRequestPoints(0);
+  }
+
   @Test
   public void testExport_AfterShutdown() {
     MetricData span = generateFakeMetric();
@@ -209,6 +275,23 @@ public class OtlpGrpcMetricExporterTest {
     }
   }
 
+  private static StreamingMetricProducer newStreamingMetricProducer(
+      final List<MetricData> metrics) {
+    return new StreamingMetricProducer() {
+      @Override
+      public void collectAllMetrics(MetricSink sink) {
+        for (MetricData metricData : metrics) {
+          sink.accept(metricData);
+        }
+      }
+
+      @Override
+      public Collection<MetricData> getAllMetrics() {
+        return metrics;
+      }
+    };
+  }
+
   private static MetricData generateFakeMetric() {
     long startNs = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
     long endNs = startNs + TimeUnit.MILLISECONDS.toNanos(900);
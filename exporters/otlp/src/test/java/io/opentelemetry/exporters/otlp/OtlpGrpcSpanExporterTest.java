@@ -19,6 +19,11 @@ package io.opentelemetry.exporters.otlp;
 import static com.google.common.truth.Truth.assertThat;
 
 import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.ServerInterceptors;
 import io.grpc.Status.Code;
 import io.grpc.inprocess.InProcessChannelBuilder;
 import io.grpc.inprocess.InProcessServerBuilder;
@@ -26,10 +31,12 @@ import io.grpc.testing.GrpcCleanupRule;
 import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
 import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceResponse;
 import io.opentelemetry.proto.collector.trace.v1.TraceServiceGrpc;
+import io.opentelemetry.proto.trace.v1.InstrumentationLibrarySpans;
 import io.opentelemetry.proto.trace.v1.ResourceSpans;
 import io.opentelemetry.sdk.trace.data.SpanData;
 import io.opentelemetry.sdk.trace.data.SpanData.Link;
 import io.opentelemetry.sdk.trace.data.SpanDataImpl;
+import io.opentelemetry.sdk.trace.export.AsyncSpanExporter.ExportCallback;
 import io.opentelemetry.sdk.trace.export.SpanExporter.ResultCode;
 import io.opentelemetry.trace.Span.Kind;
 import io.opentelemetry.trace.SpanId;
@@ -37,9 +44,13 @@ import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.TraceId;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -54,7 +65,11 @@ public class OtlpGrpcSpanExporterTest {
 
   @Rule public final GrpcCleanupRule grpcCleanup = new GrpcCleanupRule();
 
+  private static final Metadata.Key<String> GRPC_ENCODING_KEY =
+      Metadata.Key.of("grpc-encoding", Metadata.ASCII_STRING_MARSHALLER);
+
   private final FakeCollector fakeCollector = new FakeCollector();
+  private final AtomicReference<String> receivedEncoding = new AtomicReference<>();
   private final String serverName = InProcessServerBuilder.generateName();
   private final ManagedChannel inProcessChannel =
       InProcessChannelBuilder.forName(serverName).directExecutor().build();
@@ -64,7 +79,19 @@ public class OtlpGrpcSpanExporterTest {
     grpcCleanup.register(
         InProcessServerBuilder.forName(serverName)
             .directExecutor()
-            .addService(fakeCollector)
+            .addService(
+                ServerInterceptors.intercept(
+                    fakeCollector,
+                    new ServerInterceptor() {
+                      @Override
+                      public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(
+                          ServerCall<ReqT, RespT> call,
+                          Metadata headers,
+                          ServerCallHandler<ReqT, RespT> next) {
+                        receivedEncoding.set(headers.get(GRPC_ENCODING_KEY));
+                        return next.startCall(call, headers);
+                      }
+                    }))
             .build()
             .start());
     grpcCleanup.register(inProcessChannel);
@@ -107,7 +134,6 @@ public class OtlpGrpcSpanExporterTest {
     OtlpGrpcSpanExporter exporter =
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     exporter.shutdown();
-    // TODO: This probably should not be retryable because we never restart the channel.
     assertThat(exporter.export(Collections.singletonList(span))).isEqualTo(ResultCode.FAILURE);
   }
 
@@ -118,7 +144,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -131,7 +157,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -144,7 +170,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -157,7 +183,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -170,7 +196,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -183,7 +209,7 @@ public class OtlpGrpcSpanExporterTest {
         OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
     try {
       assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
-          .isEqualTo(ResultCode.FAILURE);
+          .isEqualTo(ResultCode.FAILURE_RETRYABLE);
     } finally {
       exporter.shutdown();
     }
@@ -202,6 +228,204 @@ public class OtlpGrpcSpanExporterTest {
     }
   }
 
+  @Test
+  public void testExport_InvalidArgument() {
+    fakeCollector.setReturnedStatus(io.grpc.Status.INVALID_ARGUMENT);
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
+    try {
+      assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
+          .isEqualTo(ResultCode.FAILURE);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExportAsync() throws InterruptedException {
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      spans.add(generateFakeSpan());
+    }
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
+    try {
+      WaitingCallback callback = new WaitingCallback();
+      exporter.exportAsync(spans, callback);
+      assertThat(callback.await()).isEqualTo(ResultCode.SUCCESS);
+      assertThat(fakeCollector.getReceivedSpans())
+          .isEqualTo(SpanAdapter.toProtoResourceSpans(spans));
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExportAsync_Unavailable() throws InterruptedException {
+    fakeCollector.setReturnedStatus(io.grpc.Status.UNAVAILABLE);
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
+    try {
+      WaitingCallback callback = new WaitingCallback();
+      exporter.exportAsync(Collections.singletonList(generateFakeSpan()), callback);
+      assertThat(callback.await()).isEqualTo(ResultCode.FAILURE_RETRYABLE);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExportAsync_AfterShutdown() throws InterruptedException {
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder().setChannel(inProcessChannel).build();
+    exporter.shutdown();
+    WaitingCallback callback = new WaitingCallback();
+    exporter.exportAsync(Collections.singletonList(generateFakeSpan()), callback);
+    assertThat(callback.await()).isEqualTo(ResultCode.FAILURE);
+  }
+
+  @Test
+  public void testExport_Gzip() {
+    SpanData span = generateFakeSpan();
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setCompression("gzip")
+            .build();
+    try {
+      assertThat(exporter.export(Collections.singletonList(span))).isEqualTo(ResultCode.SUCCESS);
+      assertThat(receivedEncoding.get()).isEqualTo("gzip");
+      assertThat(fakeCollector.getReceivedSpans())
+          .isEqualTo(SpanAdapter.toProtoResourceSpans(Collections.singletonList(span)));
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_UnknownCompressor() {
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setCompression("unknown")
+            .build();
+    try {
+      assertThat(exporter.export(Collections.singletonList(generateFakeSpan())))
+          .isEqualTo(ResultCode.FAILURE);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_SplitOnRequestSize() {
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      spans.add(generateFakeSpan());
+    }
+    int maxRequestSize = TraceRequestMarshaler.create(spans.subList(0, 3)).getSerializedSize();
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestSizeBytes(maxRequestSize)
+            .build();
+    try {
+      assertThat(exporter.export(spans)).isEqualTo(ResultCode.SUCCESS);
+      assertThat(fakeCollector.getRequestSizes().size()).isGreaterThan(1);
+      for (int requestSize : fakeCollector.getRequestSizes()) {
+        assertThat(requestSize).isAtMost(maxRequestSize);
+      }
+      assertThat(fakeCollector.getReceivedSpansCount()).isEqualTo(spans.size());
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExportAsync_SplitOnRequestSize() throws InterruptedException {
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      spans.add(generateFakeSpan());
+    }
+    int maxRequestSize = TraceRequestMarshaler.create(spans.subList(0, 3)).getSerializedSize();
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestSizeBytes(maxRequestSize)
+            .build();
+    try {
+      WaitingCallback callback = new WaitingCallback();
+      exporter.exportAsync(spans, callback);
+      assertThat(callback.await()).isEqualTo(ResultCode.SUCCESS);
+      assertThat(fakeCollector.getRequestSizes().size()).isGreaterThan(1);
+      assertThat(fakeCollector.getReceivedSpansCount()).isEqualTo(spans.size());
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_SplitSecondRequestUnavailable() {
+    List<SpanData> spans = Arrays.asList(generateFakeSpan(), generateFakeSpan());
+    int maxRequestSize = TraceRequestMarshaler.create(spans.subList(0, 1)).getSerializedSize();
+    fakeCollector.setReturnedStatus(io.grpc.Status.UNAVAILABLE, 1);
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestSizeBytes(maxRequestSize)
+            .build();
+    try {
+      // The first request was accepted, retrying the batch would send its spans again.
+      assertThat(exporter.export(spans)).isEqualTo(ResultCode.FAILURE);
+      assertThat(fakeCollector.getRequestSizes()).hasSize(2);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExportAsync_SplitSecondRequestUnavailable() throws InterruptedException {
+    List<SpanData> spans = Arrays.asList(generateFakeSpan(), generateFakeSpan());
+    int maxRequestSize = TraceRequestMarshaler.create(spans.subList(0, 1)).getSerializedSize();
+    fakeCollector.setReturnedStatus(io.grpc.Status.UNAVAILABLE, 1);
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestSizeBytes(maxRequestSize)
+            .build();
+    try {
+      WaitingCallback callback = new WaitingCallback();
+      exporter.exportAsync(spans, callback);
+      assertThat(callback.await()).isEqualTo(ResultCode.FAILURE);
+      assertThat(fakeCollector.getRequestSizes()).hasSize(2);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test
+  public void testExport_SplitAllRequestsUnavailable() {
+    List<SpanData> spans = Arrays.asList(generateFakeSpan(), generateFakeSpan());
+    int maxRequestSize = TraceRequestMarshaler.create(spans.subList(0, 1)).getSerializedSize();
+    fakeCollector.setReturnedStatus(io.grpc.Status.UNAVAILABLE);
+    OtlpGrpcSpanExporter exporter =
+        OtlpGrpcSpanExporter.newBuilder()
+            .setChannel(inProcessChannel)
+            .setMaxRequestSizeBytes(maxRequestSize)
+            .build();
+    try {
+      assertThat(exporter.export(spans)).isEqualTo(ResultCode.FAILURE_RETRYABLE);
+      assertThat(fakeCollector.getRequestSizes()).hasSize(2);
+    } finally {
+      exporter.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxRequestSizeBytes_NonPositive() {
+    OtlpGrpcSpanExporter.newBuilder().setMaxRequestSizeBytes(0);
+  }
+
   private static SpanData generateFakeSpan() {
     long duration = TimeUnit.MILLISECONDS.toNanos(900);
     long startNs = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
@@ -221,17 +445,38 @@ public class OtlpGrpcSpanExporterTest {
         .build();
   }
 
+  private static final class WaitingCallback implements ExportCallback {
+    private final CountDownLatch latch = new CountDownLatch(1);
+    @Nullable private volatile ResultCode resultCode;
+
+    @Override
+    public void onComplete(ResultCode resultCode) {
+      this.resultCode = resultCode;
+      latch.countDown();
+    }
+
+    @Nullable
+    ResultCode await() throws InterruptedException {
+      latch.await(10, TimeUnit.SECONDS);
+      return resultCode;
+    }
+  }
+
   private static final class FakeCollector extends TraceServiceGrpc.TraceServiceImplBase {
     private final List<ResourceSpans> receivedSpans = new ArrayList<>();
+    private final List<Integer> requestSizes = new ArrayList<>();
     private io.grpc.Status returnedStatus = io.grpc.Status.OK;
+    // Index of the first request answered with the returned status.
+    private int firstFailedRequest;
 
     @Override
     public void export(
         ExportTraceServiceRequest request,
         io.grpc.stub.StreamObserver<ExportTraceServiceResponse> responseObserver) {
       receivedSpans.addAll(request.getResourceSpansList());
+      requestSizes.add(request.getSerializedSize());
       responseObserver.onNext(ExportTraceServiceResponse.newBuilder().build());
-      if (!returnedStatus.isOk()) {
+      if (!returnedStatus.isOk() && requestSizes.size() > firstFailedRequest) {
         if (returnedStatus.getCode() == Code.DEADLINE_EXCEEDED) {
           // Do not call onCompleted to simulate a deadline exceeded.
           return;
@@ -246,8 +491,28 @@ public class OtlpGrpcSpanExporterTest {
       return receivedSpans;
     }
 
+    int getReceivedSpansCount() {
+      int count = 0;
+      for (ResourceSpans resourceSpans : receivedSpans) {
+        for (InstrumentationLibrarySpans librarySpans :
+            resourceSpans.getInstrumentationLibrarySpansList()) {
+          count += librarySpans.getSpansCount();
+        }
+      }
+      return count;
+    }
+
+    List<Integer> getRequestSizes() {
+      return requestSizes;
+    }
+
     void setReturnedStatus(io.grpc.Status returnedStatus) {
+      setReturnedStatus(returnedStatus, 0);
+    }
+
+    void setReturnedStatus(io.grpc.Status returnedStatus, int firstFailedRequest) {
       this.returnedStatus = returnedStatus;
+      this.firstFailedRequest = firstFailedRequest;
     }
   }
 }
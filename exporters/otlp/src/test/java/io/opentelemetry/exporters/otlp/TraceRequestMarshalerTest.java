@@ -0,0 +1,262 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.exporters.otlp;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.protobuf.CodedOutputStream;
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.proto.collector.trace.v1.ExportTraceServiceRequest;
+import io.opentelemetry.proto.trace.v1.InstrumentationLibrarySpans;
+import io.opentelemetry.proto.trace.v1.ResourceSpans;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.SpanData.Event;
+import io.opentelemetry.sdk.trace.data.SpanData.Link;
+import io.opentelemetry.sdk.trace.data.SpanDataImpl;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.TraceState;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TraceRequestMarshaler}. */
+@RunWith(JUnit4.class)
+public class TraceRequestMarshalerTest {
+  private static final TraceId TRACE_ID =
+      TraceId.fromLowerBase16("00000000000000000000000000abc123", 0);
+  private static final SpanId SPAN_ID = SpanId.fromLowerBase16("0000000000def456", 0);
+  private static final SpanId PARENT_SPAN_ID = SpanId.fromLowerBase16("0000000000aef789", 0);
+
+  @Test
+  public void writeTo_SameBytesAsProtobuf() throws IOException {
+    List<SpanData> spans = new ArrayList<>();
+    spans.add(fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    spans.add(minimalSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    Resource resource =
+        Resource.create(
+            Collections.singletonMap("service.name", AttributeValue.stringAttributeValue("svc")));
+    InstrumentationLibraryInfo library = InstrumentationLibraryInfo.create("library", "1.0");
+    spans.add(fullSpan(resource, library));
+    spans.add(minimalSpan(resource, InstrumentationLibraryInfo.create("other", null)));
+    assertThat(marshal(spans)).isEqualTo(toProtoBytes(spans));
+  }
+
+  @Test
+  public void writeTo_Empty() throws IOException {
+    assertThat(marshal(Collections.<SpanData>emptyList())).isEmpty();
+  }
+
+  @Test
+  public void stream_Drained() throws IOException {
+    List<SpanData> spans =
+        Arrays.asList(
+            fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()),
+            minimalSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    InputStream stream =
+        TraceRequestMarshaler.MARSHALLER.stream(TraceRequestMarshaler.create(spans));
+    byte[] expected = toProtoBytes(spans);
+    assertThat(stream.available()).isEqualTo(expected.length);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    assertThat(((io.grpc.Drainable) stream).drainTo(output)).isEqualTo(expected.length);
+    assertThat(output.toByteArray()).isEqualTo(expected);
+    assertThat(stream.read()).isEqualTo(-1);
+  }
+
+  @Test
+  public void stream_Read() throws IOException {
+    List<SpanData> spans =
+        Collections.singletonList(
+            fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    InputStream stream =
+        TraceRequestMarshaler.MARSHALLER.stream(TraceRequestMarshaler.create(spans));
+    byte[] expected = toProtoBytes(spans);
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    output.write(stream.read());
+    byte[] buffer = new byte[expected.length];
+    int read;
+    while ((read = stream.read(buffer, 0, buffer.length)) > 0) {
+      output.write(buffer, 0, read);
+    }
+    assertThat(output.toByteArray()).isEqualTo(expected);
+  }
+
+  @Test
+  public void createSplit_SmallBatch() {
+    List<SpanData> spans =
+        Arrays.asList(
+            fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()),
+            minimalSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    List<TraceRequestMarshaler> requests =
+        TraceRequestMarshaler.createSplit(spans, toProtoBytes(spans).length);
+    assertThat(requests).hasSize(1);
+    assertThat(requests.get(0).getSerializedSize()).isEqualTo(toProtoBytes(spans).length);
+  }
+
+  @Test
+  public void createSplit_LargeBatch() throws IOException {
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      spans.add(fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    }
+    int maxRequestSize = toProtoBytes(spans.subList(0, 3)).length;
+    List<TraceRequestMarshaler> requests = TraceRequestMarshaler.createSplit(spans, maxRequestSize);
+    assertThat(requests.size()).isGreaterThan(1);
+    ExportTraceServiceRequest.Builder merged = ExportTraceServiceRequest.newBuilder();
+    for (TraceRequestMarshaler request : requests) {
+      assertThat(request.getSerializedSize()).isAtMost(maxRequestSize);
+      merged.mergeFrom(marshal(request));
+    }
+    int spansCount = 0;
+    for (ResourceSpans resourceSpans : merged.getResourceSpansList()) {
+      spansCount += resourceSpans.getInstrumentationLibrarySpans(0).getSpansCount();
+    }
+    assertThat(spansCount).isEqualTo(spans.size());
+  }
+
+  @Test
+  public void createSplit_SeveralResourcesAndLibraries() throws IOException {
+    Resource resource =
+        Resource.create(
+            Collections.singletonMap("service.name", AttributeValue.stringAttributeValue("svc")));
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      spans.add(fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+      spans.add(fullSpan(resource, InstrumentationLibraryInfo.create("library", "1.0")));
+      spans.add(minimalSpan(resource, InstrumentationLibraryInfo.create("other", null)));
+    }
+    int maxRequestSize = toProtoBytes(spans.subList(0, 4)).length;
+    List<TraceRequestMarshaler> requests = TraceRequestMarshaler.createSplit(spans, maxRequestSize);
+    assertThat(requests.size()).isGreaterThan(1);
+    int spansCount = 0;
+    for (TraceRequestMarshaler request : requests) {
+      assertThat(request.getSerializedSize()).isAtMost(maxRequestSize);
+      ExportTraceServiceRequest decoded = ExportTraceServiceRequest.parseFrom(marshal(request));
+      assertThat(decoded.getSerializedSize()).isEqualTo(request.getSerializedSize());
+      for (ResourceSpans resourceSpans : decoded.getResourceSpansList()) {
+        for (InstrumentationLibrarySpans librarySpans :
+            resourceSpans.getInstrumentationLibrarySpansList()) {
+          spansCount += librarySpans.getSpansCount();
+        }
+      }
+    }
+    assertThat(spansCount).isEqualTo(spans.size());
+  }
+
+  @Test
+  public void createSplit_SpanLargerThanMax() {
+    List<SpanData> spans =
+        Arrays.asList(
+            fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()),
+            fullSpan(Resource.getEmpty(), InstrumentationLibraryInfo.getEmpty()));
+    // Every span is sent alone, even if it is larger than the max size.
+    assertThat(TraceRequestMarshaler.createSplit(spans, 1)).hasSize(2);
+  }
+
+  private static byte[] marshal(Collection<SpanData> spans) throws IOException {
+    return marshal(TraceRequestMarshaler.create(spans));
+  }
+
+  private static byte[] marshal(TraceRequestMarshaler marshaler) throws IOException {
+    byte[] bytes = new byte[marshaler.getSerializedSize()];
+    CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+    marshaler.writeTo(output);
+    output.checkNoSpaceLeft();
+    return bytes;
+  }
+
+  private static byte[] toProtoBytes(Collection<SpanData> spans) {
+    return ExportTraceServiceRequest.newBuilder()
+        .addAllResourceSpans(SpanAdapter.toProtoResourceSpans(spans))
+        .build()
+        .toByteArray();
+  }
+
+  private static SpanData fullSpan(Resource resource, InstrumentationLibraryInfo library) {
+    Map<String, AttributeValue> attributes = new HashMap<>();
+    attributes.put("string", AttributeValue.stringAttributeValue("value"));
+    attributes.put("empty", AttributeValue.stringAttributeValue(""));
+    attributes.put("long", AttributeValue.longAttributeValue(-12345));
+    attributes.put("zero", AttributeValue.longAttributeValue(0));
+    attributes.put("double", AttributeValue.doubleAttributeValue(1.5));
+    attributes.put("true", AttributeValue.booleanAttributeValue(true));
+    attributes.put("false", AttributeValue.booleanAttributeValue(false));
+    return SpanDataImpl.newBuilder()
+        .setHasEnded(true)
+        .setTraceId(TRACE_ID)
+        .setSpanId(SPAN_ID)
+        .setParentSpanId(PARENT_SPAN_ID)
+        .setResource(resource)
+        .setInstrumentationLibraryInfo(library)
+        .setName("GET /api/endpoint é世")
+        .setStartEpochNanos(1_000_000_000L)
+        .setEndEpochNanos(1_900_000_000L)
+        .setAttributes(attributes)
+        .setTotalAttributeCount(10)
+        .setEvents(
+            Arrays.<Event>asList(
+                Event.create(1_100_000_000L, "event", attributes, 8),
+                Event.create(
+                    1_200_000_000L, "empty", Collections.<String, AttributeValue>emptyMap())))
+        .setTotalRecordedEvents(3)
+        .setLinks(
+            Collections.singletonList(
+                Link.create(
+                    SpanContext.create(
+                        TRACE_ID, PARENT_SPAN_ID, TraceFlags.getDefault(), TraceState.getDefault()),
+                    attributes,
+                    9)))
+        .setTotalRecordedLinks(2)
+        .setStatus(Status.NOT_FOUND.withDescription("not found"))
+        .setKind(Kind.CLIENT)
+        .build();
+  }
+
+  private static SpanData minimalSpan(Resource resource, InstrumentationLibraryInfo library) {
+    return SpanDataImpl.newBuilder()
+        .setHasEnded(true)
+        .setTraceId(TRACE_ID)
+        .setSpanId(SPAN_ID)
+        .setResource(resource)
+        .setInstrumentationLibraryInfo(library)
+        .setName("")
+        .setStartEpochNanos(0)
+        .setEndEpochNanos(0)
+        .setStatus(Status.OK)
+        .setKind(Kind.INTERNAL)
+        .setLinks(Collections.<Link>emptyList())
+        .setTotalRecordedLinks(0)
+        .setTotalRecordedEvents(0)
+        .build();
+  }
+}
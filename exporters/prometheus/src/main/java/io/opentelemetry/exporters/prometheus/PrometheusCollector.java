@@ -18,6 +18,8 @@ package io.opentelemetry.exporters.prometheus;
 
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricProducer;
 import io.prometheus.client.Collector;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -33,6 +35,19 @@ public final class PrometheusCollector extends Collector {
 
   @Override
   public List<MetricFamilySamples> collect() {
+    if (metricProducer instanceof StreamingMetricProducer) {
+      // Converts the metrics while they are collected, so they are not all in memory twice.
+      final List<MetricFamilySamples> allSamples = new ArrayList<>();
+      ((StreamingMetricProducer) metricProducer)
+          .collectAllMetrics(
+              new MetricSink() {
+                @Override
+                public void accept(MetricData metricData) {
+                  allSamples.add(MetricAdapter.toMetricFamilySamples(metricData));
+                }
+              });
+      return allSamples;
+    }
     Collection<MetricData> allMetrics = metricProducer.getAllMetrics();
     List<MetricFamilySamples> allSamples = new ArrayList<>(allMetrics.size());
     for (MetricData metricData : allMetrics) {
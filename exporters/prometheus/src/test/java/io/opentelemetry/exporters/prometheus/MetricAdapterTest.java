@@ -48,6 +48,8 @@ public class MetricAdapterTest {
     assertThat(MetricAdapter.toMetricFamilyType(Descriptor.Type.MONOTONIC_LONG))
         .isEqualTo(Type.COUNTER);
     assertThat(MetricAdapter.toMetricFamilyType(Descriptor.Type.SUMMARY)).isEqualTo(Type.SUMMARY);
+    assertThat(MetricAdapter.toMetricFamilyType(Descriptor.Type.HISTOGRAM))
+        .isEqualTo(Type.HISTOGRAM);
   }
 
   @Test
@@ -246,6 +248,48 @@ public class MetricAdapterTest {
                 12.3));
   }
 
+  @Test
+  public void toSamples_HistogramPoints() {
+    assertThat(
+            MetricAdapter.toSamples(
+                "full_name",
+                Descriptor.create(
+                    "name",
+                    "description",
+                    "1",
+                    Descriptor.Type.HISTOGRAM,
+                    Collections.singletonMap("kc", "vc")),
+                ImmutableList.<Point>of(
+                    MetricData.HistogramPoint.create(
+                        321,
+                        654,
+                        Collections.singletonMap("kp", "vp"),
+                        9,
+                        18.3,
+                        ImmutableList.of(1.0, 10.0),
+                        ImmutableList.of(2L, 3L, 4L)))))
+        .containsExactly(
+            new Sample(
+                "full_name_count", ImmutableList.of("kc", "kp"), ImmutableList.of("vc", "vp"), 9),
+            new Sample(
+                "full_name_sum", ImmutableList.of("kc", "kp"), ImmutableList.of("vc", "vp"), 18.3),
+            new Sample(
+                "full_name_bucket",
+                ImmutableList.of("kc", "kp", "le"),
+                ImmutableList.of("vc", "vp", "1.0"),
+                2),
+            new Sample(
+                "full_name_bucket",
+                ImmutableList.of("kc", "kp", "le"),
+                ImmutableList.of("vc", "vp", "10.0"),
+                5),
+            new Sample(
+                "full_name_bucket",
+                ImmutableList.of("kc", "kp", "le"),
+                ImmutableList.of("vc", "vp", "+Inf"),
+                9));
+  }
+
   @Test
   public void toMetricFamilySamples() {
     Descriptor descriptor =
@@ -58,12 +58,37 @@ public class MetricsBenchmarks {
     }
   }
 
+  @State(Scope.Thread)
+  public static class LabelsState {
+
+    @Param({"1", "3", "8"})
+    int labelCount;
+
+    String[] labelSet;
+
+    @Setup
+    public void setup() {
+      // Keys are passed in reverse order, so the label set has to be sorted on a cache miss.
+      labelSet = new String[labelCount * 2];
+      for (int i = 0; i < labelCount; i++) {
+        labelSet[2 * i] = "KEY_" + (labelCount - i);
+        labelSet[2 * i + 1] = "VALUE_" + (labelCount - i);
+      }
+    }
+  }
+
   @Benchmark
   @Threads(1)
   public void oneThread(ThreadState threadState) {
     threadState.op.perform(threadState.sharedLabelSet);
   }
 
+  @Benchmark
+  @Threads(1)
+  public void oneThreadLabels(ThreadState threadState, LabelsState labelsState) {
+    threadState.op.perform(labelsState.labelSet);
+  }
+
   @Benchmark
   @Threads(1)
   public void oneThreadBound(ThreadState threadState) {
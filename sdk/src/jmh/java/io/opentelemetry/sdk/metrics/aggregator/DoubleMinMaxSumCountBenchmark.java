@@ -38,6 +38,36 @@ public class DoubleMinMaxSumCountBenchmark {
     aggregator = DoubleMinMaxSumCount.getFactory().getAggregator();
   }
 
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 64)
+  public void aggregate_64Threads() {
+    aggregator.recordDouble(100.0056);
+  }
+
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 32)
+  public void aggregate_32Threads() {
+    aggregator.recordDouble(100.0056);
+  }
+
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 16)
+  public void aggregate_16Threads() {
+    aggregator.recordDouble(100.0056);
+  }
+
   @Benchmark
   @Fork(1)
   @Warmup(iterations = 5, time = 1)
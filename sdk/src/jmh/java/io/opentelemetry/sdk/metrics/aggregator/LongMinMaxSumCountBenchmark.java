@@ -38,6 +38,36 @@ public class LongMinMaxSumCountBenchmark {
     aggregator = LongMinMaxSumCount.getFactory().getAggregator();
   }
 
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 64)
+  public void aggregate_64Threads() {
+    aggregator.recordLong(100);
+  }
+
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 32)
+  public void aggregate_32Threads() {
+    aggregator.recordLong(100);
+  }
+
+  @Benchmark
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Threads(value = 16)
+  public void aggregate_16Threads() {
+    aggregator.recordLong(100);
+  }
+
   @Benchmark
   @Fork(1)
   @Warmup(iterations = 5, time = 1)
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures the cost of handing ended spans to the {@link BatchSpanProcessor} queue. */
+@State(Scope.Benchmark)
+public class BatchSpanProcessorBenchmark {
+
+  @Param({"false", "true"})
+  private boolean lockFreeQueue;
+
+  private BatchSpanProcessor batchSpanProcessor;
+  private ReadableSpan span;
+
+  @Setup(Level.Trial)
+  public final void setup() {
+    batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(new NoOpSpanExporter())
+            .setMaxQueueSize(8192)
+            .setMaxExportBatchSize(512)
+            .setScheduleDelayMillis(100)
+            .setLockFreeQueue(lockFreeQueue)
+            .build();
+    TracerSdk tracerSdk = TracerSdkProvider.builder().build().get("benchmarkTracer");
+    RecordEventsReadableSpan endedSpan =
+        (RecordEventsReadableSpan) tracerSdk.spanBuilder("benchmarkSpan").startSpan();
+    endedSpan.end();
+    span = endedSpan;
+  }
+
+  @TearDown(Level.Trial)
+  public final void tearDown() {
+    batchSpanProcessor.shutdown();
+  }
+
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void onEnd_01Thread() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(value = 4)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void onEnd_04Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(value = 16)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void onEnd_16Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  @Benchmark
+  @Threads(value = 64)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void onEnd_64Threads() {
+    batchSpanProcessor.onEnd(span);
+  }
+
+  private static class NoOpSpanExporter implements SpanExporter {
+    @Override
+    public ResultCode export(Collection<SpanData> spans) {
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public ResultCode flush() {
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public void shutdown() {
+      // no-op
+    }
+  }
+}
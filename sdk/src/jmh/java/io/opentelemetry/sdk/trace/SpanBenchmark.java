@@ -36,6 +36,7 @@ public class SpanBenchmark {
 
   private final TracerSdk tracerSdk = OpenTelemetrySdk.getTracerProvider().get("benchmarkTracer");
   private RecordEventsReadableSpan span;
+  private RecordEventsReadableSpan activeSpan;
 
   @Setup(Level.Trial)
   public final void setup() {
@@ -46,6 +47,7 @@ public class SpanBenchmark {
                 .setSpanKind(Kind.CLIENT)
                 .setAttribute("key", "value");
     span = (RecordEventsReadableSpan) spanBuilderSdk.startSpan();
+    activeSpan = (RecordEventsReadableSpan) tracerSdk.spanBuilder("activeSpan").startSpan();
   }
 
   @Benchmark
@@ -88,6 +90,46 @@ public class SpanBenchmark {
     doSpanWork(span);
   }
 
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void mutateActiveSpan_01Thread() {
+    doActiveSpanWork(activeSpan);
+  }
+
+  @Benchmark
+  @Threads(value = 2)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void mutateActiveSpan_02Threads() {
+    doActiveSpanWork(activeSpan);
+  }
+
+  @Benchmark
+  @Threads(value = 5)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void mutateActiveSpan_05Threads() {
+    doActiveSpanWork(activeSpan);
+  }
+
+  @Benchmark
+  @Threads(value = 10)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void mutateActiveSpan_10Threads() {
+    doActiveSpanWork(activeSpan);
+  }
+
   private static void doSpanWork(RecordEventsReadableSpan span) {
     span.setAttribute("longAttribute", 33L);
     span.setAttribute("stringAttribute", "test_value");
@@ -96,4 +138,12 @@ public class SpanBenchmark {
     span.addEvent("testEvent");
     span.end();
   }
+
+  // Keeps the span active, so every call goes through the mutation path.
+  private static void doActiveSpanWork(RecordEventsReadableSpan span) {
+    span.setAttribute("longAttribute", 33L);
+    span.setAttribute("stringAttribute", "test_value");
+    span.setStatus(Status.OK);
+    span.updateName("activeSpan");
+  }
 }
@@ -67,6 +67,34 @@ public class SpanPipelineBenchmark {
     doWork();
   }
 
+  /**
+   * Single thread variant, run with the gc profiler to compare the bytes allocated per span ({@code
+   * gc.alloc.rate.norm}).
+   */
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void runThePipeline_01Thread() {
+    doWork();
+  }
+
+  /**
+   * Measures a span with a single attribute and no event, which shows the fixed allocations of a
+   * span going through the pipeline.
+   */
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void runMinimalSpan_01Thread() {
+    tracerSdk.spanBuilder("benchmarkSpan").setAttribute("key", "value").startSpan().end();
+  }
+
   private void doWork() {
     Span span =
         tracerSdk
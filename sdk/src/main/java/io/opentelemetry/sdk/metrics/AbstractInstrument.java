@@ -23,12 +23,14 @@ import io.opentelemetry.sdk.metrics.common.InstrumentType;
 import io.opentelemetry.sdk.metrics.common.InstrumentValueType;
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.view.Aggregation;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import javax.annotation.Nullable;
 
 abstract class AbstractInstrument implements Instrument {
 
@@ -67,6 +69,16 @@ abstract class AbstractInstrument implements Instrument {
 
   abstract List<MetricData> collectAll();
 
+  /**
+   * Returns the point with the number of distinct label sets recorded with the {@link
+   * LabelSetSdk#getOverflow() overflow label set} because this instrument reached its maximum
+   * number of label sets, as of the last {@link #collectAll()}, or {@code null} if none were.
+   */
+  @Nullable
+  final Point getRejectedLabelSets(Map<String, String> labels) {
+    return activeBatcher.getRejectedLabelSets(labels);
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -169,11 +181,26 @@ abstract class AbstractInstrument implements Instrument {
       MeterProviderSharedState meterProviderSharedState,
       MeterSharedState meterSharedState,
       Aggregation defaultAggregation) {
-    return Batchers.getCumulativeAllLabels(
-        getDefaultMetricDescriptor(descriptor, defaultAggregation),
-        meterProviderSharedState.getResource(),
-        meterSharedState.getInstrumentationLibraryInfo(),
-        defaultAggregation.getAggregatorFactory(descriptor.getValueType()),
-        meterProviderSharedState.getClock());
+    switch (meterProviderSharedState.getAggregationTemporality()) {
+      case DELTA:
+        return Batchers.getDeltaAllLabels(
+            getDefaultMetricDescriptor(descriptor, defaultAggregation),
+            meterProviderSharedState.getResource(),
+            meterSharedState.getInstrumentationLibraryInfo(),
+            defaultAggregation.getAggregatorFactory(descriptor.getValueType()),
+            meterProviderSharedState.getClock(),
+            meterProviderSharedState.getMaxLabelSetsPerInstrument());
+      case CUMULATIVE:
+        return Batchers.getCumulativeAllLabels(
+            getDefaultMetricDescriptor(descriptor, defaultAggregation),
+            meterProviderSharedState.getResource(),
+            meterSharedState.getInstrumentationLibraryInfo(),
+            defaultAggregation.getAggregatorFactory(descriptor.getValueType()),
+            meterProviderSharedState.getClock(),
+            meterProviderSharedState.getMaxLabelSetsPerInstrument());
+    }
+    throw new IllegalArgumentException(
+        "Unsupported aggregation temporality "
+            + meterProviderSharedState.getAggregationTemporality());
   }
 }
@@ -20,11 +20,15 @@ import io.opentelemetry.sdk.metrics.data.MetricData;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 abstract class AbstractSynchronousInstrument<B extends AbstractBoundInstrument>
     extends AbstractInstrument {
   private final ConcurrentHashMap<LabelSetSdk, B> boundLabels;
+  // Number of entries in boundLabels, ConcurrentHashMap.size() is too expensive for every bind.
+  private final AtomicInteger boundLabelsCount = new AtomicInteger();
+  private final int maxLabelSets;
   private final ReentrantLock collectLock;
 
   AbstractSynchronousInstrument(
@@ -34,6 +38,7 @@ abstract class AbstractSynchronousInstrument<B extends AbstractBoundInstrument>
       ActiveBatcher activeBatcher) {
     super(descriptor, meterProviderSharedState, meterSharedState, activeBatcher);
     boundLabels = new ConcurrentHashMap<>();
+    maxLabelSets = meterProviderSharedState.getMaxLabelSetsPerInstrument();
     collectLock = new ReentrantLock();
   }
 
@@ -44,6 +49,12 @@ abstract class AbstractSynchronousInstrument<B extends AbstractBoundInstrument>
       return binding;
     }
 
+    // The limit is checked without synchronization, so concurrent binds may go slightly over it.
+    if (boundLabelsCount.get() >= maxLabelSets && !labelSet.equals(LabelSetSdk.getOverflow())) {
+      getActiveBatcher().recordRejectedLabelSet(labelSet);
+      return bind(LabelSetSdk.getOverflow());
+    }
+
     // Missing entry or no longer mapped, try to add a new entry.
     binding = newBinding(getActiveBatcher());
     while (true) {
@@ -55,9 +66,12 @@ abstract class AbstractSynchronousInstrument<B extends AbstractBoundInstrument>
         }
         // Try to remove the oldBound. This will race with the collect method, but only one will
         // succeed.
-        boundLabels.remove(labelSet, oldBound);
+        if (boundLabels.remove(labelSet, oldBound)) {
+          boundLabelsCount.decrementAndGet();
+        }
         continue;
       }
+      boundLabelsCount.incrementAndGet();
       return binding;
     }
   }
@@ -76,7 +90,9 @@ abstract class AbstractSynchronousInstrument<B extends AbstractBoundInstrument>
         if (unmappedEntry) {
           // If able to unmap then remove the record from the current Map. This can race with the
           // acquire but because we requested a specific value only one will succeed.
-          boundLabels.remove(entry.getKey(), entry.getValue());
+          if (boundLabels.remove(entry.getKey(), entry.getValue())) {
+            boundLabelsCount.decrementAndGet();
+          }
         }
         batcher.batch(entry.getKey(), entry.getValue().getAggregator(), unmappedEntry);
       }
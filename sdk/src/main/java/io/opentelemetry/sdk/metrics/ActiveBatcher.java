@@ -18,7 +18,10 @@ package io.opentelemetry.sdk.metrics;
 
 import io.opentelemetry.sdk.metrics.aggregator.Aggregator;
 import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * Tracks a list of active Batchers used to aggregate measurements recorded by one {@code
@@ -49,4 +52,15 @@ final class ActiveBatcher implements Batcher {
   public List<MetricData> completeCollectionCycle() {
     return batcher.completeCollectionCycle();
   }
+
+  @Override
+  public void recordRejectedLabelSet(LabelSetSdk labelSet) {
+    batcher.recordRejectedLabelSet(labelSet);
+  }
+
+  @Override
+  @Nullable
+  public Point getRejectedLabelSets(Map<String, String> labels) {
+    return batcher.getRejectedLabelSets(labels);
+  }
 }
@@ -18,16 +18,20 @@ package io.opentelemetry.sdk.metrics;
 
 import io.opentelemetry.sdk.metrics.aggregator.Aggregator;
 import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
 
 /**
  * A {@code Batcher} represents an internal representation of an {code Instrument} aggregation
  * process. It records individual measurements (via the {@code Aggregator}). It batches together
  * {@code Aggregator}s for the similar sets of labels.
  *
- * <p>The only thread safe method in this class is {@link #getAggregator()}. An entire collection
- * cycle must be protected by a lock. A collection cycle is defined by multiple calls to {@link
- * #batch(LabelSetSdk, Aggregator, boolean)} followed by one {@link #completeCollectionCycle()};
+ * <p>The only thread safe methods in this class are {@link #getAggregator()} and {@link
+ * #recordRejectedLabelSet(LabelSetSdk)}. An entire collection cycle must be protected by a lock. A
+ * collection cycle is defined by multiple calls to {@link #batch(LabelSetSdk, Aggregator, boolean)}
+ * followed by one {@link #completeCollectionCycle()};
  */
 interface Batcher {
 
@@ -61,4 +65,26 @@ interface Batcher {
    * @return the list of metrics batched in this Batcher.
    */
   List<MetricData> completeCollectionCycle();
+
+  /**
+   * Records a label set recorded with the {@link LabelSetSdk#getOverflow() overflow label set}
+   * because the maximum number of label sets was reached. A label set is counted once per
+   * collection cycle no matter how many times it is rejected. This method is thread safe.
+   *
+   * @param labelSet the rejected {@link LabelSetSdk}.
+   */
+  void recordRejectedLabelSet(LabelSetSdk labelSet);
+
+  /**
+   * Returns the number of distinct label sets rejected as of the last {@link
+   * #completeCollectionCycle()}, with the same temporality as the metrics of this {@code Batcher}:
+   * the label sets rejected during the last collection cycle if it produces deltas, the sum over
+   * all the collection cycles if it produces cumulative metrics.
+   *
+   * @param labels the labels of the returned point.
+   * @return the point with the number of rejected label sets, or {@code null} if no label set was
+   *     rejected.
+   */
+  @Nullable
+  Point getRejectedLabelSets(Map<String, String> labels);
 }
@@ -23,6 +23,7 @@ import io.opentelemetry.sdk.metrics.aggregator.AggregatorFactory;
 import io.opentelemetry.sdk.metrics.aggregator.NoopAggregator;
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
+import io.opentelemetry.sdk.metrics.data.MetricData.LongPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.resources.Resource;
 import java.util.ArrayList;
@@ -30,6 +31,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 
 /** A collection of available Batchers. */
 final class Batchers {
@@ -43,16 +45,35 @@ final class Batchers {
       Resource resource,
       InstrumentationLibraryInfo instrumentationLibraryInfo,
       AggregatorFactory aggregatorFactory,
-      Clock clock) {
+      Clock clock,
+      int maxLabelSets) {
     return new AllLabels(
         descriptor,
         resource,
         instrumentationLibraryInfo,
         aggregatorFactory,
         clock,
+        maxLabelSets,
         /* delta= */ false);
   }
 
+  static Batcher getDeltaAllLabels(
+      Descriptor descriptor,
+      Resource resource,
+      InstrumentationLibraryInfo instrumentationLibraryInfo,
+      AggregatorFactory aggregatorFactory,
+      Clock clock,
+      int maxLabelSets) {
+    return new AllLabels(
+        descriptor,
+        resource,
+        instrumentationLibraryInfo,
+        aggregatorFactory,
+        clock,
+        maxLabelSets,
+        /* delta= */ true);
+  }
+
   private static final class Noop implements Batcher {
     private static final Noop INSTANCE = new Noop();
 
@@ -68,6 +89,15 @@ final class Batchers {
     public List<MetricData> completeCollectionCycle() {
       return Collections.emptyList();
     }
+
+    @Override
+    public void recordRejectedLabelSet(LabelSetSdk labelSet) {}
+
+    @Override
+    @Nullable
+    public Point getRejectedLabelSets(Map<String, String> labels) {
+      return null;
+    }
   }
 
   private static final class AllLabels implements Batcher {
@@ -76,9 +106,13 @@ final class Batchers {
     private final InstrumentationLibraryInfo instrumentationLibraryInfo;
     private final Clock clock;
     private final AggregatorFactory aggregatorFactory;
-    private Map<Map<String, String>, Aggregator> aggregatorMap;
+    private final int maxLabelSets;
+    private final RejectedLabelSets rejectedLabelSets = new RejectedLabelSets();
+    private Map<LabelSetSdk, Aggregator> aggregatorMap;
     private long startEpochNanos;
     private final boolean delta;
+    // Labels are added when reported, the point is replaced at the end of every collection cycle.
+    @Nullable private volatile LongPoint rejectedLabelSetsPoint;
 
     private AllLabels(
         Descriptor descriptor,
@@ -86,12 +120,14 @@ final class Batchers {
         InstrumentationLibraryInfo instrumentationLibraryInfo,
         AggregatorFactory aggregatorFactory,
         Clock clock,
+        int maxLabelSets,
         boolean delta) {
       this.descriptor = descriptor;
       this.resource = resource;
       this.instrumentationLibraryInfo = instrumentationLibraryInfo;
       this.clock = clock;
       this.aggregatorFactory = aggregatorFactory;
+      this.maxLabelSets = maxLabelSets;
       this.delta = delta;
       this.aggregatorMap = new HashMap<>();
       startEpochNanos = clock.now();
@@ -105,34 +141,83 @@ final class Batchers {
     @Override
     public final void batch(
         LabelSetSdk labelSet, Aggregator aggregator, boolean unmappedAggregator) {
-      Map<String, String> labels = labelSet.getLabels();
-      Aggregator currentAggregator = aggregatorMap.get(labels);
+      LabelSetSdk batchedLabelSet = labelSet;
+      Aggregator currentAggregator = aggregatorMap.get(batchedLabelSet);
+      if (currentAggregator == null
+          && !labelSet.equals(LabelSetSdk.getOverflow())
+          && labelSetsCount() >= maxLabelSets) {
+        // Too many label sets, the overflow label set is always accepted on top of the maximum.
+        rejectedLabelSets.record(labelSet);
+        batchedLabelSet = LabelSetSdk.getOverflow();
+        currentAggregator = aggregatorMap.get(batchedLabelSet);
+      }
       if (currentAggregator == null) {
         // This aggregator is not mapped, we can use this instance.
         if (unmappedAggregator) {
-          aggregatorMap.put(labels, aggregator);
+          aggregatorMap.put(batchedLabelSet, aggregator);
           return;
         }
         currentAggregator = aggregatorFactory.getAggregator();
-        aggregatorMap.put(labels, currentAggregator);
+        aggregatorMap.put(batchedLabelSet, currentAggregator);
       }
       aggregator.mergeToAndReset(currentAggregator);
     }
 
+    // The overflow label set does not count towards the maximum.
+    private int labelSetsCount() {
+      int count = aggregatorMap.size();
+      return aggregatorMap.containsKey(LabelSetSdk.getOverflow()) ? count - 1 : count;
+    }
+
     @Override
     public final List<MetricData> completeCollectionCycle() {
       List<Point> points = new ArrayList<>(aggregatorMap.size());
       long epochNanos = clock.now();
-      for (Map.Entry<Map<String, String>, Aggregator> entry : aggregatorMap.entrySet()) {
-        points.add(entry.getValue().toPoint(startEpochNanos, epochNanos, entry.getKey()));
+      for (Map.Entry<LabelSetSdk, Aggregator> entry : aggregatorMap.entrySet()) {
+        Point point =
+            entry.getValue().toPoint(startEpochNanos, epochNanos, entry.getKey().getLabels());
+        // Some aggregators have no point to report when nothing was recorded.
+        if (point != null) {
+          points.add(point);
+        }
       }
+      completeRejectedLabelSets(epochNanos);
       if (delta) {
         startEpochNanos = epochNanos;
+        // Start from a new map, so the label sets not recorded anymore and the memory used by a
+        // spike of label sets are released.
         aggregatorMap = new HashMap<>();
       }
       return Collections.singletonList(
           MetricData.create(descriptor, resource, instrumentationLibraryInfo, points));
     }
+
+    private void completeRejectedLabelSets(long epochNanos) {
+      // A cumulative count keeps the label sets rejected in the previous cycles, so a label set
+      // rejected in every cycle is still counted once.
+      long rejected = delta ? rejectedLabelSets.getAndReset() : rejectedLabelSets.get();
+      rejectedLabelSetsPoint =
+          rejected == 0
+              ? null
+              : LongPoint.create(
+                  startEpochNanos, epochNanos, Collections.<String, String>emptyMap(), rejected);
+    }
+
+    @Override
+    public void recordRejectedLabelSet(LabelSetSdk labelSet) {
+      rejectedLabelSets.record(labelSet);
+    }
+
+    @Override
+    @Nullable
+    public Point getRejectedLabelSets(Map<String, String> labels) {
+      LongPoint point = rejectedLabelSetsPoint;
+      if (point == null) {
+        return null;
+      }
+      return LongPoint.create(
+          point.getStartEpochNanos(), point.getEpochNanos(), labels, point.getValue());
+    }
   }
 
   private Batchers() {}
@@ -20,7 +20,6 @@ import io.opentelemetry.metrics.DoubleValueRecorder;
 import io.opentelemetry.sdk.metrics.DoubleValueRecorderSdk.BoundInstrument;
 import io.opentelemetry.sdk.metrics.common.InstrumentType;
 import io.opentelemetry.sdk.metrics.common.InstrumentValueType;
-import io.opentelemetry.sdk.metrics.view.Aggregations;
 
 final class DoubleValueRecorderSdk extends AbstractSynchronousInstrument<BoundInstrument>
     implements DoubleValueRecorder {
@@ -38,7 +37,7 @@ final class DoubleValueRecorderSdk extends AbstractSynchronousInstrument<BoundIn
                 descriptor,
                 meterProviderSharedState,
                 meterSharedState,
-                Aggregations.minMaxSumCount())));
+                meterProviderSharedState.getValueRecorderAggregation())));
   }
 
   @Override
@@ -16,31 +16,245 @@
 
 package io.opentelemetry.sdk.metrics;
 
-import com.google.auto.value.AutoValue;
 import io.opentelemetry.internal.Utils;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
 
-@AutoValue
+/**
+ * An immutable set of labels, stored as a flat array of key/value pairs sorted by key.
+ *
+ * <p>The hash code is computed once and does not depend on the order of the pairs, so it can be
+ * computed directly from the {@code keyValuePairs} given by the caller. {@link #create(String...)}
+ * uses it to look up a small cache of recently created label sets, so recording again with the same
+ * labels returns the same instance without allocating.
+ */
 @Immutable
-abstract class LabelSetSdk {
-  private static final LabelSetSdk EMPTY =
-      new AutoValue_LabelSetSdk(Collections.<String, String>emptyMap());
+final class LabelSetSdk {
+  // Must be a power of two.
+  private static final int CACHE_SIZE = 1024;
+  private static final LabelSetSdk EMPTY = new LabelSetSdk(new String[0]);
+  private static final LabelSetSdk OVERFLOW =
+      new LabelSetSdk(new String[] {"otel.metric.overflow", "true"});
+
+  // Direct-mapped cache indexed by hash, a colliding label set replaces the previous one. It is
+  // bounded so label sets with a high cardinality do not leak.
+  private static final AtomicReferenceArray<LabelSetSdk> cache =
+      new AtomicReferenceArray<>(CACHE_SIZE);
+
+  // Key/value pairs sorted by key, keys are unique.
+  private final String[] keyValuePairs;
+  private final int hashCode;
+  private final Map<String, String> labels;
 
   static LabelSetSdk create(String... keyValuePairs) {
     if (keyValuePairs.length == 0) {
       return EMPTY;
     }
+    int hash = hashOf(keyValuePairs);
+    int index = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+    LabelSetSdk cached = cache.get(index);
+    if (cached != null && cached.hashCode == hash && cached.matches(keyValuePairs)) {
+      return cached;
+    }
     Utils.validateLabelPairs(keyValuePairs);
-    Map<String, String> data = new HashMap<>(keyValuePairs.length / 2);
-    for (int i = 0; i < keyValuePairs.length; i++) {
-      String key = keyValuePairs[i];
-      data.put(key, keyValuePairs[++i]);
+    LabelSetSdk labelSet = new LabelSetSdk(sortAndDeduplicate(keyValuePairs));
+    cache.lazySet(index, labelSet);
+    return labelSet;
+  }
+
+  /**
+   * Returns the label set used for the measurements recorded with new label sets once an instrument
+   * reached its maximum number of label sets.
+   */
+  static LabelSetSdk getOverflow() {
+    return OVERFLOW;
+  }
+
+  private LabelSetSdk(String[] keyValuePairs) {
+    this.keyValuePairs = keyValuePairs;
+    this.hashCode = hashOf(keyValuePairs);
+    this.labels = new LabelsMap();
+  }
+
+  /** Returns an immutable {@link Map} view of the labels. */
+  Map<String, String> getLabels() {
+    return labels;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof LabelSetSdk)) {
+      return false;
+    }
+    LabelSetSdk that = (LabelSetSdk) o;
+    return hashCode == that.hashCode && Arrays.equals(keyValuePairs, that.keyValuePairs);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "LabelSetSdk{labels=" + labels + "}";
+  }
+
+  // Returns true if the given pairs, in any order, are the same as the pairs of this label set.
+  private boolean matches(String[] otherKeyValuePairs) {
+    if (otherKeyValuePairs.length != keyValuePairs.length) {
+      return false;
     }
-    return new AutoValue_LabelSetSdk(Collections.unmodifiableMap(data));
+    // Fast path, the caller uses the sorted order.
+    if (Arrays.equals(keyValuePairs, otherKeyValuePairs)) {
+      return true;
+    }
+    // Keys are unique here, so finding all of them in the other pairs of the same length means the
+    // other pairs have no duplicate keys either.
+    for (int i = 0; i < keyValuePairs.length; i += 2) {
+      if (!containsPair(otherKeyValuePairs, keyValuePairs[i], keyValuePairs[i + 1])) {
+        return false;
+      }
+    }
+    return true;
   }
 
-  abstract Map<String, String> getLabels();
+  private static boolean containsPair(String[] keyValuePairs, String key, @Nullable String value) {
+    for (int i = 0; i < keyValuePairs.length; i += 2) {
+      if (key.equals(keyValuePairs[i])) {
+        return Objects.equals(value, keyValuePairs[i + 1]);
+      }
+    }
+    return false;
+  }
+
+  // Does not depend on the order of the pairs.
+  private static int hashOf(String[] keyValuePairs) {
+    int hash = 0;
+    for (int i = 0; i + 1 < keyValuePairs.length; i += 2) {
+      int pairHash =
+          (Objects.hashCode(keyValuePairs[i]) * 31 + Objects.hashCode(keyValuePairs[i + 1]))
+              * 0x9E3779B9;
+      hash += pairHash ^ (pairHash >>> 16);
+    }
+    return hash;
+  }
+
+  // Sorts the pairs by key, when a key is repeated the last value wins.
+  private static String[] sortAndDeduplicate(String[] keyValuePairs) {
+    String[] sorted = Arrays.copyOf(keyValuePairs, keyValuePairs.length);
+    // Insertion sort is stable and fast for the usual number of labels.
+    for (int i = 2; i < sorted.length; i += 2) {
+      String key = sorted[i];
+      String value = sorted[i + 1];
+      int j = i - 2;
+      while (j >= 0 && sorted[j].compareTo(key) > 0) {
+        sorted[j + 2] = sorted[j];
+        sorted[j + 3] = sorted[j + 1];
+        j -= 2;
+      }
+      sorted[j + 2] = key;
+      sorted[j + 3] = value;
+    }
+    int size = 0;
+    for (int i = 0; i < sorted.length; i += 2) {
+      if (size > 0 && sorted[size - 2].equals(sorted[i])) {
+        // The later value of a repeated key is after the earlier ones, the sort is stable.
+        sorted[size - 1] = sorted[i + 1];
+      } else {
+        sorted[size++] = sorted[i];
+        sorted[size++] = sorted[i + 1];
+      }
+    }
+    return size == sorted.length ? sorted : Arrays.copyOf(sorted, size);
+  }
+
+  private final class LabelsMap extends AbstractMap<String, String> {
+    @Override
+    public int size() {
+      return keyValuePairs.length / 2;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return indexOf(key) >= 0;
+    }
+
+    @Nullable
+    @Override
+    public String get(Object key) {
+      int i = indexOf(key);
+      return i < 0 ? null : keyValuePairs[i + 1];
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+      return new AbstractSet<Entry<String, String>>() {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+          return new Iterator<Entry<String, String>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+              return next < keyValuePairs.length;
+            }
+
+            @Override
+            public Entry<String, String> next() {
+              if (next >= keyValuePairs.length) {
+                throw new NoSuchElementException();
+              }
+              Entry<String, String> entry =
+                  new SimpleImmutableEntry<>(keyValuePairs[next], keyValuePairs[next + 1]);
+              next += 2;
+              return entry;
+            }
+
+            @Override
+            public void remove() {
+              throw new UnsupportedOperationException("remove");
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return keyValuePairs.length / 2;
+        }
+      };
+    }
+
+    private int indexOf(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      int low = 0;
+      int high = keyValuePairs.length / 2 - 1;
+      while (low <= high) {
+        int mid = (low + high) >>> 1;
+        int comparison = keyValuePairs[mid * 2].compareTo((String) key);
+        if (comparison < 0) {
+          low = mid + 1;
+        } else if (comparison > 0) {
+          high = mid - 1;
+        } else {
+          return mid * 2;
+        }
+      }
+      return -1;
+    }
+  }
 }
@@ -20,7 +20,6 @@ import io.opentelemetry.metrics.LongValueRecorder;
 import io.opentelemetry.sdk.metrics.LongValueRecorderSdk.BoundInstrument;
 import io.opentelemetry.sdk.metrics.common.InstrumentType;
 import io.opentelemetry.sdk.metrics.common.InstrumentValueType;
-import io.opentelemetry.sdk.metrics.view.Aggregations;
 
 final class LongValueRecorderSdk extends AbstractSynchronousInstrument<BoundInstrument>
     implements LongValueRecorder {
@@ -38,7 +37,7 @@ final class LongValueRecorderSdk extends AbstractSynchronousInstrument<BoundInst
                 descriptor,
                 meterProviderSharedState,
                 meterSharedState,
-                Aggregations.minMaxSumCount())));
+                meterProviderSharedState.getValueRecorderAggregation())));
   }
 
   @Override
@@ -18,17 +18,47 @@ package io.opentelemetry.sdk.metrics;
 
 import com.google.auto.value.AutoValue;
 import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.view.Aggregation;
+import io.opentelemetry.sdk.metrics.view.Aggregations;
 import io.opentelemetry.sdk.resources.Resource;
 import javax.annotation.concurrent.Immutable;
 
 @AutoValue
 @Immutable
 abstract class MeterProviderSharedState {
+  static final int DEFAULT_MAX_LABEL_SETS_PER_INSTRUMENT = 2000;
+
   static MeterProviderSharedState create(Clock clock, Resource resource) {
-    return new AutoValue_MeterProviderSharedState(clock, resource);
+    return create(
+        clock,
+        resource,
+        Aggregations.minMaxSumCount(),
+        AggregationTemporality.CUMULATIVE,
+        DEFAULT_MAX_LABEL_SETS_PER_INSTRUMENT);
+  }
+
+  static MeterProviderSharedState create(
+      Clock clock,
+      Resource resource,
+      Aggregation valueRecorderAggregation,
+      AggregationTemporality aggregationTemporality,
+      int maxLabelSetsPerInstrument) {
+    return new AutoValue_MeterProviderSharedState(
+        clock,
+        resource,
+        valueRecorderAggregation,
+        aggregationTemporality,
+        maxLabelSetsPerInstrument);
   }
 
   abstract Clock getClock();
 
   abstract Resource getResource();
+
+  abstract Aggregation getValueRecorderAggregation();
+
+  abstract AggregationTemporality getAggregationTemporality();
+
+  abstract int getMaxLabelSetsPerInstrument();
 }
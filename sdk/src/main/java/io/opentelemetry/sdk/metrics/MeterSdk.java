@@ -21,6 +21,7 @@ import io.opentelemetry.metrics.LongValueObserver;
 import io.opentelemetry.metrics.Meter;
 import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
 import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -106,9 +107,33 @@ final class MeterSdk implements Meter {
     return new BatchRecorderSdk(keyValuePairs);
   }
 
+  /**
+   * Adds one point with the number of distinct rejected label sets for every instrument of this
+   * meter that reached its maximum number of label sets, as of the last collection of the
+   * instruments.
+   */
+  void collectRejectedLabelSets(List<Point> points) {
+    for (AbstractInstrument instrument : getInstruments()) {
+      Point point =
+          instrument.getRejectedLabelSets(
+              LabelSetSdk.create(
+                      "instrumentation_library",
+                      getInstrumentationLibraryInfo().getName(),
+                      "instrument",
+                      instrument.getDescriptor().getName())
+                  .getLabels());
+      if (point != null) {
+        points.add(point);
+      }
+    }
+  }
+
+  Collection<AbstractInstrument> getInstruments() {
+    return meterSharedState.getInstrumentRegistry().getInstruments();
+  }
+
   Collection<MetricData> collectAll() {
-    InstrumentRegistry instrumentRegistry = meterSharedState.getInstrumentRegistry();
-    Collection<AbstractInstrument> instruments = instrumentRegistry.getInstruments();
+    Collection<AbstractInstrument> instruments = getInstruments();
     List<MetricData> result = new ArrayList<>(instruments.size());
     for (AbstractInstrument instrument : instruments) {
       result.addAll(instrument.collectAll());
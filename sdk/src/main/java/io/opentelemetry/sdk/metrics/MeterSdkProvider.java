@@ -16,13 +16,22 @@
 
 package io.opentelemetry.sdk.metrics;
 
+import io.opentelemetry.internal.Utils;
 import io.opentelemetry.metrics.MeterProvider;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
 import io.opentelemetry.sdk.internal.ComponentRegistry;
 import io.opentelemetry.sdk.internal.MillisClock;
+import io.opentelemetry.sdk.metrics.common.InstrumentType;
 import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporality;
 import io.opentelemetry.sdk.metrics.export.MetricProducer;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricProducer;
+import io.opentelemetry.sdk.metrics.view.Aggregation;
+import io.opentelemetry.sdk.metrics.view.Aggregations;
 import io.opentelemetry.sdk.resources.EnvVarResource;
 import io.opentelemetry.sdk.resources.Resource;
 import java.util.ArrayList;
@@ -30,7 +39,14 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * {@code Meter} provider implementation for {@link MeterProvider}.
@@ -39,13 +55,48 @@ import javax.annotation.Nonnull;
  * io.opentelemetry.OpenTelemetry}.
  */
 public final class MeterSdkProvider implements MeterProvider {
+  private static final InstrumentationLibraryInfo SDK_INSTRUMENTATION_LIBRARY_INFO =
+      InstrumentationLibraryInfo.create("io.opentelemetry.sdk.metrics", null);
+  private static final Descriptor REJECTED_LABEL_SETS_DESCRIPTOR =
+      Descriptor.create(
+          "otel.sdk.metrics.rejected_label_sets",
+          "Number of distinct label sets recorded with the overflow label set because the "
+              + "instrument reached its maximum number of label sets.",
+          "1",
+          Descriptor.Type.MONOTONIC_LONG,
+          Collections.<String, String>emptyMap());
+  private static final String COLLECTION_THREAD_NAME =
+      MeterSdkProvider.class.getSimpleName() + "_CollectionThread";
 
   private final MeterSdkComponentRegistry registry;
+  // Null if the instruments are collected serially.
+  @Nullable private final ForkJoinPool collectionPool;
   private final MetricProducer metricProducer;
 
-  private MeterSdkProvider(Clock clock, Resource resource) {
-    this.registry = new MeterSdkComponentRegistry(MeterProviderSharedState.create(clock, resource));
-    this.metricProducer = new MetricProducerSdk(this.registry);
+  private MeterSdkProvider(
+      Clock clock,
+      Resource resource,
+      Aggregation valueRecorderAggregation,
+      AggregationTemporality aggregationTemporality,
+      int maxLabelSetsPerInstrument,
+      int collectionParallelism) {
+    this.registry =
+        new MeterSdkComponentRegistry(
+            MeterProviderSharedState.create(
+                clock,
+                resource,
+                valueRecorderAggregation,
+                aggregationTemporality,
+                maxLabelSetsPerInstrument));
+    this.collectionPool =
+        collectionParallelism > 1
+            ? new ForkJoinPool(
+                collectionParallelism,
+                new DaemonWorkerThreadFactory(COLLECTION_THREAD_NAME),
+                null,
+                false)
+            : null;
+    this.metricProducer = new MetricProducerSdk(this.registry, collectionPool);
   }
 
   @Override
@@ -69,6 +120,19 @@ public final class MeterSdkProvider implements MeterProvider {
     return metricProducer;
   }
 
+  /**
+   * Stops the threads used to collect the instruments in parallel, see {@link
+   * Builder#setCollectionParallelism(int)}. The {@link MetricProducer} collects the instruments
+   * serially afterwards.
+   *
+   * @since 0.5.0
+   */
+  public void shutdown() {
+    if (collectionPool != null) {
+      collectionPool.shutdown();
+    }
+  }
+
   /**
    * Returns a new {@link Builder} for {@link MeterSdkProvider}.
    *
@@ -88,6 +152,11 @@ public final class MeterSdkProvider implements MeterProvider {
 
     private Clock clock = MillisClock.getInstance();
     private Resource resource = EnvVarResource.getResource();
+    private Aggregation valueRecorderAggregation = Aggregations.minMaxSumCount();
+    private AggregationTemporality aggregationTemporality = AggregationTemporality.CUMULATIVE;
+    private int maxLabelSetsPerInstrument =
+        MeterProviderSharedState.DEFAULT_MAX_LABEL_SETS_PER_INSTRUMENT;
+    private int collectionParallelism = 1;
 
     private Builder() {}
 
@@ -115,13 +184,92 @@ public final class MeterSdkProvider implements MeterProvider {
       return this;
     }
 
+    /**
+     * Assign the {@link Aggregation} used by the {@code ValueRecorder} instruments, for example
+     * {@link Aggregations#distributionWithExplicitBounds(Double...)} to export histograms. The
+     * default is {@link Aggregations#minMaxSumCount()}.
+     *
+     * @param aggregation the {@code Aggregation} to use for {@code ValueRecorder} instruments.
+     * @return this
+     * @throws IllegalArgumentException if the {@code Aggregation} is not available for {@code
+     *     ValueRecorder} instruments.
+     */
+    public Builder setValueRecorderAggregation(@Nonnull Aggregation aggregation) {
+      Objects.requireNonNull(aggregation, "aggregation");
+      Utils.checkArgument(
+          aggregation.availableForInstrument(InstrumentType.VALUE_RECORDER),
+          "Aggregation is not available for ValueRecorder instruments.");
+      this.valueRecorderAggregation = aggregation;
+      return this;
+    }
+
+    /**
+     * Assign the {@link AggregationTemporality} of the metrics produced by the {@link
+     * MetricProducer}. Use the temporality expected by the exporter backend, {@link
+     * AggregationTemporality#DELTA} also releases the label sets that are not recorded anymore
+     * after every collection. The default is {@link AggregationTemporality#CUMULATIVE}.
+     *
+     * @param aggregationTemporality the {@code AggregationTemporality} of the produced metrics.
+     * @return this
+     */
+    public Builder setAggregationTemporality(
+        @Nonnull AggregationTemporality aggregationTemporality) {
+      Objects.requireNonNull(aggregationTemporality, "aggregationTemporality");
+      this.aggregationTemporality = aggregationTemporality;
+      return this;
+    }
+
+    /**
+     * Assign the maximum number of label sets kept by every instrument. Once an instrument reached
+     * the maximum, the measurements recorded with new label sets are aggregated together with the
+     * {@code otel.metric.overflow=true} label set, and the distinct rejected label sets are counted
+     * by the {@code otel.sdk.metrics.rejected_label_sets} metric, since the start with the {@link
+     * AggregationTemporality#CUMULATIVE} temporality or since the previous collection with {@link
+     * AggregationTemporality#DELTA}. The default is 2000.
+     *
+     * @param maxLabelSetsPerInstrument the maximum number of label sets of every instrument.
+     * @return this
+     * @throws IllegalArgumentException if {@code maxLabelSetsPerInstrument} is not positive.
+     */
+    public Builder setMaxLabelSetsPerInstrument(int maxLabelSetsPerInstrument) {
+      Utils.checkArgument(
+          maxLabelSetsPerInstrument > 0, "maxLabelSetsPerInstrument must be positive.");
+      this.maxLabelSetsPerInstrument = maxLabelSetsPerInstrument;
+      return this;
+    }
+
+    /**
+     * Assign the number of threads used to collect the instruments. With more than one thread the
+     * instruments are collected in parallel on a dedicated {@link ForkJoinPool}, which helps when
+     * there are many instruments or label sets. The metrics are returned in the same order as with
+     * a serial collection. The threads are stopped by {@link MeterSdkProvider#shutdown()}. The
+     * default is 1, the instruments are collected serially on the thread calling {@link
+     * MetricProducer#getAllMetrics()}.
+     *
+     * @param collectionParallelism the number of threads used to collect the instruments.
+     * @return this
+     * @throws IllegalArgumentException if {@code collectionParallelism} is not positive.
+     * @since 0.5.0
+     */
+    public Builder setCollectionParallelism(int collectionParallelism) {
+      Utils.checkArgument(collectionParallelism > 0, "collectionParallelism must be positive.");
+      this.collectionParallelism = collectionParallelism;
+      return this;
+    }
+
     /**
      * Create a new TracerSdkFactory instance.
      *
      * @return An initialized TracerSdkFactory.
      */
     public MeterSdkProvider build() {
-      return new MeterSdkProvider(clock, resource);
+      return new MeterSdkProvider(
+          clock,
+          resource,
+          valueRecorderAggregation,
+          aggregationTemporality,
+          maxLabelSetsPerInstrument,
+          collectionParallelism);
     }
   }
 
@@ -138,21 +286,135 @@ public final class MeterSdkProvider implements MeterProvider {
     }
   }
 
-  private static final class MetricProducerSdk implements MetricProducer {
+  private static final class MetricProducerSdk implements StreamingMetricProducer {
+    // Number of tasks submitted per thread, so an instrument slow to collect does not hold back the
+    // instruments collected by the same task for too long.
+    private static final int TASKS_PER_THREAD = 4;
+
     private final MeterSdkComponentRegistry registry;
+    // Null if the instruments are collected serially.
+    @Nullable private final ForkJoinPool collectionPool;
 
-    private MetricProducerSdk(MeterSdkComponentRegistry registry) {
+    private MetricProducerSdk(
+        MeterSdkComponentRegistry registry, @Nullable ForkJoinPool collectionPool) {
       this.registry = registry;
+      this.collectionPool = collectionPool;
     }
 
     @Override
     public Collection<MetricData> getAllMetrics() {
+      final List<MetricData> result = new ArrayList<>();
+      collectAllMetrics(
+          new MetricSink() {
+            @Override
+            public void accept(MetricData metricData) {
+              result.add(metricData);
+            }
+          });
+      return Collections.unmodifiableCollection(result);
+    }
+
+    @Override
+    public void collectAllMetrics(MetricSink sink) {
       Collection<MeterSdk> meters = registry.getComponents();
-      List<MetricData> result = new ArrayList<>(meters.size());
+      if (collectionPool == null || collectionPool.isShutdown()) {
+        for (MeterSdk meter : meters) {
+          for (AbstractInstrument instrument : meter.getInstruments()) {
+            addAll(sink, instrument.collectAll());
+          }
+        }
+      } else {
+        collectInParallel(meters, collectionPool, sink);
+      }
+      List<Point> rejectedLabelSetsPoints = new ArrayList<>();
       for (MeterSdk meter : meters) {
-        result.addAll(meter.collectAll());
+        meter.collectRejectedLabelSets(rejectedLabelSetsPoints);
       }
-      return Collections.unmodifiableCollection(result);
+      // Only reported once some label sets were rejected.
+      if (!rejectedLabelSetsPoints.isEmpty()) {
+        sink.accept(
+            MetricData.create(
+                REJECTED_LABEL_SETS_DESCRIPTOR,
+                registry.meterProviderSharedState.getResource(),
+                SDK_INSTRUMENTATION_LIBRARY_INFO,
+                rejectedLabelSetsPoints));
+      }
+    }
+
+    private static void collectInParallel(
+        Collection<MeterSdk> meters, ForkJoinPool pool, MetricSink sink) {
+      List<AbstractInstrument> instruments = new ArrayList<>();
+      for (MeterSdk meter : meters) {
+        instruments.addAll(meter.getInstruments());
+      }
+      int tasksCount = pool.getParallelism() * TASKS_PER_THREAD;
+      int chunkSize = Math.max(1, (instruments.size() + tasksCount - 1) / tasksCount);
+      List<ForkJoinTask<List<MetricData>>> tasks = new ArrayList<>(tasksCount);
+      int start = 0;
+      try {
+        for (; start < instruments.size(); start += chunkSize) {
+          int end = Math.min(start + chunkSize, instruments.size());
+          tasks.add(pool.submit(new CollectTask(instruments.subList(start, end))));
+        }
+      } catch (RejectedExecutionException e) {
+        // The provider was shut down during the collection, the remaining instruments are
+        // collected on this thread.
+      }
+      // Joined in submission order, so the metrics are in the same order as a serial collection.
+      for (ForkJoinTask<List<MetricData>> task : tasks) {
+        addAll(sink, task.join());
+      }
+      if (start < instruments.size()) {
+        addAll(sink, new CollectTask(instruments.subList(start, instruments.size())).call());
+      }
+    }
+
+    private static void addAll(MetricSink sink, List<MetricData> metrics) {
+      for (MetricData metricData : metrics) {
+        sink.accept(metricData);
+      }
+    }
+  }
+
+  // Collects a range of instruments, every instrument still takes its own collect lock.
+  private static final class CollectTask implements Callable<List<MetricData>> {
+    private final List<AbstractInstrument> instruments;
+
+    private CollectTask(List<AbstractInstrument> instruments) {
+      this.instruments = instruments;
+    }
+
+    @Override
+    public List<MetricData> call() {
+      List<MetricData> result = new ArrayList<>(instruments.size());
+      for (AbstractInstrument instrument : instruments) {
+        result.addAll(instrument.collectAll());
+      }
+      return result;
+    }
+  }
+
+  // Creates daemon worker threads named like the threads of DaemonThreadFactory, so the collection
+  // threads do not prevent the application from exiting and can be told apart in thread dumps.
+  private static final class DaemonWorkerThreadFactory
+      implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+    private final String namePrefix;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    private DaemonWorkerThreadFactory(String namePrefix) {
+      this.namePrefix = namePrefix;
+    }
+
+    @Override
+    public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+      ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      try {
+        t.setDaemon(true);
+        t.setName(namePrefix + "_" + counter.incrementAndGet());
+      } catch (SecurityException e) {
+        // Well, we tried.
+      }
+      return t;
     }
   }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.Nullable;
+
+/**
+ * Counts the distinct label sets rejected by an instrument, since it was created or during a
+ * collection cycle, using a fixed amount of memory no matter how many label sets are rejected.
+ *
+ * <p>Uses linear counting: every label set sets the bit selected by its hash code, and the number
+ * of distinct label sets is estimated from the fraction of bits left clear. The estimate is exact
+ * in practice while few label sets are rejected, and stays within a few percent of the real count
+ * up to several times the number of bits.
+ *
+ * <p>This class is thread safe.
+ */
+final class RejectedLabelSets {
+  private static final int BITS_LOG2 = 15;
+  private static final int BITS = 1 << BITS_LOG2;
+  // Reported once every bit is set, the number of label sets needed on average to set them all.
+  private static final long SATURATED_COUNT = Math.round(BITS * Math.log(BITS));
+
+  // Allocated on the first rejection, most instruments never reach their maximum.
+  @Nullable private volatile AtomicLongArray bits;
+
+  /**
+   * Records a rejected label set. Recording the same label set again before the count is reset does
+   * not change the count.
+   *
+   * @param labelSet the rejected label set.
+   */
+  void record(LabelSetSdk labelSet) {
+    AtomicLongArray words = getOrCreateBits();
+    // Multiplicative hashing spreads the bits of the hash code over the selected bit.
+    int bit = (labelSet.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - BITS_LOG2);
+    int word = bit / Long.SIZE;
+    long mask = 1L << (bit % Long.SIZE);
+    while (true) {
+      long current = words.get(word);
+      if ((current & mask) != 0 || words.compareAndSet(word, current, current | mask)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of distinct label sets recorded since the last call and starts a new
+   * collection cycle.
+   *
+   * @return the number of distinct label sets recorded since the last call.
+   */
+  long getAndReset() {
+    return count(/* reset= */ true);
+  }
+
+  /**
+   * Returns the number of distinct label sets recorded since this was created or last reset.
+   *
+   * @return the number of distinct label sets recorded since this was created or last reset.
+   */
+  long get() {
+    return count(/* reset= */ false);
+  }
+
+  private long count(boolean reset) {
+    AtomicLongArray words = bits;
+    if (words == null) {
+      return 0;
+    }
+    int setBits = 0;
+    for (int i = 0; i < words.length(); i++) {
+      setBits += Long.bitCount(reset ? words.getAndSet(i, 0) : words.get(i));
+    }
+    if (setBits == 0) {
+      return 0;
+    }
+    if (setBits == BITS) {
+      return SATURATED_COUNT;
+    }
+    return Math.round(BITS * Math.log((double) BITS / (BITS - setBits)));
+  }
+
+  private AtomicLongArray getOrCreateBits() {
+    AtomicLongArray result = bits;
+    if (result == null) {
+      synchronized (this) {
+        result = bits;
+        if (result == null) {
+          result = new AtomicLongArray(BITS / Long.SIZE);
+          bits = result;
+        }
+      }
+    }
+    return result;
+  }
+}
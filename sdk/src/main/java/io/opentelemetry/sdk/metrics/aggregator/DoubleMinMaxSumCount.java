@@ -16,16 +16,21 @@
 
 package io.opentelemetry.sdk.metrics.aggregator;
 
-import com.google.errorprone.annotations.concurrent.GuardedBy;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.ValueAtPercentile;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
+/**
+ * Aggregator that records {@code double} values and reports their count, sum, min and max.
+ *
+ * <p>Values are recorded in {@link StripedCells}, so concurrent threads update different cells
+ * instead of contending on the same lock. The cells are folded together when the aggregator is
+ * merged or converted to a point.
+ */
 @ThreadSafe
 public final class DoubleMinMaxSumCount extends AbstractAggregator {
 
@@ -37,9 +42,13 @@ public final class DoubleMinMaxSumCount extends AbstractAggregator {
         }
       };
 
-  // The current value. This controls its own internal thread-safety via method access. Don't
-  // try to use its fields directly.
-  private final DoubleSummary current = new DoubleSummary();
+  private final StripedCells<DoubleSummary> cells =
+      new StripedCells<DoubleSummary>() {
+        @Override
+        DoubleSummary newCell() {
+          return new DoubleSummary();
+        }
+      };
 
   public static AggregatorFactory getFactory() {
     return AGGREGATOR_FACTORY;
@@ -50,98 +59,92 @@ public final class DoubleMinMaxSumCount extends AbstractAggregator {
   @Override
   void doMergeAndReset(Aggregator target) {
     DoubleMinMaxSumCount other = (DoubleMinMaxSumCount) target;
-    current.mergeAndReset(other.current);
+    DoubleSummary total = new DoubleSummary();
+    for (int i = 0; i < cells.length(); i++) {
+      DoubleSummary cell = cells.getCell(i);
+      if (cell == null) {
+        continue;
+      }
+      cell.lock();
+      try {
+        total.add(cell);
+        cell.reset();
+      } finally {
+        cell.unlock();
+      }
+    }
+    if (total.count == 0) {
+      return;
+    }
+    DoubleSummary otherCell = other.cells.lockCell();
+    try {
+      otherCell.add(total);
+    } finally {
+      otherCell.unlock();
+    }
   }
 
   @Nullable
   @Override
   public Point toPoint(long startEpochNanos, long epochNanos, Map<String, String> labels) {
-    return current.toPoint(startEpochNanos, epochNanos, labels);
+    DoubleSummary total = new DoubleSummary();
+    for (int i = 0; i < cells.length(); i++) {
+      DoubleSummary cell = cells.getCell(i);
+      if (cell == null) {
+        continue;
+      }
+      cell.lock();
+      try {
+        total.add(cell);
+      } finally {
+        cell.unlock();
+      }
+    }
+    return total.count == 0
+        ? null
+        : SummaryPoint.create(
+            startEpochNanos,
+            epochNanos,
+            labels,
+            total.count,
+            total.sum,
+            Arrays.asList(
+                ValueAtPercentile.create(0.0, total.min),
+                ValueAtPercentile.create(100.0, total.max)));
   }
 
   @Override
   public void recordDouble(double value) {
-    current.record(value);
+    DoubleSummary cell = cells.lockCell();
+    try {
+      cell.count++;
+      cell.sum += value;
+      cell.min = Math.min(value, cell.min);
+      cell.max = Math.max(value, cell.max);
+    } finally {
+      cell.unlock();
+    }
   }
 
-  private static final class DoubleSummary {
-
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-
-    @GuardedBy("lock")
+  // All the fields are guarded by the cell lock, except for the instances local to a method.
+  private static final class DoubleSummary extends StripedCells.Cell {
     private double sum = 0;
-
-    @GuardedBy("lock")
     private long count = 0;
-
-    @GuardedBy("lock")
     private double min = Double.POSITIVE_INFINITY;
-
-    @GuardedBy("lock")
     private double max = Double.NEGATIVE_INFINITY;
 
-    private void record(double value) {
-      lock.writeLock().lock();
-      try {
-        count++;
-        sum += value;
-        min = Math.min(value, min);
-        max = Math.max(value, max);
-      } finally {
-        lock.writeLock().unlock();
-      }
+    private void add(DoubleSummary other) {
+      count += other.count;
+      sum += other.sum;
+      min = Math.min(other.min, min);
+      max = Math.max(other.max, max);
     }
 
-    public void mergeAndReset(DoubleSummary other) {
-      long myCount;
-      double mySum;
-      double myMin;
-      double myMax;
-      lock.writeLock().lock();
-      try {
-        if (this.count == 0) {
-          return;
-        }
-        myCount = this.count;
-        mySum = this.sum;
-        myMin = this.min;
-        myMax = this.max;
-        this.count = 0;
-        this.sum = 0;
-        this.min = Double.POSITIVE_INFINITY;
-        this.max = Double.NEGATIVE_INFINITY;
-      } finally {
-        lock.writeLock().unlock();
-      }
-      other.lock.writeLock().lock();
-      try {
-        other.count += myCount;
-        other.sum += mySum;
-        other.min = Math.min(myMin, other.min);
-        other.max = Math.max(myMax, other.max);
-      } finally {
-        other.lock.writeLock().unlock();
-      }
-    }
-
-    @Nullable
-    private SummaryPoint toPoint(
-        long startEpochNanos, long epochNanos, Map<String, String> labels) {
-      lock.readLock().lock();
-      try {
-        return count == 0
-            ? null
-            : SummaryPoint.create(
-                startEpochNanos,
-                epochNanos,
-                labels,
-                count,
-                sum,
-                Arrays.asList(
-                    ValueAtPercentile.create(0.0, min), ValueAtPercentile.create(100.0, max)));
-      } finally {
-        lock.readLock().unlock();
-      }
+    private void reset() {
+      count = 0;
+      sum = 0;
+      min = Double.POSITIVE_INFINITY;
+      max = Double.NEGATIVE_INFINITY;
     }
   }
 }
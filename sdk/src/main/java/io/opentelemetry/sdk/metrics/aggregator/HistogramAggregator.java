@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import com.google.common.util.concurrent.AtomicDouble;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.sdk.metrics.data.MetricData.HistogramPoint;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Aggregator that records {@code long} and {@code double} values into a histogram with explicit
+ * bucket boundaries.
+ *
+ * <p>Recording is lock-free, the bucket is found with a binary search over the boundaries and every
+ * bucket has its own atomic counter.
+ */
+@ThreadSafe
+public final class HistogramAggregator extends AbstractAggregator {
+
+  private final double[] boundaries;
+  // Shared by all the points produced by aggregators of the same factory.
+  private final List<Double> boundariesList;
+  private final AtomicLongArray counts;
+  // TODO: Change to use DoubleAdder when changed to java8.
+  private final AtomicDouble sum = new AtomicDouble();
+
+  /**
+   * Returns an {@link AggregatorFactory} that produces {@link HistogramAggregator} instances with
+   * the given bucket boundaries.
+   *
+   * @param boundaries the sorted upper bounds of the buckets, except the last bucket which has no
+   *     upper bound.
+   * @return an {@link AggregatorFactory} that produces {@link HistogramAggregator} instances.
+   * @throws IllegalArgumentException if the boundaries are not strictly increasing or contain
+   *     {@code NaN}.
+   */
+  public static AggregatorFactory getFactory(double[] boundaries) {
+    final double[] boundariesCopy = Arrays.copyOf(boundaries, boundaries.length);
+    List<Double> list = new ArrayList<>(boundariesCopy.length);
+    for (int i = 0; i < boundariesCopy.length; i++) {
+      Utils.checkArgument(!Double.isNaN(boundariesCopy[i]), "Bucket boundary must not be NaN.");
+      Utils.checkArgument(
+          i == 0 || boundariesCopy[i - 1] < boundariesCopy[i],
+          "Bucket boundaries must be in increasing order.");
+      list.add(boundariesCopy[i]);
+    }
+    final List<Double> boundariesList = Collections.unmodifiableList(list);
+    return new AggregatorFactory() {
+      @Override
+      public Aggregator getAggregator() {
+        return new HistogramAggregator(boundariesCopy, boundariesList);
+      }
+    };
+  }
+
+  private HistogramAggregator(double[] boundaries, List<Double> boundariesList) {
+    this.boundaries = boundaries;
+    this.boundariesList = boundariesList;
+    this.counts = new AtomicLongArray(boundaries.length + 1);
+  }
+
+  @Override
+  void doMergeAndReset(Aggregator aggregator) {
+    HistogramAggregator other = (HistogramAggregator) aggregator;
+    // Buckets are moved one by one, a value recorded concurrently may be reported in the next
+    // collection but is never lost.
+    for (int i = 0; i < counts.length(); i++) {
+      long count = counts.getAndSet(i, 0);
+      if (count != 0) {
+        other.counts.getAndAdd(i, count);
+      }
+    }
+    other.sum.getAndAdd(sum.getAndSet(0));
+  }
+
+  @Override
+  public Point toPoint(long startEpochNanos, long epochNanos, Map<String, String> labels) {
+    List<Long> bucketCounts = new ArrayList<>(counts.length());
+    long count = 0;
+    for (int i = 0; i < counts.length(); i++) {
+      long bucketCount = counts.get(i);
+      bucketCounts.add(bucketCount);
+      count += bucketCount;
+    }
+    return HistogramPoint.create(
+        startEpochNanos,
+        epochNanos,
+        labels,
+        count,
+        sum.get(),
+        boundariesList,
+        Collections.unmodifiableList(bucketCounts));
+  }
+
+  @Override
+  public void recordLong(long value) {
+    recordDouble(value);
+  }
+
+  @Override
+  public void recordDouble(double value) {
+    counts.getAndIncrement(findBucket(value));
+    sum.getAndAdd(value);
+  }
+
+  // Returns the index of the first bucket whose upper bound is greater than or equal to the value.
+  private int findBucket(double value) {
+    int index = Arrays.binarySearch(boundaries, value);
+    return index >= 0 ? index : -index - 1;
+  }
+}
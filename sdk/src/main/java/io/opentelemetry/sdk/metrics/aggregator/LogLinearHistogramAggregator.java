@@ -0,0 +1,230 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import com.google.common.util.concurrent.AtomicDouble;
+import io.opentelemetry.sdk.metrics.data.MetricData.Point;
+import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
+import io.opentelemetry.sdk.metrics.data.MetricData.ValueAtPercentile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Aggregator that records {@code long} and {@code double} values into a log-linear histogram and
+ * reports the count, the sum, the min, the max and the 50th, 90th, 99th and 99.9th percentiles.
+ *
+ * <p>The bucket of a value is computed from the bits of its {@code double} representation: the
+ * exponent selects a power of two range and the top {@link #SUB_BUCKET_BITS} bits of the mantissa
+ * split that range in equally sized sub-buckets. Percentiles are reported as the middle of the
+ * bucket, so the relative error is at most {@code 2^-(SUB_BUCKET_BITS + 1)}, about 1.6%. No
+ * configuration is needed and the memory used by one instance is bounded: the buckets of a power of
+ * two range are only allocated when a value in that range is recorded.
+ *
+ * <p>Values between {@code 2^-32} and {@code 2^64} are tracked with the bounded relative error.
+ * Smaller values, including zero and negative values, share a single bucket and larger values are
+ * counted in the last bucket. The percentiles are always clamped to the exact min and max.
+ *
+ * <p>Recording is lock-free.
+ */
+@ThreadSafe
+public final class LogLinearHistogramAggregator extends AbstractAggregator {
+  static final int SUB_BUCKET_BITS = 5;
+  static final int MIN_EXPONENT = -32;
+  static final int MAX_EXPONENT = 63;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int SUB_BUCKET_SHIFT = 52 - SUB_BUCKET_BITS;
+  private static final int EXPONENT_COUNT = MAX_EXPONENT - MIN_EXPONENT + 1;
+  private static final double[] PERCENTILES = new double[] {50.0, 90.0, 99.0, 99.9};
+
+  private static final AggregatorFactory AGGREGATOR_FACTORY =
+      new AggregatorFactory() {
+        @Override
+        public Aggregator getAggregator() {
+          return new LogLinearHistogramAggregator();
+        }
+      };
+
+  // One lazily allocated array of sub-bucket counts for every power of two range.
+  private final AtomicReferenceArray<AtomicLongArray> buckets =
+      new AtomicReferenceArray<>(EXPONENT_COUNT);
+  // Counts the values smaller than 2^MIN_EXPONENT.
+  private final AtomicLong underflowCount = new AtomicLong();
+  // TODO: Change to use DoubleAdder when changed to java8.
+  private final AtomicDouble sum = new AtomicDouble();
+  private final AtomicDouble min = new AtomicDouble(Double.POSITIVE_INFINITY);
+  private final AtomicDouble max = new AtomicDouble(Double.NEGATIVE_INFINITY);
+
+  /**
+   * Returns an {@link AggregatorFactory} that produces {@link LogLinearHistogramAggregator}
+   * instances.
+   *
+   * @return an {@link AggregatorFactory} that produces {@link LogLinearHistogramAggregator}
+   *     instances.
+   */
+  public static AggregatorFactory getFactory() {
+    return AGGREGATOR_FACTORY;
+  }
+
+  private LogLinearHistogramAggregator() {}
+
+  @Override
+  void doMergeAndReset(Aggregator aggregator) {
+    LogLinearHistogramAggregator other = (LogLinearHistogramAggregator) aggregator;
+    // Buckets are moved one by one, a value recorded concurrently may be reported in the next
+    // collection but is never lost.
+    for (int i = 0; i < EXPONENT_COUNT; i++) {
+      AtomicLongArray counts = buckets.get(i);
+      if (counts == null) {
+        continue;
+      }
+      AtomicLongArray otherCounts = null;
+      for (int j = 0; j < SUB_BUCKET_COUNT; j++) {
+        long count = counts.getAndSet(j, 0);
+        if (count != 0) {
+          if (otherCounts == null) {
+            otherCounts = other.getOrCreateBuckets(i);
+          }
+          otherCounts.getAndAdd(j, count);
+        }
+      }
+    }
+    other.underflowCount.getAndAdd(underflowCount.getAndSet(0));
+    other.sum.getAndAdd(sum.getAndSet(0));
+    updateMin(other.min, min.getAndSet(Double.POSITIVE_INFINITY));
+    updateMax(other.max, max.getAndSet(Double.NEGATIVE_INFINITY));
+  }
+
+  @Nullable
+  @Override
+  public Point toPoint(long startEpochNanos, long epochNanos, Map<String, String> labels) {
+    long underflow = underflowCount.get();
+    long count = underflow;
+    for (int i = 0; i < EXPONENT_COUNT; i++) {
+      AtomicLongArray exponentCounts = buckets.get(i);
+      if (exponentCounts == null) {
+        continue;
+      }
+      for (int j = 0; j < SUB_BUCKET_COUNT; j++) {
+        count += exponentCounts.get(j);
+      }
+    }
+    if (count == 0) {
+      return null;
+    }
+    double minValue = min.get();
+    double maxValue = max.get();
+    List<ValueAtPercentile> percentileValues = new ArrayList<>(PERCENTILES.length + 2);
+    percentileValues.add(ValueAtPercentile.create(0.0, minValue));
+    // Values recorded concurrently may be missed by the count, the walk stops at the last bucket so
+    // the percentiles stay within the recorded values.
+    int bucket = -1;
+    long cumulativeCount = underflow;
+    for (double percentile : PERCENTILES) {
+      // The rank of the value at the given percentile, starting at 1.
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      while (cumulativeCount < rank && bucket < EXPONENT_COUNT * SUB_BUCKET_COUNT - 1) {
+        bucket++;
+        AtomicLongArray exponentCounts = buckets.get(bucket / SUB_BUCKET_COUNT);
+        if (exponentCounts != null) {
+          cumulativeCount += exponentCounts.get(bucket % SUB_BUCKET_COUNT);
+        }
+      }
+      double value = bucket < 0 ? 0 : bucketMidpoint(bucket);
+      percentileValues.add(
+          ValueAtPercentile.create(percentile, Math.min(Math.max(value, minValue), maxValue)));
+    }
+    percentileValues.add(ValueAtPercentile.create(100.0, maxValue));
+    return SummaryPoint.create(
+        startEpochNanos,
+        epochNanos,
+        labels,
+        count,
+        sum.get(),
+        Collections.unmodifiableList(percentileValues));
+  }
+
+  @Override
+  public void recordLong(long value) {
+    recordDouble(value);
+  }
+
+  @Override
+  public void recordDouble(double value) {
+    if (Double.isNaN(value)) {
+      return;
+    }
+    // Update the min and max first, so they are always set when the recorded value is counted.
+    updateMin(min, value);
+    updateMax(max, value);
+    sum.getAndAdd(value);
+    long bits = Double.doubleToRawLongBits(value);
+    // The sign bit is set for negative values, so they end up below the minimum exponent as well.
+    int exponent = (int) (bits >> 52) - 1023;
+    if (exponent < MIN_EXPONENT) {
+      underflowCount.getAndIncrement();
+    } else if (exponent > MAX_EXPONENT) {
+      getOrCreateBuckets(EXPONENT_COUNT - 1).getAndIncrement(SUB_BUCKET_COUNT - 1);
+    } else {
+      int subBucket = (int) (bits >>> SUB_BUCKET_SHIFT) & (SUB_BUCKET_COUNT - 1);
+      getOrCreateBuckets(exponent - MIN_EXPONENT).getAndIncrement(subBucket);
+    }
+  }
+
+  private AtomicLongArray getOrCreateBuckets(int exponentIndex) {
+    AtomicLongArray counts = buckets.get(exponentIndex);
+    if (counts == null) {
+      counts = new AtomicLongArray(SUB_BUCKET_COUNT);
+      if (!buckets.compareAndSet(exponentIndex, null, counts)) {
+        counts = buckets.get(exponentIndex);
+      }
+    }
+    return counts;
+  }
+
+  // Returns the value in the middle of the bucket with the given index in the flat bucket array.
+  static double bucketMidpoint(int bucket) {
+    int exponent = bucket / SUB_BUCKET_COUNT + MIN_EXPONENT;
+    int subBucket = bucket % SUB_BUCKET_COUNT;
+    return Math.scalb(1.0 + (subBucket + 0.5) / SUB_BUCKET_COUNT, exponent);
+  }
+
+  private static void updateMin(AtomicDouble min, double value) {
+    double current;
+    while (value < (current = min.get())) {
+      if (min.compareAndSet(current, value)) {
+        return;
+      }
+    }
+  }
+
+  private static void updateMax(AtomicDouble max, double value) {
+    double current;
+    while (value > (current = max.get())) {
+      if (max.compareAndSet(current, value)) {
+        return;
+      }
+    }
+  }
+}
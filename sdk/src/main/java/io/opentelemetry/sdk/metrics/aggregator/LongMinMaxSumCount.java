@@ -16,16 +16,21 @@
 
 package io.opentelemetry.sdk.metrics.aggregator;
 
-import com.google.errorprone.annotations.concurrent.GuardedBy;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.ValueAtPercentile;
 import java.util.Arrays;
 import java.util.Map;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.ThreadSafe;
 
+/**
+ * Aggregator that records {@code long} values and reports their count, sum, min and max.
+ *
+ * <p>Values are recorded in {@link StripedCells}, so concurrent threads update different cells
+ * instead of contending on the same lock. The cells are folded together when the aggregator is
+ * merged or converted to a point.
+ */
 @ThreadSafe
 public final class LongMinMaxSumCount extends AbstractAggregator {
 
@@ -37,9 +42,13 @@ public final class LongMinMaxSumCount extends AbstractAggregator {
         }
       };
 
-  // The current value. This controls its own internal thread-safety via method access. Don't
-  // try to use its fields directly.
-  private final LongSummary current = new LongSummary();
+  private final StripedCells<LongSummary> cells =
+      new StripedCells<LongSummary>() {
+        @Override
+        LongSummary newCell() {
+          return new LongSummary();
+        }
+      };
 
   public static AggregatorFactory getFactory() {
     return AGGREGATOR_FACTORY;
@@ -50,105 +59,92 @@ public final class LongMinMaxSumCount extends AbstractAggregator {
   @Override
   void doMergeAndReset(Aggregator target) {
     LongMinMaxSumCount other = (LongMinMaxSumCount) target;
-
-    thinger(other);
-  }
-
-  private void thinger(LongMinMaxSumCount other) {
-    current.mergeAndReset(other.current);
-    //    LongSummary copy = current.copyAndReset();
-    //    other.current.update(copy);
+    LongSummary total = new LongSummary();
+    for (int i = 0; i < cells.length(); i++) {
+      LongSummary cell = cells.getCell(i);
+      if (cell == null) {
+        continue;
+      }
+      cell.lock();
+      try {
+        total.add(cell);
+        cell.reset();
+      } finally {
+        cell.unlock();
+      }
+    }
+    if (total.count == 0) {
+      return;
+    }
+    LongSummary otherCell = other.cells.lockCell();
+    try {
+      otherCell.add(total);
+    } finally {
+      otherCell.unlock();
+    }
   }
 
   @Nullable
   @Override
   public Point toPoint(long startEpochNanos, long epochNanos, Map<String, String> labels) {
-    return current.toPoint(startEpochNanos, epochNanos, labels);
+    LongSummary total = new LongSummary();
+    for (int i = 0; i < cells.length(); i++) {
+      LongSummary cell = cells.getCell(i);
+      if (cell == null) {
+        continue;
+      }
+      cell.lock();
+      try {
+        total.add(cell);
+      } finally {
+        cell.unlock();
+      }
+    }
+    return total.count == 0
+        ? null
+        : SummaryPoint.create(
+            startEpochNanos,
+            epochNanos,
+            labels,
+            total.count,
+            total.sum,
+            Arrays.asList(
+                ValueAtPercentile.create(0.0, total.min),
+                ValueAtPercentile.create(100.0, total.max)));
   }
 
   @Override
   public void recordLong(long value) {
-    current.record(value);
+    LongSummary cell = cells.lockCell();
+    try {
+      cell.count++;
+      cell.sum += value;
+      cell.min = Math.min(value, cell.min);
+      cell.max = Math.max(value, cell.max);
+    } finally {
+      cell.unlock();
+    }
   }
 
-  private static final class LongSummary {
-
-    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-
-    @GuardedBy("lock")
+  // All the fields are guarded by the cell lock, except for the instances local to a method.
+  private static final class LongSummary extends StripedCells.Cell {
     private long sum = 0;
-
-    @GuardedBy("lock")
     private long count = 0;
-
-    @GuardedBy("lock")
     private long min = Long.MAX_VALUE;
-
-    @GuardedBy("lock")
     private long max = Long.MIN_VALUE;
 
-    private void record(long value) {
-      lock.writeLock().lock();
-      try {
-        count++;
-        sum += value;
-        min = Math.min(value, min);
-        max = Math.max(value, max);
-      } finally {
-        lock.writeLock().unlock();
-      }
-    }
-
-    private void mergeAndReset(LongSummary other) {
-      long myCount;
-      long mySum;
-      long myMin;
-      long myMax;
-      lock.writeLock().lock();
-      try {
-        if (this.count == 0) {
-          return;
-        }
-        myCount = this.count;
-        mySum = this.sum;
-        myMin = this.min;
-        myMax = this.max;
-        this.count = 0;
-        this.sum = 0;
-        this.min = Long.MAX_VALUE;
-        this.max = Long.MIN_VALUE;
-      } finally {
-        lock.writeLock().unlock();
-      }
-      other.lock.writeLock().lock();
-      try {
-        other.count += myCount;
-        other.sum += mySum;
-        other.min = Math.min(myMin, other.min);
-        other.max = Math.max(myMax, other.max);
-      } finally {
-        other.lock.writeLock().unlock();
-      }
+    private void add(LongSummary other) {
+      count += other.count;
+      sum += other.sum;
+      min = Math.min(other.min, min);
+      max = Math.max(other.max, max);
     }
 
-    @Nullable
-    private SummaryPoint toPoint(
-        long startEpochNanos, long epochNanos, Map<String, String> labels) {
-      lock.readLock().lock();
-      try {
-        return count == 0
-            ? null
-            : SummaryPoint.create(
-                startEpochNanos,
-                epochNanos,
-                labels,
-                count,
-                sum,
-                Arrays.asList(
-                    ValueAtPercentile.create(0.0, min), ValueAtPercentile.create(100.0, max)));
-      } finally {
-        lock.readLock().unlock();
-      }
+    private void reset() {
+      count = 0;
+      sum = 0;
+      min = Long.MAX_VALUE;
+      max = Long.MIN_VALUE;
     }
   }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A fixed set of cells that spreads the updates of concurrent threads, so threads recording into
+ * the same aggregator do not all contend on the same memory.
+ *
+ * <p>Every thread has a hash that selects its cell. Every cell is guarded by its own CAS-based
+ * lock, when a thread fails to acquire its cell it moves to another one, so threads that collide
+ * end up in different cells. Cells are created the first time they are selected, an aggregator only
+ * used by one thread has a single cell.
+ *
+ * @param <C> the type of the cells.
+ */
+@ThreadSafe
+abstract class StripedCells<C extends StripedCells.Cell> {
+  private static final int MAX_CELLS =
+      ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors());
+  // Number of times a thread moves to another cell before waiting for the current one.
+  private static final int MAX_REHASHES = 4;
+
+  private static final ThreadLocal<int[]> threadHash =
+      new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+          // Zero is a fixed point of the xorshift used to rehash.
+          return new int[] {ThreadLocalRandom.current().nextInt() | 1};
+        }
+      };
+
+  private final AtomicReferenceArray<C> cells = new AtomicReferenceArray<>(MAX_CELLS);
+
+  /** Returns a new cell, with no recorded values. */
+  abstract C newCell();
+
+  /**
+   * Returns the cell of the current thread, already locked. The caller must call {@link
+   * Cell#unlock()} once it is done with the cell.
+   */
+  final C lockCell() {
+    int[] hashHolder = threadHash.get();
+    int hash = hashHolder[0];
+    for (int attempt = 0; ; attempt++) {
+      C cell = getOrCreateCell(hash & (MAX_CELLS - 1));
+      if (cell.tryLock()) {
+        hashHolder[0] = hash;
+        return cell;
+      }
+      if (attempt < MAX_REHASHES) {
+        hash ^= hash << 13;
+        hash ^= hash >>> 17;
+        hash ^= hash << 5;
+      } else {
+        cell.lock();
+        hashHolder[0] = hash;
+        return cell;
+      }
+    }
+  }
+
+  /** Returns the number of cells, some of them may not be created yet. */
+  final int length() {
+    return MAX_CELLS;
+  }
+
+  /** Returns the cell at the given index, or {@code null} if it was not created yet. */
+  @Nullable
+  final C getCell(int index) {
+    return cells.get(index);
+  }
+
+  private C getOrCreateCell(int index) {
+    C cell = cells.get(index);
+    if (cell == null) {
+      cell = newCell();
+      if (!cells.compareAndSet(index, null, cell)) {
+        cell = cells.get(index);
+      }
+    }
+    return cell;
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    int result = Integer.highestOneBit(value);
+    return result == value ? result : result << 1;
+  }
+
+  /** A cell of a {@link StripedCells}, the fields of subclasses are guarded by the cell lock. */
+  abstract static class Cell {
+    private static final int MAX_SPINS = 64;
+    private static final AtomicIntegerFieldUpdater<Cell> lockUpdater =
+        AtomicIntegerFieldUpdater.newUpdater(Cell.class, "locked");
+
+    private volatile int locked;
+
+    final boolean tryLock() {
+      return locked == 0 && lockUpdater.compareAndSet(this, 0, 1);
+    }
+
+    final void lock() {
+      for (int spins = 0; !tryLock(); spins++) {
+        if (spins >= MAX_SPINS) {
+          Thread.yield();
+        }
+      }
+    }
+
+    final void unlock() {
+      lockUpdater.lazySet(this, 0);
+    }
+  }
+}
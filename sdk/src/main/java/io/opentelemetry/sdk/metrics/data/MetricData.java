@@ -197,6 +197,61 @@ public abstract class MetricData {
     }
   }
 
+  /**
+   * HistogramPoint is a single data point that describes the distribution of the values in a time
+   * series of numeric values using explicit bucket boundaries.
+   *
+   * <p>Bucket {@code i} counts the values {@code v} with {@code boundaries[i - 1] < v <=
+   * boundaries[i]}, the first bucket has no lower bound and the last bucket has no upper bound.
+   */
+  @Immutable
+  @AutoValue
+  public abstract static class HistogramPoint extends Point {
+
+    HistogramPoint() {}
+
+    /**
+     * The number of values in the histogram.
+     *
+     * @return the number of values in the histogram.
+     */
+    public abstract long getCount();
+
+    /**
+     * The sum of all the values in the histogram.
+     *
+     * @return the sum of all the values in the histogram.
+     */
+    public abstract double getSum();
+
+    /**
+     * The sorted upper bounds of the buckets, except the last bucket which has no upper bound.
+     *
+     * @return the bucket boundaries.
+     */
+    public abstract List<Double> getBoundaries();
+
+    /**
+     * The number of values in each bucket, the size is always one more than the number of
+     * boundaries.
+     *
+     * @return the number of values in each bucket.
+     */
+    public abstract List<Long> getCounts();
+
+    public static HistogramPoint create(
+        long startEpochNanos,
+        long epochNanos,
+        Map<String, String> labels,
+        long count,
+        double sum,
+        List<Double> boundaries,
+        List<Long> counts) {
+      return new AutoValue_MetricData_HistogramPoint(
+          startEpochNanos, epochNanos, labels, count, sum, boundaries, counts);
+    }
+  }
+
   @Immutable
   @AutoValue
   public abstract static class ValueAtPercentile {
@@ -273,6 +328,12 @@ public abstract class MetricData {
        * recorded.
        */
       SUMMARY,
+
+      /**
+       * A cumulative histogram of measurements of numeric values, with explicit bucket boundaries.
+       * Reports {@link HistogramPoint} points.
+       */
+      HISTOGRAM,
     }
 
     /**
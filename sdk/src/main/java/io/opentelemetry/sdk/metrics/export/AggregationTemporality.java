@@ -0,0 +1,38 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.export;
+
+/**
+ * The time window covered by the points of the {@link io.opentelemetry.sdk.metrics.data.MetricData}
+ * produced by a {@link MetricProducer}.
+ *
+ * @since 0.5.0
+ */
+public enum AggregationTemporality {
+  /**
+   * Every point aggregates all the measurements recorded since the instrument was created, the
+   * start time of the points never changes. All the label sets ever recorded are kept in memory.
+   */
+  CUMULATIVE,
+
+  /**
+   * Every point aggregates the measurements recorded since the previous collection, the start time
+   * of the points is the time of the previous collection. The label sets that are not recorded
+   * anymore are dropped after every collection.
+   */
+  DELTA
+}
@@ -234,11 +234,17 @@ public final class IntervalMetricReader {
 
     @Override
     public void run() {
+      MetricExporter metricExporter = internalState.getMetricExporter();
+      if (metricExporter instanceof StreamingMetricExporter) {
+        ((StreamingMetricExporter) metricExporter)
+            .export(new CompositeMetricProducer(internalState.getMetricProducers()));
+        return;
+      }
       List<MetricData> metricsList = new ArrayList<>();
       for (MetricProducer metricProducer : internalState.getMetricProducers()) {
         metricsList.addAll(metricProducer.getAllMetrics());
       }
-      internalState.getMetricExporter().export(Collections.unmodifiableList(metricsList));
+      metricExporter.export(Collections.unmodifiableList(metricsList));
     }
 
     void shutdown() {
@@ -246,6 +252,38 @@ public final class IntervalMetricReader {
     }
   }
 
+  // Streams the metrics of all the producers, the producers that cannot stream their metrics are
+  // collected one at a time.
+  private static final class CompositeMetricProducer implements StreamingMetricProducer {
+    private final Collection<MetricProducer> metricProducers;
+
+    private CompositeMetricProducer(Collection<MetricProducer> metricProducers) {
+      this.metricProducers = metricProducers;
+    }
+
+    @Override
+    public void collectAllMetrics(MetricSink sink) {
+      for (MetricProducer metricProducer : metricProducers) {
+        if (metricProducer instanceof StreamingMetricProducer) {
+          ((StreamingMetricProducer) metricProducer).collectAllMetrics(sink);
+        } else {
+          for (MetricData metricData : metricProducer.getAllMetrics()) {
+            sink.accept(metricData);
+          }
+        }
+      }
+    }
+
+    @Override
+    public Collection<MetricData> getAllMetrics() {
+      List<MetricData> metricsList = new ArrayList<>();
+      for (MetricProducer metricProducer : metricProducers) {
+        metricsList.addAll(metricProducer.getAllMetrics());
+      }
+      return Collections.unmodifiableList(metricsList);
+    }
+  }
+
   @AutoValue
   @Immutable
   abstract static class InternalState {
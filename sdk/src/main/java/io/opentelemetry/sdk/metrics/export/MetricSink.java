@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.export;
+
+import io.opentelemetry.sdk.metrics.data.MetricData;
+
+/**
+ * {@code MetricSink} receives the {@link MetricData} of a collection one by one, as soon as the
+ * metrics of an instrument are collected.
+ *
+ * @since 0.5.0
+ */
+public interface MetricSink {
+
+  /**
+   * Adds the given {@link MetricData} to this sink.
+   *
+   * @param metricData the {@link MetricData} of one instrument.
+   * @since 0.5.0
+   */
+  void accept(MetricData metricData);
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.export;
+
+/**
+ * A {@link MetricExporter} that consumes the metrics while they are collected, for example to
+ * encode them incrementally. The {@link IntervalMetricReader} calls {@link
+ * #export(StreamingMetricProducer)} instead of {@link #export(java.util.Collection)} for these
+ * exporters.
+ *
+ * @since 0.5.0
+ */
+public interface StreamingMetricExporter extends MetricExporter {
+
+  /**
+   * Exports the metrics of the given {@link StreamingMetricProducer}. Implementations must call
+   * {@link StreamingMetricProducer#collectAllMetrics(MetricSink)} exactly once, with a {@link
+   * MetricSink} of their own.
+   *
+   * @param metricProducer the {@link StreamingMetricProducer} to collect the metrics from.
+   * @return the result of the export.
+   * @since 0.5.0
+   */
+  ResultCode export(StreamingMetricProducer metricProducer);
+}
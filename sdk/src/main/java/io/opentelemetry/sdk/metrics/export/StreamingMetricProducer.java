@@ -0,0 +1,40 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.export;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link MetricProducer} that can push the produced metrics into a {@link MetricSink}, instead of
+ * returning them all at once. The metrics of an instrument can be released as soon as the sink
+ * consumed them, so the metrics of all the instruments do not have to be in memory at the same
+ * time.
+ *
+ * @since 0.5.0
+ */
+@ThreadSafe
+public interface StreamingMetricProducer extends MetricProducer {
+
+  /**
+   * Collects the metrics and adds them to the given {@link MetricSink} one by one. The sink is only
+   * called from the calling thread, before this method returns.
+   *
+   * @param sink the {@link MetricSink} receiving the produced metrics.
+   * @since 0.5.0
+   */
+  void collectAllMetrics(MetricSink sink);
+}
@@ -16,10 +16,13 @@
 
 package io.opentelemetry.sdk.metrics.view;
 
+import io.opentelemetry.internal.Utils;
 import io.opentelemetry.sdk.metrics.aggregator.AggregatorFactory;
 import io.opentelemetry.sdk.metrics.aggregator.DoubleLastValueAggregator;
 import io.opentelemetry.sdk.metrics.aggregator.DoubleMinMaxSumCount;
 import io.opentelemetry.sdk.metrics.aggregator.DoubleSumAggregator;
+import io.opentelemetry.sdk.metrics.aggregator.HistogramAggregator;
+import io.opentelemetry.sdk.metrics.aggregator.LogLinearHistogramAggregator;
 import io.opentelemetry.sdk.metrics.aggregator.LongLastValueAggregator;
 import io.opentelemetry.sdk.metrics.aggregator.LongMinMaxSumCount;
 import io.opentelemetry.sdk.metrics.aggregator.LongSumAggregator;
@@ -55,12 +58,17 @@ public class Aggregations {
 
   /**
    * Returns an {@code Aggregation} that calculates distribution stats on recorded measurements.
-   * Distribution includes sum, count, histogram, and sum of squared deviations.
+   * Distribution includes sum, count and a histogram.
    *
-   * <p>The boundaries for the buckets in the underlying histogram needs to be sorted.
+   * <p>The boundaries for the buckets in the underlying histogram needs to be sorted. Bucket {@code
+   * i} counts the measurements {@code v} with {@code bucketBoundaries[i - 1] < v <=
+   * bucketBoundaries[i]}, and one extra bucket counts the measurements greater than the last
+   * boundary.
    *
    * @param bucketBoundaries bucket boundaries to use for distribution.
    * @return an {@code Aggregation} that calculates distribution stats on recorded measurements.
+   * @throws IllegalArgumentException if the boundaries are not strictly increasing or contain
+   *     {@code NaN}.
    * @since 0.1.0
    */
   public static Aggregation distributionWithExplicitBounds(Double... bucketBoundaries) {
@@ -89,6 +97,21 @@ public class Aggregations {
     return MinMaxSumCount.INSTANCE;
   }
 
+  /**
+   * Returns an {@code Aggregation} that calculates a summary with percentiles of all recorded
+   * measurements. The summary consists of the count of measurements, the sum of all measurements,
+   * the minimum and maximum values recorded and the 50th, 90th, 99th and 99.9th percentiles.
+   *
+   * <p>The measurements are recorded in a log-linear histogram that needs no configuration and uses
+   * a bounded amount of memory, the percentiles have a relative error of at most 1.6%.
+   *
+   * @return an {@code Aggregation} that calculates a summary with percentiles of all recorded
+   *     measurements.
+   */
+  public static Aggregation percentileSummary() {
+    return PercentileSummary.INSTANCE;
+  }
+
   private enum MinMaxSumCount implements Aggregation {
     INSTANCE;
 
@@ -117,6 +140,33 @@ public class Aggregations {
     }
   }
 
+  @Immutable
+  private enum PercentileSummary implements Aggregation {
+    INSTANCE;
+
+    @Override
+    public AggregatorFactory getAggregatorFactory(InstrumentValueType instrumentValueType) {
+      return LogLinearHistogramAggregator.getFactory();
+    }
+
+    @Override
+    public Type getDescriptorType(
+        InstrumentType instrumentType, InstrumentValueType instrumentValueType) {
+      return Type.SUMMARY;
+    }
+
+    @Override
+    public String getUnit(String initialUnit) {
+      return initialUnit;
+    }
+
+    @Override
+    public boolean availableForInstrument(InstrumentType instrumentType) {
+      return instrumentType == InstrumentType.VALUE_OBSERVER
+          || instrumentType == InstrumentType.VALUE_RECORDER;
+    }
+  }
+
   @Immutable
   private enum Sum implements Aggregation {
     INSTANCE;
@@ -193,8 +243,12 @@ public class Aggregations {
     private final AggregatorFactory factory;
 
     Distribution(Double... bucketBoundaries) {
-      // TODO: Implement distribution aggregator and use it here.
-      this.factory = NoopAggregator.getFactory();
+      Utils.checkNotNull(bucketBoundaries, "bucketBoundaries");
+      double[] boundaries = new double[bucketBoundaries.length];
+      for (int i = 0; i < bucketBoundaries.length; i++) {
+        boundaries[i] = Utils.checkNotNull(bucketBoundaries[i], "bucketBoundary");
+      }
+      this.factory = HistogramAggregator.getFactory(boundaries);
     }
 
     @Override
@@ -205,7 +259,7 @@ public class Aggregations {
     @Override
     public Type getDescriptorType(
         InstrumentType instrumentType, InstrumentValueType instrumentValueType) {
-      throw new UnsupportedOperationException("Implement this");
+      return Type.HISTOGRAM;
     }
 
     @Override
@@ -215,7 +269,8 @@ public class Aggregations {
 
     @Override
     public boolean availableForInstrument(InstrumentType instrumentType) {
-      throw new UnsupportedOperationException("Implement this");
+      return instrumentType == InstrumentType.VALUE_OBSERVER
+          || instrumentType == InstrumentType.VALUE_RECORDER;
     }
   }
 
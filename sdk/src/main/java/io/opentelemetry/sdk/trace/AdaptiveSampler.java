@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Sampler} that adjusts the probability of sampling a new trace so that about {@code
+ * targetSpansPerSecond} sampled spans are created every second. The child spans follow the decision
+ * of their parent.
+ *
+ * <p>Every second, the probability is computed from the number of new traces seen during the last
+ * second and the average number of spans of the sampled traces. The new traces are sampled by trace
+ * id, as by {@link Samplers#probability(double)}. A token bucket holding one second of spans caps
+ * the sampled traces in between, so a sudden spike of traffic is not sampled at the previous
+ * probability until the next adjustment.
+ */
+@ThreadSafe
+final class AdaptiveSampler implements Sampler {
+  private static final long ADJUSTMENT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double targetSpansPerSecond;
+  private final Clock clock;
+  private final RateLimiter rateLimiter;
+  private final AtomicLong intervalStartNanos;
+  // Counters of the current interval.
+  private final AtomicLong rootSpans = new AtomicLong();
+  private final AtomicLong sampledRootSpans = new AtomicLong();
+  private final AtomicLong sampledSpans = new AtomicLong();
+  private volatile double probability = 1.0;
+  // Average number of spans of the sampled traces, the cost of a new trace in the token bucket.
+  private volatile double spansPerTrace = 1.0;
+
+  AdaptiveSampler(double targetSpansPerSecond, Clock clock) {
+    this.targetSpansPerSecond = targetSpansPerSecond;
+    this.clock = clock;
+    this.rateLimiter =
+        new RateLimiter(targetSpansPerSecond, Math.max(1.0, targetSpansPerSecond), clock);
+    this.intervalStartNanos = new AtomicLong(clock.nanoTime());
+  }
+
+  @Override
+  public Decision shouldSample(
+      @Nullable SpanContext parentContext,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      Span.Kind spanKind,
+      Map<String, AttributeValue> attributes,
+      @Nullable List<Link> parentLinks) {
+    maybeAdjust();
+    Decision decision;
+    if (parentContext != null) {
+      decision = Samplers.parentDecision(parentContext);
+    } else if (Samplers.hasSampledLink(parentLinks)) {
+      decision = Samplers.sampledDecision();
+    } else {
+      rootSpans.incrementAndGet();
+      decision = sampleRoot(traceId);
+      if (decision.isSampled()) {
+        sampledRootSpans.incrementAndGet();
+      }
+    }
+    if (decision.isSampled()) {
+      sampledSpans.incrementAndGet();
+    }
+    return decision;
+  }
+
+  @Override
+  public String getDescription() {
+    return String.format("AdaptiveSampler{%.2f}", targetSpansPerSecond);
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  // Visible for testing.
+  double getProbability() {
+    return probability;
+  }
+
+  private Decision sampleRoot(TraceId traceId) {
+    double currentProbability = probability;
+    // Note use of '<' for comparison, as in Samplers.probability.
+    long idUpperBound =
+        currentProbability >= 1.0 ? Long.MAX_VALUE : (long) (currentProbability * Long.MAX_VALUE);
+    if (Math.abs(traceId.getTraceRandomPart()) < idUpperBound
+        && rateLimiter.trySpend(Math.min(spansPerTrace, targetSpansPerSecond))) {
+      return Samplers.sampledDecision();
+    }
+    return Samplers.notSampledDecision();
+  }
+
+  // Computes the probability for the next interval, once the current one elapsed.
+  private void maybeAdjust() {
+    long start = intervalStartNanos.get();
+    long now = clock.nanoTime();
+    long elapsedNanos = now - start;
+    if (elapsedNanos < ADJUSTMENT_INTERVAL_NANOS || !intervalStartNanos.compareAndSet(start, now)) {
+      return;
+    }
+    // Only the thread that moved the interval start gets here. Spans counted concurrently may be
+    // attributed to the next interval, which does not matter for an estimate.
+    long roots = rootSpans.getAndSet(0);
+    long sampledRoots = sampledRootSpans.getAndSet(0);
+    long spans = sampledSpans.getAndSet(0);
+    if (sampledRoots > 0) {
+      spansPerTrace = Math.max(1.0, (double) spans / sampledRoots);
+    }
+    if (roots > 0) {
+      double rootsPerSecond = roots * 1.0e9 / elapsedNanos;
+      probability = Math.min(1.0, targetSpansPerSecond / (rootsPerSecond * spansPerTrace));
+    }
+  }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2019, OpenTelemetry Authors
+ * Copyright 2020, OpenTelemetry Authors
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,70 +17,299 @@
 package io.opentelemetry.sdk.trace;
 
 import io.opentelemetry.common.AttributeValue;
-import java.util.HashMap;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
 
 /**
- * A map implementation with a fixed capacity that drops attributes when the map gets full.
+ * An insertion-ordered attribute container with a fixed capacity that drops attributes when it gets
+ * full.
  *
- * <p>Some APIs may have slightly different behaviors, like `put` which returns null if out of
- * capacity.
+ * <p>Attributes are stored in parallel key/type/value arrays, primitive values are kept unboxed in
+ * a {@code long[]} so setting a {@code long}, {@code double} or {@code boolean} attribute does not
+ * allocate. The arrays grow on demand up to the capacity. Keys are looked up with a linear scan for
+ * small sizes, and through an open-addressing index once there are more than {@link
+ * #LINEAR_SCAN_THRESHOLD} attributes.
+ *
+ * <p>The {@link Map} interface is a read-only view, all the changes must be done with the {@code
+ * put*} and {@link #removeAttribute(String)} methods. Primitive values are converted into {@link
+ * AttributeValue}s when they are read through the view.
  */
-final class AttributesMap extends HashMap<String, AttributeValue> {
+@NotThreadSafe
+final class AttributesMap extends AbstractMap<String, AttributeValue> {
+  static final int LINEAR_SCAN_THRESHOLD = 16;
+  private static final int INITIAL_SIZE = 8;
+  private static final String[] EMPTY_KEYS = new String[0];
+  private static final AttributeValue.Type[] EMPTY_TYPES = new AttributeValue.Type[0];
+  private static final long[] EMPTY_PRIMITIVES = new long[0];
+  private static final AttributeValue[] EMPTY_VALUES = new AttributeValue[0];
 
-  private final long capacity;
+  private final int capacity;
+  private String[] keys = EMPTY_KEYS;
+  private AttributeValue.Type[] types = EMPTY_TYPES;
+  // Unboxed values, only used when the corresponding entry in values is null.
+  private long[] primitives = EMPTY_PRIMITIVES;
+  private AttributeValue[] values = EMPTY_VALUES;
+  private int size;
   private int totalAddedValues = 0;
-  // Here because -Werror complains about this: [serial] serializable class AttributesWithCapacity
-  // has no definition of serialVersionUID. This class shouldn't be serialized.
-  private static final long serialVersionUID = 42L;
+  // Open-addressing table of (index + 1), zero means an empty slot. Only built for large sizes.
+  @Nullable private int[] index;
+  @Nullable private Set<Entry<String, AttributeValue>> entrySet;
+
+  AttributesMap(int capacity) {
+    this.capacity = Math.max(0, capacity);
+  }
 
-  AttributesMap(long capacity) {
-    this.capacity = capacity;
+  /**
+   * Sets the given attribute, the attribute is dropped if the map is full and does not already
+   * contain the key.
+   */
+  void putAttribute(String key, AttributeValue value) {
+    int i = slotFor(key);
+    if (i >= 0) {
+      types[i] = value.getType();
+      values[i] = value;
+    }
+  }
+
+  void putLong(String key, long value) {
+    putPrimitive(key, AttributeValue.Type.LONG, value);
+  }
+
+  void putDouble(String key, double value) {
+    putPrimitive(key, AttributeValue.Type.DOUBLE, Double.doubleToRawLongBits(value));
+  }
+
+  void putBoolean(String key, boolean value) {
+    putPrimitive(key, AttributeValue.Type.BOOLEAN, value ? 1 : 0);
+  }
+
+  void putAllAttributes(Map<String, AttributeValue> attributes) {
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      putAttribute(entry.getKey(), entry.getValue());
+    }
+  }
+
+  void removeAttribute(String key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return;
+    }
+    int moved = size - i - 1;
+    System.arraycopy(keys, i + 1, keys, i, moved);
+    System.arraycopy(types, i + 1, types, i, moved);
+    System.arraycopy(primitives, i + 1, primitives, i, moved);
+    System.arraycopy(values, i + 1, values, i, moved);
+    size--;
+    keys[size] = null;
+    types[size] = null;
+    values[size] = null;
+    if (index != null) {
+      rebuildIndex();
+    }
+  }
+
+  int getTotalAddedValues() {
+    return totalAddedValues;
+  }
+
+  /** Returns a copy of this map that is not affected by later changes. */
+  AttributesMap copy() {
+    AttributesMap copy = new AttributesMap(capacity);
+    copy.keys = Arrays.copyOf(keys, size);
+    copy.types = Arrays.copyOf(types, size);
+    copy.primitives = Arrays.copyOf(primitives, size);
+    copy.values = Arrays.copyOf(values, size);
+    copy.size = size;
+    copy.totalAddedValues = totalAddedValues;
+    if (index != null) {
+      copy.index = index.clone();
+    }
+    return copy;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof String && indexOf((String) key) >= 0;
   }
 
   @Nullable
   @Override
-  public AttributeValue put(String key, AttributeValue value) {
-    totalAddedValues++;
-    if (size() >= capacity && !containsKey(key)) {
+  public AttributeValue get(Object key) {
+    if (!(key instanceof String)) {
       return null;
     }
-    return super.put(key, value);
+    int i = indexOf((String) key);
+    return i < 0 ? null : valueAt(i);
   }
 
   @Override
-  public void putAll(Map<? extends String, ? extends AttributeValue> values) {
-    for (Map.Entry<? extends String, ? extends AttributeValue> entry : values.entrySet()) {
-      put(entry.getKey(), entry.getValue());
+  public Set<Entry<String, AttributeValue>> entrySet() {
+    Set<Entry<String, AttributeValue>> result = entrySet;
+    if (result == null) {
+      result = new EntrySet();
+      entrySet = result;
     }
+    return result;
   }
 
-  @Nullable
-  @Override
-  public AttributeValue remove(Object key) {
-    return super.remove(key);
+  private void putPrimitive(String key, AttributeValue.Type type, long bits) {
+    int i = slotFor(key);
+    if (i >= 0) {
+      types[i] = type;
+      primitives[i] = bits;
+      values[i] = null;
+    }
   }
 
-  // Added as public to override the newly added methods in java8, so when we do the switch and
-  // start using them we remember to fix them and count the number of attributes added.
+  // Returns the position to write the value for the given key to, or -1 if the map is full.
+  private int slotFor(String key) {
+    totalAddedValues++;
+    int i = indexOf(key);
+    if (i >= 0) {
+      return i;
+    }
+    if (size >= capacity) {
+      return -1;
+    }
+    if (size == keys.length) {
+      grow();
+    }
+    i = size++;
+    keys[i] = key;
+    if (size > LINEAR_SCAN_THRESHOLD) {
+      if (index == null || size * 2 > index.length) {
+        rebuildIndex();
+      } else {
+        addToIndex(key, i);
+      }
+    }
+    return i;
+  }
 
-  @SuppressWarnings("MissingOverride")
-  public AttributeValue putIfAbsent(String key, AttributeValue value) {
-    throw new RuntimeException("Do not call methods on the map");
+  private int indexOf(String key) {
+    int[] table = index;
+    if (table == null) {
+      for (int i = 0; i < size; i++) {
+        if (keys[i].equals(key)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    int mask = table.length - 1;
+    for (int slot = hash(key) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+      int i = table[slot] - 1;
+      if (keys[i].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
   }
 
-  @SuppressWarnings("MissingOverride")
-  public AttributeValue replace(String key, AttributeValue value) {
-    throw new RuntimeException("Do not call methods on the map");
+  private void grow() {
+    int length = Math.min(capacity, Math.max(INITIAL_SIZE, keys.length * 2));
+    keys = Arrays.copyOf(keys, length);
+    types = Arrays.copyOf(types, length);
+    primitives = Arrays.copyOf(primitives, length);
+    values = Arrays.copyOf(values, length);
   }
 
-  @SuppressWarnings("MissingOverride")
-  public boolean replace(String key, AttributeValue oldValue, AttributeValue newValue) {
-    throw new RuntimeException("Do not call methods on the map");
+  private void rebuildIndex() {
+    if (size <= LINEAR_SCAN_THRESHOLD) {
+      index = null;
+      return;
+    }
+    // Keeps the load factor between 0.125 and 0.5.
+    int length = Integer.highestOneBit(size) << 2;
+    if (index == null || index.length != length) {
+      index = new int[length];
+    } else {
+      Arrays.fill(index, 0);
+    }
+    for (int i = 0; i < size; i++) {
+      addToIndex(keys[i], i);
+    }
   }
 
-  int getTotalAddedValues() {
-    return totalAddedValues;
+  private void addToIndex(String key, int i) {
+    int[] table = index;
+    int mask = table.length - 1;
+    int slot = hash(key) & mask;
+    while (table[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = i + 1;
+  }
+
+  private static int hash(String key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private AttributeValue valueAt(int i) {
+    AttributeValue value = values[i];
+    if (value != null) {
+      return value;
+    }
+    switch (types[i]) {
+      case LONG:
+        return AttributeValue.longAttributeValue(primitives[i]);
+      case DOUBLE:
+        return AttributeValue.doubleAttributeValue(Double.longBitsToDouble(primitives[i]));
+      case BOOLEAN:
+        return AttributeValue.booleanAttributeValue(primitives[i] != 0);
+      default:
+        throw new IllegalStateException("Unexpected primitive type " + types[i]);
+    }
+  }
+
+  private final class EntrySet extends AbstractSet<Entry<String, AttributeValue>> {
+    @Override
+    public Iterator<Entry<String, AttributeValue>> iterator() {
+      return new Iterator<Entry<String, AttributeValue>>() {
+        private int next = 0;
+
+        @Override
+        public boolean hasNext() {
+          return next < size;
+        }
+
+        @Override
+        public Entry<String, AttributeValue> next() {
+          if (next >= size) {
+            throw new NoSuchElementException();
+          }
+          int i = next++;
+          return new SimpleImmutableEntry<>(keys[i], valueAt(i));
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException("remove");
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
   }
 }
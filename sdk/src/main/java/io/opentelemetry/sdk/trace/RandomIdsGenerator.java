@@ -30,19 +30,27 @@ public final class RandomIdsGenerator implements IdsGenerator {
 
   @Override
   public SpanId generateSpanId() {
+    return nextSpanId(ThreadLocalRandom.current());
+  }
+
+  @Override
+  public TraceId generateTraceId() {
+    return nextTraceId(ThreadLocalRandom.current());
+  }
+
+  // Used by SpanBuilderSdk to generate the ids of a root span with a single lookup of the random
+  // generator of the thread.
+  static SpanId nextSpanId(ThreadLocalRandom random) {
     long id;
-    ThreadLocalRandom random = ThreadLocalRandom.current();
     do {
       id = random.nextLong();
     } while (id == INVALID_ID);
     return new SpanId(id);
   }
 
-  @Override
-  public TraceId generateTraceId() {
+  static TraceId nextTraceId(ThreadLocalRandom random) {
     long idHi;
     long idLo;
-    ThreadLocalRandom random = ThreadLocalRandom.current();
     do {
       idHi = random.nextLong();
       idLo = random.nextLong();
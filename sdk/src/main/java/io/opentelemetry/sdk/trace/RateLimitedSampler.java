@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Sampler} that samples at most {@code tracesPerSecond} new traces every second. The child
+ * spans follow the decision of their parent and do not count towards the limit.
+ */
+@ThreadSafe
+final class RateLimitedSampler implements Sampler {
+  private final double tracesPerSecond;
+  private final RateLimiter rateLimiter;
+
+  RateLimitedSampler(double tracesPerSecond, Clock clock) {
+    this.tracesPerSecond = tracesPerSecond;
+    // Allows a burst of one second of traces, and at least one trace.
+    this.rateLimiter = new RateLimiter(tracesPerSecond, Math.max(1.0, tracesPerSecond), clock);
+  }
+
+  @Override
+  public Decision shouldSample(
+      @Nullable SpanContext parentContext,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      Span.Kind spanKind,
+      Map<String, AttributeValue> attributes,
+      @Nullable List<Link> parentLinks) {
+    if (parentContext != null) {
+      return Samplers.parentDecision(parentContext);
+    }
+    if (Samplers.hasSampledLink(parentLinks)) {
+      return Samplers.sampledDecision();
+    }
+    return rateLimiter.trySpend(1.0) ? Samplers.sampledDecision() : Samplers.notSampledDecision();
+  }
+
+  @Override
+  public String getDescription() {
+    return String.format("RateLimitedSampler{%.2f}", tracesPerSecond);
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+}
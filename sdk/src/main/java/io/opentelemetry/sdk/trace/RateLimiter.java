@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.sdk.common.Clock;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A lock-free token bucket. Credits are added at a constant rate up to a maximum balance, and
+ * {@link #trySpend(double)} spends them if enough are available.
+ *
+ * <p>The state is a single {@code debit} timestamp: the balance is the time elapsed since the
+ * debit, converted to credits. Spending moves the debit forward with a compare-and-set, so
+ * concurrent callers never block.
+ */
+@ThreadSafe
+final class RateLimiter {
+  private final Clock clock;
+  private final double creditsPerNanosecond;
+  // Maximum balance, in nanoseconds of credits.
+  private final long maxBalanceNanos;
+  // The time at which the balance was zero.
+  private final AtomicLong debit;
+
+  /**
+   * Creates a rate limiter starting with a full balance.
+   *
+   * @param creditsPerSecond the number of credits added every second.
+   * @param maxBalance the maximum number of credits, which is the largest burst allowed.
+   * @param clock the clock used to add the credits.
+   */
+  RateLimiter(double creditsPerSecond, double maxBalance, Clock clock) {
+    this.clock = clock;
+    this.creditsPerNanosecond = creditsPerSecond / 1.0e9;
+    this.maxBalanceNanos = (long) (maxBalance / creditsPerNanosecond);
+    this.debit = new AtomicLong(clock.nanoTime() - maxBalanceNanos);
+  }
+
+  /** Spends the given number of credits, returns {@code false} if not enough are available. */
+  boolean trySpend(double credits) {
+    long costNanos = (long) (credits / creditsPerNanosecond);
+    while (true) {
+      long currentDebit = debit.get();
+      long now = clock.nanoTime();
+      long balanceNanos = Math.min(now - currentDebit, maxBalanceNanos) - costNanos;
+      if (balanceNanos < 0) {
+        return false;
+      }
+      if (debit.compareAndSet(currentDebit, now - balanceNanos)) {
+        return true;
+      }
+    }
+  }
+}
@@ -19,7 +19,6 @@ package io.opentelemetry.sdk.trace;
 import static io.opentelemetry.common.AttributeValue.Type.STRING;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.EvictingQueue;
 import io.opentelemetry.common.AttributeValue;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
@@ -34,15 +33,16 @@ import io.opentelemetry.trace.SpanContext;
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.Tracer;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 /** Implementation for the {@link Span} class that records trace events. */
@@ -50,6 +50,15 @@ import javax.annotation.concurrent.ThreadSafe;
 final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   private static final Logger logger = Logger.getLogger(Tracer.class.getName());
+  // Values of the state.
+  private static final int UNLOCKED = 0;
+  private static final int LOCKED = 1;
+  private static final int ENDED = 2;
+  // Number of times acquire() spins before yielding when the state is contended.
+  private static final int MAX_SPINS = 64;
+  // Updates the state in place, an AtomicInteger would be one more object per span.
+  private static final AtomicIntegerFieldUpdater<RecordEventsReadableSpan> stateUpdater =
+      AtomicIntegerFieldUpdater.newUpdater(RecordEventsReadableSpan.class, "state");
 
   // The config used when constructing this Span.
   private final TraceConfig traceConfig;
@@ -67,11 +76,14 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   // Number of links recorded.
   private final int totalRecordedLinks;
 
-  // Lock used to internally guard the mutable state of this instance
-  private final Object lock = new Object();
+  // Guards the mutable state of this instance, see acquire(). A span is almost always used by a
+  // single thread, so this is a CAS on an uncontended word instead of a monitor. Starts UNLOCKED,
+  // which is zero, without a volatile store in the constructor.
+  private volatile int state;
 
-  @GuardedBy("lock")
-  private String name;
+  // The name is volatile so it can be read without acquiring the state, it is only written while
+  // holding the state.
+  private volatile String name;
   // The kind of the span.
   private final Kind kind;
   // The clock used to get the time.
@@ -82,26 +94,22 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   private final InstrumentationLibraryInfo instrumentationLibraryInfo;
   // The start time of the span.
   private final long startEpochNanos;
+  // The fields below are guarded by the state. Once the state is ENDED the span is frozen, no more
+  // changes are accepted, so they can be read without acquiring the state after observing it.
   // Set of recorded attributes. DO NOT CALL any other method that changes the ordering of events.
-  @GuardedBy("lock")
-  @Nullable
-  private AttributesMap attributes;
-  // List of recorded events.
-  @GuardedBy("lock")
-  private final EvictingQueue<TimedEvent> events;
+  @Nullable private AttributesMap attributes;
+  // List of recorded events, used as a ring once the limit is reached: a new event replaces the
+  // oldest one, at eventsStart. Created when the first event is recorded, most spans have no
+  // events.
+  @Nullable private ArrayList<Event> events;
+  // Index of the oldest event in events.
+  private int eventsStart;
   // Number of events recorded.
-  @GuardedBy("lock")
   private int totalRecordedEvents = 0;
   // The status of the span.
-  @GuardedBy("lock")
-  @Nullable
-  private Status status;
+  @Nullable private Status status;
   // The end time of the span.
-  @GuardedBy("lock")
   private long endEpochNanos;
-  // True if the span is ended.
-  @GuardedBy("lock")
-  private boolean hasEnded;
 
   private RecordEventsReadableSpan(
       SpanContext context,
@@ -128,11 +136,9 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
     this.kind = kind;
     this.spanProcessor = spanProcessor;
     this.resource = resource;
-    this.hasEnded = false;
     this.clock = clock;
     this.startEpochNanos = startEpochNanos;
     this.attributes = attributes;
-    this.events = EvictingQueue.create(traceConfig.getMaxNumberOfEvents());
     this.traceConfig = traceConfig;
   }
 
@@ -192,24 +198,37 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   @Override
   public SpanData toSpanData() {
-    // Copy within synchronized context
-    synchronized (lock) {
+    if (hasEnded() || !acquire()) {
+      // The span is frozen, return views over its state without copying or locking.
       return SpanWrapper.create(
           this,
           getImmutableLinks(),
-          getImmutableTimedEvents(),
+          getFrozenEvents(),
+          attributes == null || attributes.isEmpty()
+              ? Collections.<String, AttributeValue>emptyMap()
+              : attributes,
+          (attributes == null) ? 0 : attributes.getTotalAddedValues(),
+          totalRecordedEvents,
+          status == null ? Status.OK : status);
+    }
+    // Copy while holding the state.
+    try {
+      return SpanWrapper.create(
+          this,
+          getImmutableLinks(),
+          getImmutableEvents(),
           getImmutableAttributes(),
           (attributes == null) ? 0 : attributes.getTotalAddedValues(),
           totalRecordedEvents,
-          getStatusWithDefault());
+          status == null ? Status.OK : status);
+    } finally {
+      release();
     }
   }
 
   @Override
   public boolean hasEnded() {
-    synchronized (lock) {
-      return hasEnded;
-    }
+    return state == ENDED;
   }
 
   @Override
@@ -224,9 +243,7 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    */
   @Override
   public String getName() {
-    synchronized (lock) {
-      return name;
-    }
+    return name;
   }
 
   /**
@@ -248,9 +265,7 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    * @return the end nano time.
    */
   long getEndEpochNanos() {
-    synchronized (lock) {
-      return endEpochNanos;
-    }
+    return hasEnded() ? endEpochNanos : 0;
   }
 
   /**
@@ -261,9 +276,7 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
    */
   @Override
   public long getLatencyNanos() {
-    synchronized (lock) {
-      return (hasEnded ? endEpochNanos : clock.now()) - startEpochNanos;
-    }
+    return (hasEnded() ? endEpochNanos : clock.now()) - startEpochNanos;
   }
 
   /**
@@ -282,58 +295,91 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   @Override
   public void setAttribute(String key, long value) {
-    setAttribute(key, AttributeValue.longAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
+      return;
+    }
+    try {
+      getAttributesForUpdate().putLong(key, value);
+    } finally {
+      release();
+    }
   }
 
   @Override
   public void setAttribute(String key, double value) {
-    setAttribute(key, AttributeValue.doubleAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
+      return;
+    }
+    try {
+      getAttributesForUpdate().putDouble(key, value);
+    } finally {
+      release();
+    }
   }
 
   @Override
   public void setAttribute(String key, boolean value) {
-    setAttribute(key, AttributeValue.booleanAttributeValue(value));
+    Preconditions.checkNotNull(key, "key");
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
+      return;
+    }
+    try {
+      getAttributesForUpdate().putBoolean(key, value);
+    } finally {
+      release();
+    }
   }
 
   @Override
   public void setAttribute(String key, AttributeValue value) {
     Preconditions.checkNotNull(key, "key");
-    synchronized (lock) {
-      if (hasEnded) {
-        logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
-        return;
-      }
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling setAttribute() on an ended Span.");
+      return;
+    }
+    try {
       if (value == null || (value.getType().equals(STRING) && value.getStringValue() == null)) {
-        if (attributes == null) {
-          return;
+        if (attributes != null) {
+          attributes.removeAttribute(key);
         }
-        attributes.remove(key);
         return;
       }
-      if (attributes == null) {
-        attributes = new AttributesMap(traceConfig.getMaxNumberOfAttributes());
-      }
-      attributes.put(key, value);
+      getAttributesForUpdate().putAttribute(key, value);
+    } finally {
+      release();
     }
   }
 
+  // Must be called while holding the state.
+  private AttributesMap getAttributesForUpdate() {
+    if (attributes == null) {
+      attributes = new AttributesMap(traceConfig.getMaxNumberOfAttributes());
+    }
+    return attributes;
+  }
+
   @Override
   public void addEvent(String name) {
-    addTimedEvent(
-        TimedEvent.create(clock.now(), name, Collections.<String, AttributeValue>emptyMap(), 0));
+    addEventInternal(
+        Event.create(clock.now(), name, Collections.<String, AttributeValue>emptyMap(), 0));
   }
 
   @Override
   public void addEvent(String name, long timestamp) {
-    addTimedEvent(
-        TimedEvent.create(timestamp, name, Collections.<String, AttributeValue>emptyMap(), 0));
+    addEventInternal(
+        Event.create(timestamp, name, Collections.<String, AttributeValue>emptyMap(), 0));
   }
 
   @Override
   public void addEvent(String name, Map<String, AttributeValue> attributes) {
     int totalAttributeCount = attributes.size();
-    addTimedEvent(
-        TimedEvent.create(
+    addEventInternal(
+        Event.create(
             clock.now(),
             name,
             copyAndLimitAttributes(attributes, traceConfig.getMaxNumberOfAttributesPerEvent()),
@@ -343,8 +389,8 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   @Override
   public void addEvent(String name, Map<String, AttributeValue> attributes, long timestamp) {
     int totalAttributeCount = attributes.size();
-    addTimedEvent(
-        TimedEvent.create(
+    addEventInternal(
+        Event.create(
             timestamp,
             name,
             copyAndLimitAttributes(attributes, traceConfig.getMaxNumberOfAttributesPerEvent()),
@@ -353,12 +399,12 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
 
   @Override
   public void addEvent(io.opentelemetry.trace.Event event) {
-    addTimedEvent(TimedEvent.create(clock.now(), event));
+    addEventInternal(Event.create(clock.now(), event.getName(), event.getAttributes()));
   }
 
   @Override
   public void addEvent(io.opentelemetry.trace.Event event, long timestamp) {
-    addTimedEvent(TimedEvent.create(timestamp, event));
+    addEventInternal(Event.create(timestamp, event.getName(), event.getAttributes()));
   }
 
   static Map<String, AttributeValue> copyAndLimitAttributes(
@@ -381,39 +427,52 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
     return Collections.unmodifiableMap(temp);
   }
 
-  private void addTimedEvent(TimedEvent timedEvent) {
-    synchronized (lock) {
-      if (hasEnded) {
-        logger.log(Level.FINE, "Calling addEvent() on an ended Span.");
+  private void addEventInternal(Event event) {
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling addEvent() on an ended Span.");
+      return;
+    }
+    try {
+      totalRecordedEvents++;
+      int maxNumberOfEvents = traceConfig.getMaxNumberOfEvents();
+      if (maxNumberOfEvents == 0) {
         return;
       }
-      events.add(timedEvent);
-      totalRecordedEvents++;
+      if (events == null) {
+        events = new ArrayList<>();
+      }
+      if (events.size() < maxNumberOfEvents) {
+        events.add(event);
+      } else {
+        // Replace the oldest event.
+        events.set(eventsStart, event);
+        eventsStart = (eventsStart + 1) % events.size();
+      }
+    } finally {
+      release();
     }
   }
 
   @Override
   public void setStatus(Status status) {
     Preconditions.checkNotNull(status, "status");
-    synchronized (lock) {
-      if (hasEnded) {
-        logger.log(Level.FINE, "Calling setStatus() on an ended Span.");
-        return;
-      }
-      this.status = status;
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling setStatus() on an ended Span.");
+      return;
     }
+    this.status = status;
+    release();
   }
 
   @Override
   public void updateName(String name) {
     Preconditions.checkNotNull(name, "name");
-    synchronized (lock) {
-      if (hasEnded) {
-        logger.log(Level.FINE, "Calling updateName() on an ended Span.");
-        return;
-      }
-      this.name = name;
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling updateName() on an ended Span.");
+      return;
     }
+    this.name = name;
+    release();
   }
 
   @Override
@@ -428,17 +487,45 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
   }
 
   private void endInternal(long endEpochNanos) {
-    synchronized (lock) {
-      if (hasEnded) {
-        logger.log(Level.FINE, "Calling end() on an ended Span.");
-        return;
-      }
-      this.endEpochNanos = endEpochNanos;
-      hasEnded = true;
+    if (!acquire()) {
+      logger.log(Level.FINE, "Calling end() on an ended Span.");
+      return;
     }
+    this.endEpochNanos = endEpochNanos;
+    // Publishes all the state and never releases it, so no more changes are accepted.
+    state = ENDED;
     spanProcessor.onEnd(this);
   }
 
+  // Acquires exclusive access to the mutable state, spinning while another thread holds it.
+  // Returns false if the span has ended, in which case the state must not be released.
+  private boolean acquire() {
+    int current = state;
+    if (current == UNLOCKED && stateUpdater.compareAndSet(this, UNLOCKED, LOCKED)) {
+      return true;
+    }
+    if (current == ENDED) {
+      return false;
+    }
+    for (int spins = 0; ; spins++) {
+      current = state;
+      if (current == ENDED) {
+        return false;
+      }
+      if (current == UNLOCKED && stateUpdater.compareAndSet(this, UNLOCKED, LOCKED)) {
+        return true;
+      }
+      if (spins >= MAX_SPINS) {
+        Thread.yield();
+      }
+    }
+  }
+
+  private void release() {
+    // A release store is enough to publish the changes to the next thread acquiring the state.
+    stateUpdater.lazySet(this, UNLOCKED);
+  }
+
   @Override
   public SpanContext getContext() {
     return context;
@@ -449,13 +536,6 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
     return true;
   }
 
-  @GuardedBy("lock")
-  private Status getStatusWithDefault() {
-    synchronized (lock) {
-      return status == null ? Status.OK : status;
-    }
-  }
-
   SpanId getParentSpanId() {
     return parentSpanId;
   }
@@ -480,11 +560,23 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
     return totalRecordedLinks;
   }
 
-  @GuardedBy("lock")
+  // The links are immutable once the span is started, so this does not need the state.
+  @SuppressWarnings("unchecked")
   private List<Link> getImmutableLinks() {
     if (links.isEmpty()) {
       return Collections.emptyList();
     }
+    boolean allImmutable = true;
+    for (io.opentelemetry.trace.Link link : links) {
+      if (!(link instanceof Link)) {
+        allImmutable = false;
+        break;
+      }
+    }
+    if (allImmutable) {
+      // The list is unmodifiable and contains only immutable links, it can be shared as it is.
+      return (List<Link>) (List<?>) links;
+    }
     List<Link> result = new ArrayList<>(links.size());
     for (io.opentelemetry.trace.Link link : links) {
       Link newLink;
@@ -500,27 +592,56 @@ final class RecordEventsReadableSpan implements ReadableSpan, Span {
     return Collections.unmodifiableList(result);
   }
 
-  @GuardedBy("lock")
-  private List<Event> getImmutableTimedEvents() {
-    if (events.isEmpty()) {
+  // Must be called while holding the state.
+  private List<Event> getImmutableEvents() {
+    if (events == null || events.isEmpty()) {
       return Collections.emptyList();
     }
-    List<Event> result = new ArrayList<>(events.size());
-    for (io.opentelemetry.sdk.trace.TimedEvent sourceEvent : events) {
-      result.add(
-          Event.create(
-              sourceEvent.getEpochNanos(), sourceEvent.getName(), sourceEvent.getAttributes()));
+    // The events are immutable, only the list needs to be copied.
+    return Collections.unmodifiableList(new ArrayList<>(new EventsView(events, eventsStart)));
+  }
+
+  // Must be called once the span is frozen.
+  private List<Event> getFrozenEvents() {
+    if (events == null || events.isEmpty()) {
+      return Collections.emptyList();
     }
-    return Collections.unmodifiableList(result);
+    return eventsStart == 0
+        ? Collections.unmodifiableList(events)
+        : new EventsView(events, eventsStart);
   }
 
-  @GuardedBy("lock")
+  // Must be called while holding the state.
   private Map<String, AttributeValue> getImmutableAttributes() {
     if (attributes == null || attributes.isEmpty()) {
       return Collections.emptyMap();
     }
-    return hasEnded
-        ? Collections.unmodifiableMap(attributes)
-        : Collections.unmodifiableMap(new HashMap<>(attributes));
+    // The copy is a read-only view.
+    return attributes.copy();
+  }
+
+  // Read-only view of the events in the order they were recorded, starting at the oldest event of
+  // the ring.
+  private static final class EventsView extends AbstractList<Event> {
+    private final List<Event> events;
+    private final int start;
+
+    private EventsView(List<Event> events, int start) {
+      this.events = events;
+      this.start = start;
+    }
+
+    @Override
+    public Event get(int index) {
+      if (index < 0 || index >= events.size()) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + events.size());
+      }
+      return events.get((start + index) % events.size());
+    }
+
+    @Override
+    public int size() {
+      return events.size();
+    }
   }
 }
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.sdk.common.DaemonThreadFactory;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.TraceId;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link Sampler} that loads per-operation and per-span-kind sampling probabilities from a local
+ * properties file, and reloads them when the file changes, so the sampling of a running process can
+ * be changed without a restart.
+ *
+ * <p>The file holds the following keys, the most specific rule matching a span is used:
+ *
+ * <pre>
+ * # The probability of the spans matching no other rule.
+ * default=0.01
+ * # The probability of the spans of a kind, by the name of the Span.Kind constant.
+ * kind.SERVER=0.1
+ * # The probability of the spans with a name.
+ * operation.GET\ /health=0.0
+ * # The probability of the spans of a kind with a name.
+ * kind.CLIENT.operation.GET\ /users=1.0
+ * </pre>
+ *
+ * <p>Every rule samples by trace id, as {@link Samplers#probability(double)}. The rules are
+ * compiled into an immutable table, looked up by span name and kind, and swapped atomically when
+ * the file is reloaded. The modification time and length of the file are polled from a daemon
+ * thread, every 10 seconds by default, and the file is reloaded when either changes. A file that
+ * cannot be read or parsed is ignored, the previous rules stay in use. The default sampler of the
+ * builder is used until a valid file is loaded.
+ *
+ * @since 0.5.0
+ */
+@ThreadSafe
+public final class ReloadableFileSampler implements Sampler, Closeable {
+  private static final Logger logger = Logger.getLogger(ReloadableFileSampler.class.getName());
+  private static final String POLL_THREAD_NAME =
+      ReloadableFileSampler.class.getSimpleName() + "_PollThread";
+  private static final long DEFAULT_POLL_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(10);
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  static final String KEY_DEFAULT = "default";
+  static final String KEY_KIND_PREFIX = "kind.";
+  static final String KEY_OPERATION_PREFIX = "operation.";
+
+  private final File file;
+  private final Sampler defaultSampler;
+  private volatile RuleTable rules;
+  @Nullable private final ScheduledExecutorService pollExecutor;
+  // The modification time and length of the file when last loaded, only used by the poll thread.
+  private long lastModified;
+  private long length;
+
+  private ReloadableFileSampler(File file, Sampler defaultSampler, long pollIntervalMillis) {
+    this.file = file;
+    this.defaultSampler = defaultSampler;
+    this.rules = RuleTable.empty(defaultSampler);
+    // Read before loading the file, so a change made while loading is seen by the next poll.
+    lastModified = file.lastModified();
+    length = file.length();
+    reload();
+    if (pollIntervalMillis > 0) {
+      pollExecutor =
+          Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory(POLL_THREAD_NAME));
+      pollExecutor.scheduleWithFixedDelay(
+          new Runnable() {
+            @Override
+            public void run() {
+              reloadIfChanged();
+            }
+          },
+          pollIntervalMillis,
+          pollIntervalMillis,
+          TimeUnit.MILLISECONDS);
+    } else {
+      pollExecutor = null;
+    }
+  }
+
+  /**
+   * Returns a new Builder for {@link ReloadableFileSampler}.
+   *
+   * @param file the properties file holding the sampling rules.
+   * @return a new {@link Builder}.
+   * @throws NullPointerException if {@code file} is {@code null}.
+   */
+  public static Builder newBuilder(File file) {
+    return new Builder(file);
+  }
+
+  @Override
+  public Decision shouldSample(
+      @Nullable SpanContext parentContext,
+      TraceId traceId,
+      SpanId spanId,
+      String name,
+      Span.Kind spanKind,
+      Map<String, AttributeValue> attributes,
+      @Nullable List<Link> parentLinks) {
+    return rules
+        .getSampler(name, spanKind)
+        .shouldSample(parentContext, traceId, spanId, name, spanKind, attributes, parentLinks);
+  }
+
+  @Override
+  public String getDescription() {
+    return "ReloadableFileSampler{" + file + "}";
+  }
+
+  @Override
+  public String toString() {
+    return getDescription();
+  }
+
+  /** Stops polling the file, the last loaded rules stay in use. */
+  @Override
+  public void close() {
+    if (pollExecutor != null) {
+      pollExecutor.shutdownNow();
+    }
+  }
+
+  /**
+   * Loads the rules from the file. Returns {@code false} and keeps the previous rules if the file
+   * cannot be read or parsed.
+   */
+  boolean reload() {
+    Properties properties = new Properties();
+    try (Reader reader =
+        new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8))) {
+      properties.load(reader);
+    } catch (FileNotFoundException e) {
+      logger.log(Level.FINE, "Sampling rules file {0} not found.", file);
+      return false;
+    } catch (IOException | IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Failed to read the sampling rules file " + file, e);
+      return false;
+    }
+    try {
+      rules = RuleTable.compile(properties, defaultSampler);
+      return true;
+    } catch (IllegalArgumentException e) {
+      logger.log(Level.WARNING, "Invalid sampling rules file " + file, e);
+      return false;
+    }
+  }
+
+  // File.lastModified() and File.length() return 0 for a missing file, so deleting the file is a
+  // change too, and the previous rules stay in use.
+  private void reloadIfChanged() {
+    long currentLastModified = file.lastModified();
+    long currentLength = file.length();
+    if (currentLastModified == lastModified && currentLength == length) {
+      return;
+    }
+    lastModified = currentLastModified;
+    length = currentLength;
+    reload();
+  }
+
+  /** The compiled rules, looked up with one hash lookup on the span name. */
+  @Immutable
+  static final class RuleTable {
+    private static final Span.Kind[] KINDS = Span.Kind.values();
+    // Index of the rule matching any kind in the arrays indexed by kind.
+    private static final int ANY_KIND = KINDS.length;
+
+    // For every span name, the samplers indexed by kind, the last one matching any kind. The
+    // entries without a rule are already resolved to the less specific rule.
+    private final Map<String, Sampler[]> operationSamplers;
+    // The samplers of the spans with a name without rules, indexed by kind.
+    private final Sampler[] kindSamplers;
+
+    private RuleTable(Map<String, Sampler[]> operationSamplers, Sampler[] kindSamplers) {
+      this.operationSamplers = operationSamplers;
+      this.kindSamplers = kindSamplers;
+    }
+
+    static RuleTable empty(Sampler defaultSampler) {
+      Sampler[] kindSamplers = new Sampler[KINDS.length];
+      for (int i = 0; i < KINDS.length; i++) {
+        kindSamplers[i] = defaultSampler;
+      }
+      return new RuleTable(Collections.<String, Sampler[]>emptyMap(), kindSamplers);
+    }
+
+    /**
+     * Compiles the rules of the given properties.
+     *
+     * @throws IllegalArgumentException if a key or a probability is invalid.
+     */
+    static RuleTable compile(Properties properties, Sampler defaultSampler) {
+      Sampler fallback = defaultSampler;
+      Sampler[] kindSamplers = new Sampler[KINDS.length];
+      Map<String, Sampler[]> operationSamplers = new HashMap<>();
+      for (String key : properties.stringPropertyNames()) {
+        Sampler sampler = parseProbability(key, properties.getProperty(key));
+        if (key.equals(KEY_DEFAULT)) {
+          fallback = sampler;
+        } else if (key.startsWith(KEY_OPERATION_PREFIX)) {
+          String name = key.substring(KEY_OPERATION_PREFIX.length());
+          getOrCreate(operationSamplers, name)[ANY_KIND] = sampler;
+        } else if (key.startsWith(KEY_KIND_PREFIX)) {
+          String rest = key.substring(KEY_KIND_PREFIX.length());
+          int dot = rest.indexOf('.');
+          Span.Kind kind = parseKind(key, dot < 0 ? rest : rest.substring(0, dot));
+          if (dot < 0) {
+            kindSamplers[kind.ordinal()] = sampler;
+          } else if (rest.startsWith(KEY_OPERATION_PREFIX, dot + 1)) {
+            String name = rest.substring(dot + 1 + KEY_OPERATION_PREFIX.length());
+            getOrCreate(operationSamplers, name)[kind.ordinal()] = sampler;
+          } else {
+            throw new IllegalArgumentException("Unknown sampling rule: " + key);
+          }
+        } else {
+          throw new IllegalArgumentException("Unknown sampling rule: " + key);
+        }
+      }
+      // Resolves the missing entries, so a lookup never falls back to a less specific rule.
+      for (int i = 0; i < KINDS.length; i++) {
+        if (kindSamplers[i] == null) {
+          kindSamplers[i] = fallback;
+        }
+      }
+      for (Sampler[] samplers : operationSamplers.values()) {
+        for (int i = 0; i < KINDS.length; i++) {
+          if (samplers[i] == null) {
+            samplers[i] = samplers[ANY_KIND] != null ? samplers[ANY_KIND] : kindSamplers[i];
+          }
+        }
+      }
+      return new RuleTable(operationSamplers, kindSamplers);
+    }
+
+    Sampler getSampler(String name, Span.Kind kind) {
+      Sampler[] samplers = operationSamplers.get(name);
+      return samplers != null ? samplers[kind.ordinal()] : kindSamplers[kind.ordinal()];
+    }
+
+    private static Sampler[] getOrCreate(Map<String, Sampler[]> operationSamplers, String name) {
+      Sampler[] samplers = operationSamplers.get(name);
+      if (samplers == null) {
+        samplers = new Sampler[KINDS.length + 1];
+        operationSamplers.put(name, samplers);
+      }
+      return samplers;
+    }
+
+    private static Sampler parseProbability(String key, String value) {
+      double probability;
+      try {
+        probability = Double.parseDouble(value.trim());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+            "Invalid probability for sampling rule " + key + ": " + value, e);
+      }
+      // Samplers.probability validates the range.
+      return Samplers.probability(probability);
+    }
+
+    private static Span.Kind parseKind(String key, String kind) {
+      for (Span.Kind candidate : KINDS) {
+        if (candidate.name().equals(kind)) {
+          return candidate;
+        }
+      }
+      throw new IllegalArgumentException("Unknown span kind in sampling rule: " + key);
+    }
+  }
+
+  /** Builder class for {@link ReloadableFileSampler}. */
+  public static final class Builder {
+    private final File file;
+    private Sampler defaultSampler = Samplers.alwaysOn();
+    private long pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+
+    private Builder(File file) {
+      this.file = Objects.requireNonNull(file, "file");
+    }
+
+    /**
+     * Sets the sampler used for the spans matching no rule when the file has no {@code default}
+     * rule, and for all the spans until a valid file is loaded.
+     *
+     * <p>Default value is {@link Samplers#alwaysOn()}.
+     *
+     * @param defaultSampler the default sampler.
+     * @return this.
+     * @throws NullPointerException if {@code defaultSampler} is {@code null}.
+     */
+    public Builder setDefaultSampler(Sampler defaultSampler) {
+      this.defaultSampler = Objects.requireNonNull(defaultSampler, "defaultSampler");
+      return this;
+    }
+
+    /**
+     * Sets the interval between two checks of the file for changes. Zero disables the checks, the
+     * file is then only loaded by {@link #build()}.
+     *
+     * <p>Default value is 10 seconds.
+     *
+     * @param pollInterval the interval between two checks of the file, or zero.
+     * @param unit the unit of {@code pollInterval}.
+     * @return this.
+     * @throws IllegalArgumentException if {@code pollInterval} is negative.
+     * @throws NullPointerException if {@code unit} is {@code null}.
+     */
+    public Builder setPollInterval(long pollInterval, TimeUnit unit) {
+      Utils.checkArgument(pollInterval >= 0, "pollInterval must be non-negative");
+      this.pollIntervalMillis = Objects.requireNonNull(unit, "unit").toMillis(pollInterval);
+      return this;
+    }
+
+    /**
+     * Returns a new {@link ReloadableFileSampler}, with the rules loaded from the file if it exists
+     * and is valid.
+     *
+     * @return a new {@link ReloadableFileSampler}.
+     */
+    public ReloadableFileSampler build() {
+      return new ReloadableFileSampler(file, defaultSampler, pollIntervalMillis);
+    }
+  }
+}
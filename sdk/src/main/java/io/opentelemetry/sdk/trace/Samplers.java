@@ -22,6 +22,7 @@ import static java.util.Collections.singletonMap;
 import com.google.auto.value.AutoValue;
 import com.google.common.base.Preconditions;
 import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.internal.MillisClock;
 import io.opentelemetry.sdk.trace.Sampler.Decision;
 import io.opentelemetry.trace.Link;
 import io.opentelemetry.trace.Span;
@@ -95,6 +96,64 @@ public final class Samplers {
     return Probability.create(probability);
   }
 
+  /**
+   * Returns a new {@link Sampler} that samples at most {@code tracesPerSecond} new traces every
+   * second, using a lock-free token bucket that allows a burst of one second of traces. The child
+   * spans follow the sampling decision of their parent, so the sampled traces are complete.
+   *
+   * @param tracesPerSecond the maximum number of new traces sampled every second.
+   * @return a new rate limited {@link Sampler}.
+   * @throws IllegalArgumentException if {@code tracesPerSecond} is not positive.
+   * @since 0.5.0
+   */
+  public static Sampler rateLimited(double tracesPerSecond) {
+    Preconditions.checkArgument(tracesPerSecond > 0, "tracesPerSecond must be positive");
+    return new RateLimitedSampler(tracesPerSecond, MillisClock.getInstance());
+  }
+
+  /**
+   * Returns a new {@link Sampler} that adjusts the probability of sampling a new trace every
+   * second, based on the observed number of new traces and spans per trace, so about {@code
+   * targetSpansPerSecond} sampled spans are created every second. A lock-free token bucket caps the
+   * sampled spans between two adjustments, so a spike of traffic does not flood the span
+   * processors. The child spans follow the sampling decision of their parent.
+   *
+   * @param targetSpansPerSecond the number of sampled spans to create every second.
+   * @return a new adaptive {@link Sampler}.
+   * @throws IllegalArgumentException if {@code targetSpansPerSecond} is not positive.
+   * @since 0.5.0
+   */
+  public static Sampler adaptive(double targetSpansPerSecond) {
+    Preconditions.checkArgument(targetSpansPerSecond > 0, "targetSpansPerSecond must be positive");
+    return new AdaptiveSampler(targetSpansPerSecond, MillisClock.getInstance());
+  }
+
+  // Returns the decision of a child span following the decision of its parent.
+  static Decision parentDecision(SpanContext parentContext) {
+    return parentContext.getTraceFlags().isSampled()
+        ? EMPTY_SAMPLED_DECISION
+        : EMPTY_NOT_SAMPLED_DECISION;
+  }
+
+  static boolean hasSampledLink(@Nullable List<Link> parentLinks) {
+    if (parentLinks != null) {
+      for (Link parentLink : parentLinks) {
+        if (parentLink.getContext().getTraceFlags().isSampled()) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  static Decision sampledDecision() {
+    return EMPTY_SAMPLED_DECISION;
+  }
+
+  static Decision notSampledDecision() {
+    return EMPTY_NOT_SAMPLED_DECISION;
+  }
+
   @Immutable
   private enum AlwaysOnSampler implements Sampler {
     INSTANCE;
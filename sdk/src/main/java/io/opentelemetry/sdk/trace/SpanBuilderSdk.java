@@ -40,6 +40,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 
 /** {@link SpanBuilderSdk} is SDK implementation of {@link Span.Builder}. */
@@ -155,17 +156,20 @@ final class SpanBuilderSdk implements Span.Builder {
 
   @Override
   public Span.Builder setAttribute(String key, long value) {
-    return setAttribute(key, AttributeValue.longAttributeValue(value));
+    getAttributesForUpdate(key).putLong(key, value);
+    return this;
   }
 
   @Override
   public Span.Builder setAttribute(String key, double value) {
-    return setAttribute(key, AttributeValue.doubleAttributeValue(value));
+    getAttributesForUpdate(key).putDouble(key, value);
+    return this;
   }
 
   @Override
   public Span.Builder setAttribute(String key, boolean value) {
-    return setAttribute(key, AttributeValue.booleanAttributeValue(value));
+    getAttributesForUpdate(key).putBoolean(key, value);
+    return this;
   }
 
   @Override
@@ -174,15 +178,20 @@ final class SpanBuilderSdk implements Span.Builder {
     if (value == null
         || (value.getType() == AttributeValue.Type.STRING && value.getStringValue() == null)) {
       if (attributes != null) {
-        attributes.remove(key);
+        attributes.removeAttribute(key);
       }
       return this;
     }
+    getAttributesForUpdate(key).putAttribute(key, value);
+    return this;
+  }
+
+  private AttributesMap getAttributesForUpdate(String key) {
+    Objects.requireNonNull(key, "key");
     if (attributes == null) {
       attributes = new AttributesMap(traceConfig.getMaxNumberOfAttributes());
     }
-    attributes.put(key, value);
-    return this;
+    return attributes;
   }
 
   @Override
@@ -196,15 +205,24 @@ final class SpanBuilderSdk implements Span.Builder {
   public Span startSpan() {
     SpanContext parentContext = parent(parentType, parent, remoteParent);
     TraceId traceId;
-    SpanId spanId = idsGenerator.generateSpanId();
+    SpanId spanId;
     TraceState traceState = TraceState.getDefault();
     if (parentContext == null || !parentContext.isValid()) {
       // New root span.
-      traceId = idsGenerator.generateTraceId();
+      if (idsGenerator instanceof RandomIdsGenerator) {
+        // Both ids come from the random generator of the thread, looked up once.
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        spanId = RandomIdsGenerator.nextSpanId(random);
+        traceId = RandomIdsGenerator.nextTraceId(random);
+      } else {
+        spanId = idsGenerator.generateSpanId();
+        traceId = idsGenerator.generateTraceId();
+      }
       // This is a root span so no remote or local parent.
       parentContext = null;
     } else {
       // New child span.
+      spanId = idsGenerator.generateSpanId();
       traceId = parentContext.getTraceId();
       traceState = parentContext.getTraceState();
     }
@@ -215,10 +233,9 @@ final class SpanBuilderSdk implements Span.Builder {
     // Avoid any possibility to modify the links list by adding links to the Builder after the
     // startSpan is called. If that happens all the links will be added in a new list.
     links = null;
+    // The attributes map is a read-only view.
     Map<String, AttributeValue> immutableAttributes =
-        attributes == null
-            ? Collections.<String, AttributeValue>emptyMap()
-            : Collections.unmodifiableMap(attributes);
+        attributes == null ? Collections.<String, AttributeValue>emptyMap() : attributes;
     Decision samplingDecision =
         traceConfig
             .getSampler()
@@ -246,7 +263,7 @@ final class SpanBuilderSdk implements Span.Builder {
       if (attributes == null) {
         attributes = new AttributesMap(traceConfig.getMaxNumberOfAttributes());
       }
-      attributes.putAll(samplingDecision.getAttributes());
+      attributes.putAllAttributes(samplingAttributes);
     }
 
     // Avoid any possibility to modify the attributes by adding attributes to the Builder after the
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.Collection;
+
+/**
+ * A {@link SpanExporter} that can export without blocking the calling thread, for example by using
+ * an asynchronous RPC.
+ *
+ * <p>The {@link BatchSpanProcessor} uses {@link #exportAsync(Collection, ExportCallback)} for these
+ * exporters, so a batch in flight does not hold a thread while waiting for the backend. Up to
+ * {@code maxConcurrentExports} batches are in flight at the same time, a batch stays in flight
+ * until its callback is called, even after the export timeout of the processor.
+ *
+ * @since 0.5.0
+ */
+public interface AsyncSpanExporter extends SpanExporter {
+
+  /**
+   * Starts to export the given sampled {@code Span}s and returns without waiting for the export to
+   * finish.
+   *
+   * @param spans the collection of sampled Spans to be exported.
+   * @param callback called exactly once with the result of the export, from any thread, once the
+   *     export finished.
+   * @since 0.5.0
+   */
+  void exportAsync(Collection<SpanData> spans, ExportCallback callback);
+
+  /**
+   * Receives the result of an asynchronous export.
+   *
+   * @since 0.5.0
+   */
+  interface ExportCallback {
+
+    /**
+     * Called when the export finished.
+     *
+     * @param resultCode the result of the export.
+     * @since 0.5.0
+     */
+    void onComplete(ResultCode resultCode);
+  }
+}
@@ -32,14 +32,19 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 
 /**
@@ -54,8 +59,20 @@ import javax.annotation.concurrent.GuardedBy;
  * <p>If the queue gets half full a preemptive notification is sent to the worker thread that
  * exports the spans to wake up and start a new export cycle.
  *
- * <p>This batch {@link SpanProcessor} can cause high contention in a very high traffic service.
- * TODO: Add a link to the SpanProcessor that uses Disruptor as alternative with low contention.
+ * <p>Up to {@code maxConcurrentExports} batches can be exported at the same time, so the worker
+ * thread keeps draining the queue while waiting on a slow exporter. Every batch is cancelled
+ * independently if its export takes longer than {@code exporterTimeoutMillis}.
+ *
+ * <p>Batches are exported on dedicated exporter threads, except for an {@link AsyncSpanExporter}
+ * which is called from the worker thread and reports the end of the export through a callback, so
+ * the batches in flight do not hold any thread. An asynchronous export cannot be cancelled, it
+ * stays in flight after its timeout until its callback is called, so the exporter should bound its
+ * calls with a deadline of its own.
+ *
+ * <p>This batch {@link SpanProcessor} can cause high contention in a very high traffic service. For
+ * such services the queue can be switched to a lock-free multi-producer single-consumer queue (see
+ * {@link Builder#setLockFreeQueue(boolean)}), where producers never block each other and the worker
+ * thread is woken up at most once per export cycle.
  *
  * <p>Configuration options for {@link BatchSpanProcessor} can be read from system properties,
  * environment variables, or {@link java.util.Properties} objects.
@@ -68,7 +85,9 @@ import javax.annotation.concurrent.GuardedBy;
  *   <li>{@code otel.bsp.max.queue}: sets the maximum queue size.
  *   <li>{@code otel.bsp.max.export.batch}: sets the maximum batch size.
  *   <li>{@code otel.bsp.export.timeout}: sets the maximum allowed time to export data.
+ *   <li>{@code otel.bsp.max.concurrent.exports}: sets the maximum number of exports in flight.
  *   <li>{@code otel.bsp.export.sampled}: sets whether only sampled spans should be exported.
+ *   <li>{@code otel.bsp.lock.free.queue}: sets whether spans are queued in a lock-free queue.
  * </ul>
  *
  * <p>For environment variables, {@link BatchSpanProcessor} will look for the following names:
@@ -78,7 +97,9 @@ import javax.annotation.concurrent.GuardedBy;
  *   <li>{@code OTEL_BSP_MAX_QUEUE}: sets the maximum queue size.
  *   <li>{@code OTEL_BSP_MAX_EXPORT_BATCH}: sets the maximum batch size.
  *   <li>{@code OTEL_BSP_EXPORT_TIMEOUT}: sets the maximum allowed time to export data.
+ *   <li>{@code OTEL_BSP_MAX_CONCURRENT_EXPORTS}: sets the maximum number of exports in flight.
  *   <li>{@code OTEL_BSP_EXPORT_SAMPLED}: sets whether only sampled spans should be exported.
+ *   <li>{@code OTEL_BSP_LOCK_FREE_QUEUE}: sets whether spans are queued in a lock-free queue.
  * </ul>
  */
 public final class BatchSpanProcessor implements SpanProcessor {
@@ -87,6 +108,8 @@ public final class BatchSpanProcessor implements SpanProcessor {
       BatchSpanProcessor.class.getSimpleName() + "_WorkerThread";
   private static final String EXPORTER_THREAD_NAME =
       BatchSpanProcessor.class.getSimpleName() + "_ExporterThread";
+  private static final String TIMEOUT_THREAD_NAME =
+      BatchSpanProcessor.class.getSimpleName() + "_TimeoutThread";
   private final Worker worker;
   private final Thread workerThread;
   private final boolean sampled;
@@ -97,14 +120,18 @@ public final class BatchSpanProcessor implements SpanProcessor {
       long scheduleDelayMillis,
       int maxQueueSize,
       int maxExportBatchSize,
-      int exporterTimeoutMillis) {
+      int exporterTimeoutMillis,
+      int maxConcurrentExports,
+      boolean lockFreeQueue) {
     this.worker =
         new Worker(
             spanExporter,
             scheduleDelayMillis,
             maxQueueSize,
             maxExportBatchSize,
-            exporterTimeoutMillis);
+            exporterTimeoutMillis,
+            maxConcurrentExports,
+            lockFreeQueue);
     this.workerThread = new DaemonThreadFactory(WORKER_THREAD_NAME).newThread(worker);
     this.workerThread.start();
     this.sampled = sampled;
@@ -145,8 +172,8 @@ public final class BatchSpanProcessor implements SpanProcessor {
   // Worker is a thread that batches multiple spans and calls the registered SpanExporter to export
   // the data.
   //
-  // The list of batched data is protected by an explicit monitor object which ensures full
-  // concurrency.
+  // The batched spans are held in a SpanBuffer, which is either protected by an explicit monitor
+  // object or, in the lock-free mode, backed by a multi-producer single-consumer queue.
   private static final class Worker implements Runnable {
 
     static {
@@ -164,95 +191,86 @@ public final class BatchSpanProcessor implements SpanProcessor {
 
     private static final BoundLongCounter droppedSpans;
 
-    private final ExecutorService executorService =
-        Executors.newSingleThreadExecutor(new DaemonThreadFactory(EXPORTER_THREAD_NAME));
-
     private static final Logger logger = Logger.getLogger(Worker.class.getName());
     private final SpanExporter spanExporter;
-    private final long scheduleDelayMillis;
-    private final int maxQueueSize;
+    // Null if the exporter cannot export asynchronously.
+    @Nullable private final AsyncSpanExporter asyncSpanExporter;
     private final int maxExportBatchSize;
-    private final int halfMaxQueueSize;
-    private final Object monitor = new Object();
     private final int exporterTimeoutMillis;
-
-    @GuardedBy("monitor")
-    private final List<ReadableSpan> spansList;
+    private final int maxConcurrentExports;
+    private final SpanBuffer spanBuffer;
+    // Null if the exporter exports asynchronously.
+    @Nullable private final ExecutorService executorService;
+    private final ScheduledThreadPoolExecutor timeoutScheduler;
+    // One permit per batch export that may be in flight.
+    private final Semaphore exportPermits;
 
     private Worker(
         SpanExporter spanExporter,
         long scheduleDelayMillis,
         int maxQueueSize,
         int maxExportBatchSize,
-        int exporterTimeoutMillis) {
+        int exporterTimeoutMillis,
+        int maxConcurrentExports,
+        boolean lockFreeQueue) {
       this.spanExporter = spanExporter;
-      this.scheduleDelayMillis = scheduleDelayMillis;
-      this.maxQueueSize = maxQueueSize;
-      this.halfMaxQueueSize = maxQueueSize >> 1;
+      this.asyncSpanExporter =
+          spanExporter instanceof AsyncSpanExporter ? (AsyncSpanExporter) spanExporter : null;
       this.maxExportBatchSize = maxExportBatchSize;
-      this.spansList = new ArrayList<>(maxQueueSize);
       this.exporterTimeoutMillis = exporterTimeoutMillis;
+      this.maxConcurrentExports = maxConcurrentExports;
+      this.executorService =
+          asyncSpanExporter != null
+              ? null
+              : Executors.newFixedThreadPool(
+                  maxConcurrentExports, new DaemonThreadFactory(EXPORTER_THREAD_NAME));
+      this.timeoutScheduler =
+          new ScheduledThreadPoolExecutor(1, new DaemonThreadFactory(TIMEOUT_THREAD_NAME));
+      this.timeoutScheduler.setRemoveOnCancelPolicy(true);
+      this.exportPermits = new Semaphore(maxConcurrentExports);
+      this.spanBuffer =
+          lockFreeQueue
+              ? new LockFreeSpanBuffer(scheduleDelayMillis, maxQueueSize, maxExportBatchSize)
+              : new MonitorSpanBuffer(scheduleDelayMillis, maxQueueSize, maxExportBatchSize);
     }
 
     private void addSpan(ReadableSpan span) {
-      synchronized (monitor) {
-        if (spansList.size() == maxQueueSize) {
-          droppedSpans.add(1);
-          return;
-        }
-        // TODO: Record a gauge for referenced spans.
-        spansList.add(span);
-        // Notify the worker thread that at half of the queue is available. It will take
-        // time anyway for the thread to wake up.
-        if (spansList.size() >= halfMaxQueueSize) {
-          monitor.notifyAll();
-        }
+      if (!spanBuffer.offer(span)) {
+        droppedSpans.add(1);
       }
     }
 
     @Override
     public void run() {
       while (!Thread.currentThread().isInterrupted()) {
-        // Copy all the batched spans in a separate list to release the monitor lock asap to
-        // avoid blocking the producer thread.
+        // Leave the spans in the queue, where the maxQueueSize applies, until they can be exported.
+        awaitExportSlot();
         ArrayList<ReadableSpan> spansCopy;
-        synchronized (monitor) {
-          // If still maxExportBatchSize elements in the queue better to execute an extra
-          if (spansList.size() < maxExportBatchSize) {
-            do {
-              // In the case of a spurious wakeup we export only if we have at least one span in
-              // the batch. It is acceptable because batching is a best effort mechanism here.
-              try {
-                monitor.wait(scheduleDelayMillis);
-              } catch (InterruptedException ie) {
-                // Preserve the interruption status as per guidance and stop doing any work.
-                Thread.currentThread().interrupt();
-                return;
-              }
-            } while (spansList.isEmpty());
-          }
-          spansCopy = new ArrayList<>(spansList);
-          spansList.clear();
+        try {
+          spansCopy = spanBuffer.awaitAndDrain();
+        } catch (InterruptedException ie) {
+          // Preserve the interruption status as per guidance and stop doing any work.
+          Thread.currentThread().interrupt();
+          return;
         }
-        // Execute the batch export outside the synchronized to not block all producers.
+        // Execute the batch export outside the buffer lock to not block all producers.
         exportBatches(spansCopy);
       }
     }
 
     private void shutdown() {
       forceFlush();
-      executorService.shutdown();
+      if (executorService != null) {
+        executorService.shutdown();
+      }
+      timeoutScheduler.shutdown();
       spanExporter.shutdown();
     }
 
     private void forceFlush() {
-      ArrayList<ReadableSpan> spansCopy;
-      synchronized (monitor) {
-        spansCopy = new ArrayList<>(spansList);
-        spansList.clear();
-      }
-      // Execute the batch export outside the synchronized to not block all producers.
-      exportBatches(spansCopy);
+      // Execute the batch export outside the buffer lock to not block all producers.
+      exportBatches(spanBuffer.drain());
+      awaitPendingExports();
     }
 
     private void exportBatches(ArrayList<ReadableSpan> spanList) {
@@ -275,29 +293,291 @@ public final class BatchSpanProcessor implements SpanProcessor {
       return Collections.unmodifiableList(spanDataBuffer);
     }
 
-    // Exports the list of SpanData to the SpanExporter.
-    private void onBatchExport(final List<SpanData> spans) {
-      Future<?> submission =
-          executorService.submit(
-              new Runnable() {
-                @Override
-                public void run() {
-                  // In case of any exception thrown by the service handlers catch and log.
-                  try {
-                    spanExporter.export(spans);
-                  } catch (Throwable t) {
-                    logger.log(Level.WARNING, "Exception thrown by the export.", t);
+    // Exports the list of SpanData to the SpanExporter. Blocks only while maxConcurrentExports
+    // batches are already in flight, which applies back-pressure to the worker thread.
+    private void onBatchExport(List<SpanData> spans) {
+      // Do not give up on the batch if the worker is interrupted, the interruption status is kept
+      // and checked by the run loop.
+      exportPermits.acquireUninterruptibly();
+      final BatchExport batchExport = new BatchExport(spans);
+      try {
+        if (executorService != null) {
+          batchExport.submission = executorService.submit(batchExport);
+        } else {
+          batchExport.exportAsync();
+        }
+        batchExport.timeout =
+            timeoutScheduler.schedule(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    batchExport.timeOut();
                   }
+                },
+                exporterTimeoutMillis,
+                TimeUnit.MILLISECONDS);
+        if (batchExport.done.get()) {
+          // The export finished before the timeout was scheduled.
+          batchExport.timeout.cancel(false);
+        }
+      } catch (RejectedExecutionException e) {
+        logger.log(Level.WARNING, "Export rejected, the processor is shut down.", e);
+        batchExport.complete();
+      }
+    }
+
+    // Waits until fewer than maxConcurrentExports batches are in flight.
+    private void awaitExportSlot() {
+      exportPermits.acquireUninterruptibly();
+      exportPermits.release();
+    }
+
+    // Waits until all the batches in flight finished or timed out.
+    private void awaitPendingExports() {
+      exportPermits.acquireUninterruptibly(maxConcurrentExports);
+      exportPermits.release(maxConcurrentExports);
+    }
+
+    // A single batch export in flight. The export permit is released once, by the export
+    // completion, or by the timeout of a synchronous export which cancels it.
+    private final class BatchExport implements Runnable {
+      private final List<SpanData> spans;
+      // Set by the first of the export completion and the timeout.
+      private final AtomicBoolean done = new AtomicBoolean();
+      private final AtomicBoolean permitReleased = new AtomicBoolean();
+      @Nullable private volatile Future<?> submission;
+      @Nullable private volatile ScheduledFuture<?> timeout;
+
+      private BatchExport(List<SpanData> spans) {
+        this.spans = spans;
+      }
+
+      @Override
+      public void run() {
+        // In case of any exception thrown by the service handlers catch and log.
+        try {
+          spanExporter.export(spans);
+        } catch (Throwable t) {
+          logger.log(Level.WARNING, "Exception thrown by the export.", t);
+        } finally {
+          complete();
+        }
+      }
+
+      private void exportAsync() {
+        // In case of any exception thrown by the service handlers catch and log.
+        try {
+          asyncSpanExporter.exportAsync(
+              spans,
+              new AsyncSpanExporter.ExportCallback() {
+                @Override
+                public void onComplete(SpanExporter.ResultCode resultCode) {
+                  complete();
                 }
               });
-      try {
-        // wait at most for the configured timeout.
-        submission.get(exporterTimeoutMillis, TimeUnit.MILLISECONDS);
-      } catch (InterruptedException | ExecutionException e) {
-        logger.log(Level.WARNING, "Exception thrown by the export.", e);
-      } catch (TimeoutException e) {
-        logger.log(Level.WARNING, "Export timed out. Cancelling execution.", e);
+        } catch (Throwable t) {
+          logger.log(Level.WARNING, "Exception thrown by the export.", t);
+          complete();
+        }
+      }
+
+      private void complete() {
+        if (done.compareAndSet(false, true)) {
+          Future<?> timeout = this.timeout;
+          if (timeout != null) {
+            timeout.cancel(false);
+          }
+        }
+        releasePermit();
+      }
+
+      private void timeOut() {
+        if (!done.compareAndSet(false, true)) {
+          return;
+        }
+        Future<?> submission = this.submission;
+        if (submission == null) {
+          // The call of an asynchronous export cannot be cancelled, it keeps its permit until its
+          // callback is called so no more than maxConcurrentExports calls are in flight.
+          logger.log(Level.WARNING, "Export timed out. Waiting for the exporter to complete it.");
+          return;
+        }
+        logger.log(Level.WARNING, "Export timed out. Cancelling execution.");
         submission.cancel(true);
+        releasePermit();
+      }
+
+      private void releasePermit() {
+        if (permitReleased.compareAndSet(false, true)) {
+          exportPermits.release();
+        }
+      }
+    }
+  }
+
+  // SpanBuffer holds the spans added by the producer threads until the worker thread drains them.
+  private abstract static class SpanBuffer {
+    final long scheduleDelayMillis;
+    final int maxQueueSize;
+    final int maxExportBatchSize;
+    final int halfMaxQueueSize;
+
+    SpanBuffer(long scheduleDelayMillis, int maxQueueSize, int maxExportBatchSize) {
+      this.scheduleDelayMillis = scheduleDelayMillis;
+      this.maxQueueSize = maxQueueSize;
+      this.maxExportBatchSize = maxExportBatchSize;
+      this.halfMaxQueueSize = maxQueueSize >> 1;
+    }
+
+    // Adds the span to the buffer, returns false if the buffer is full and the span was dropped.
+    abstract boolean offer(ReadableSpan span);
+
+    // Waits until there is a batch to export or the schedule delay expired with at least one span
+    // in the buffer, then removes and returns all the buffered spans.
+    abstract ArrayList<ReadableSpan> awaitAndDrain() throws InterruptedException;
+
+    // Removes and returns all the buffered spans without waiting.
+    abstract ArrayList<ReadableSpan> drain();
+  }
+
+  // The list of batched spans is protected by an explicit monitor object which ensures full
+  // concurrency.
+  private static final class MonitorSpanBuffer extends SpanBuffer {
+    private final Object monitor = new Object();
+
+    @GuardedBy("monitor")
+    private final List<ReadableSpan> spansList;
+
+    private MonitorSpanBuffer(long scheduleDelayMillis, int maxQueueSize, int maxExportBatchSize) {
+      super(scheduleDelayMillis, maxQueueSize, maxExportBatchSize);
+      this.spansList = new ArrayList<>(maxQueueSize);
+    }
+
+    @Override
+    boolean offer(ReadableSpan span) {
+      synchronized (monitor) {
+        if (spansList.size() == maxQueueSize) {
+          return false;
+        }
+        // TODO: Record a gauge for referenced spans.
+        spansList.add(span);
+        // Notify the worker thread that at half of the queue is available. It will take
+        // time anyway for the thread to wake up.
+        if (spansList.size() >= halfMaxQueueSize) {
+          monitor.notifyAll();
+        }
+        return true;
+      }
+    }
+
+    @Override
+    ArrayList<ReadableSpan> awaitAndDrain() throws InterruptedException {
+      // Copy all the batched spans in a separate list to release the monitor lock asap to
+      // avoid blocking the producer thread.
+      synchronized (monitor) {
+        // If still maxExportBatchSize elements in the queue better to execute an extra
+        if (spansList.size() < maxExportBatchSize) {
+          do {
+            // In the case of a spurious wakeup we export only if we have at least one span in
+            // the batch. It is acceptable because batching is a best effort mechanism here.
+            monitor.wait(scheduleDelayMillis);
+          } while (spansList.isEmpty());
+        }
+        return drainLocked();
+      }
+    }
+
+    @Override
+    ArrayList<ReadableSpan> drain() {
+      synchronized (monitor) {
+        return drainLocked();
+      }
+    }
+
+    @GuardedBy("monitor")
+    private ArrayList<ReadableSpan> drainLocked() {
+      ArrayList<ReadableSpan> spansCopy = new ArrayList<>(spansList);
+      spansList.clear();
+      return spansCopy;
+    }
+  }
+
+  // The batched spans are kept in a lock-free multi-producer single-consumer queue, so producers
+  // never block each other. The worker thread parks while waiting for spans and only the producer
+  // that finds the queue at least half full, while the worker is parked, unparks it; there is at
+  // most one wake up per wait cycle instead of one per span.
+  //
+  // Only the consumer side is serialized (the worker thread and forceFlush) by the drain lock.
+  private static final class LockFreeSpanBuffer extends SpanBuffer {
+    private final MpscArrayQueue<ReadableSpan> queue;
+    private final AtomicBoolean workerParked = new AtomicBoolean();
+    private final Object drainLock = new Object();
+    @Nullable private volatile Thread workerThread;
+
+    private LockFreeSpanBuffer(long scheduleDelayMillis, int maxQueueSize, int maxExportBatchSize) {
+      super(scheduleDelayMillis, maxQueueSize, maxExportBatchSize);
+      this.queue = new MpscArrayQueue<>(maxQueueSize);
+    }
+
+    @Override
+    boolean offer(ReadableSpan span) {
+      if (!queue.offer(span)) {
+        return false;
+      }
+      // The CAS guarantees a single producer wakes up the worker for each time it parks.
+      if (workerParked.get()
+          && queue.size() >= halfMaxQueueSize
+          && workerParked.compareAndSet(true, false)) {
+        LockSupport.unpark(workerThread);
+      }
+      return true;
+    }
+
+    @Override
+    ArrayList<ReadableSpan> awaitAndDrain() throws InterruptedException {
+      workerThread = Thread.currentThread();
+      long scheduleDelayNanos = TimeUnit.MILLISECONDS.toNanos(scheduleDelayMillis);
+      long deadline = System.nanoTime() + scheduleDelayNanos;
+      // If still maxExportBatchSize elements in the queue better to execute an extra
+      while (queue.size() < maxExportBatchSize) {
+        // A zero delay waits until the queue is half full, the same as Object.wait(0).
+        long remainingNanos =
+            scheduleDelayNanos == 0 ? Long.MAX_VALUE : deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+          // Export only if we have at least one span in the batch, otherwise wait another delay.
+          if (!queue.isEmpty()) {
+            break;
+          }
+          deadline += scheduleDelayNanos;
+          continue;
+        }
+        workerParked.set(true);
+        // Re-check after publishing the flag, a producer may have filled the queue meanwhile
+        // without seeing the worker parked.
+        if (queue.size() >= halfMaxQueueSize && !queue.isEmpty()) {
+          workerParked.set(false);
+          break;
+        }
+        LockSupport.parkNanos(this, remainingNanos);
+        if (Thread.interrupted()) {
+          workerParked.set(false);
+          throw new InterruptedException();
+        }
+        // If a producer cleared the flag it also unparked this thread because it is time to
+        // export.
+        if (!workerParked.getAndSet(false) && !queue.isEmpty()) {
+          break;
+        }
+      }
+      return drain();
+    }
+
+    @Override
+    ArrayList<ReadableSpan> drain() {
+      synchronized (drainLock) {
+        ArrayList<ReadableSpan> spansCopy = new ArrayList<>(queue.size());
+        queue.drainTo(spansCopy, maxQueueSize);
+        return spansCopy;
       }
     }
   }
@@ -321,12 +601,16 @@ public final class BatchSpanProcessor implements SpanProcessor {
     private static final String KEY_MAX_EXPORT_BATCH_SIZE = "otel.bsp.max.export.batch";
     private static final String KEY_EXPORT_TIMEOUT_MILLIS = "otel.bsp.export.timeout";
     private static final String KEY_SAMPLED = "otel.bsp.export.sampled";
+    private static final String KEY_LOCK_FREE_QUEUE = "otel.bsp.lock.free.queue";
+    private static final String KEY_MAX_CONCURRENT_EXPORTS = "otel.bsp.max.concurrent.exports";
 
     private static final long DEFAULT_SCHEDULE_DELAY_MILLIS = 5000;
     private static final int DEFAULT_MAX_QUEUE_SIZE = 2048;
     private static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
     private static final int DEFAULT_EXPORT_TIMEOUT_MILLIS = 30_000;
     private static final boolean DEFAULT_EXPORT_ONLY_SAMPLED = true;
+    private static final boolean DEFAULT_LOCK_FREE_QUEUE = false;
+    private static final int DEFAULT_MAX_CONCURRENT_EXPORTS = 1;
 
     private final SpanExporter spanExporter;
     private long scheduleDelayMillis = DEFAULT_SCHEDULE_DELAY_MILLIS;
@@ -334,6 +618,8 @@ public final class BatchSpanProcessor implements SpanProcessor {
     private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
     private int exporterTimeoutMillis = DEFAULT_EXPORT_TIMEOUT_MILLIS;
     private boolean exportOnlySampled = DEFAULT_EXPORT_ONLY_SAMPLED;
+    private boolean lockFreeQueue = DEFAULT_LOCK_FREE_QUEUE;
+    private int maxConcurrentExports = DEFAULT_MAX_CONCURRENT_EXPORTS;
 
     private Builder(SpanExporter spanExporter) {
       this.spanExporter = Utils.checkNotNull(spanExporter, "spanExporter");
@@ -366,10 +652,18 @@ public final class BatchSpanProcessor implements SpanProcessor {
       if (intValue != null) {
         this.setExporterTimeoutMillis(intValue);
       }
+      intValue = getIntProperty(KEY_MAX_CONCURRENT_EXPORTS, configMap);
+      if (intValue != null) {
+        this.setMaxConcurrentExports(intValue);
+      }
       Boolean boolValue = getBooleanProperty(KEY_SAMPLED, configMap);
       if (boolValue != null) {
         this.setExportOnlySampled(boolValue);
       }
+      boolValue = getBooleanProperty(KEY_LOCK_FREE_QUEUE, configMap);
+      if (boolValue != null) {
+        this.setLockFreeQueue(boolValue);
+      }
       return this;
     }
 
@@ -394,7 +688,10 @@ public final class BatchSpanProcessor implements SpanProcessor {
      *   <li>{@code OTEL_BSP_MAX_QUEUE}: to set the maximum queue size.
      *   <li>{@code OTEL_BSP_MAX_EXPORT_BATCH}: to set the maximum batch size.
      *   <li>{@code OTEL_BSP_EXPORT_TIMEOUT}: to set the maximum allowed time to export data.
+     *   <li>{@code OTEL_BSP_MAX_CONCURRENT_EXPORTS}: to set the maximum number of exports in
+     *       flight.
      *   <li>{@code OTEL_BSP_EXPORT_SAMPLED}: to set whether only sampled spans should be exported.
+     *   <li>{@code OTEL_BSP_LOCK_FREE_QUEUE}: to set whether spans are queued in a lock-free queue.
      * </ul>
      *
      * @return this.
@@ -459,6 +756,29 @@ public final class BatchSpanProcessor implements SpanProcessor {
       return this;
     }
 
+    /**
+     * Sets the maximum number of batch exports that may be in flight at the same time. While fewer
+     * exports are outstanding the worker thread keeps draining the queue and converting spans, once
+     * the limit is reached it waits for an export to finish or time out. Each batch is cancelled
+     * independently after the exporter timeout.
+     *
+     * <p>Values greater than {@code 1} require a {@link SpanExporter} that supports concurrent
+     * calls to {@link SpanExporter#export}. With an {@link AsyncSpanExporter} this is the maximum
+     * number of export requests in flight, for example on the same gRPC channel.
+     *
+     * <p>Default value is {@code 1}.
+     *
+     * @param maxConcurrentExports the maximum number of batch exports in flight.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxConcurrentExports} is not positive.
+     * @see BatchSpanProcessor.Builder#DEFAULT_MAX_CONCURRENT_EXPORTS
+     */
+    public Builder setMaxConcurrentExports(int maxConcurrentExports) {
+      Utils.checkArgument(maxConcurrentExports > 0, "maxConcurrentExports must be positive.");
+      this.maxConcurrentExports = maxConcurrentExports;
+      return this;
+    }
+
     /**
      * Sets the maximum number of Spans that are kept in the queue before start dropping.
      *
@@ -493,6 +813,23 @@ public final class BatchSpanProcessor implements SpanProcessor {
       return this;
     }
 
+    /**
+     * Sets whether spans are queued in a bounded lock-free multi-producer single-consumer queue
+     * instead of a list guarded by a monitor. The lock-free queue avoids contention between the
+     * threads ending spans, which is beneficial for services that end spans at a very high rate
+     * from many threads. The {@code maxQueueSize} is respected in both modes.
+     *
+     * <p>Default value is {@code false}.
+     *
+     * @param lockFreeQueue whether to use the lock-free queue.
+     * @return this.
+     * @see BatchSpanProcessor.Builder#DEFAULT_LOCK_FREE_QUEUE
+     */
+    public Builder setLockFreeQueue(boolean lockFreeQueue) {
+      this.lockFreeQueue = lockFreeQueue;
+      return this;
+    }
+
     /**
      * Returns a new {@link BatchSpanProcessor} that batches, then converts spans to proto and
      * forwards them to the given {@code spanExporter}.
@@ -507,7 +844,9 @@ public final class BatchSpanProcessor implements SpanProcessor {
           scheduleDelayMillis,
           maxQueueSize,
           maxExportBatchSize,
-          exporterTimeoutMillis);
+          exporterTimeoutMillis,
+          maxConcurrentExports,
+          lockFreeQueue);
     }
   }
 }
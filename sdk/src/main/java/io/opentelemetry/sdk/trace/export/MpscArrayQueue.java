@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import io.opentelemetry.internal.Utils;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A bounded, lock-free, multi-producer single-consumer queue backed by an array.
+ *
+ * <p>Producers claim a slot by advancing the producer index with a CAS and then publish the element
+ * into the slot. The consumer spins on a claimed but not yet published slot, so {@link #poll()}
+ * never observes a gap in the order elements were claimed.
+ *
+ * <p>Any number of threads may call {@link #offer(Object)} concurrently, but only one thread at a
+ * time may call {@link #poll()} or {@link #drainTo(Collection, int)}.
+ *
+ * @param <E> the type of the elements held in this queue.
+ */
+@ThreadSafe
+final class MpscArrayQueue<E> {
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<E> buffer;
+  private final AtomicLong producerIndex = new AtomicLong();
+  private final AtomicLong consumerIndex = new AtomicLong();
+
+  /**
+   * Creates a new queue that holds at most {@code capacity} elements.
+   *
+   * @param capacity the maximum number of elements in the queue.
+   * @throws IllegalArgumentException if {@code capacity} is not positive.
+   */
+  MpscArrayQueue(int capacity) {
+    Utils.checkArgument(capacity > 0, "capacity must be positive.");
+    this.capacity = capacity;
+    int length = Integer.highestOneBit(capacity);
+    if (length != capacity) {
+      length <<= 1;
+    }
+    this.mask = length - 1;
+    this.buffer = new AtomicReferenceArray<>(length);
+  }
+
+  /**
+   * Inserts the given element at the tail of the queue if the queue is not full.
+   *
+   * @param element the element to add.
+   * @return {@code true} if the element was added, {@code false} if the queue is full.
+   */
+  boolean offer(E element) {
+    Utils.checkNotNull(element, "element");
+    long index;
+    do {
+      index = producerIndex.get();
+      if (index - consumerIndex.get() >= capacity) {
+        return false;
+      }
+    } while (!producerIndex.compareAndSet(index, index + 1));
+    buffer.lazySet(offset(index), element);
+    return true;
+  }
+
+  /**
+   * Removes and returns the element at the head of the queue. Must only be called by the consumer.
+   *
+   * @return the element at the head of the queue, or {@code null} if the queue is empty.
+   */
+  @Nullable
+  E poll() {
+    long index = consumerIndex.get();
+    int offset = offset(index);
+    E element = buffer.get(offset);
+    if (element == null) {
+      if (index == producerIndex.get()) {
+        return null;
+      }
+      // A producer claimed the slot but has not published the element yet.
+      do {
+        element = buffer.get(offset);
+      } while (element == null);
+    }
+    buffer.lazySet(offset, null);
+    consumerIndex.lazySet(index + 1);
+    return element;
+  }
+
+  /**
+   * Removes at most {@code maxElements} elements from the head of the queue and adds them to the
+   * given collection. Must only be called by the consumer.
+   *
+   * @param collection the collection to add the elements to.
+   * @param maxElements the maximum number of elements to remove.
+   * @return the number of elements removed.
+   */
+  int drainTo(Collection<? super E> collection, int maxElements) {
+    int drained = 0;
+    while (drained < maxElements) {
+      E element = poll();
+      if (element == null) {
+        break;
+      }
+      collection.add(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Returns the number of elements in the queue. The value is only a snapshot when producers are
+   * adding elements concurrently.
+   *
+   * @return the number of elements in the queue.
+   */
+  int size() {
+    // Read the consumer index first so the result is never negative.
+    long consumer = consumerIndex.get();
+    long producer = producerIndex.get();
+    return (int) Math.min(producer - consumer, capacity);
+  }
+
+  boolean isEmpty() {
+    return consumerIndex.get() == producerIndex.get();
+  }
+
+  int capacity() {
+    return capacity;
+  }
+
+  private int offset(long index) {
+    return (int) index & mask;
+  }
+}
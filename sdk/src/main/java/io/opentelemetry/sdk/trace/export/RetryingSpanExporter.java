@@ -0,0 +1,411 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.metrics.LongCounter;
+import io.opentelemetry.metrics.LongCounter.BoundLongCounter;
+import io.opentelemetry.metrics.Meter;
+import io.opentelemetry.sdk.common.DaemonThreadFactory;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link SpanExporter} that retries the batches its delegate failed to export, so a short outage
+ * of the backend, for example a rolling restart of the collector, does not lose the spans.
+ *
+ * <p>A failed batch is kept in a retry buffer and exported again from a background thread after a
+ * jittered exponential backoff, until the export succeeds or the maximum number of attempts is
+ * reached. The buffer holds at most {@code maxBufferedSpans} spans, a failed batch that does not
+ * fit is dropped. {@link #export(Collection)} never waits for the retries, it returns the result of
+ * the first attempt.
+ *
+ * <p>Only the exports failing with {@link SpanExporter.ResultCode#FAILURE_RETRYABLE} are retried,
+ * the delegate reports it for transient errors, for example the OTLP exporter for the gRPC status
+ * codes the OTLP specification defines as retryable. The exports failing with {@link
+ * SpanExporter.ResultCode#FAILURE} or throwing an exception are not retried.
+ *
+ * <p>The delegate is called concurrently by the caller and by the retry thread, so it must support
+ * concurrent calls to {@link SpanExporter#export(Collection)}.
+ *
+ * <p>The number of retried, dropped and exhausted batches are recorded by the {@code
+ * retriedBatches}, {@code droppedBatches} and {@code exhaustedBatches} counters of the {@code
+ * io.opentelemetry.sdk.trace} meter.
+ *
+ * @since 0.5.0
+ */
+public final class RetryingSpanExporter implements SpanExporter {
+  private static final Logger logger = Logger.getLogger(RetryingSpanExporter.class.getName());
+  private static final String RETRY_THREAD_NAME =
+      RetryingSpanExporter.class.getSimpleName() + "_RetryThread";
+  private static final String EXPORTER_TYPE_LABEL = "spanExporterType";
+
+  private static final LongCounter retriedBatchesCounter;
+  private static final LongCounter droppedBatchesCounter;
+  private static final LongCounter exhaustedBatchesCounter;
+
+  static {
+    Meter meter = OpenTelemetry.getMeter("io.opentelemetry.sdk.trace");
+    retriedBatchesCounter =
+        meter
+            .longCounterBuilder("retriedBatches")
+            .setUnit("1")
+            .setDescription("The number of span batches exported again after a failed export.")
+            .build();
+    droppedBatchesCounter =
+        meter
+            .longCounterBuilder("droppedBatches")
+            .setUnit("1")
+            .setDescription(
+                "The number of failed span batches dropped because the retry buffer was full.")
+            .build();
+    exhaustedBatchesCounter =
+        meter
+            .longCounterBuilder("exhaustedBatches")
+            .setUnit("1")
+            .setDescription(
+                "The number of span batches dropped after the maximum number of attempts or a"
+                    + " failure that cannot be retried.")
+            .build();
+  }
+
+  private final SpanExporter spanExporter;
+  private final int maxAttempts;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final double backoffMultiplier;
+  private final int maxBufferedSpans;
+  private final BoundLongCounter retriedBatches;
+  private final BoundLongCounter droppedBatches;
+  private final BoundLongCounter exhaustedBatches;
+  // Failed batches, ordered by the time of their next attempt.
+  private final DelayQueue<RetryBatch> retryQueue = new DelayQueue<>();
+  // Number of spans in the retry buffer, including the batch being retried.
+  private final AtomicInteger bufferedSpans = new AtomicInteger();
+  private final Thread retryThread;
+
+  private RetryingSpanExporter(
+      SpanExporter spanExporter,
+      int maxAttempts,
+      long initialBackoffMillis,
+      long maxBackoffMillis,
+      double backoffMultiplier,
+      int maxBufferedSpans) {
+    this.spanExporter = spanExporter;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+    this.backoffMultiplier = backoffMultiplier;
+    this.maxBufferedSpans = maxBufferedSpans;
+    String exporterType = spanExporter.getClass().getSimpleName();
+    this.retriedBatches = retriedBatchesCounter.bind(EXPORTER_TYPE_LABEL, exporterType);
+    this.droppedBatches = droppedBatchesCounter.bind(EXPORTER_TYPE_LABEL, exporterType);
+    this.exhaustedBatches = exhaustedBatchesCounter.bind(EXPORTER_TYPE_LABEL, exporterType);
+    this.retryThread = new DaemonThreadFactory(RETRY_THREAD_NAME).newThread(new RetryWorker());
+    this.retryThread.start();
+  }
+
+  /**
+   * Returns a new Builder for {@link RetryingSpanExporter}.
+   *
+   * @param spanExporter the {@code SpanExporter} the failed exports of which are retried.
+   * @return a new {@link RetryingSpanExporter}.
+   * @throws NullPointerException if the {@code spanExporter} is {@code null}.
+   */
+  public static Builder newBuilder(SpanExporter spanExporter) {
+    return new Builder(spanExporter);
+  }
+
+  /**
+   * Exports the spans with the delegate, a batch failing with {@link
+   * SpanExporter.ResultCode#FAILURE_RETRYABLE} is added to the retry buffer.
+   *
+   * @param spans the collection of sampled Spans to be exported.
+   * @return the result of the first attempt.
+   */
+  @Override
+  public ResultCode export(Collection<SpanData> spans) {
+    ResultCode resultCode = exportOnce(spans);
+    // The first attempt was the only one allowed if maxAttempts is 1.
+    if (resultCode == ResultCode.FAILURE_RETRYABLE && maxAttempts > 1) {
+      int size = spans.size();
+      if (bufferedSpans.addAndGet(size) > maxBufferedSpans) {
+        bufferedSpans.addAndGet(-size);
+        droppedBatches.add(1);
+        logger.log(Level.FINE, "Retry buffer full, dropping a batch of {0} spans.", size);
+      } else {
+        // The caller may reuse the collection once the export returned.
+        retryLater(new RetryBatch(new ArrayList<>(spans)));
+      }
+    }
+    return resultCode;
+  }
+
+  /**
+   * Exports again all the batches in the retry buffer, without waiting for their backoff, then
+   * flushes the delegate. The batches failing again stay in the buffer.
+   *
+   * @return the result of the flush of the delegate.
+   */
+  @Override
+  public ResultCode flush() {
+    for (RetryBatch batch : drainRetryQueue()) {
+      retry(batch);
+    }
+    return spanExporter.flush();
+  }
+
+  /**
+   * Stops the retry thread, exports the batches in the retry buffer a last time and shuts down the
+   * delegate.
+   */
+  @Override
+  public void shutdown() {
+    retryThread.interrupt();
+    for (RetryBatch batch : drainRetryQueue()) {
+      retriedBatches.add(1);
+      if (exportOnce(batch.spans) != ResultCode.SUCCESS) {
+        exhaustedBatches.add(1);
+      }
+      bufferedSpans.addAndGet(-batch.spans.size());
+    }
+    spanExporter.shutdown();
+  }
+
+  // Returns the number of spans in the retry buffer.
+  int getBufferedSpans() {
+    return bufferedSpans.get();
+  }
+
+  private ResultCode exportOnce(Collection<SpanData> spans) {
+    // In case of any exception thrown by the service handlers catch and log.
+    try {
+      return spanExporter.export(spans);
+    } catch (Throwable t) {
+      logger.log(Level.WARNING, "Exception thrown by the export.", t);
+      return ResultCode.FAILURE;
+    }
+  }
+
+  private void retry(RetryBatch batch) {
+    retriedBatches.add(1);
+    ResultCode resultCode = exportOnce(batch.spans);
+    if (resultCode == ResultCode.SUCCESS) {
+      bufferedSpans.addAndGet(-batch.spans.size());
+    } else if (resultCode != ResultCode.FAILURE_RETRYABLE || batch.attempts >= maxAttempts) {
+      bufferedSpans.addAndGet(-batch.spans.size());
+      exhaustedBatches.add(1);
+      logger.log(
+          Level.WARNING,
+          "Failed to export a batch of {0} spans after {1} attempts, dropping it.",
+          new Object[] {batch.spans.size(), batch.attempts});
+    } else {
+      retryLater(batch);
+    }
+  }
+
+  // Schedules the next attempt of a batch that failed batch.attempts times.
+  private void retryLater(RetryBatch batch) {
+    batch.nextAttemptNanos = System.nanoTime() + backoffNanos(batch.attempts);
+    batch.attempts++;
+    retryQueue.add(batch);
+  }
+
+  // The backoff grows exponentially with the number of failed attempts up to maxBackoffMillis. Half
+  // of it is random, so exporters failing at the same time do not retry at the same time.
+  private long backoffNanos(int failedAttempts) {
+    double backoff = initialBackoffMillis * Math.pow(backoffMultiplier, failedAttempts - 1);
+    long backoffNanos = TimeUnit.MILLISECONDS.toNanos((long) Math.min(maxBackoffMillis, backoff));
+    long fixedNanos = backoffNanos / 2;
+    return fixedNanos + ThreadLocalRandom.current().nextLong(backoffNanos - fixedNanos + 1);
+  }
+
+  private List<RetryBatch> drainRetryQueue() {
+    // DelayQueue.drainTo only returns the batches whose backoff expired.
+    List<RetryBatch> batches = new ArrayList<>(retryQueue.size());
+    for (Iterator<RetryBatch> iterator = retryQueue.iterator(); iterator.hasNext(); ) {
+      RetryBatch batch = iterator.next();
+      iterator.remove();
+      batches.add(batch);
+    }
+    return batches;
+  }
+
+  private final class RetryWorker implements Runnable {
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        RetryBatch batch;
+        try {
+          batch = retryQueue.take();
+        } catch (InterruptedException e) {
+          // Preserve the interruption status as per guidance.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        retry(batch);
+      }
+    }
+  }
+
+  // A failed batch waiting in the retry buffer. The fields are only accessed by the thread that
+  // took the batch from the retry queue.
+  private static final class RetryBatch implements Delayed {
+    private final List<SpanData> spans;
+    private int attempts = 1;
+    private long nextAttemptNanos;
+
+    private RetryBatch(List<SpanData> spans) {
+      this.spans = spans;
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(nextAttemptNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+  }
+
+  /** Builder class for {@link RetryingSpanExporter}. */
+  public static final class Builder {
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final long DEFAULT_INITIAL_BACKOFF_MILLIS = 1_000;
+    private static final long DEFAULT_MAX_BACKOFF_MILLIS = 30_000;
+    private static final double DEFAULT_BACKOFF_MULTIPLIER = 2.0;
+    private static final int DEFAULT_MAX_BUFFERED_SPANS = 2048;
+
+    private final SpanExporter spanExporter;
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private long initialBackoffMillis = DEFAULT_INITIAL_BACKOFF_MILLIS;
+    private long maxBackoffMillis = DEFAULT_MAX_BACKOFF_MILLIS;
+    private double backoffMultiplier = DEFAULT_BACKOFF_MULTIPLIER;
+    private int maxBufferedSpans = DEFAULT_MAX_BUFFERED_SPANS;
+
+    private Builder(SpanExporter spanExporter) {
+      this.spanExporter = Objects.requireNonNull(spanExporter, "spanExporter");
+    }
+
+    /**
+     * Sets the maximum number of attempts to export a batch, including the first one.
+     *
+     * <p>Default value is {@code 5}.
+     *
+     * @param maxAttempts the maximum number of attempts to export a batch.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxAttempts} is not positive.
+     */
+    public Builder setMaxAttempts(int maxAttempts) {
+      Utils.checkArgument(maxAttempts > 0, "maxAttempts must be positive.");
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Sets the backoff before the first retry of a batch, the backoff is multiplied by the backoff
+     * multiplier after every failed retry.
+     *
+     * <p>Default value is {@code 1000}ms.
+     *
+     * @param initialBackoffMillis the backoff before the first retry in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code initialBackoffMillis} is not positive.
+     */
+    public Builder setInitialBackoffMillis(long initialBackoffMillis) {
+      Utils.checkArgument(initialBackoffMillis > 0, "initialBackoffMillis must be positive.");
+      this.initialBackoffMillis = initialBackoffMillis;
+      return this;
+    }
+
+    /**
+     * Sets the maximum backoff between two attempts to export a batch.
+     *
+     * <p>Default value is {@code 30000}ms.
+     *
+     * @param maxBackoffMillis the maximum backoff in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxBackoffMillis} is not positive.
+     */
+    public Builder setMaxBackoffMillis(long maxBackoffMillis) {
+      Utils.checkArgument(maxBackoffMillis > 0, "maxBackoffMillis must be positive.");
+      this.maxBackoffMillis = maxBackoffMillis;
+      return this;
+    }
+
+    /**
+     * Sets the factor the backoff is multiplied by after every failed retry.
+     *
+     * <p>Default value is {@code 2.0}.
+     *
+     * @param backoffMultiplier the backoff multiplier.
+     * @return this.
+     * @throws IllegalArgumentException if {@code backoffMultiplier} is smaller than {@code 1.0}.
+     */
+    public Builder setBackoffMultiplier(double backoffMultiplier) {
+      Utils.checkArgument(backoffMultiplier >= 1.0, "backoffMultiplier must be at least 1.0.");
+      this.backoffMultiplier = backoffMultiplier;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of spans kept in the retry buffer, the failed batches that do not fit
+     * are dropped.
+     *
+     * <p>Default value is {@code 2048}.
+     *
+     * @param maxBufferedSpans the maximum number of spans in the retry buffer.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxBufferedSpans} is not positive.
+     */
+    public Builder setMaxBufferedSpans(int maxBufferedSpans) {
+      Utils.checkArgument(maxBufferedSpans > 0, "maxBufferedSpans must be positive.");
+      this.maxBufferedSpans = maxBufferedSpans;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link RetryingSpanExporter} that retries the failed exports of the given
+     * exporter.
+     *
+     * @return a new {@link RetryingSpanExporter}.
+     */
+    public RetryingSpanExporter build() {
+      return new RetryingSpanExporter(
+          spanExporter,
+          maxAttempts,
+          initialBackoffMillis,
+          maxBackoffMillis,
+          backoffMultiplier,
+          maxBufferedSpans);
+    }
+  }
+}
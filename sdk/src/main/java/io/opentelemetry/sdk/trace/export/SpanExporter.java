@@ -35,7 +35,15 @@ public interface SpanExporter {
     SUCCESS,
 
     /** The export operation finished with an error. */
-    FAILURE
+    FAILURE,
+
+    /**
+     * The export operation finished with a transient error, exporting the same spans again later
+     * may succeed.
+     *
+     * @since 0.5.0
+     */
+    FAILURE_RETRYABLE
   }
 
   /**
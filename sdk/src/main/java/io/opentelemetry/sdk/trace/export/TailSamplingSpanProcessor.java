@@ -0,0 +1,703 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.opentelemetry.OpenTelemetry;
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.metrics.LongCounter;
+import io.opentelemetry.metrics.LongCounter.BoundLongCounter;
+import io.opentelemetry.metrics.Meter;
+import io.opentelemetry.sdk.common.Clock;
+import io.opentelemetry.sdk.common.DaemonThreadFactory;
+import io.opentelemetry.sdk.common.export.ConfigBuilder;
+import io.opentelemetry.sdk.internal.MillisClock;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.trace.TraceId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the {@link SpanProcessor} that decides whether a trace is exported once its
+ * spans ended, so the traces with an error or a high latency can always be kept while the other
+ * traces are sampled.
+ *
+ * <p>The ended spans are buffered by trace id. A trace is decided once its local root span ended,
+ * the span with no parent or a remote parent, or once {@code decisionWaitMillis} elapsed since its
+ * first span ended. A trace is kept if:
+ *
+ * <ul>
+ *   <li>any of its spans has an error {@link io.opentelemetry.trace.Status}, unless disabled with
+ *       {@link Builder#setSampleErrors(boolean)};
+ *   <li>or the time between the start of its first span and the end of its last span is at least
+ *       {@code latencyThresholdMillis}, if set;
+ *   <li>or any of its spans has one of the attributes added with {@link
+ *       Builder#addAttributePolicy(String, AttributeValue)};
+ *   <li>or its trace id falls within the sampling {@code probability}, as for {@code
+ *       Samplers.probability}.
+ * </ul>
+ *
+ * <p>The spans of the kept traces are exported from a background thread every {@code
+ * scheduleDelayMillis}. The decisions of the recent traces are remembered, so the spans ending
+ * after the decision of their trace follow it. The tracer should sample all the traces, the sampled
+ * flag of the spans is not used by this processor.
+ *
+ * <p>The buffer is split in shards by trace id, so concurrent threads ending spans of different
+ * traces rarely contend. It holds at most {@code maxBufferedSpans} spans over all the shards: when
+ * it is full, the oldest trace of a shard is decided early, starting with the shard of the ended
+ * span, and a span is dropped if the buffer only holds the spans of kept traces waiting to be
+ * exported. The {@code sampledTraces}, {@code notSampledTraces}, {@code evictedTraces} and {@code
+ * rejectedSpans} counters of the {@code io.opentelemetry.sdk.trace} meter record the decisions, the
+ * traces decided early and the dropped spans.
+ *
+ * <p>Configuration options for {@link TailSamplingSpanProcessor} can be read from system
+ * properties, environment variables, or {@link java.util.Properties} objects.
+ *
+ * <p>For system properties and {@link java.util.Properties} objects, {@link
+ * TailSamplingSpanProcessor} will look for the following names:
+ *
+ * <ul>
+ *   <li>{@code otel.tsp.decision.wait}: sets the maximum time to wait for the local root span.
+ *   <li>{@code otel.tsp.max.buffered.spans}: sets the maximum number of buffered spans.
+ *   <li>{@code otel.tsp.latency.threshold}: sets the latency above which traces are kept.
+ * </ul>
+ *
+ * <p>For environment variables, {@link TailSamplingSpanProcessor} will look for the following
+ * names:
+ *
+ * <ul>
+ *   <li>{@code OTEL_TSP_DECISION_WAIT}: sets the maximum time to wait for the local root span.
+ *   <li>{@code OTEL_TSP_MAX_BUFFERED_SPANS}: sets the maximum number of buffered spans.
+ *   <li>{@code OTEL_TSP_LATENCY_THRESHOLD}: sets the latency above which traces are kept.
+ * </ul>
+ *
+ * @since 0.5.0
+ */
+public final class TailSamplingSpanProcessor implements SpanProcessor {
+  private static final Logger logger = Logger.getLogger(TailSamplingSpanProcessor.class.getName());
+  private static final String WORKER_THREAD_NAME =
+      TailSamplingSpanProcessor.class.getSimpleName() + "_WorkerThread";
+  private static final int SHARD_COUNT =
+      ceilingPowerOfTwo(4 * Runtime.getRuntime().availableProcessors());
+
+  private static final BoundLongCounter sampledTraces;
+  private static final BoundLongCounter notSampledTraces;
+  private static final BoundLongCounter evictedTraces;
+  private static final BoundLongCounter rejectedSpans;
+
+  static {
+    Meter meter = OpenTelemetry.getMeter("io.opentelemetry.sdk.trace");
+    String processorType = TailSamplingSpanProcessor.class.getSimpleName();
+    LongCounter sampledTracesCounter =
+        meter
+            .longCounterBuilder("sampledTraces")
+            .setUnit("1")
+            .setDescription("The number of traces kept by the TailSamplingSpanProcessor.")
+            .build();
+    LongCounter notSampledTracesCounter =
+        meter
+            .longCounterBuilder("notSampledTraces")
+            .setUnit("1")
+            .setDescription("The number of traces dropped by the TailSamplingSpanProcessor.")
+            .build();
+    LongCounter evictedTracesCounter =
+        meter
+            .longCounterBuilder("evictedTraces")
+            .setUnit("1")
+            .setDescription(
+                "The number of traces decided before they completed because the buffer of the"
+                    + " TailSamplingSpanProcessor was full.")
+            .build();
+    LongCounter rejectedSpansCounter =
+        meter
+            .longCounterBuilder("rejectedSpans")
+            .setUnit("1")
+            .setDescription(
+                "The number of spans dropped because the buffer of the TailSamplingSpanProcessor"
+                    + " was full.")
+            .build();
+    sampledTraces = sampledTracesCounter.bind("spanProcessorType", processorType);
+    notSampledTraces = notSampledTracesCounter.bind("spanProcessorType", processorType);
+    evictedTraces = evictedTracesCounter.bind("spanProcessorType", processorType);
+    rejectedSpans = rejectedSpansCounter.bind("spanProcessorType", processorType);
+  }
+
+  private final SpanExporter spanExporter;
+  private final Clock clock;
+  private final long decisionWaitNanos;
+  private final int maxBufferedSpans;
+  // Number of decisions remembered by every shard.
+  private final int maxDecisionsPerShard;
+  private final boolean sampleErrors;
+  private final long latencyThresholdNanos;
+  private final Map<String, AttributeValue> attributePolicies;
+  private final long idUpperBound;
+  private final int maxExportBatchSize;
+  private final long scheduleDelayMillis;
+  private final Shard[] shards;
+  // Number of spans buffered in all the shards, pending or waiting to be exported. Reserved before
+  // a span is added to its shard, so it never goes over maxBufferedSpans.
+  private final AtomicInteger bufferedSpans = new AtomicInteger();
+  // Serializes the exports of the worker thread and of forceFlush().
+  private final Object exportLock = new Object();
+  private final Thread workerThread;
+
+  private TailSamplingSpanProcessor(
+      SpanExporter spanExporter,
+      Clock clock,
+      long decisionWaitMillis,
+      int maxBufferedSpans,
+      boolean sampleErrors,
+      long latencyThresholdMillis,
+      Map<String, AttributeValue> attributePolicies,
+      double probability,
+      int maxExportBatchSize,
+      long scheduleDelayMillis) {
+    this.spanExporter = spanExporter;
+    this.clock = clock;
+    this.decisionWaitNanos = TimeUnit.MILLISECONDS.toNanos(decisionWaitMillis);
+    this.maxBufferedSpans = maxBufferedSpans;
+    this.maxDecisionsPerShard = Math.max(1, maxBufferedSpans / SHARD_COUNT);
+    this.sampleErrors = sampleErrors;
+    this.latencyThresholdNanos =
+        latencyThresholdMillis == 0
+            ? Long.MAX_VALUE
+            : TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+    this.attributePolicies = attributePolicies;
+    // Same bounds as Samplers.probability, so a trace kept by both samplers at the same
+    // probability is the same trace.
+    if (probability == 0.0) {
+      this.idUpperBound = Long.MIN_VALUE;
+    } else if (probability == 1.0) {
+      this.idUpperBound = Long.MAX_VALUE;
+    } else {
+      this.idUpperBound = (long) (probability * Long.MAX_VALUE);
+    }
+    this.maxExportBatchSize = maxExportBatchSize;
+    this.scheduleDelayMillis = scheduleDelayMillis;
+    this.shards = new Shard[SHARD_COUNT];
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard();
+    }
+    this.workerThread = new DaemonThreadFactory(WORKER_THREAD_NAME).newThread(new Worker());
+    this.workerThread.start();
+  }
+
+  @Override
+  public void onStart(ReadableSpan span) {
+    // Do nothing.
+  }
+
+  @Override
+  public boolean isStartRequired() {
+    return false;
+  }
+
+  @Override
+  public void onEnd(ReadableSpan span) {
+    TraceId traceId = span.getSpanContext().getTraceId();
+    int hash = traceId.hashCode();
+    int shardIndex = (hash ^ (hash >>> 16)) & (SHARD_COUNT - 1);
+    Shard shard = shards[shardIndex];
+    synchronized (shard) {
+      if (Boolean.FALSE.equals(shard.decisions.get(traceId))) {
+        return;
+      }
+    }
+    // Only copied once the span is known to be needed, the late spans of dropped traces are not.
+    SpanData spanData = span.toSpanData();
+    // Reserved without holding the lock of the shard, making room may lock the other shards.
+    if (!reserveSpan(shardIndex)) {
+      rejectedSpans.add(1);
+      return;
+    }
+    synchronized (shard) {
+      // Making room may have decided this trace.
+      Boolean decision = shard.decisions.get(traceId);
+      if (decision != null) {
+        if (decision) {
+          shard.sampledSpans.add(spanData);
+        } else {
+          bufferedSpans.decrementAndGet();
+        }
+        return;
+      }
+      PendingTrace trace = shard.traces.get(traceId);
+      if (trace == null) {
+        trace = new PendingTrace(clock.nanoTime());
+        shard.traces.put(traceId, trace);
+      }
+      trace.spans.add(spanData);
+      if (!spanData.getParentSpanId().isValid() || spanData.getHasRemoteParent()) {
+        trace.localRootEnded = true;
+      }
+    }
+  }
+
+  @Override
+  public boolean isEndRequired() {
+    return true;
+  }
+
+  @Override
+  public void shutdown() {
+    workerThread.interrupt();
+    // The worker may be exporting the traces it decided, they must reach the exporter before it is
+    // shut down.
+    try {
+      workerThread.join();
+    } catch (InterruptedException e) {
+      // Preserve the interruption status as per guidance.
+      Thread.currentThread().interrupt();
+    }
+    exportSpans(decideTraces(/* force= */ true));
+    spanExporter.shutdown();
+  }
+
+  /** Decides all the buffered traces, even if they did not complete, and exports the kept ones. */
+  @Override
+  public void forceFlush() {
+    exportSpans(decideTraces(/* force= */ true));
+  }
+
+  /**
+   * Returns a new Builder for {@link TailSamplingSpanProcessor}.
+   *
+   * @param spanExporter the {@code SpanExporter} to where the spans of the kept traces are pushed.
+   * @return a new {@link TailSamplingSpanProcessor}.
+   * @throws NullPointerException if the {@code spanExporter} is {@code null}.
+   */
+  public static Builder newBuilder(SpanExporter spanExporter) {
+    return new Builder(spanExporter);
+  }
+
+  // Decides the completed traces and exports the kept ones, as done by the worker thread.
+  @VisibleForTesting
+  void processCompletedTraces() {
+    exportSpans(decideTraces(/* force= */ false));
+  }
+
+  @VisibleForTesting
+  int getBufferedSpans() {
+    return bufferedSpans.get();
+  }
+
+  // Reserves room for one span in the buffer, deciding the oldest traces of the shards early if it
+  // is full. Returns false if the buffer only holds the spans of kept traces.
+  private boolean reserveSpan(int shardIndex) {
+    while (true) {
+      int current = bufferedSpans.get();
+      if (current < maxBufferedSpans) {
+        if (bufferedSpans.compareAndSet(current, current + 1)) {
+          return true;
+        }
+      } else if (!decideOldestTrace(shardIndex)) {
+        return false;
+      }
+    }
+  }
+
+  // Decides the oldest pending trace of the first shard holding one, starting at the given shard.
+  // Locks one shard at a time. Returns false if no trace is pending.
+  private boolean decideOldestTrace(int shardIndex) {
+    for (int i = 0; i < SHARD_COUNT; i++) {
+      Shard shard = shards[(shardIndex + i) & (SHARD_COUNT - 1)];
+      synchronized (shard) {
+        Iterator<Map.Entry<TraceId, PendingTrace>> iterator = shard.traces.entrySet().iterator();
+        if (iterator.hasNext()) {
+          Map.Entry<TraceId, PendingTrace> oldest = iterator.next();
+          iterator.remove();
+          decide(shard, oldest.getKey(), oldest.getValue());
+          evictedTraces.add(1);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  // Returns the spans of the kept traces, removed from the buffer.
+  private List<SpanData> decideTraces(boolean force) {
+    long now = clock.nanoTime();
+    List<SpanData> spans = new ArrayList<>();
+    for (Shard shard : shards) {
+      synchronized (shard) {
+        Iterator<Map.Entry<TraceId, PendingTrace>> iterator = shard.traces.entrySet().iterator();
+        while (iterator.hasNext()) {
+          Map.Entry<TraceId, PendingTrace> entry = iterator.next();
+          PendingTrace trace = entry.getValue();
+          if (force || trace.localRootEnded || now - trace.createdNanos >= decisionWaitNanos) {
+            iterator.remove();
+            decide(shard, entry.getKey(), trace);
+          }
+        }
+        spans.addAll(shard.sampledSpans);
+        bufferedSpans.addAndGet(-shard.sampledSpans.size());
+        shard.sampledSpans.clear();
+      }
+    }
+    return spans;
+  }
+
+  // Must be called with the lock of the shard.
+  private void decide(Shard shard, TraceId traceId, PendingTrace trace) {
+    boolean sampled = shouldSample(traceId, trace.spans);
+    shard.decisions.put(traceId, sampled);
+    if (shard.decisions.size() > maxDecisionsPerShard) {
+      Iterator<TraceId> iterator = shard.decisions.keySet().iterator();
+      iterator.next();
+      iterator.remove();
+    }
+    if (sampled) {
+      // Still counted in the buffered spans until they are exported.
+      shard.sampledSpans.addAll(trace.spans);
+      sampledTraces.add(1);
+    } else {
+      bufferedSpans.addAndGet(-trace.spans.size());
+      notSampledTraces.add(1);
+    }
+  }
+
+  private boolean shouldSample(TraceId traceId, List<SpanData> spans) {
+    long startEpochNanos = Long.MAX_VALUE;
+    long endEpochNanos = Long.MIN_VALUE;
+    for (SpanData span : spans) {
+      if (sampleErrors && !span.getStatus().isOk()) {
+        return true;
+      }
+      for (Map.Entry<String, AttributeValue> policy : attributePolicies.entrySet()) {
+        if (policy.getValue().equals(span.getAttributes().get(policy.getKey()))) {
+          return true;
+        }
+      }
+      startEpochNanos = Math.min(startEpochNanos, span.getStartEpochNanos());
+      endEpochNanos = Math.max(endEpochNanos, span.getEndEpochNanos());
+    }
+    if (endEpochNanos - startEpochNanos >= latencyThresholdNanos) {
+      return true;
+    }
+    // Note use of '<' for comparison, as in Samplers.probability.
+    return Math.abs(traceId.getTraceRandomPart()) < idUpperBound;
+  }
+
+  private void exportSpans(List<SpanData> spans) {
+    synchronized (exportLock) {
+      for (int i = 0; i < spans.size(); i += maxExportBatchSize) {
+        List<SpanData> batch = spans.subList(i, Math.min(spans.size(), i + maxExportBatchSize));
+        // In case of any exception thrown by the service handlers catch and log.
+        try {
+          spanExporter.export(Collections.unmodifiableList(batch));
+        } catch (Throwable t) {
+          logger.log(Level.WARNING, "Exception thrown by the export.", t);
+        }
+      }
+    }
+  }
+
+  private static int ceilingPowerOfTwo(int value) {
+    int result = Integer.highestOneBit(value);
+    return result == value ? result : result << 1;
+  }
+
+  private final class Worker implements Runnable {
+    @Override
+    public void run() {
+      while (!Thread.currentThread().isInterrupted()) {
+        try {
+          Thread.sleep(scheduleDelayMillis);
+        } catch (InterruptedException e) {
+          // Preserve the interruption status as per guidance.
+          Thread.currentThread().interrupt();
+          return;
+        }
+        processCompletedTraces();
+      }
+    }
+  }
+
+  // The fields are guarded by the lock of the shard, the spans are counted in bufferedSpans.
+  private static final class Shard {
+    // Traces not decided yet, in the order their first span ended.
+    private final LinkedHashMap<TraceId, PendingTrace> traces = new LinkedHashMap<>();
+    // Decisions of the recently decided traces, in the order they were decided.
+    private final LinkedHashMap<TraceId, Boolean> decisions = new LinkedHashMap<>();
+    // Spans of the kept traces, waiting to be exported.
+    private final List<SpanData> sampledSpans = new ArrayList<>();
+  }
+
+  private static final class PendingTrace {
+    private final long createdNanos;
+    private final List<SpanData> spans = new ArrayList<>();
+    private boolean localRootEnded;
+
+    private PendingTrace(long createdNanos) {
+      this.createdNanos = createdNanos;
+    }
+  }
+
+  /** Builder class for {@link TailSamplingSpanProcessor}. */
+  public static final class Builder extends ConfigBuilder<Builder> {
+
+    private static final String KEY_DECISION_WAIT_MILLIS = "otel.tsp.decision.wait";
+    private static final String KEY_MAX_BUFFERED_SPANS = "otel.tsp.max.buffered.spans";
+    private static final String KEY_LATENCY_THRESHOLD_MILLIS = "otel.tsp.latency.threshold";
+
+    private static final long DEFAULT_DECISION_WAIT_MILLIS = 10_000;
+    private static final int DEFAULT_MAX_BUFFERED_SPANS = 65_536;
+    private static final boolean DEFAULT_SAMPLE_ERRORS = true;
+    private static final long DEFAULT_LATENCY_THRESHOLD_MILLIS = 0;
+    private static final double DEFAULT_PROBABILITY = 0.1;
+    private static final int DEFAULT_MAX_EXPORT_BATCH_SIZE = 512;
+    private static final long DEFAULT_SCHEDULE_DELAY_MILLIS = 1000;
+
+    private final SpanExporter spanExporter;
+    private final Map<String, AttributeValue> attributePolicies = new LinkedHashMap<>();
+    private Clock clock = MillisClock.getInstance();
+    private long decisionWaitMillis = DEFAULT_DECISION_WAIT_MILLIS;
+    private int maxBufferedSpans = DEFAULT_MAX_BUFFERED_SPANS;
+    private boolean sampleErrors = DEFAULT_SAMPLE_ERRORS;
+    private long latencyThresholdMillis = DEFAULT_LATENCY_THRESHOLD_MILLIS;
+    private double probability = DEFAULT_PROBABILITY;
+    private int maxExportBatchSize = DEFAULT_MAX_EXPORT_BATCH_SIZE;
+    private long scheduleDelayMillis = DEFAULT_SCHEDULE_DELAY_MILLIS;
+
+    private Builder(SpanExporter spanExporter) {
+      this.spanExporter = Objects.requireNonNull(spanExporter, "spanExporter");
+    }
+
+    /**
+     * Sets the configuration values from the given configuration map for only the available keys.
+     *
+     * @param configMap {@link Map} holding the configuration values.
+     * @return this.
+     */
+    @VisibleForTesting
+    @Override
+    protected Builder fromConfigMap(
+        Map<String, String> configMap, NamingConvention namingConvention) {
+      configMap = namingConvention.normalize(configMap);
+      Long longValue = getLongProperty(KEY_DECISION_WAIT_MILLIS, configMap);
+      if (longValue != null) {
+        this.setDecisionWaitMillis(longValue);
+      }
+      Integer intValue = getIntProperty(KEY_MAX_BUFFERED_SPANS, configMap);
+      if (intValue != null) {
+        this.setMaxBufferedSpans(intValue);
+      }
+      longValue = getLongProperty(KEY_LATENCY_THRESHOLD_MILLIS, configMap);
+      if (longValue != null) {
+        this.setLatencyThresholdMillis(longValue);
+      }
+      return this;
+    }
+
+    /**
+     * Sets the configuration values from the given properties object for only the available keys.
+     *
+     * @param properties {@link Properties} holding the configuration values.
+     * @return this.
+     */
+    @Override
+    public Builder readProperties(Properties properties) {
+      return super.readProperties(properties);
+    }
+
+    /**
+     * Sets the configuration values from environment variables for only the available keys.
+     *
+     * @return this.
+     */
+    @Override
+    public Builder readEnvironmentVariables() {
+      return super.readEnvironmentVariables();
+    }
+
+    /**
+     * Sets the configuration values from system properties for only the available keys.
+     *
+     * @return this.
+     */
+    @Override
+    public Builder readSystemProperties() {
+      return super.readSystemProperties();
+    }
+
+    /**
+     * Sets the maximum time to wait for the local root span of a trace after its first span ended.
+     * The trace is decided with the spans ended so far once it elapsed.
+     *
+     * <p>Default value is {@code 10000}ms.
+     *
+     * @param decisionWaitMillis the maximum time to wait for the local root span, in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code decisionWaitMillis} is negative.
+     */
+    public Builder setDecisionWaitMillis(long decisionWaitMillis) {
+      Utils.checkArgument(decisionWaitMillis >= 0, "decisionWaitMillis must be non-negative.");
+      this.decisionWaitMillis = decisionWaitMillis;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of spans buffered by the processor, including the spans of the kept
+     * traces waiting to be exported.
+     *
+     * <p>Default value is {@code 65536}.
+     *
+     * @param maxBufferedSpans the maximum number of buffered spans.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxBufferedSpans} is not positive.
+     */
+    public Builder setMaxBufferedSpans(int maxBufferedSpans) {
+      Utils.checkArgument(maxBufferedSpans > 0, "maxBufferedSpans must be positive.");
+      this.maxBufferedSpans = maxBufferedSpans;
+      return this;
+    }
+
+    /**
+     * Sets whether the traces with a span with an error status are always kept.
+     *
+     * <p>Default value is {@code true}.
+     *
+     * @param sampleErrors keep the traces with an error.
+     * @return this.
+     */
+    public Builder setSampleErrors(boolean sampleErrors) {
+      this.sampleErrors = sampleErrors;
+      return this;
+    }
+
+    /**
+     * Sets the latency above which the traces are always kept, measured from the start of the first
+     * span to the end of the last span of the trace. {@code 0} disables this policy.
+     *
+     * <p>Default value is {@code 0}.
+     *
+     * @param latencyThresholdMillis the latency threshold in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code latencyThresholdMillis} is negative.
+     */
+    public Builder setLatencyThresholdMillis(long latencyThresholdMillis) {
+      Utils.checkArgument(
+          latencyThresholdMillis >= 0, "latencyThresholdMillis must be non-negative.");
+      this.latencyThresholdMillis = latencyThresholdMillis;
+      return this;
+    }
+
+    /**
+     * Adds a policy keeping the traces with a span with the given attribute value. Adding a policy
+     * for the same key again replaces the previous value.
+     *
+     * @param key the key of the attribute.
+     * @param value the value of the attribute.
+     * @return this.
+     * @throws NullPointerException if {@code key} or {@code value} is {@code null}.
+     */
+    public Builder addAttributePolicy(String key, AttributeValue value) {
+      attributePolicies.put(
+          Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+      return this;
+    }
+
+    /**
+     * Sets the probability to keep a trace not kept by the other policies. The decision only
+     * depends on the trace id.
+     *
+     * <p>Default value is {@code 0.1}.
+     *
+     * @param probability the probability to keep a trace, in the range [0.0, 1.0].
+     * @return this.
+     * @throws IllegalArgumentException if {@code probability} is out of range.
+     */
+    public Builder setProbability(double probability) {
+      Utils.checkArgument(
+          probability >= 0.0 && probability <= 1.0, "probability must be in range [0.0, 1.0]");
+      this.probability = probability;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of spans exported in one batch.
+     *
+     * <p>Default value is {@code 512}.
+     *
+     * @param maxExportBatchSize the maximum number of spans exported in one batch.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxExportBatchSize} is not positive.
+     */
+    public Builder setMaxExportBatchSize(int maxExportBatchSize) {
+      Utils.checkArgument(maxExportBatchSize > 0, "maxExportBatchSize must be positive.");
+      this.maxExportBatchSize = maxExportBatchSize;
+      return this;
+    }
+
+    /**
+     * Sets the delay between two runs of the background thread deciding the completed traces and
+     * exporting the kept ones.
+     *
+     * <p>Default value is {@code 1000}ms.
+     *
+     * @param scheduleDelayMillis the delay between two runs in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code scheduleDelayMillis} is not positive.
+     */
+    public Builder setScheduleDelayMillis(long scheduleDelayMillis) {
+      Utils.checkArgument(scheduleDelayMillis > 0, "scheduleDelayMillis must be positive.");
+      this.scheduleDelayMillis = scheduleDelayMillis;
+      return this;
+    }
+
+    @VisibleForTesting
+    Builder setClock(Clock clock) {
+      this.clock = Objects.requireNonNull(clock, "clock");
+      return this;
+    }
+
+    /**
+     * Returns a new {@link TailSamplingSpanProcessor} that forwards the spans of the kept traces to
+     * the given {@code spanExporter}.
+     *
+     * @return a new {@link TailSamplingSpanProcessor}.
+     */
+    public TailSamplingSpanProcessor build() {
+      return new TailSamplingSpanProcessor(
+          spanExporter,
+          clock,
+          decisionWaitMillis,
+          maxBufferedSpans,
+          sampleErrors,
+          latencyThresholdMillis,
+          new LinkedHashMap<>(attributePolicies),
+          probability,
+          maxExportBatchSize,
+          scheduleDelayMillis);
+    }
+  }
+}
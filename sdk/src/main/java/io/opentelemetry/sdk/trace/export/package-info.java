@@ -57,7 +57,9 @@
  *   <li>{@code MAX_QUEUE_SIZE: 2048}
  *   <li>{@code MAX_EXPORT_BATCH_SIZE: 512}
  *   <li>{@code EXPORT_TIMEOUT_MILLIS: 30_000}
+ *   <li>{@code MAX_CONCURRENT_EXPORTS: 1}
  *   <li>{@code REPORT_ONLY_SAMPLED: true}
+ *   <li>{@code LOCK_FREE_QUEUE: false}
  * </ul>
  *
  * <p>Configuration options for {@link io.opentelemetry.sdk.trace.export.BatchSpanProcessor} can be
@@ -71,7 +73,9 @@
  *   <li>{@code otel.bsp.max.queue}: sets the maximum queue size.
  *   <li>{@code otel.bsp.max.export.batch}: sets the maximum batch size.
  *   <li>{@code otel.bsp.export.timeout}: sets the maximum allowed time to export data.
+ *   <li>{@code otel.bsp.max.concurrent.exports}: sets the maximum number of exports in flight.
  *   <li>{@code otel.bsp.export.sampled}: sets whether only sampled spans should be exported.
+ *   <li>{@code otel.bsp.lock.free.queue}: sets whether spans are queued in a lock-free queue.
  * </ul>
  *
  * <p>For environment variables, {@link io.opentelemetry.sdk.trace.export.BatchSpanProcessor} will
@@ -82,7 +86,9 @@
  *   <li>{@code OTEL_BSP_MAX_QUEUE}: sets the maximum queue size.
  *   <li>{@code OTEL_BSP_MAX_EXPORT_BATCH}: sets the maximum batch size.
  *   <li>{@code OTEL_BSP_EXPORT_TIMEOUT}: sets the maximum allowed time to export data.
+ *   <li>{@code OTEL_BSP_MAX_CONCURRENT_EXPORTS}: sets the maximum number of exports in flight.
  *   <li>{@code OTEL_BSP_EXPORT_SAMPLED}: sets whether only sampled spans should be exported.
+ *   <li>{@code OTEL_BSP_LOCK_FREE_QUEUE}: sets whether spans are queued in a lock-free queue.
  * </ul>
  */
 package io.opentelemetry.sdk.trace.export;
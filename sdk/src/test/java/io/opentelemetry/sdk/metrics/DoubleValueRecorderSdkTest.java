@@ -27,9 +27,12 @@ import io.opentelemetry.sdk.metrics.StressTestRunner.OperationUpdater;
 import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
+import io.opentelemetry.sdk.metrics.data.MetricData.HistogramPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
 import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.ValueAtPercentile;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.view.Aggregations;
 import io.opentelemetry.sdk.resources.Resource;
 import java.util.Arrays;
 import java.util.Collections;
@@ -108,6 +111,42 @@ public class DoubleValueRecorderSdkTest {
                         valueAtPercentiles(12.1d, 12.1d)))));
   }
 
+  @Test
+  public void collectMetrics_WithHistogramAggregation() {
+    MeterSdk histogramSdk =
+        new MeterSdk(
+            MeterProviderSharedState.create(
+                testClock,
+                RESOURCE,
+                Aggregations.distributionWithExplicitBounds(10.0, 100.0),
+                AggregationTemporality.CUMULATIVE,
+                MeterProviderSharedState.DEFAULT_MAX_LABEL_SETS_PER_INSTRUMENT),
+            INSTRUMENTATION_LIBRARY_INFO);
+    DoubleValueRecorderSdk doubleMeasure =
+        histogramSdk.doubleValueRecorderBuilder("testMeasure").build();
+    testClock.advanceNanos(SECOND_NANOS);
+    doubleMeasure.record(12.1d);
+    doubleMeasure.record(120d);
+    doubleMeasure.record(99.9d);
+    List<MetricData> metricDataList = doubleMeasure.collectAll();
+    assertThat(metricDataList)
+        .containsExactly(
+            MetricData.create(
+                Descriptor.create(
+                    "testMeasure", "", "1", Type.HISTOGRAM, Collections.<String, String>emptyMap()),
+                RESOURCE,
+                INSTRUMENTATION_LIBRARY_INFO,
+                Collections.<Point>singletonList(
+                    HistogramPoint.create(
+                        testClock.now() - SECOND_NANOS,
+                        testClock.now(),
+                        Collections.<String, String>emptyMap(),
+                        3,
+                        232d,
+                        Arrays.asList(10d, 100d),
+                        Arrays.asList(0L, 2L, 1L)))));
+  }
+
   @Test
   public void collectMetrics_WithMultipleCollects() {
     LabelSetSdk labelSet = LabelSetSdk.create("K", "V");
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.testing.EqualsTester;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link LabelSetSdk}. */
+@RunWith(JUnit4.class)
+public class LabelSetSdkTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void empty() {
+    assertThat(LabelSetSdk.create().getLabels()).isEmpty();
+    assertThat(LabelSetSdk.create()).isSameInstanceAs(LabelSetSdk.create());
+  }
+
+  @Test
+  public void getLabels() {
+    Map<String, String> expected = new HashMap<>();
+    expected.put("k1", "v1");
+    expected.put("k2", "v2");
+    expected.put("k3", "v3");
+    Map<String, String> labels = LabelSetSdk.create("k2", "v2", "k3", "v3", "k1", "v1").getLabels();
+    assertThat(labels).isEqualTo(expected);
+    assertThat(labels.hashCode()).isEqualTo(expected.hashCode());
+    assertThat(labels.get("k3")).isEqualTo("v3");
+    assertThat(labels.get("k4")).isNull();
+    assertThat(labels.containsKey("k1")).isTrue();
+    assertThat(labels.keySet()).containsExactly("k1", "k2", "k3").inOrder();
+  }
+
+  @Test
+  public void repeatedKey_LastValueWins() {
+    assertThat(LabelSetSdk.create("k1", "v1", "k2", "v2", "k1", "v3").getLabels())
+        .containsExactly("k1", "v3", "k2", "v2");
+    assertThat(LabelSetSdk.create("k1", "v1", "k1", "v2"))
+        .isNotEqualTo(LabelSetSdk.create("k1", "v1", "k2", "v2"));
+  }
+
+  @Test
+  public void nullValue() {
+    assertThat(LabelSetSdk.create("k1", null).getLabels())
+        .isEqualTo(Collections.singletonMap("k1", null));
+  }
+
+  @Test
+  public void create_ReturnsCachedInstance() {
+    LabelSetSdk labelSet = LabelSetSdk.create("k1", "v1", "k2", "v2");
+    assertThat(LabelSetSdk.create("k1", "v1", "k2", "v2")).isSameInstanceAs(labelSet);
+    assertThat(LabelSetSdk.create("k2", "v2", "k1", "v1")).isSameInstanceAs(labelSet);
+  }
+
+  @Test
+  public void equalsAndHashCode() {
+    new EqualsTester()
+        .addEqualityGroup(
+            LabelSetSdk.create("k1", "v1", "k2", "v2"),
+            LabelSetSdk.create("k2", "v2", "k1", "v1"),
+            LabelSetSdk.create("k1", "v0", "k2", "v2", "k1", "v1"))
+        .addEqualityGroup(LabelSetSdk.create("k1", "v2", "k2", "v1"))
+        .addEqualityGroup(LabelSetSdk.create("k1", "v1"))
+        .addEqualityGroup(LabelSetSdk.create())
+        .testEquals();
+  }
+
+  @Test
+  public void oddNumberOfArguments() {
+    thrown.expect(IllegalArgumentException.class);
+    LabelSetSdk.create("k1", "v1", "k2");
+  }
+
+  @Test
+  public void nullKey() {
+    thrown.expect(NullPointerException.class);
+    LabelSetSdk.create("k1", "v1", null, "v2");
+  }
+}
@@ -28,6 +28,8 @@ import io.opentelemetry.sdk.metrics.data.MetricData;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
 import io.opentelemetry.sdk.metrics.data.MetricData.LongPoint;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.view.Aggregations;
 import io.opentelemetry.sdk.resources.Resource;
 import java.util.Collections;
 import java.util.List;
@@ -146,6 +148,117 @@ public class LongCounterSdkTest {
     }
   }
 
+  @Test
+  public void collectMetrics_WithDeltaTemporality() {
+    MeterSdk deltaSdk =
+        new MeterSdk(
+            MeterProviderSharedState.create(
+                testClock,
+                RESOURCE,
+                Aggregations.minMaxSumCount(),
+                AggregationTemporality.DELTA,
+                MeterProviderSharedState.DEFAULT_MAX_LABEL_SETS_PER_INSTRUMENT),
+            INSTRUMENTATION_LIBRARY_INFO);
+    LabelSetSdk labelSet = LabelSetSdk.create("K", "V");
+    LabelSetSdk emptyLabelSet = LabelSetSdk.create();
+    long startTime = testClock.now();
+    LongCounterSdk longCounter = deltaSdk.longCounterBuilder("testCounter").build();
+    BoundLongCounter boundCounter = longCounter.bind("K", "V");
+    try {
+      boundCounter.add(123);
+      longCounter.add(12, emptyLabelSet);
+      testClock.advanceNanos(SECOND_NANOS);
+
+      long firstCollect = testClock.now();
+      List<MetricData> metricDataList = longCounter.collectAll();
+      assertThat(metricDataList).hasSize(1);
+      assertThat(metricDataList.get(0).getPoints())
+          .containsExactly(
+              LongPoint.create(startTime, firstCollect, labelSet.getLabels(), 123),
+              LongPoint.create(startTime, firstCollect, emptyLabelSet.getLabels(), 12));
+
+      // Only the values recorded since the previous collection are reported, and the unbound label
+      // set that was not recorded again is dropped.
+      testClock.advanceNanos(SECOND_NANOS);
+      boundCounter.add(222);
+
+      long secondCollect = testClock.now();
+      metricDataList = longCounter.collectAll();
+      assertThat(metricDataList).hasSize(1);
+      assertThat(metricDataList.get(0).getPoints())
+          .containsExactly(
+              LongPoint.create(firstCollect, secondCollect, labelSet.getLabels(), 222));
+    } finally {
+      boundCounter.unbind();
+    }
+  }
+
+  @Test
+  public void collectMetrics_OverMaxLabelSets() {
+    MeterSdk limitedSdk =
+        new MeterSdk(
+            MeterProviderSharedState.create(
+                testClock,
+                RESOURCE,
+                Aggregations.minMaxSumCount(),
+                AggregationTemporality.CUMULATIVE,
+                /* maxLabelSetsPerInstrument= */ 2),
+            INSTRUMENTATION_LIBRARY_INFO);
+    long startTime = testClock.now();
+    LongCounterSdk longCounter = limitedSdk.longCounterBuilder("testCounter").build();
+    BoundLongCounter boundCounter1 = longCounter.bind("K", "V1");
+    BoundLongCounter boundCounter2 = longCounter.bind("K", "V2");
+    try {
+      boundCounter1.add(1);
+      boundCounter2.add(2);
+      // Too many bound label sets, recorded with the overflow label set.
+      longCounter.add(3, "K", "V3");
+      longCounter.add(4, "K", "V4");
+      // A label set rejected several times is counted once.
+      longCounter.add(3, "K", "V3");
+      testClock.advanceNanos(SECOND_NANOS);
+
+      long firstCollect = testClock.now();
+      assertThat(longCounter.collectAll().get(0).getPoints())
+          .containsExactly(
+              LongPoint.create(
+                  startTime, firstCollect, LabelSetSdk.create("K", "V1").getLabels(), 1),
+              LongPoint.create(
+                  startTime, firstCollect, LabelSetSdk.create("K", "V2").getLabels(), 2),
+              LongPoint.create(startTime, firstCollect, LabelSetSdk.getOverflow().getLabels(), 10));
+      assertThat(longCounter.getRejectedLabelSets(Collections.<String, String>emptyMap()))
+          .isEqualTo(
+              LongPoint.create(startTime, firstCollect, Collections.<String, String>emptyMap(), 2));
+
+      // The Batcher keeps the two label sets and the overflow label set, so a new label set is
+      // still rejected after the bound label sets are released.
+      boundCounter1.unbind();
+      boundCounter2.unbind();
+      longCounter.collectAll();
+      longCounter.add(5, "K", "V5");
+      // Already counted in a previous cycle.
+      longCounter.add(3, "K", "V3");
+      testClock.advanceNanos(SECOND_NANOS);
+
+      long secondCollect = testClock.now();
+      assertThat(longCounter.collectAll().get(0).getPoints())
+          .containsExactly(
+              LongPoint.create(
+                  startTime, secondCollect, LabelSetSdk.create("K", "V1").getLabels(), 1),
+              LongPoint.create(
+                  startTime, secondCollect, LabelSetSdk.create("K", "V2").getLabels(), 2),
+              LongPoint.create(
+                  startTime, secondCollect, LabelSetSdk.getOverflow().getLabels(), 18));
+      assertThat(longCounter.getRejectedLabelSets(Collections.<String, String>emptyMap()))
+          .isEqualTo(
+              LongPoint.create(
+                  startTime, secondCollect, Collections.<String, String>emptyMap(), 3));
+    } finally {
+      boundCounter1.unbind();
+      boundCounter2.unbind();
+    }
+  }
+
   @Test
   public void sameBound_ForSameLabelSet() {
     LongCounterSdk longCounter = testSdk.longCounterBuilder("testCounter").build();
@@ -19,6 +19,9 @@ package io.opentelemetry.sdk.metrics;
 import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.mock;
 
+import io.opentelemetry.metrics.AsynchronousInstrument.Callback;
+import io.opentelemetry.metrics.LongCounter.BoundLongCounter;
+import io.opentelemetry.metrics.LongSumObserver.ResultLongSumObserver;
 import io.opentelemetry.sdk.common.Clock;
 import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
 import io.opentelemetry.sdk.internal.TestClock;
@@ -27,8 +30,17 @@ import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor;
 import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
 import io.opentelemetry.sdk.metrics.data.MetricData.LongPoint;
 import io.opentelemetry.sdk.metrics.data.MetricData.Point;
+import io.opentelemetry.sdk.metrics.export.AggregationTemporality;
+import io.opentelemetry.sdk.metrics.export.MetricSink;
+import io.opentelemetry.sdk.metrics.export.StreamingMetricProducer;
+import io.opentelemetry.sdk.metrics.view.Aggregations;
 import io.opentelemetry.sdk.resources.Resource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
@@ -68,6 +80,221 @@ public class MeterSdkRegistryTest {
     MeterSdkProvider.builder().setResource(null);
   }
 
+  @Test
+  public void builder_NullValueRecorderAggregation() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("aggregation");
+    MeterSdkProvider.builder().setValueRecorderAggregation(null);
+  }
+
+  @Test
+  public void builder_ValueRecorderAggregationNotAvailable() {
+    thrown.expect(IllegalArgumentException.class);
+    MeterSdkProvider.builder().setValueRecorderAggregation(Aggregations.lastValue());
+  }
+
+  @Test
+  public void builder_NullAggregationTemporality() {
+    thrown.expect(NullPointerException.class);
+    thrown.expectMessage("aggregationTemporality");
+    MeterSdkProvider.builder().setAggregationTemporality(null);
+  }
+
+  @Test
+  public void deltaAggregationTemporality() {
+    MeterSdkProvider meterSdkProvider =
+        MeterSdkProvider.builder().setAggregationTemporality(AggregationTemporality.DELTA).build();
+    LongCounterSdk longCounter = meterSdkProvider.get("test").longCounterBuilder("counter").build();
+    longCounter.add(10);
+    MetricData metricData = meterSdkProvider.getMetricProducer().getAllMetrics().iterator().next();
+    assertThat(metricData.getPoints()).hasSize(1);
+    assertThat(((LongPoint) metricData.getPoints().iterator().next()).getValue()).isEqualTo(10);
+    // The label set is not recorded anymore, so it is dropped.
+    metricData = meterSdkProvider.getMetricProducer().getAllMetrics().iterator().next();
+    assertThat(metricData.getPoints()).isEmpty();
+  }
+
+  @Test
+  public void builder_NonPositiveMaxLabelSetsPerInstrument() {
+    thrown.expect(IllegalArgumentException.class);
+    MeterSdkProvider.builder().setMaxLabelSetsPerInstrument(0);
+  }
+
+  @Test
+  public void builder_NonPositiveCollectionParallelism() {
+    thrown.expect(IllegalArgumentException.class);
+    MeterSdkProvider.builder().setCollectionParallelism(0);
+  }
+
+  @Test
+  public void parallelCollection_SameMetricsAsSerialCollection() {
+    MeterSdkProvider serialProvider =
+        MeterSdkProvider.builder().setClock(testClock).setResource(Resource.getEmpty()).build();
+    MeterSdkProvider parallelProvider =
+        MeterSdkProvider.builder()
+            .setClock(testClock)
+            .setResource(Resource.getEmpty())
+            .setCollectionParallelism(4)
+            .build();
+    for (MeterSdkProvider provider : Arrays.asList(serialProvider, parallelProvider)) {
+      for (int meter = 0; meter < 3; meter++) {
+        MeterSdk meterSdk = provider.get("meter" + meter);
+        for (int counter = 0; counter < 50; counter++) {
+          LongCounterSdk longCounter = meterSdk.longCounterBuilder("counter" + counter).build();
+          longCounter.add(counter, "K", "V1");
+          longCounter.add(meter, "K", "V2");
+        }
+      }
+    }
+    Collection<MetricData> parallelMetrics = parallelProvider.getMetricProducer().getAllMetrics();
+    assertThat(parallelMetrics).hasSize(150);
+    assertThat(parallelMetrics)
+        .containsExactlyElementsIn(serialProvider.getMetricProducer().getAllMetrics())
+        .inOrder();
+  }
+
+  @Test
+  public void parallelCollection_NamedDaemonThreadsStoppedByShutdown() {
+    MeterSdkProvider provider =
+        MeterSdkProvider.builder()
+            .setClock(testClock)
+            .setResource(Resource.getEmpty())
+            .setCollectionParallelism(2)
+            .build();
+    final AtomicReference<Thread> collectionThread = new AtomicReference<>();
+    provider
+        .get("test")
+        .longSumObserverBuilder("observer")
+        .build()
+        .setCallback(
+            new Callback<ResultLongSumObserver>() {
+              @Override
+              public void update(ResultLongSumObserver result) {
+                collectionThread.set(Thread.currentThread());
+              }
+            });
+    provider.getMetricProducer().getAllMetrics();
+    assertThat(collectionThread.get().getName()).startsWith("MeterSdkProvider_CollectionThread_");
+    assertThat(collectionThread.get().isDaemon()).isTrue();
+
+    provider.shutdown();
+    // Collected serially once shut down.
+    provider.getMetricProducer().getAllMetrics();
+    assertThat(collectionThread.get()).isSameInstanceAs(Thread.currentThread());
+  }
+
+  @Test
+  public void metricProducer_CollectAllMetrics() {
+    LongCounterSdk longCounter = meterRegistry.get("test").longCounterBuilder("counter").build();
+    longCounter.add(10, "K", "V");
+    DoubleCounterSdk doubleCounter =
+        meterRegistry.get("test").doubleCounterBuilder("doubleCounter").build();
+    doubleCounter.add(1.5, "K", "V");
+    final List<MetricData> metrics = new ArrayList<>();
+    ((StreamingMetricProducer) meterRegistry.getMetricProducer())
+        .collectAllMetrics(
+            new MetricSink() {
+              @Override
+              public void accept(MetricData metricData) {
+                metrics.add(metricData);
+              }
+            });
+    assertThat(metrics).hasSize(2);
+    assertThat(metrics)
+        .containsExactlyElementsIn(meterRegistry.getMetricProducer().getAllMetrics())
+        .inOrder();
+  }
+
+  @Test
+  public void rejectedLabelSetsMetric() {
+    MeterSdkProvider meterSdkProvider =
+        MeterSdkProvider.builder()
+            .setClock(testClock)
+            .setResource(Resource.getEmpty())
+            .setMaxLabelSetsPerInstrument(1)
+            .build();
+    LongCounterSdk longCounter = meterSdkProvider.get("test").longCounterBuilder("counter").build();
+    BoundLongCounter boundCounter = longCounter.bind("K", "V1");
+    try {
+      longCounter.add(10, "K", "V2");
+      assertThat(meterSdkProvider.getMetricProducer().getAllMetrics())
+          .contains(
+              MetricData.create(
+                  Descriptor.create(
+                      "otel.sdk.metrics.rejected_label_sets",
+                      "Number of distinct label sets recorded with the overflow label set because "
+                          + "the instrument reached its maximum number of label sets.",
+                      "1",
+                      Type.MONOTONIC_LONG,
+                      Collections.<String, String>emptyMap()),
+                  Resource.getEmpty(),
+                  InstrumentationLibraryInfo.create("io.opentelemetry.sdk.metrics", null),
+                  Collections.<Point>singletonList(
+                      LongPoint.create(
+                          testClock.now(),
+                          testClock.now(),
+                          LabelSetSdk.create(
+                                  "instrumentation_library", "test", "instrument", "counter")
+                              .getLabels(),
+                          1))));
+    } finally {
+      boundCounter.unbind();
+    }
+  }
+
+  @Test
+  public void rejectedLabelSetsMetric_Delta() {
+    MeterSdkProvider meterSdkProvider =
+        MeterSdkProvider.builder()
+            .setClock(testClock)
+            .setResource(Resource.getEmpty())
+            .setAggregationTemporality(AggregationTemporality.DELTA)
+            .setMaxLabelSetsPerInstrument(1)
+            .build();
+    LongCounterSdk longCounter = meterSdkProvider.get("test").longCounterBuilder("counter").build();
+    BoundLongCounter boundCounter = longCounter.bind("K", "V1");
+    try {
+      long startTime = testClock.now();
+      longCounter.add(10, "K", "V2");
+      longCounter.add(10, "K", "V3");
+      testClock.advanceNanos(1000);
+      long firstCollect = testClock.now();
+      assertThat(getRejectedLabelSetsPoints(meterSdkProvider))
+          .containsExactly(
+              LongPoint.create(
+                  startTime,
+                  firstCollect,
+                  LabelSetSdk.create("instrumentation_library", "test", "instrument", "counter")
+                      .getLabels(),
+                  2));
+
+      longCounter.add(10, "K", "V2");
+      testClock.advanceNanos(1000);
+      assertThat(getRejectedLabelSetsPoints(meterSdkProvider))
+          .containsExactly(
+              LongPoint.create(
+                  firstCollect,
+                  testClock.now(),
+                  LabelSetSdk.create("instrumentation_library", "test", "instrument", "counter")
+                      .getLabels(),
+                  1));
+
+      // Nothing rejected since the last collection.
+      assertThat(getRejectedLabelSetsPoints(meterSdkProvider)).isEmpty();
+    } finally {
+      boundCounter.unbind();
+    }
+  }
+
+  private static Collection<Point> getRejectedLabelSetsPoints(MeterSdkProvider meterSdkProvider) {
+    for (MetricData metricData : meterSdkProvider.getMetricProducer().getAllMetrics()) {
+      if (metricData.getDescriptor().getName().equals("otel.sdk.metrics.rejected_label_sets")) {
+        return metricData.getPoints();
+      }
+    }
+    return Collections.emptyList();
+  }
+
   @Test
   public void defaultGet() {
     assertThat(meterRegistry.get("test")).isInstanceOf(MeterSdk.class);
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RejectedLabelSets}. */
+@RunWith(JUnit4.class)
+public class RejectedLabelSetsTest {
+
+  @Test
+  public void nothingRecorded() {
+    assertThat(new RejectedLabelSets().getAndReset()).isEqualTo(0);
+  }
+
+  @Test
+  public void countsDistinctLabelSets() {
+    RejectedLabelSets rejectedLabelSets = new RejectedLabelSets();
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V2"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V3"));
+    assertThat(rejectedLabelSets.getAndReset()).isEqualTo(3);
+  }
+
+  @Test
+  public void getAndReset_StartsNewCycle() {
+    RejectedLabelSets rejectedLabelSets = new RejectedLabelSets();
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V2"));
+    assertThat(rejectedLabelSets.getAndReset()).isEqualTo(2);
+    assertThat(rejectedLabelSets.getAndReset()).isEqualTo(0);
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    assertThat(rejectedLabelSets.getAndReset()).isEqualTo(1);
+  }
+
+  @Test
+  public void get_KeepsCounting() {
+    RejectedLabelSets rejectedLabelSets = new RejectedLabelSets();
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V2"));
+    assertThat(rejectedLabelSets.get()).isEqualTo(2);
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V1"));
+    rejectedLabelSets.record(LabelSetSdk.create("K", "V3"));
+    assertThat(rejectedLabelSets.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void manyLabelSets_Estimated() {
+    RejectedLabelSets rejectedLabelSets = new RejectedLabelSets();
+    for (int i = 0; i < 100_000; i++) {
+      rejectedLabelSets.record(LabelSetSdk.create("K", String.valueOf(i)));
+      rejectedLabelSets.record(LabelSetSdk.create("K", String.valueOf(i)));
+    }
+    assertThat((double) rejectedLabelSets.getAndReset()).isWithin(5_000).of(100_000);
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.metrics.data.MetricData.HistogramPoint;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class HistogramAggregatorTest {
+  private static final double[] BOUNDARIES = new double[] {10, 100, 1000};
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void testRecordings() {
+    Aggregator aggregator = HistogramAggregator.getFactory(BOUNDARIES).getAggregator();
+
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap()))
+        .isEqualTo(createPoint(0, 0, 0, 0, 0, 0));
+
+    aggregator.recordLong(5);
+    aggregator.recordLong(10);
+    aggregator.recordDouble(10.5);
+    aggregator.recordDouble(1000);
+    aggregator.recordLong(5000);
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap()))
+        .isEqualTo(createPoint(5, 6025.5, 2, 1, 1, 1));
+  }
+
+  @Test
+  public void testMergeAndReset() {
+    Aggregator aggregator = HistogramAggregator.getFactory(BOUNDARIES).getAggregator();
+
+    aggregator.recordDouble(50);
+    Aggregator mergedToAggregator = HistogramAggregator.getFactory(BOUNDARIES).getAggregator();
+    mergedToAggregator.recordDouble(500);
+    aggregator.mergeToAndReset(mergedToAggregator);
+
+    assertThat(mergedToAggregator.toPoint(0, 100, Collections.<String, String>emptyMap()))
+        .isEqualTo(createPoint(2, 550, 0, 1, 1, 0));
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap()))
+        .isEqualTo(createPoint(0, 0, 0, 0, 0, 0));
+  }
+
+  @Test
+  public void noBoundaries() {
+    Aggregator aggregator = HistogramAggregator.getFactory(new double[0]).getAggregator();
+    aggregator.recordDouble(-1);
+    aggregator.recordDouble(1);
+    HistogramPoint point =
+        (HistogramPoint) aggregator.toPoint(0, 100, Collections.<String, String>emptyMap());
+    assertThat(point.getBoundaries()).isEmpty();
+    assertThat(point.getCounts()).containsExactly(2L);
+  }
+
+  @Test
+  public void unsortedBoundaries() {
+    thrown.expect(IllegalArgumentException.class);
+    HistogramAggregator.getFactory(new double[] {1, 3, 2});
+  }
+
+  @Test
+  public void nanBoundary() {
+    thrown.expect(IllegalArgumentException.class);
+    HistogramAggregator.getFactory(new double[] {1, Double.NaN});
+  }
+
+  @Test
+  public void testMultithreadedUpdates() throws Exception {
+    final Aggregator aggregator = HistogramAggregator.getFactory(BOUNDARIES).getAggregator();
+    final Aggregator summarizer = HistogramAggregator.getFactory(BOUNDARIES).getAggregator();
+    int numberOfThreads = 10;
+    final long[] updates = new long[] {1, 2, 3, 5, 7, 11, 13, 17, 19, 23};
+    final int numberOfUpdates = 1000;
+    final CountDownLatch startingGun = new CountDownLatch(numberOfThreads);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < numberOfThreads; i++) {
+      final int index = i;
+      Thread t =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  long update = updates[index];
+                  try {
+                    startingGun.await();
+                  } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                  }
+                  for (int j = 0; j < numberOfUpdates; j++) {
+                    aggregator.recordLong(update);
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                      aggregator.mergeToAndReset(summarizer);
+                    }
+                  }
+                }
+              });
+      workers.add(t);
+      t.start();
+    }
+    for (int i = 0; i <= numberOfThreads; i++) {
+      startingGun.countDown();
+    }
+
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    // make sure everything gets merged when all the aggregation is done.
+    aggregator.mergeToAndReset(summarizer);
+
+    assertThat(summarizer.toPoint(0, 100, Collections.<String, String>emptyMap()))
+        .isEqualTo(createPoint(10000, 101000, 5000, 5000, 0, 0));
+  }
+
+  private static HistogramPoint createPoint(long count, double sum, long... counts) {
+    List<Long> countsList = new ArrayList<>(counts.length);
+    for (long bucketCount : counts) {
+      countsList.add(bucketCount);
+    }
+    return HistogramPoint.create(
+        0,
+        100,
+        Collections.<String, String>emptyMap(),
+        count,
+        sum,
+        Arrays.asList(10d, 100d, 1000d),
+        countsList);
+  }
+}
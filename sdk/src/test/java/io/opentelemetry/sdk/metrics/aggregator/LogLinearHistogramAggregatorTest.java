@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.metrics.data.MetricData.SummaryPoint;
+import io.opentelemetry.sdk.metrics.data.MetricData.ValueAtPercentile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.Test;
+
+public class LogLinearHistogramAggregatorTest {
+  private static final double MAX_RELATIVE_ERROR =
+      Math.scalb(1.0, -(LogLinearHistogramAggregator.SUB_BUCKET_BITS + 1));
+
+  @Test
+  public void testRecordings() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap())).isNull();
+
+    for (int i = 1; i <= 1000; i++) {
+      aggregator.recordLong(i);
+    }
+    SummaryPoint point = getPoint(aggregator);
+    assertThat(point.getCount()).isEqualTo(1000);
+    assertThat(point.getSum()).isWithin(0).of(500500);
+    List<ValueAtPercentile> percentiles = point.getPercentileValues();
+    assertThat(percentiles).hasSize(6);
+    assertPercentile(percentiles.get(0), 0.0, 1);
+    assertPercentile(percentiles.get(1), 50.0, 500);
+    assertPercentile(percentiles.get(2), 90.0, 900);
+    assertPercentile(percentiles.get(3), 99.0, 990);
+    assertPercentile(percentiles.get(4), 99.9, 999);
+    assertPercentile(percentiles.get(5), 100.0, 1000);
+  }
+
+  @Test
+  public void percentilesClampedToMinAndMax() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    aggregator.recordDouble(100);
+    for (ValueAtPercentile valueAtPercentile : getPoint(aggregator).getPercentileValues()) {
+      assertThat(valueAtPercentile.getValue()).isWithin(0).of(100);
+    }
+  }
+
+  @Test
+  public void smallAndNegativeValues() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    aggregator.recordDouble(-5);
+    aggregator.recordDouble(0);
+    aggregator.recordDouble(10);
+    SummaryPoint point = getPoint(aggregator);
+    assertThat(point.getCount()).isEqualTo(3);
+    assertThat(point.getSum()).isWithin(0).of(5);
+    List<ValueAtPercentile> percentiles = point.getPercentileValues();
+    assertPercentile(percentiles.get(0), 0.0, -5);
+    assertPercentile(percentiles.get(1), 50.0, 0);
+    assertPercentile(percentiles.get(2), 90.0, 10);
+    assertPercentile(percentiles.get(5), 100.0, 10);
+  }
+
+  @Test
+  public void largeValues() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    aggregator.recordDouble(1e30);
+    aggregator.recordDouble(Double.MAX_VALUE);
+    SummaryPoint point = getPoint(aggregator);
+    assertThat(point.getCount()).isEqualTo(2);
+    List<ValueAtPercentile> percentiles = point.getPercentileValues();
+    assertPercentile(percentiles.get(1), 50.0, 1e30);
+    assertPercentile(percentiles.get(5), 100.0, Double.MAX_VALUE);
+  }
+
+  @Test
+  public void nanIgnored() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    aggregator.recordDouble(Double.NaN);
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap())).isNull();
+  }
+
+  @Test
+  public void relativeErrorIsBounded() {
+    for (double value = 1e-9; value < 1e18; value *= 1.37) {
+      Aggregator single = LogLinearHistogramAggregator.getFactory().getAggregator();
+      // Use a wider range so the median is not clamped to the exact min and max.
+      single.recordDouble(0);
+      single.recordDouble(value);
+      single.recordDouble(value);
+      single.recordDouble(Double.MAX_VALUE);
+      ValueAtPercentile median = getPoint(single).getPercentileValues().get(1);
+      assertThat(median.getValue()).isWithin(value * MAX_RELATIVE_ERROR).of(value);
+    }
+  }
+
+  @Test
+  public void testMergeAndReset() {
+    Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    aggregator.recordDouble(50);
+    aggregator.recordDouble(0.5);
+    Aggregator mergedToAggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    mergedToAggregator.recordDouble(500);
+    aggregator.mergeToAndReset(mergedToAggregator);
+
+    assertThat(aggregator.toPoint(0, 100, Collections.<String, String>emptyMap())).isNull();
+    SummaryPoint point = getPoint(mergedToAggregator);
+    assertThat(point.getCount()).isEqualTo(3);
+    assertThat(point.getSum()).isWithin(0).of(550.5);
+    List<ValueAtPercentile> percentiles = point.getPercentileValues();
+    assertPercentile(percentiles.get(0), 0.0, 0.5);
+    assertPercentile(percentiles.get(1), 50.0, 50);
+    assertPercentile(percentiles.get(5), 100.0, 500);
+
+    // The reset aggregator starts from scratch.
+    aggregator.recordDouble(7);
+    assertPercentile(getPoint(aggregator).getPercentileValues().get(0), 0.0, 7);
+  }
+
+  @Test
+  public void testMultithreadedUpdates() throws Exception {
+    final Aggregator aggregator = LogLinearHistogramAggregator.getFactory().getAggregator();
+    final Aggregator summarizer = LogLinearHistogramAggregator.getFactory().getAggregator();
+    int numberOfThreads = 10;
+    final long[] updates = new long[] {1, 2, 3, 5, 7, 11, 13, 17, 19, 23};
+    final int numberOfUpdates = 1000;
+    final CountDownLatch startingGun = new CountDownLatch(numberOfThreads);
+    List<Thread> workers = new ArrayList<>();
+    for (int i = 0; i < numberOfThreads; i++) {
+      final int index = i;
+      Thread t =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  long update = updates[index];
+                  try {
+                    startingGun.await();
+                  } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                  }
+                  for (int j = 0; j < numberOfUpdates; j++) {
+                    aggregator.recordLong(update);
+                    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+                      aggregator.mergeToAndReset(summarizer);
+                    }
+                  }
+                }
+              });
+      workers.add(t);
+      t.start();
+    }
+    for (int i = 0; i <= numberOfThreads; i++) {
+      startingGun.countDown();
+    }
+
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    // make sure everything gets merged when all the aggregation is done.
+    aggregator.mergeToAndReset(summarizer);
+
+    SummaryPoint point = getPoint(summarizer);
+    assertThat(point.getCount()).isEqualTo(10000);
+    assertThat(point.getSum()).isWithin(0).of(101000);
+    assertPercentile(point.getPercentileValues().get(0), 0.0, 1);
+    assertPercentile(point.getPercentileValues().get(1), 50.0, 7);
+    assertPercentile(point.getPercentileValues().get(5), 100.0, 23);
+  }
+
+  private static SummaryPoint getPoint(Aggregator aggregator) {
+    SummaryPoint point =
+        (SummaryPoint) aggregator.toPoint(0, 100, Collections.<String, String>emptyMap());
+    assertThat(point).isNotNull();
+    return point;
+  }
+
+  private static void assertPercentile(
+      ValueAtPercentile valueAtPercentile, double percentile, double expected) {
+    assertThat(valueAtPercentile.getPercentile()).isWithin(0).of(percentile);
+    assertThat(valueAtPercentile.getValue())
+        .isWithin(Math.abs(expected) * MAX_RELATIVE_ERROR)
+        .of(expected);
+  }
+}
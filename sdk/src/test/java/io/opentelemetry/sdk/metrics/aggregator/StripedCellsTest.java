@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.aggregator;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link StripedCells}. */
+@RunWith(JUnit4.class)
+public class StripedCellsTest {
+
+  private static final class TestCell extends StripedCells.Cell {}
+
+  private final StripedCells<TestCell> cells =
+      new StripedCells<TestCell>() {
+        @Override
+        TestCell newCell() {
+          return new TestCell();
+        }
+      };
+
+  @Test
+  public void lockCell_ReturnsLockedCell() {
+    TestCell cell = cells.lockCell();
+    assertThat(cell.tryLock()).isFalse();
+    cell.unlock();
+    assertThat(cell.tryLock()).isTrue();
+    cell.unlock();
+  }
+
+  @Test
+  public void lockCell_SameThreadReusesCell() {
+    TestCell cell = cells.lockCell();
+    cell.unlock();
+    assertThat(cells.lockCell()).isSameInstanceAs(cell);
+    cell.unlock();
+  }
+
+  @Test
+  public void cellsCreatedLazily() {
+    TestCell cell = cells.lockCell();
+    cell.unlock();
+    int created = 0;
+    for (int i = 0; i < cells.length(); i++) {
+      if (cells.getCell(i) != null) {
+        assertThat(cells.getCell(i)).isSameInstanceAs(cell);
+        created++;
+      }
+    }
+    assertThat(created).isEqualTo(1);
+  }
+
+  @Test
+  public void lockCell_MovesAwayFromLockedCell() {
+    TestCell locked = cells.lockCell();
+    // With a single cell the thread waits for it, so only check when there is another cell.
+    if (cells.length() > 1) {
+      TestCell other = cells.lockCell();
+      assertThat(other).isNotSameInstanceAs(locked);
+      other.unlock();
+    }
+    locked.unlock();
+  }
+}
@@ -108,6 +108,41 @@ public class IntervalMetricReaderTest {
     assertThat(waitingMetricExporter.hasShutdown.get()).isTrue();
   }
 
+  @Test
+  public void intervalExport_StreamingMetricExporter() {
+    WaitingMetricExporter waitingMetricExporter = new WaitingStreamingMetricExporter();
+    IntervalMetricReader intervalMetricReader =
+        IntervalMetricReader.builder()
+            .setExportIntervalMillis(100)
+            .setMetricExporter(waitingMetricExporter)
+            .setMetricProducers(Collections.singletonList(metricProducer))
+            .build();
+
+    try {
+      assertThat(waitingMetricExporter.waitForNumberOfExports(1))
+          .containsExactly(Collections.singletonList(METRIC_DATA));
+    } finally {
+      intervalMetricReader.shutdown();
+    }
+  }
+
+  private static class WaitingStreamingMetricExporter extends WaitingMetricExporter
+      implements StreamingMetricExporter {
+
+    @Override
+    public ResultCode export(StreamingMetricProducer metricProducer) {
+      final List<MetricData> metricList = new ArrayList<>();
+      metricProducer.collectAllMetrics(
+          new MetricSink() {
+            @Override
+            public void accept(MetricData metricData) {
+              metricList.add(metricData);
+            }
+          });
+      return export(metricList);
+    }
+  }
+
   private static class WaitingMetricExporter implements MetricExporter {
 
     private final Object monitor = new Object();
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.view;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.metrics.aggregator.Aggregator;
+import io.opentelemetry.sdk.metrics.aggregator.HistogramAggregator;
+import io.opentelemetry.sdk.metrics.common.InstrumentType;
+import io.opentelemetry.sdk.metrics.common.InstrumentValueType;
+import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class DistributionAggregationTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void getDescriptorType() {
+    Aggregation distribution = Aggregations.distributionWithExplicitBounds(1.0, 10.0);
+    for (InstrumentValueType valueType : InstrumentValueType.values()) {
+      assertThat(distribution.getDescriptorType(InstrumentType.VALUE_RECORDER, valueType))
+          .isEqualTo(Type.HISTOGRAM);
+      assertThat(distribution.getDescriptorType(InstrumentType.VALUE_OBSERVER, valueType))
+          .isEqualTo(Type.HISTOGRAM);
+    }
+  }
+
+  @Test
+  public void getAggregatorFactory() {
+    Aggregation distribution = Aggregations.distributionWithExplicitBounds(1.0, 10.0);
+    Aggregator longAggregator =
+        distribution.getAggregatorFactory(InstrumentValueType.LONG).getAggregator();
+    Aggregator doubleAggregator =
+        distribution.getAggregatorFactory(InstrumentValueType.DOUBLE).getAggregator();
+    assertThat(longAggregator).isInstanceOf(HistogramAggregator.class);
+    assertThat(doubleAggregator).isInstanceOf(HistogramAggregator.class);
+  }
+
+  @Test
+  public void availableForInstrument() {
+    Aggregation distribution = Aggregations.distributionWithExplicitBounds(1.0, 10.0);
+    for (InstrumentType type : InstrumentType.values()) {
+      if (type == InstrumentType.VALUE_OBSERVER || type == InstrumentType.VALUE_RECORDER) {
+        assertThat(distribution.availableForInstrument(type)).isTrue();
+      } else {
+        assertThat(distribution.availableForInstrument(type)).isFalse();
+      }
+    }
+  }
+
+  @Test
+  public void unsortedBoundaries() {
+    thrown.expect(IllegalArgumentException.class);
+    Aggregations.distributionWithExplicitBounds(10.0, 1.0);
+  }
+
+  @Test
+  public void nullBoundary() {
+    thrown.expect(NullPointerException.class);
+    Aggregations.distributionWithExplicitBounds(1.0, null);
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.metrics.view;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.metrics.aggregator.LogLinearHistogramAggregator;
+import io.opentelemetry.sdk.metrics.common.InstrumentType;
+import io.opentelemetry.sdk.metrics.common.InstrumentValueType;
+import io.opentelemetry.sdk.metrics.data.MetricData.Descriptor.Type;
+import org.junit.Test;
+
+public class PercentileSummaryAggregationTest {
+
+  @Test
+  public void getDescriptorType() {
+    Aggregation percentileSummary = Aggregations.percentileSummary();
+    for (InstrumentValueType valueType : InstrumentValueType.values()) {
+      assertThat(percentileSummary.getDescriptorType(InstrumentType.VALUE_RECORDER, valueType))
+          .isEqualTo(Type.SUMMARY);
+      assertThat(percentileSummary.getDescriptorType(InstrumentType.VALUE_OBSERVER, valueType))
+          .isEqualTo(Type.SUMMARY);
+    }
+  }
+
+  @Test
+  public void getAggregatorFactory() {
+    Aggregation percentileSummary = Aggregations.percentileSummary();
+    assertThat(percentileSummary.getAggregatorFactory(InstrumentValueType.LONG).getAggregator())
+        .isInstanceOf(LogLinearHistogramAggregator.class);
+    assertThat(percentileSummary.getAggregatorFactory(InstrumentValueType.DOUBLE).getAggregator())
+        .isInstanceOf(LogLinearHistogramAggregator.class);
+  }
+
+  @Test
+  public void availableForInstrument() {
+    Aggregation percentileSummary = Aggregations.percentileSummary();
+    for (InstrumentType type : InstrumentType.values()) {
+      if (type == InstrumentType.VALUE_OBSERVER || type == InstrumentType.VALUE_RECORDER) {
+        assertThat(percentileSummary.availableForInstrument(type)).isTrue();
+      } else {
+        assertThat(percentileSummary.availableForInstrument(type)).isFalse();
+      }
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.common.AttributeValue;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link AttributesMap}. */
+@RunWith(JUnit4.class)
+public class AttributesMapTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void primitiveValues() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putLong("long", 42L);
+    attributes.putDouble("double", 4.2);
+    attributes.putBoolean("boolean", true);
+    attributes.putAttribute("string", AttributeValue.stringAttributeValue("value"));
+    assertThat(attributes)
+        .containsExactly(
+            "long", AttributeValue.longAttributeValue(42L),
+            "double", AttributeValue.doubleAttributeValue(4.2),
+            "boolean", AttributeValue.booleanAttributeValue(true),
+            "string", AttributeValue.stringAttributeValue("value"))
+        .inOrder();
+    assertThat(attributes.getTotalAddedValues()).isEqualTo(4);
+  }
+
+  @Test
+  public void replaceKeepsOrder() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putLong("key1", 1L);
+    attributes.putLong("key2", 2L);
+    attributes.putAttribute("key1", AttributeValue.stringAttributeValue("one"));
+    assertThat(attributes)
+        .containsExactly(
+            "key1", AttributeValue.stringAttributeValue("one"),
+            "key2", AttributeValue.longAttributeValue(2L))
+        .inOrder();
+    assertThat(attributes.getTotalAddedValues()).isEqualTo(3);
+  }
+
+  @Test
+  public void dropsWhenFull() {
+    AttributesMap attributes = new AttributesMap(2);
+    attributes.putLong("key1", 1L);
+    attributes.putLong("key2", 2L);
+    attributes.putLong("key3", 3L);
+    attributes.putLong("key1", 10L);
+    assertThat(attributes)
+        .containsExactly(
+            "key1", AttributeValue.longAttributeValue(10L),
+            "key2", AttributeValue.longAttributeValue(2L));
+    assertThat(attributes.getTotalAddedValues()).isEqualTo(4);
+  }
+
+  @Test
+  public void removeAttribute() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putLong("key1", 1L);
+    attributes.putLong("key2", 2L);
+    attributes.putLong("key3", 3L);
+    attributes.removeAttribute("key2");
+    attributes.removeAttribute("missing");
+    assertThat(attributes)
+        .containsExactly(
+            "key1", AttributeValue.longAttributeValue(1L),
+            "key3", AttributeValue.longAttributeValue(3L))
+        .inOrder();
+  }
+
+  @Test
+  public void largeMapUsesIndex() {
+    int size = AttributesMap.LINEAR_SCAN_THRESHOLD * 5;
+    AttributesMap attributes = new AttributesMap(size);
+    Map<String, AttributeValue> expected = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      attributes.putLong("key" + i, i);
+      expected.put("key" + i, AttributeValue.longAttributeValue(i));
+    }
+    attributes.putLong("key3", -3L);
+    expected.put("key3", AttributeValue.longAttributeValue(-3L));
+    assertThat(attributes).isEqualTo(expected);
+    for (int i = size - 1; i >= AttributesMap.LINEAR_SCAN_THRESHOLD / 2; i--) {
+      attributes.removeAttribute("key" + i);
+      expected.remove("key" + i);
+      assertThat(attributes).isEqualTo(expected);
+    }
+    assertThat(attributes.containsKey("key" + (size - 1))).isFalse();
+    assertThat(attributes.get("key3")).isEqualTo(AttributeValue.longAttributeValue(-3L));
+  }
+
+  @Test
+  public void copyIsNotAffectedByChanges() {
+    AttributesMap attributes = new AttributesMap(8);
+    attributes.putLong("key1", 1L);
+    AttributesMap copy = attributes.copy();
+    attributes.putLong("key1", 2L);
+    attributes.putLong("key2", 2L);
+    assertThat(copy).containsExactly("key1", AttributeValue.longAttributeValue(1L));
+    assertThat(copy.getTotalAddedValues()).isEqualTo(1);
+  }
+
+  @Test
+  public void mapViewIsReadOnly() {
+    AttributesMap attributes = new AttributesMap(8);
+    thrown.expect(UnsupportedOperationException.class);
+    attributes.put("key", AttributeValue.longAttributeValue(1L));
+  }
+}
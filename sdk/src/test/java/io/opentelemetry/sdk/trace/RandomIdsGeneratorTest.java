@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import io.opentelemetry.trace.SpanId;
 import io.opentelemetry.trace.TraceId;
+import java.util.concurrent.ThreadLocalRandom;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -40,4 +41,14 @@ public class RandomIdsGeneratorTest {
       assertThat(spanId).isNotEqualTo(SpanId.getInvalid());
     }
   }
+
+  @Test
+  public void sharedRandom() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat(RandomIdsGenerator.nextTraceId(random)).isNotEqualTo(TraceId.getInvalid());
+      assertThat(RandomIdsGenerator.nextSpanId(random)).isNotEqualTo(SpanId.getInvalid());
+    }
+  }
 }
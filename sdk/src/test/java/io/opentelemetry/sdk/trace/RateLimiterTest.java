@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.internal.TestClock;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link RateLimiter}. */
+@RunWith(JUnit4.class)
+public class RateLimiterTest {
+  private final TestClock clock = TestClock.create();
+
+  @Test
+  public void trySpend_StartsWithFullBalance() {
+    RateLimiter rateLimiter = new RateLimiter(2.0, 2.0, clock);
+    assertThat(rateLimiter.trySpend(1.0)).isTrue();
+    assertThat(rateLimiter.trySpend(1.0)).isTrue();
+    assertThat(rateLimiter.trySpend(1.0)).isFalse();
+  }
+
+  @Test
+  public void trySpend_CreditsAddedOverTime() {
+    RateLimiter rateLimiter = new RateLimiter(2.0, 2.0, clock);
+    assertThat(rateLimiter.trySpend(2.0)).isTrue();
+    clock.advanceMillis(250);
+    assertThat(rateLimiter.trySpend(1.0)).isFalse();
+    clock.advanceMillis(250);
+    assertThat(rateLimiter.trySpend(1.0)).isTrue();
+    assertThat(rateLimiter.trySpend(1.0)).isFalse();
+  }
+
+  @Test
+  public void trySpend_BalanceIsCapped() {
+    RateLimiter rateLimiter = new RateLimiter(2.0, 2.0, clock);
+    clock.advanceMillis(10_000);
+    assertThat(rateLimiter.trySpend(2.0)).isTrue();
+    assertThat(rateLimiter.trySpend(0.5)).isFalse();
+  }
+
+  @Test
+  public void trySpend_Concurrent() throws InterruptedException {
+    final RateLimiter rateLimiter = new RateLimiter(1.0, 1000.0, clock);
+    final AtomicInteger spent = new AtomicInteger();
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  for (int j = 0; j < 1000; j++) {
+                    if (rateLimiter.trySpend(1.0)) {
+                      spent.incrementAndGet();
+                    }
+                  }
+                }
+              });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(spent.get()).isEqualTo(1000);
+  }
+}
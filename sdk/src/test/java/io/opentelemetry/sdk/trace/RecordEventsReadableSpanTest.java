@@ -33,6 +33,7 @@ import io.opentelemetry.trace.Status;
 import io.opentelemetry.trace.TraceFlags;
 import io.opentelemetry.trace.TraceId;
 import io.opentelemetry.trace.TraceState;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -209,6 +210,37 @@ public class RecordEventsReadableSpanTest {
         /*hasEnded=*/ true);
   }
 
+  @Test
+  public void toSpanData_EndedSpanSharesFrozenState() {
+    RecordEventsReadableSpan span = createTestSpan(Kind.INTERNAL);
+    spanDoWork(span, Status.CANCELLED);
+    span.end();
+    SpanData first = span.toSpanData();
+    SpanData second = span.toSpanData();
+    assertThat(second).isEqualTo(first);
+    assertThat(second.getLinks()).isSameInstanceAs(first.getLinks());
+    // Nothing can change after end, so the frozen state is not copied for each snapshot.
+    span.setAttribute("afterEnd", 1L);
+    span.addEvent("afterEnd");
+    assertThat(first.getAttributes()).isEqualTo(expectedAttributes);
+    assertThat(first.getEvents()).hasSize(1);
+  }
+
+  @Test
+  public void toSpanData_EventKeepsTotalAttributeCount() {
+    TraceConfig traceConfig =
+        TraceConfig.getDefault().toBuilder().setMaxNumberOfAttributesPerEvent(1).build();
+    RecordEventsReadableSpan span = createTestSpan(traceConfig);
+    Map<String, AttributeValue> eventAttributes = new HashMap<>();
+    eventAttributes.put("key1", AttributeValue.stringAttributeValue("value1"));
+    eventAttributes.put("key2", AttributeValue.stringAttributeValue("value2"));
+    span.addEvent("event", eventAttributes);
+    span.end();
+    Event event = span.toSpanData().getEvents().get(0);
+    assertThat(event.getAttributes()).hasSize(1);
+    assertThat(event.getTotalAttributeCount()).isEqualTo(2);
+  }
+
   @Test
   public void toSpanData_immutableLinks() {
     RecordEventsReadableSpan span = createTestSpan(Kind.INTERNAL);
@@ -627,11 +659,43 @@ public class RecordEventsReadableSpanTest {
     }
   }
 
+  @Test
+  public void droppingEvents_KeepsOrder() {
+    final int maxNumberOfEvents = 8;
+    final int numberOfEvents = maxNumberOfEvents + 3;
+    TraceConfig traceConfig =
+        TraceConfig.getDefault().toBuilder().setMaxNumberOfEvents(maxNumberOfEvents).build();
+    RecordEventsReadableSpan span = createTestSpan(traceConfig);
+    try {
+      for (int i = 0; i < numberOfEvents; i++) {
+        span.addEvent("event" + i);
+      }
+      assertEventNames(span.toSpanData().getEvents(), numberOfEvents - maxNumberOfEvents);
+    } finally {
+      span.end();
+    }
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getTotalRecordedEvents()).isEqualTo(numberOfEvents);
+    assertEventNames(spanData.getEvents(), numberOfEvents - maxNumberOfEvents);
+  }
+
+  private static void assertEventNames(List<Event> events, int firstEvent) {
+    List<String> names = new ArrayList<>();
+    for (Event event : events) {
+      names.add(event.getName());
+    }
+    List<String> expectedNames = new ArrayList<>();
+    for (int i = 0; i < events.size(); i++) {
+      expectedNames.add("event" + (firstEvent + i));
+    }
+    assertThat(names).containsExactlyElementsIn(expectedNames).inOrder();
+  }
+
   private RecordEventsReadableSpan createTestSpanWithAttributes(
       Map<String, AttributeValue> attributes) {
     AttributesMap attributesMap =
         new AttributesMap(TraceConfig.getDefault().getMaxNumberOfAttributes());
-    attributesMap.putAll(attributes);
+    attributesMap.putAllAttributes(attributes);
     return createTestSpan(
         Kind.INTERNAL,
         TraceConfig.getDefault(),
@@ -738,7 +802,7 @@ public class RecordEventsReadableSpanTest {
     Resource resource = this.resource;
     Map<String, AttributeValue> attributes = TestUtils.generateRandomAttributes();
     AttributesMap attributesWithCapacity = new AttributesMap(32);
-    attributesWithCapacity.putAll(attributes);
+    attributesWithCapacity.putAllAttributes(attributes);
     Map<String, AttributeValue> event1Attributes = TestUtils.generateRandomAttributes();
     Map<String, AttributeValue> event2Attributes = TestUtils.generateRandomAttributes();
     SpanContext context =
@@ -817,4 +881,44 @@ public class RecordEventsReadableSpanTest {
     }
     modifierFuture.get();
   }
+
+  @Test
+  public void testConcurrentMutationAndEnd() throws ExecutionException, InterruptedException {
+    TraceConfig traceConfig =
+        TraceConfig.getDefault().toBuilder().setMaxNumberOfAttributes(1000).build();
+    final RecordEventsReadableSpan span = createTestSpan(traceConfig);
+    final int threads = 4;
+    final int attributesPerThread = 100;
+    ExecutorService es = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        final int thread = t;
+        futures.add(
+            es.submit(
+                new Runnable() {
+                  @Override
+                  public void run() {
+                    for (int i = 0; i < attributesPerThread; i++) {
+                      span.setAttribute("thread" + thread + "-" + i, (long) i);
+                      span.addEvent("event");
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      es.shutdown();
+    }
+    span.end();
+    span.end();
+    span.setAttribute("afterEnd", 1L);
+    SpanData spanData = span.toSpanData();
+    assertThat(spanData.getAttributes()).hasSize(threads * attributesPerThread);
+    assertThat(spanData.getTotalAttributeCount()).isEqualTo(threads * attributesPerThread);
+    assertThat(spanData.getTotalRecordedEvents()).isEqualTo(threads * attributesPerThread);
+    Mockito.verify(spanProcessor, Mockito.times(1)).onEnd(span);
+  }
 }
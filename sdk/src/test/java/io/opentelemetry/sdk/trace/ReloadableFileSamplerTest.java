@@ -0,0 +1,184 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.trace.Link;
+import io.opentelemetry.trace.Span;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ReloadableFileSampler}. */
+@RunWith(JUnit4.class)
+public class ReloadableFileSamplerTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final IdsGenerator idsGenerator = new RandomIdsGenerator();
+  private File file;
+  private ReloadableFileSampler sampler;
+
+  @Before
+  public void setUp() {
+    file = new File(folder.getRoot(), "sampling.properties");
+  }
+
+  @After
+  public void tearDown() {
+    if (sampler != null) {
+      sampler.close();
+    }
+  }
+
+  @Test
+  public void rules_MostSpecificRuleWins() throws IOException {
+    writeRules(
+        "default=0.0",
+        "kind.SERVER=1.0",
+        "operation.GET\\ /users=1.0",
+        "operation.GET\\ /health=0.0",
+        "kind.SERVER.operation.GET\\ /health=1.0");
+    sampler = ReloadableFileSampler.newBuilder(file).setPollInterval(0, TimeUnit.SECONDS).build();
+
+    assertThat(isSampled("other", Span.Kind.INTERNAL)).isFalse();
+    assertThat(isSampled("other", Span.Kind.SERVER)).isTrue();
+    assertThat(isSampled("GET /users", Span.Kind.CLIENT)).isTrue();
+    assertThat(isSampled("GET /health", Span.Kind.CLIENT)).isFalse();
+    assertThat(isSampled("GET /health", Span.Kind.SERVER)).isTrue();
+  }
+
+  @Test
+  public void rules_OperationOfOneKindFallsBackToKindRule() throws IOException {
+    writeRules("default=0.0", "kind.CLIENT=1.0", "kind.SERVER.operation.op=0.0");
+    sampler = ReloadableFileSampler.newBuilder(file).setPollInterval(0, TimeUnit.SECONDS).build();
+
+    assertThat(isSampled("op", Span.Kind.SERVER)).isFalse();
+    assertThat(isSampled("op", Span.Kind.CLIENT)).isTrue();
+    assertThat(isSampled("op", Span.Kind.INTERNAL)).isFalse();
+  }
+
+  @Test
+  public void missingFile_UsesDefaultSampler() throws IOException {
+    sampler =
+        ReloadableFileSampler.newBuilder(file)
+            .setDefaultSampler(Samplers.alwaysOff())
+            .setPollInterval(0, TimeUnit.SECONDS)
+            .build();
+    assertThat(isSampled("op", Span.Kind.SERVER)).isFalse();
+
+    writeRules("kind.SERVER=1.0");
+    assertThat(sampler.reload()).isTrue();
+    assertThat(isSampled("op", Span.Kind.SERVER)).isTrue();
+    // No default rule in the file.
+    assertThat(isSampled("op", Span.Kind.CLIENT)).isFalse();
+  }
+
+  @Test
+  public void invalidFile_KeepsPreviousRules() throws IOException {
+    writeRules("default=1.0");
+    sampler = ReloadableFileSampler.newBuilder(file).setPollInterval(0, TimeUnit.SECONDS).build();
+
+    writeRules("default=0.0", "kind.UNKNOWN=1.0");
+    assertThat(sampler.reload()).isFalse();
+    writeRules("default=2.0");
+    assertThat(sampler.reload()).isFalse();
+    writeRules("default=none");
+    assertThat(sampler.reload()).isFalse();
+    writeRules("default=0.0", "unknown=1.0");
+    assertThat(sampler.reload()).isFalse();
+    assertThat(isSampled("op", Span.Kind.INTERNAL)).isTrue();
+  }
+
+  @Test
+  public void poll_ReloadsChangedFile() throws Exception {
+    writeRules("default=0.0");
+    sampler =
+        ReloadableFileSampler.newBuilder(file).setPollInterval(10, TimeUnit.MILLISECONDS).build();
+    assertThat(isSampled("op", Span.Kind.INTERNAL)).isFalse();
+
+    // Replaced atomically, as done by most deployment tools. The length changes, the modification
+    // time may not with a coarse file system clock.
+    File newFile = folder.newFile("sampling.properties.new");
+    Files.write(newFile.toPath(), "default=1\n".getBytes(UTF_8));
+    Files.move(
+        newFile.toPath(),
+        file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!isSampled("op", Span.Kind.INTERNAL) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(isSampled("op", Span.Kind.INTERNAL)).isTrue();
+
+    // A deleted file keeps the last rules.
+    assertThat(file.delete()).isTrue();
+    Thread.sleep(100);
+    assertThat(isSampled("op", Span.Kind.INTERNAL)).isTrue();
+  }
+
+  @Test
+  public void setPollInterval_Negative() {
+    thrown.expect(IllegalArgumentException.class);
+    ReloadableFileSampler.newBuilder(file).setPollInterval(-1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void getDescription() throws IOException {
+    sampler = ReloadableFileSampler.newBuilder(file).setPollInterval(0, TimeUnit.SECONDS).build();
+    assertThat(sampler.getDescription()).isEqualTo("ReloadableFileSampler{" + file + "}");
+  }
+
+  private void writeRules(String... lines) throws IOException {
+    StringBuilder content = new StringBuilder();
+    for (String line : lines) {
+      content.append(line).append('\n');
+    }
+    Files.write(file.toPath(), content.toString().getBytes(UTF_8));
+  }
+
+  private boolean isSampled(String name, Span.Kind kind) {
+    return sampler
+        .shouldSample(
+            null,
+            idsGenerator.generateTraceId(),
+            idsGenerator.generateSpanId(),
+            name,
+            kind,
+            Collections.<String, AttributeValue>emptyMap(),
+            Collections.<Link>emptyList())
+        .isSampled();
+  }
+}
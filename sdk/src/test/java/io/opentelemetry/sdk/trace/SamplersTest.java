@@ -21,6 +21,7 @@ import static io.opentelemetry.common.AttributeValue.doubleAttributeValue;
 
 import com.google.common.truth.Truth;
 import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.internal.TestClock;
 import io.opentelemetry.sdk.trace.Sampler.Decision;
 import io.opentelemetry.sdk.trace.data.SpanData.Link;
 import io.opentelemetry.trace.Span;
@@ -351,4 +352,132 @@ public class SamplersTest {
     assertThat(decision1.getAttributes())
         .containsExactly(Samplers.SAMPLING_PROBABILITY.key(), doubleAttributeValue(0.0001));
   }
+
+  @Test
+  public void rateLimitedSampler_LimitsNewTraces() {
+    TestClock clock = TestClock.create();
+    Sampler sampler = new RateLimitedSampler(2, clock);
+    assertThat(sampleNewTrace(sampler)).isTrue();
+    assertThat(sampleNewTrace(sampler)).isTrue();
+    assertThat(sampleNewTrace(sampler)).isFalse();
+
+    clock.advanceMillis(500);
+    assertThat(sampleNewTrace(sampler)).isTrue();
+    assertThat(sampleNewTrace(sampler)).isFalse();
+  }
+
+  @Test
+  public void rateLimitedSampler_ChildSpansFollowParent() {
+    TestClock clock = TestClock.create();
+    Sampler sampler = new RateLimitedSampler(1, clock);
+    assertThat(sampleNewTrace(sampler)).isTrue();
+    // No credit left, but the children of a sampled parent are sampled.
+    assertThat(sampleChild(sampler, sampledSpanContext)).isTrue();
+    assertThat(sampleChild(sampler, notSampledSpanContext)).isFalse();
+    assertThat(
+            sampler
+                .shouldSample(
+                    null,
+                    traceId,
+                    spanId,
+                    SPAN_NAME,
+                    SPAN_KIND,
+                    Collections.<String, AttributeValue>emptyMap(),
+                    Collections.singletonList(sampledParentLink))
+                .isSampled())
+        .isTrue();
+  }
+
+  @Test
+  public void rateLimitedSampler_NonPositiveRate() {
+    thrown.expect(IllegalArgumentException.class);
+    Samplers.rateLimited(0);
+  }
+
+  @Test
+  public void rateLimitedSampler_GetDescription() {
+    assertThat(Samplers.rateLimited(10).getDescription()).isEqualTo("RateLimitedSampler{10.00}");
+  }
+
+  @Test
+  public void adaptiveSampler_ConvergesToTarget() {
+    TestClock clock = TestClock.create();
+    AdaptiveSampler sampler = new AdaptiveSampler(100, clock);
+    // 1000 new traces every second, with one child span each.
+    int sampledSpans = 0;
+    for (int second = 0; second < 5; second++) {
+      sampledSpans = 0;
+      for (int i = 0; i < 1000; i++) {
+        clock.advanceMillis(1);
+        Decision decision = sampleNewTraceDecision(sampler);
+        if (decision.isSampled()) {
+          sampledSpans += 2;
+          assertThat(sampleChild(sampler, sampledSpanContext)).isTrue();
+        }
+      }
+    }
+    // 1000 traces of 2 spans per second, for a target of 100 spans per second.
+    assertThat(sampler.getProbability()).isWithin(0.02).of(0.05);
+    assertThat(sampledSpans).isAtLeast(50);
+    assertThat(sampledSpans).isAtMost(150);
+  }
+
+  @Test
+  public void adaptiveSampler_SpikeIsCapped() {
+    TestClock clock = TestClock.create();
+    AdaptiveSampler sampler = new AdaptiveSampler(10, clock);
+    // Low traffic, all the traces are sampled.
+    for (int i = 0; i < 5; i++) {
+      clock.advanceMillis(200);
+      assertThat(sampleNewTrace(sampler)).isTrue();
+    }
+    assertThat(sampler.getProbability()).isEqualTo(1.0);
+    // A spike within the same second is capped by the token bucket.
+    int sampled = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (sampleNewTrace(sampler)) {
+        sampled++;
+      }
+    }
+    assertThat(sampled).isAtMost(10);
+  }
+
+  @Test
+  public void adaptiveSampler_NonPositiveTarget() {
+    thrown.expect(IllegalArgumentException.class);
+    Samplers.adaptive(-1);
+  }
+
+  @Test
+  public void adaptiveSampler_GetDescription() {
+    assertThat(Samplers.adaptive(10).getDescription()).isEqualTo("AdaptiveSampler{10.00}");
+  }
+
+  private boolean sampleNewTrace(Sampler sampler) {
+    return sampleNewTraceDecision(sampler).isSampled();
+  }
+
+  private Decision sampleNewTraceDecision(Sampler sampler) {
+    return sampler.shouldSample(
+        null,
+        idsGenerator.generateTraceId(),
+        idsGenerator.generateSpanId(),
+        SPAN_NAME,
+        SPAN_KIND,
+        Collections.<String, AttributeValue>emptyMap(),
+        Collections.<io.opentelemetry.trace.Link>emptyList());
+  }
+
+  private boolean sampleChild(Sampler sampler, SpanContext parentContext) {
+    return sampler
+        .shouldSample(
+            parentContext,
+            traceId,
+            idsGenerator.generateSpanId(),
+            SPAN_NAME,
+            SPAN_KIND,
+            Collections.<String, AttributeValue>emptyMap(),
+            Collections.<io.opentelemetry.trace.Link>emptyList())
+        .isSampled();
+  }
 }
@@ -30,7 +30,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nullable;
@@ -175,6 +178,100 @@ public class BatchSpanProcessorTest {
     assertThat(exported.size()).isEqualTo(100);
   }
 
+  @Test
+  public void lockFreeQueue_ExportMoreSpansThanTheBufferSize() {
+    WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(6);
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(waitingSpanExporter)
+            .setMaxQueueSize(6)
+            .setMaxExportBatchSize(2)
+            .setScheduleDelayMillis(MAX_SCHEDULE_DELAY_MILLIS)
+            .setLockFreeQueue(true)
+            .build();
+
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    List<SpanData> spansToExport = new ArrayList<>(6);
+    for (int i = 0; i < 6; i++) {
+      spansToExport.add(createSampledEndedSpan(SPAN_NAME_1).toSpanData());
+    }
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).containsExactlyElementsIn(spansToExport).inOrder();
+  }
+
+  @Test
+  public void lockFreeQueue_ForceExport() {
+    WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(1, 1);
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(waitingSpanExporter)
+            .setMaxQueueSize(10_000)
+            .setMaxExportBatchSize(2_000)
+            .setScheduleDelayMillis(10_000) // 10s
+            .setLockFreeQueue(true)
+            .build();
+
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+    for (int i = 0; i < 100; i++) {
+      createSampledEndedSpan("notExported");
+    }
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).isNotNull();
+    assertThat(exported.size()).isEqualTo(0);
+    batchSpanProcessor.forceFlush();
+    exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).isNotNull();
+    assertThat(exported.size()).isEqualTo(100);
+  }
+
+  @Test
+  public void lockFreeQueue_ExportMoreSpansThanTheMaximumLimit() {
+    final int maxQueuedSpans = 8;
+    WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(maxQueuedSpans);
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(
+                MultiSpanExporter.create(Arrays.asList(blockingSpanExporter, waitingSpanExporter)))
+            .setScheduleDelayMillis(MAX_SCHEDULE_DELAY_MILLIS)
+            .setMaxQueueSize(maxQueuedSpans)
+            .setMaxExportBatchSize(maxQueuedSpans / 2)
+            .setLockFreeQueue(true)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    List<SpanData> spansToExport = new ArrayList<>(maxQueuedSpans + 1);
+    spansToExport.add(createSampledEndedSpan("blocking_span").toSpanData());
+    blockingSpanExporter.waitUntilIsBlocked();
+
+    for (int i = 0; i < maxQueuedSpans; i++) {
+      spansToExport.add(createSampledEndedSpan("span_1_" + i).toSpanData());
+    }
+    // The queue is full, these spans are dropped.
+    for (int i = 0; i < 7; i++) {
+      createSampledEndedSpan("span_2_" + i);
+    }
+    blockingSpanExporter.unblock();
+
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).isNotNull();
+    assertThat(exported).containsExactlyElementsIn(spansToExport);
+  }
+
+  @Test(timeout = 10000L)
+  public void lockFreeQueue_ShutdownFlushes() {
+    WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(1);
+    tracerSdkFactory.addSpanProcessor(
+        BatchSpanProcessor.newBuilder(waitingSpanExporter)
+            .setScheduleDelayMillis(0)
+            .setLockFreeQueue(true)
+            .build());
+
+    ReadableSpan span2 = createSampledEndedSpan(SPAN_NAME_2);
+    tracerSdkFactory.shutdown();
+
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).containsExactly(span2.toSpanData());
+    assertThat(waitingSpanExporter.shutDownCalled.get()).isTrue();
+  }
+
   @Test
   public void exportSpansToMultipleServices() {
     WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(2);
@@ -314,6 +411,175 @@ public class BatchSpanProcessorTest {
     interruptMarker.await();
   }
 
+  @Test(timeout = 10000)
+  public void concurrentExports_ExportWhileBatchInFlight() {
+    WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(1);
+    final CountDownLatch firstExportStarted = new CountDownLatch(1);
+    final CountDownLatch releaseFirstExport = new CountDownLatch(1);
+    SpanExporter blockingFirstExporter =
+        new WaitingSpanExporter(1) {
+          private final AtomicBoolean first = new AtomicBoolean(true);
+
+          @Override
+          public ResultCode export(Collection<SpanData> spans) {
+            if (first.getAndSet(false)) {
+              firstExportStarted.countDown();
+              try {
+                releaseFirstExport.await();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            }
+            return ResultCode.SUCCESS;
+          }
+        };
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(
+                MultiSpanExporter.create(Arrays.asList(blockingFirstExporter, waitingSpanExporter)))
+            .setScheduleDelayMillis(10)
+            .setMaxConcurrentExports(2)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    ReadableSpan span1 = createSampledEndedSpan(SPAN_NAME_1);
+    try {
+      firstExportStarted.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    // The first batch is still in flight, the second one is exported anyway.
+    ReadableSpan span2 = createSampledEndedSpan(SPAN_NAME_2);
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).containsExactly(span2.toSpanData());
+    waitingSpanExporter.reset();
+
+    releaseFirstExport.countDown();
+    exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).containsExactly(span1.toSpanData());
+  }
+
+  @Test(timeout = 5000)
+  public void concurrentExports_ExporterTimesOut() throws Exception {
+    final CountDownLatch interruptMarker = new CountDownLatch(2);
+    WaitingSpanExporter waitingSpanExporter =
+        new WaitingSpanExporter(2) {
+          @Override
+          public ResultCode export(Collection<SpanData> spans) {
+            ResultCode result = super.export(spans);
+            try {
+              // sleep longer than the configured timout of 100ms
+              Thread.sleep(1000);
+            } catch (InterruptedException e) {
+              interruptMarker.countDown();
+            }
+            return result;
+          }
+        };
+
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(waitingSpanExporter)
+            .setExporterTimeoutMillis(100)
+            .setScheduleDelayMillis(1)
+            .setMaxExportBatchSize(1)
+            .setMaxConcurrentExports(2)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    createSampledEndedSpan(SPAN_NAME_1);
+    createSampledEndedSpan(SPAN_NAME_2);
+    List<SpanData> exported = waitingSpanExporter.waitForExport();
+    assertThat(exported).hasSize(2);
+
+    // Both exports are interrupted independently when they time out.
+    interruptMarker.await();
+  }
+
+  @Test
+  public void forceFlush_WaitsForExportsInFlight() {
+    final AtomicBoolean exportFinished = new AtomicBoolean();
+    SpanExporter slowExporter =
+        new WaitingSpanExporter(1) {
+          @Override
+          public ResultCode export(Collection<SpanData> spans) {
+            try {
+              Thread.sleep(200);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+            exportFinished.set(true);
+            return ResultCode.SUCCESS;
+          }
+        };
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(slowExporter)
+            .setScheduleDelayMillis(10_000)
+            .setMaxConcurrentExports(4)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    createSampledEndedSpan(SPAN_NAME_1);
+    batchSpanProcessor.forceFlush();
+    assertThat(exportFinished.get()).isTrue();
+  }
+
+  @Test(timeout = 10000)
+  public void asyncExporter_MaxConcurrentExportsInFlight() throws InterruptedException {
+    PendingAsyncSpanExporter asyncSpanExporter = new PendingAsyncSpanExporter();
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(asyncSpanExporter)
+            .setScheduleDelayMillis(1)
+            .setMaxExportBatchSize(1)
+            .setMaxConcurrentExports(2)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    createSampledEndedSpan(SPAN_NAME_1);
+    createSampledEndedSpan(SPAN_NAME_2);
+    createSampledEndedSpan(SPAN_NAME_1);
+    AsyncSpanExporter.ExportCallback first = asyncSpanExporter.pendingExports.take();
+    AsyncSpanExporter.ExportCallback second = asyncSpanExporter.pendingExports.take();
+    // Two exports are in flight, the third one waits for one of them to complete.
+    assertThat(asyncSpanExporter.pendingExports.poll(100, TimeUnit.MILLISECONDS)).isNull();
+
+    first.onComplete(SpanExporter.ResultCode.SUCCESS);
+    AsyncSpanExporter.ExportCallback third = asyncSpanExporter.pendingExports.take();
+    second.onComplete(SpanExporter.ResultCode.FAILURE);
+    third.onComplete(SpanExporter.ResultCode.SUCCESS);
+    batchSpanProcessor.forceFlush();
+    assertThat(asyncSpanExporter.exportedSpans).hasSize(3);
+    assertThat(asyncSpanExporter.exportCalled.get()).isFalse();
+  }
+
+  @Test(timeout = 10000)
+  public void asyncExporter_TimedOutExportKeepsItsSlot() throws InterruptedException {
+    PendingAsyncSpanExporter asyncSpanExporter = new PendingAsyncSpanExporter();
+    BatchSpanProcessor batchSpanProcessor =
+        BatchSpanProcessor.newBuilder(asyncSpanExporter)
+            .setScheduleDelayMillis(1)
+            .setMaxExportBatchSize(1)
+            .setMaxConcurrentExports(1)
+            .setExporterTimeoutMillis(10)
+            .build();
+    tracerSdkFactory.addSpanProcessor(batchSpanProcessor);
+
+    createSampledEndedSpan(SPAN_NAME_1);
+    createSampledEndedSpan(SPAN_NAME_2);
+    AsyncSpanExporter.ExportCallback first = asyncSpanExporter.pendingExports.take();
+    // The first export timed out but is still in flight, the second one waits for it.
+    assertThat(asyncSpanExporter.pendingExports.poll(200, TimeUnit.MILLISECONDS)).isNull();
+
+    first.onComplete(SpanExporter.ResultCode.FAILURE);
+    AsyncSpanExporter.ExportCallback second = asyncSpanExporter.pendingExports.take();
+    second.onComplete(SpanExporter.ResultCode.SUCCESS);
+    assertThat(asyncSpanExporter.exportedSpans).hasSize(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setMaxConcurrentExports_NonPositive() {
+    BatchSpanProcessor.newBuilder(new WaitingSpanExporter(0)).setMaxConcurrentExports(0);
+  }
+
   @Test
   public void exportNotSampledSpans() {
     WaitingSpanExporter waitingSpanExporter = new WaitingSpanExporter(1);
@@ -447,6 +713,35 @@ public class BatchSpanProcessorTest {
     }
   }
 
+  // Keeps the callbacks of the asynchronous exports, the test completes them.
+  private static final class PendingAsyncSpanExporter implements AsyncSpanExporter {
+    private final BlockingQueue<ExportCallback> pendingExports = new LinkedBlockingQueue<>();
+    private final List<SpanData> exportedSpans = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean exportCalled = new AtomicBoolean();
+
+    @Override
+    public void exportAsync(Collection<SpanData> spans, ExportCallback callback) {
+      exportedSpans.addAll(spans);
+      pendingExports.add(callback);
+    }
+
+    @Override
+    public ResultCode export(Collection<SpanData> spans) {
+      exportCalled.set(true);
+      return ResultCode.FAILURE;
+    }
+
+    @Override
+    public ResultCode flush() {
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public void shutdown() {
+      // Do nothing;
+    }
+  }
+
   static class WaitingSpanExporter implements SpanExporter {
 
     private final List<SpanData> spanDataList = new ArrayList<>();
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link MpscArrayQueue}. */
+@RunWith(JUnit4.class)
+public class MpscArrayQueueTest {
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void offerAndPoll_Fifo() {
+    MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(4);
+    assertThat(queue.isEmpty()).isTrue();
+    assertThat(queue.offer(1)).isTrue();
+    assertThat(queue.offer(2)).isTrue();
+    assertThat(queue.size()).isEqualTo(2);
+    assertThat(queue.poll()).isEqualTo(1);
+    assertThat(queue.poll()).isEqualTo(2);
+    assertThat(queue.poll()).isNull();
+    assertThat(queue.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void offer_RespectsCapacityNotPowerOfTwo() {
+    MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(3);
+    assertThat(queue.capacity()).isEqualTo(3);
+    assertThat(queue.offer(1)).isTrue();
+    assertThat(queue.offer(2)).isTrue();
+    assertThat(queue.offer(3)).isTrue();
+    assertThat(queue.offer(4)).isFalse();
+    assertThat(queue.size()).isEqualTo(3);
+    assertThat(queue.poll()).isEqualTo(1);
+    assertThat(queue.offer(4)).isTrue();
+    assertThat(queue.offer(5)).isFalse();
+  }
+
+  @Test
+  public void drainTo_RespectsMaxElements() {
+    MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(8);
+    for (int i = 0; i < 5; i++) {
+      queue.offer(i);
+    }
+    List<Integer> drained = new ArrayList<>();
+    assertThat(queue.drainTo(drained, 3)).isEqualTo(3);
+    assertThat(drained).containsExactly(0, 1, 2).inOrder();
+    assertThat(queue.drainTo(drained, 10)).isEqualTo(2);
+    assertThat(drained).containsExactly(0, 1, 2, 3, 4).inOrder();
+    assertThat(queue.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void wrapsAround() {
+    MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(2);
+    for (int i = 0; i < 100; i++) {
+      assertThat(queue.offer(i)).isTrue();
+      assertThat(queue.poll()).isEqualTo(i);
+    }
+  }
+
+  @Test
+  public void offer_NullElement() {
+    MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(2);
+    thrown.expect(NullPointerException.class);
+    queue.offer(null);
+  }
+
+  @Test
+  public void constructor_NonPositiveCapacity() {
+    thrown.expect(IllegalArgumentException.class);
+    new MpscArrayQueue<Integer>(0);
+  }
+
+  @Test(timeout = 10000)
+  public void multipleProducers_NoLostElements() throws InterruptedException {
+    final int producers = 4;
+    final int elementsPerProducer = 10_000;
+    final MpscArrayQueue<Integer> queue = new MpscArrayQueue<>(64);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final AtomicInteger offered = new AtomicInteger();
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      Thread thread =
+          new Thread(
+              new Runnable() {
+                @Override
+                public void run() {
+                  try {
+                    startLatch.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                  }
+                  for (int i = 0; i < elementsPerProducer; i++) {
+                    while (!queue.offer(i)) {
+                      Thread.yield();
+                    }
+                    offered.incrementAndGet();
+                  }
+                }
+              });
+      thread.start();
+      threads.add(thread);
+    }
+    startLatch.countDown();
+    long sum = 0;
+    int received = 0;
+    while (received < producers * elementsPerProducer) {
+      Integer element = queue.poll();
+      if (element == null) {
+        Thread.yield();
+        continue;
+      }
+      sum += element;
+      received++;
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertThat(offered.get()).isEqualTo(producers * elementsPerProducer);
+    assertThat(sum)
+        .isEqualTo((long) producers * elementsPerProducer * (elementsPerProducer - 1) / 2);
+    assertThat(queue.isEmpty()).isTrue();
+  }
+}
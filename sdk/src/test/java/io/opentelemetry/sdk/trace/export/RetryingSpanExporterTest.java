@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.sdk.trace.TestUtils;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter.ResultCode;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/** Unit tests for {@link RetryingSpanExporter}. */
+@RunWith(JUnit4.class)
+public class RetryingSpanExporterTest {
+  private static final List<SpanData> SPAN_LIST =
+      Collections.singletonList(TestUtils.makeBasicSpan());
+  private static final List<SpanData> OTHER_SPAN_LIST =
+      Arrays.asList(TestUtils.makeBasicSpan(), TestUtils.makeBasicSpan());
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+  @Mock private SpanExporter spanExporter;
+  private RetryingSpanExporter retryingSpanExporter;
+
+  @Before
+  public void setUp() {
+    MockitoAnnotations.initMocks(this);
+  }
+
+  @After
+  public void tearDown() {
+    if (retryingSpanExporter != null) {
+      retryingSpanExporter.shutdown();
+    }
+  }
+
+  @Test
+  public void export_Success() {
+    retryingSpanExporter = RetryingSpanExporter.newBuilder(spanExporter).build();
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.SUCCESS);
+    assertThat(retryingSpanExporter.export(SPAN_LIST)).isEqualTo(ResultCode.SUCCESS);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    verify(spanExporter, times(1)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_RetriedUntilSuccess() throws InterruptedException {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(1).build();
+    when(spanExporter.export(SPAN_LIST))
+        .thenReturn(ResultCode.FAILURE_RETRYABLE, ResultCode.FAILURE_RETRYABLE, ResultCode.SUCCESS);
+    assertThat(retryingSpanExporter.export(SPAN_LIST)).isEqualTo(ResultCode.FAILURE_RETRYABLE);
+    verify(spanExporter, timeout(5000).times(3)).export(SPAN_LIST);
+    awaitEmptyRetryBuffer();
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(3)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_FailureNotRetried() {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(1).build();
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.FAILURE);
+    assertThat(retryingSpanExporter.export(SPAN_LIST)).isEqualTo(ResultCode.FAILURE);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(1)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_ExceptionNotRetried() {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(1).build();
+    when(spanExporter.export(SPAN_LIST)).thenThrow(new IllegalStateException("No export for you."));
+    assertThat(retryingSpanExporter.export(SPAN_LIST)).isEqualTo(ResultCode.FAILURE);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(1)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_RetryStopsAtFailure() throws InterruptedException {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(1).build();
+    when(spanExporter.export(SPAN_LIST))
+        .thenReturn(ResultCode.FAILURE_RETRYABLE, ResultCode.FAILURE, ResultCode.SUCCESS);
+    retryingSpanExporter.export(SPAN_LIST);
+    verify(spanExporter, timeout(5000).times(2)).export(SPAN_LIST);
+    awaitEmptyRetryBuffer();
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(2)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_SingleAttempt() {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter)
+            .setMaxAttempts(1)
+            .setInitialBackoffMillis(1)
+            .build();
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.FAILURE_RETRYABLE);
+    assertThat(retryingSpanExporter.export(SPAN_LIST)).isEqualTo(ResultCode.FAILURE_RETRYABLE);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(1)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_MaxAttempts() throws InterruptedException {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter)
+            .setMaxAttempts(3)
+            .setInitialBackoffMillis(1)
+            .build();
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.FAILURE_RETRYABLE);
+    retryingSpanExporter.export(SPAN_LIST);
+    verify(spanExporter, timeout(5000).times(3)).export(SPAN_LIST);
+    // No more attempts once the batch is dropped.
+    awaitEmptyRetryBuffer();
+    retryingSpanExporter.flush();
+    verify(spanExporter, times(3)).export(SPAN_LIST);
+  }
+
+  @Test
+  public void export_RetryBufferFull() {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter)
+            .setInitialBackoffMillis(60_000)
+            .setMaxBufferedSpans(1)
+            .build();
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.FAILURE_RETRYABLE);
+    when(spanExporter.export(OTHER_SPAN_LIST)).thenReturn(ResultCode.FAILURE_RETRYABLE);
+    retryingSpanExporter.export(SPAN_LIST);
+    retryingSpanExporter.export(OTHER_SPAN_LIST);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(1);
+
+    // Only the first batch is retried.
+    when(spanExporter.export(SPAN_LIST)).thenReturn(ResultCode.SUCCESS);
+    retryingSpanExporter.flush();
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    verify(spanExporter, times(2)).export(SPAN_LIST);
+    verify(spanExporter, times(1)).export(OTHER_SPAN_LIST);
+  }
+
+  @Test
+  public void flush_RetriesBeforeBackoff() {
+    retryingSpanExporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(60_000).build();
+    when(spanExporter.export(SPAN_LIST))
+        .thenReturn(ResultCode.FAILURE_RETRYABLE, ResultCode.SUCCESS);
+    when(spanExporter.flush()).thenReturn(ResultCode.SUCCESS);
+    retryingSpanExporter.export(SPAN_LIST);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(1);
+    assertThat(retryingSpanExporter.flush()).isEqualTo(ResultCode.SUCCESS);
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+    verify(spanExporter, times(2)).export(SPAN_LIST);
+    verify(spanExporter).flush();
+  }
+
+  @Test
+  public void shutdown_ExportsRetryBuffer() {
+    RetryingSpanExporter exporter =
+        RetryingSpanExporter.newBuilder(spanExporter).setInitialBackoffMillis(60_000).build();
+    when(spanExporter.export(SPAN_LIST))
+        .thenReturn(ResultCode.FAILURE_RETRYABLE, ResultCode.SUCCESS);
+    exporter.export(SPAN_LIST);
+    exporter.shutdown();
+    assertThat(exporter.getBufferedSpans()).isEqualTo(0);
+    verify(spanExporter, times(2)).export(SPAN_LIST);
+    verify(spanExporter).shutdown();
+  }
+
+  @Test
+  public void shutdown_ExceptionInDelegate() {
+    RetryingSpanExporter exporter = RetryingSpanExporter.newBuilder(spanExporter).build();
+    doThrow(new IllegalStateException("No shutdown for you.")).when(spanExporter).shutdown();
+    thrown.expect(IllegalStateException.class);
+    exporter.shutdown();
+  }
+
+  @Test
+  public void setMaxAttempts_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    RetryingSpanExporter.newBuilder(spanExporter).setMaxAttempts(0);
+  }
+
+  @Test
+  public void setBackoffMultiplier_LessThanOne() {
+    thrown.expect(IllegalArgumentException.class);
+    RetryingSpanExporter.newBuilder(spanExporter).setBackoffMultiplier(0.5);
+  }
+
+  @Test
+  public void setMaxBufferedSpans_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    RetryingSpanExporter.newBuilder(spanExporter).setMaxBufferedSpans(0);
+  }
+
+  @Test
+  public void newBuilder_NullExporter() {
+    thrown.expect(NullPointerException.class);
+    RetryingSpanExporter.newBuilder(null);
+  }
+
+  // The retry thread updates the buffer after the last call to the delegate returned.
+  private void awaitEmptyRetryBuffer() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (retryingSpanExporter.getBufferedSpans() != 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertThat(retryingSpanExporter.getBufferedSpans()).isEqualTo(0);
+  }
+}
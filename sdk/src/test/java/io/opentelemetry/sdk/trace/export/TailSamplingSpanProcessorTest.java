@@ -0,0 +1,368 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.trace.export;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.internal.TestClock;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.TracerSdkProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.trace.EndSpanOptions;
+import io.opentelemetry.trace.Span;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.Tracer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link TailSamplingSpanProcessor}. */
+@RunWith(JUnit4.class)
+public class TailSamplingSpanProcessorTest {
+  // The background thread does not interfere with the tests, which run it explicitly.
+  private static final long SCHEDULE_DELAY_MILLIS = TimeUnit.HOURS.toMillis(1);
+  private static final long DECISION_WAIT_MILLIS = 1000;
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final TracerSdkProvider tracerSdkProvider = TracerSdkProvider.builder().build();
+  private final Tracer tracer = tracerSdkProvider.get("TailSamplingSpanProcessorTest");
+  private final CollectingSpanExporter spanExporter = new CollectingSpanExporter();
+  private final TestClock clock = TestClock.create();
+  private TailSamplingSpanProcessor processor;
+
+  @After
+  public void tearDown() {
+    tracerSdkProvider.shutdown();
+  }
+
+  @Test
+  public void readProperties() {
+    Properties properties = new Properties();
+    properties.setProperty("otel.tsp.decision.wait", "500");
+    properties.setProperty("otel.tsp.max.buffered.spans", "1024");
+    properties.setProperty("otel.tsp.latency.threshold", "100");
+    addProcessor(newBuilder().setProbability(0.0).readProperties(properties));
+    Span slow = tracer.spanBuilder("slow").setStartTimestamp(1_000_000_000).startSpan();
+    slow.end(EndSpanOptions.builder().setEndTimestamp(1_100_000_000).build());
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("slow");
+  }
+
+  @Test
+  public void errorTrace_Sampled() {
+    addProcessor(newBuilder().setProbability(0.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    Span child = tracer.spanBuilder("child").setParent(root).startSpan();
+    child.setStatus(Status.UNKNOWN);
+    child.end();
+    root.end();
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("child", "root").inOrder();
+  }
+
+  @Test
+  public void errorTrace_NotSampledIfDisabled() {
+    addProcessor(newBuilder().setProbability(0.0).setSampleErrors(false));
+    Span root = tracer.spanBuilder("root").startSpan();
+    root.setStatus(Status.UNKNOWN);
+    root.end();
+
+    processCompletedTraces();
+    assertThat(spanExporter.getExported()).isEmpty();
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+  }
+
+  @Test
+  public void okTrace_NotSampled() {
+    addProcessor(newBuilder().setProbability(0.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    tracer.spanBuilder("child").setParent(root).startSpan().end();
+    root.end();
+
+    processCompletedTraces();
+    assertThat(spanExporter.getExported()).isEmpty();
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+  }
+
+  @Test
+  public void lateSpanOfDroppedTrace_NotCopied() {
+    addProcessor(newBuilder().setProbability(0.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    root.end();
+    processCompletedTraces();
+
+    ReadableSpan lateSpan = mock(ReadableSpan.class);
+    when(lateSpan.getSpanContext()).thenReturn(root.getContext());
+    processor.onEnd(lateSpan);
+    verify(lateSpan, never()).toSpanData();
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+  }
+
+  @Test
+  public void okTrace_SampledWithProbability() {
+    addProcessor(newBuilder().setProbability(1.0));
+    tracer.spanBuilder("root").startSpan().end();
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("root");
+  }
+
+  @Test
+  public void slowTrace_Sampled() {
+    addProcessor(newBuilder().setProbability(0.0).setLatencyThresholdMillis(100));
+    Span fast = tracer.spanBuilder("fast").setStartTimestamp(1_000_000_000).startSpan();
+    fast.end(EndSpanOptions.builder().setEndTimestamp(1_050_000_000).build());
+    Span slow = tracer.spanBuilder("slow").setStartTimestamp(1_000_000_000).startSpan();
+    slow.end(EndSpanOptions.builder().setEndTimestamp(1_100_000_000).build());
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("slow");
+  }
+
+  @Test
+  public void attributePolicy_Sampled() {
+    addProcessor(
+        newBuilder()
+            .setProbability(0.0)
+            .addAttributePolicy("debug", AttributeValue.booleanAttributeValue(true)));
+    Span root = tracer.spanBuilder("root").startSpan();
+    Span child = tracer.spanBuilder("child").setParent(root).startSpan();
+    child.setAttribute("debug", true);
+    child.end();
+    root.end();
+    Span other = tracer.spanBuilder("other").startSpan();
+    other.setAttribute("debug", false);
+    other.end();
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("child", "root").inOrder();
+  }
+
+  @Test
+  public void incompleteTrace_DecidedAfterDecisionWait() {
+    addProcessor(newBuilder().setProbability(1.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    tracer.spanBuilder("child").setParent(root).startSpan().end();
+
+    processCompletedTraces();
+    assertThat(spanExporter.getExported()).isEmpty();
+    assertThat(processor.getBufferedSpans()).isEqualTo(1);
+
+    clock.advanceMillis(DECISION_WAIT_MILLIS);
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("child");
+    root.end();
+  }
+
+  @Test
+  public void lateSpan_FollowsDecision() {
+    addProcessor(newBuilder().setProbability(0.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    Span lateChild = tracer.spanBuilder("lateChild").setParent(root).startSpan();
+    root.setStatus(Status.UNKNOWN);
+    root.end();
+    Span otherRoot = tracer.spanBuilder("otherRoot").startSpan();
+    Span otherLateChild = tracer.spanBuilder("otherLateChild").setParent(otherRoot).startSpan();
+    otherRoot.end();
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("root");
+
+    lateChild.end();
+    otherLateChild.end();
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("root", "lateChild").inOrder();
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+  }
+
+  @Test
+  public void bufferIsBounded() {
+    int maxBufferedSpans = 64;
+    addProcessor(newBuilder().setProbability(0.0).setMaxBufferedSpans(maxBufferedSpans));
+    Span root = tracer.spanBuilder("root").startSpan();
+    for (int i = 0; i < 10 * maxBufferedSpans; i++) {
+      // Children of different traces, none of them completes.
+      Span parent = tracer.spanBuilder("parent").setNoParent().startSpan();
+      tracer.spanBuilder("child").setParent(parent).startSpan().end();
+      assertThat(processor.getBufferedSpans()).isAtMost(maxBufferedSpans);
+    }
+    root.end();
+  }
+
+  @Test
+  public void bufferIsBounded_FewerSpansThanShards() {
+    int maxBufferedSpans = 2;
+    addProcessor(newBuilder().setProbability(0.0).setMaxBufferedSpans(maxBufferedSpans));
+    Span root = tracer.spanBuilder("root").startSpan();
+    for (int i = 0; i < 100; i++) {
+      Span parent = tracer.spanBuilder("parent").setNoParent().startSpan();
+      tracer.spanBuilder("child").setParent(parent).startSpan().end();
+      assertThat(processor.getBufferedSpans()).isAtMost(maxBufferedSpans);
+    }
+    root.end();
+  }
+
+  @Test
+  public void bufferIsShared_OneTraceCanUseWholeBuffer() {
+    int maxBufferedSpans = 64;
+    addProcessor(newBuilder().setProbability(1.0).setMaxBufferedSpans(maxBufferedSpans));
+    Span root = tracer.spanBuilder("root").startSpan();
+    for (int i = 0; i < maxBufferedSpans - 1; i++) {
+      tracer.spanBuilder("child").setParent(root).startSpan().end();
+    }
+    root.end();
+    assertThat(processor.getBufferedSpans()).isEqualTo(maxBufferedSpans);
+
+    processCompletedTraces();
+    assertThat(spanExporter.getExported()).hasSize(maxBufferedSpans);
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+  }
+
+  @Test
+  public void fullOfKeptSpans_RejectsSpans() {
+    addProcessor(newBuilder().setProbability(1.0).setMaxBufferedSpans(2));
+    tracer.spanBuilder("root1").startSpan().end();
+    tracer.spanBuilder("root2").startSpan().end();
+    // Decides the two traces early, both kept and waiting to be exported.
+    tracer.spanBuilder("root3").startSpan().end();
+    assertThat(processor.getBufferedSpans()).isEqualTo(2);
+
+    processCompletedTraces();
+    assertThat(getExportedNames()).containsExactly("root1", "root2");
+  }
+
+  @Test
+  public void forceFlush_DecidesIncompleteTraces() {
+    addProcessor(newBuilder().setProbability(1.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    tracer.spanBuilder("child").setParent(root).startSpan().end();
+
+    processor.forceFlush();
+    assertThat(getExportedNames()).containsExactly("child");
+    assertThat(processor.getBufferedSpans()).isEqualTo(0);
+    root.end();
+  }
+
+  @Test
+  public void exportsInBatches() {
+    addProcessor(newBuilder().setProbability(1.0).setMaxExportBatchSize(2));
+    for (int i = 0; i < 5; i++) {
+      tracer.spanBuilder("root").startSpan().end();
+    }
+
+    processCompletedTraces();
+    assertThat(spanExporter.getBatchSizes()).containsExactly(2, 2, 1).inOrder();
+  }
+
+  @Test
+  public void shutdown_ExportsAndShutsDownExporter() {
+    addProcessor(newBuilder().setProbability(1.0));
+    Span root = tracer.spanBuilder("root").startSpan();
+    tracer.spanBuilder("child").setParent(root).startSpan().end();
+
+    processor.shutdown();
+    assertThat(getExportedNames()).containsExactly("child");
+    assertThat(spanExporter.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void setProbability_OutOfRange() {
+    thrown.expect(IllegalArgumentException.class);
+    TailSamplingSpanProcessor.newBuilder(spanExporter).setProbability(1.5);
+  }
+
+  @Test
+  public void setMaxBufferedSpans_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    TailSamplingSpanProcessor.newBuilder(spanExporter).setMaxBufferedSpans(0);
+  }
+
+  private TailSamplingSpanProcessor.Builder newBuilder() {
+    return TailSamplingSpanProcessor.newBuilder(spanExporter)
+        .setClock(clock)
+        .setDecisionWaitMillis(DECISION_WAIT_MILLIS)
+        .setScheduleDelayMillis(SCHEDULE_DELAY_MILLIS);
+  }
+
+  private void addProcessor(TailSamplingSpanProcessor.Builder builder) {
+    processor = builder.build();
+    tracerSdkProvider.addSpanProcessor(processor);
+  }
+
+  private void processCompletedTraces() {
+    processor.processCompletedTraces();
+  }
+
+  private List<String> getExportedNames() {
+    List<String> names = new ArrayList<>();
+    for (SpanData span : spanExporter.getExported()) {
+      names.add(span.getName());
+    }
+    return names;
+  }
+
+  private static final class CollectingSpanExporter implements SpanExporter {
+    private final List<SpanData> exported = new ArrayList<>();
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private boolean shutdown;
+
+    @Override
+    public synchronized ResultCode export(Collection<SpanData> spans) {
+      exported.addAll(spans);
+      batchSizes.add(spans.size());
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public ResultCode flush() {
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+      shutdown = true;
+    }
+
+    synchronized List<SpanData> getExported() {
+      return new ArrayList<>(exported);
+    }
+
+    synchronized List<Integer> getBatchSizes() {
+      return new ArrayList<>(batchSizes);
+    }
+
+    synchronized boolean isShutdown() {
+      return shutdown;
+    }
+  }
+}
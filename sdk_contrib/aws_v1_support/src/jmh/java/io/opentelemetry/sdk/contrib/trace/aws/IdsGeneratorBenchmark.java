@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.aws;
+
+import io.opentelemetry.sdk.trace.IdsGenerator;
+import io.opentelemetry.sdk.trace.RandomIdsGenerator;
+import io.opentelemetry.trace.SpanId;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@link IdsGenerator} implementations. The allocation rate is reported by the gc
+ * profiler, enabled for all the benchmarks of the build.
+ */
+@State(Scope.Benchmark)
+public class IdsGeneratorBenchmark {
+
+  @Param({"random", "xray"})
+  private String generatorName;
+
+  private IdsGenerator generator;
+
+  @Setup(Level.Trial)
+  public final void setup() {
+    switch (generatorName) {
+      case "random":
+        generator = new RandomIdsGenerator();
+        break;
+      case "xray":
+        generator = new AwsXRayIdsGenerator();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown generator " + generatorName);
+    }
+  }
+
+  /** Measures the generation of the id of a child span. */
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public SpanId generateSpanId() {
+    return generator.generateSpanId();
+  }
+
+  /** Measures the generation of the ids of a root span. */
+  @Benchmark
+  @Threads(value = 1)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void generateRootIds(Blackhole blackhole) {
+    generateRoot(blackhole);
+  }
+
+  /** Measures the generation of the ids of a root span with several threads. */
+  @Benchmark
+  @Threads(value = 4)
+  @Fork(1)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 10, time = 1)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void generateRootIds_04Threads(Blackhole blackhole) {
+    generateRoot(blackhole);
+  }
+
+  private void generateRoot(Blackhole blackhole) {
+    blackhole.consume(generator.generateTraceId());
+    blackhole.consume(generator.generateSpanId());
+  }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * An append log of byte records, stored in memory-mapped segment files of a fixed size.
+ *
+ * <p>Every segment file starts with a header holding a magic number and the offset of the first
+ * record not consumed yet, followed by the records. A record is its length, the CRC32 of its
+ * payload and the payload. Records are appended to the last segment, a new segment is created when
+ * a record does not fit anymore. A segment is deleted once all its records are consumed, and the
+ * oldest segment is evicted with its records when the maximum number of segments is reached.
+ *
+ * <p>When a log is opened its segments are scanned to find the records. The scan of a segment stops
+ * at the first record with an invalid length or checksum, for example a record partially written
+ * when the host crashed. The records appended after opening the log always go to a new segment.
+ */
+@ThreadSafe
+final class SegmentLog {
+  private static final Logger logger = Logger.getLogger(SegmentLog.class.getName());
+
+  static final String SEGMENT_SUFFIX = ".spool";
+  static final int HEADER_SIZE = 16;
+  static final int RECORD_HEADER_SIZE = 8;
+
+  private static final int MAGIC = 0x4f54_5350; // "OTSP"
+  private static final int MAGIC_POSITION = 0;
+  private static final int READ_OFFSET_POSITION = 4;
+
+  private final File directory;
+  private final int segmentSize;
+  private final int maxSegments;
+
+  @GuardedBy("this")
+  private final Deque<Segment> segments = new ArrayDeque<>();
+
+  @GuardedBy("this")
+  private long nextSegmentId;
+
+  @GuardedBy("this")
+  private boolean closed;
+
+  /**
+   * Opens the log stored in the given directory, creating the directory if needed.
+   *
+   * @throws IOException if the directory or its segments cannot be read.
+   */
+  static SegmentLog open(File directory, int segmentSize, int maxSegments) throws IOException {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Cannot create the spool directory " + directory);
+    }
+    SegmentLog log = new SegmentLog(directory, segmentSize, maxSegments);
+    log.recover();
+    return log;
+  }
+
+  private SegmentLog(File directory, int segmentSize, int maxSegments) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSegments = maxSegments;
+  }
+
+  /** Returns the largest payload that fits in a segment. */
+  int getMaxRecordSize() {
+    return segmentSize - HEADER_SIZE - RECORD_HEADER_SIZE;
+  }
+
+  /**
+   * Appends a record to the log.
+   *
+   * @return the number of records evicted to make room for this one.
+   * @throws IllegalArgumentException if the record is larger than {@link #getMaxRecordSize()}.
+   * @throws IOException if a new segment cannot be created.
+   */
+  synchronized int append(byte[] payload) throws IOException {
+    if (payload.length > getMaxRecordSize()) {
+      throw new IllegalArgumentException("Record larger than a segment: " + payload.length);
+    }
+    if (closed) {
+      throw new IOException("Spool closed");
+    }
+    int evicted = 0;
+    Segment segment = segments.peekLast();
+    if (segment == null || segment.sealed || !segment.fits(payload.length)) {
+      if (segment != null) {
+        segment.sealed = true;
+      }
+      while (segments.size() >= maxSegments) {
+        evicted += evictOldest();
+      }
+      segment = createSegment();
+    }
+    segment.append(payload);
+    notifyAll();
+    return evicted;
+  }
+
+  /** Returns the oldest record not consumed yet, or {@code null} if the log is empty. */
+  @Nullable
+  synchronized Record peek() {
+    while (!closed && !segments.isEmpty()) {
+      Segment segment = segments.peekFirst();
+      if (segment.readOffset < segment.writeOffset) {
+        return segment.read();
+      }
+      if (!segment.sealed) {
+        return null;
+      }
+      // All the records of a sealed segment were consumed.
+      segments.removeFirst();
+      segment.delete();
+    }
+    return null;
+  }
+
+  /**
+   * Waits until the log has a record not consumed yet, the log is closed or the timeout elapsed.
+   */
+  synchronized void awaitRecord(long timeoutMillis) throws InterruptedException {
+    if (!closed && isEmpty()) {
+      wait(timeoutMillis);
+    }
+  }
+
+  /**
+   * Marks the given record as consumed. Does nothing if the record was evicted or already consumed.
+   */
+  synchronized void consume(Record record) {
+    Segment segment = segments.peekFirst();
+    if (segment == record.segment && segment.readOffset == record.offset) {
+      segment.consume(record.nextOffset);
+    }
+  }
+
+  /** Returns {@code true} if all the records of the log were consumed. */
+  synchronized boolean isEmpty() {
+    for (Segment segment : segments) {
+      if (segment.readOffset < segment.writeOffset) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the number of segment files of the log. */
+  synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  /** Forces the segments to the storage device. The log cannot be used anymore. */
+  synchronized void close() {
+    closed = true;
+    for (Segment segment : segments) {
+      segment.buffer.force();
+    }
+    notifyAll();
+  }
+
+  @GuardedBy("this")
+  private int evictOldest() {
+    Segment segment = segments.removeFirst();
+    int evicted = segment.countUnconsumed();
+    segment.delete();
+    logger.log(
+        Level.WARNING,
+        "Spool full, dropping segment {0} with {1} unexported records.",
+        new Object[] {segment.file.getName(), evicted});
+    return evicted;
+  }
+
+  @GuardedBy("this")
+  private Segment createSegment() throws IOException {
+    File file = new File(directory, String.format("%020d%s", nextSegmentId++, SEGMENT_SUFFIX));
+    Segment segment = new Segment(file, map(file));
+    segment.buffer.putInt(MAGIC_POSITION, MAGIC);
+    segment.buffer.putInt(READ_OFFSET_POSITION, HEADER_SIZE);
+    segments.addLast(segment);
+    return segment;
+  }
+
+  private synchronized void recover() throws IOException {
+    File[] files =
+        directory.listFiles(
+            new FilenameFilter() {
+              @Override
+              public boolean accept(File dir, String name) {
+                return name.endsWith(SEGMENT_SUFFIX);
+              }
+            });
+    if (files == null) {
+      throw new IOException("Cannot list the spool directory " + directory);
+    }
+    // The names are zero padded, so the lexicographic order is the order of creation.
+    Arrays.sort(files);
+    List<Segment> recovered = new ArrayList<>(files.length);
+    for (File file : files) {
+      String name = file.getName();
+      try {
+        nextSegmentId =
+            Math.max(
+                nextSegmentId,
+                Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())) + 1);
+      } catch (NumberFormatException e) {
+        logger.log(Level.WARNING, "Ignoring unknown spool file {0}.", name);
+        continue;
+      }
+      if (file.length() != segmentSize) {
+        logger.log(Level.WARNING, "Deleting spool segment {0} of an unexpected size.", name);
+        delete(file);
+        continue;
+      }
+      Segment segment = new Segment(file, map(file));
+      if (!segment.recover()) {
+        logger.log(Level.WARNING, "Deleting invalid spool segment {0}.", name);
+        delete(file);
+        continue;
+      }
+      recovered.add(segment);
+    }
+    for (Segment segment : recovered) {
+      segments.addLast(segment);
+    }
+    while (segments.size() > maxSegments) {
+      evictOldest();
+    }
+  }
+
+  private MappedByteBuffer map(File file) throws IOException {
+    RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+    try {
+      randomAccessFile.setLength(segmentSize);
+      // The mapping stays valid once the file is closed.
+      return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    } finally {
+      randomAccessFile.close();
+    }
+  }
+
+  private static void delete(File file) {
+    if (!file.delete()) {
+      logger.log(Level.WARNING, "Cannot delete the spool segment {0}.", file);
+    }
+  }
+
+  /** A record of the log, with its position so it can be consumed. */
+  static final class Record {
+    private final Segment segment;
+    private final int offset;
+    private final int nextOffset;
+    private final byte[] payload;
+
+    private Record(Segment segment, int offset, int nextOffset, byte[] payload) {
+      this.segment = segment;
+      this.offset = offset;
+      this.nextOffset = nextOffset;
+      this.payload = payload;
+    }
+
+    byte[] getPayload() {
+      return payload;
+    }
+  }
+
+  // The fields are guarded by the lock of the SegmentLog.
+  private static final class Segment {
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final CRC32 crc = new CRC32();
+    // Offset of the first record not consumed yet.
+    private int readOffset = HEADER_SIZE;
+    // Offset after the last record.
+    private int writeOffset = HEADER_SIZE;
+    // No record can be appended anymore.
+    private boolean sealed;
+
+    private Segment(File file, MappedByteBuffer buffer) {
+      this.file = file;
+      this.buffer = buffer;
+    }
+
+    private boolean fits(int payloadSize) {
+      return writeOffset + RECORD_HEADER_SIZE + payloadSize <= buffer.capacity();
+    }
+
+    private void append(byte[] payload) {
+      // The length is written last, a record is not visible to the scan until it is complete.
+      int offset = writeOffset;
+      buffer.putInt(offset + 4, checksum(payload));
+      ByteBuffer view = buffer.duplicate();
+      view.position(offset + RECORD_HEADER_SIZE);
+      view.put(payload);
+      buffer.putInt(offset, payload.length);
+      writeOffset = offset + RECORD_HEADER_SIZE + payload.length;
+    }
+
+    private Record read() {
+      byte[] payload = readPayload(readOffset, buffer.getInt(readOffset));
+      return new Record(
+          this, readOffset, readOffset + RECORD_HEADER_SIZE + payload.length, payload);
+    }
+
+    private byte[] readPayload(int offset, int length) {
+      byte[] payload = new byte[length];
+      ByteBuffer view = buffer.duplicate();
+      view.position(offset + RECORD_HEADER_SIZE);
+      view.get(payload);
+      return payload;
+    }
+
+    private void consume(int nextOffset) {
+      readOffset = nextOffset;
+      buffer.putInt(READ_OFFSET_POSITION, nextOffset);
+    }
+
+    private int countUnconsumed() {
+      int count = 0;
+      for (int offset = readOffset; offset < writeOffset; ) {
+        offset += RECORD_HEADER_SIZE + buffer.getInt(offset);
+        count++;
+      }
+      return count;
+    }
+
+    // Scans the records written before the log was opened, returns false if the segment is not a
+    // spool segment.
+    private boolean recover() {
+      if (buffer.getInt(MAGIC_POSITION) != MAGIC) {
+        return false;
+      }
+      int savedReadOffset = buffer.getInt(READ_OFFSET_POSITION);
+      // Replays the whole segment if the saved offset is not the offset of a record.
+      readOffset = HEADER_SIZE;
+      int offset = HEADER_SIZE;
+      while (offset + RECORD_HEADER_SIZE <= buffer.capacity()) {
+        if (offset == savedReadOffset) {
+          readOffset = offset;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+          break;
+        }
+        if (buffer.getInt(offset + 4) != checksum(readPayload(offset, length))) {
+          break;
+        }
+        offset += RECORD_HEADER_SIZE + length;
+      }
+      writeOffset = offset;
+      if (savedReadOffset == writeOffset) {
+        readOffset = writeOffset;
+      }
+      // The end of the segment may hold a partially written record, new records always go to a
+      // new segment.
+      sealed = true;
+      return true;
+    }
+
+    private int checksum(byte[] payload) {
+      crc.reset();
+      crc.update(payload, 0, payload.length);
+      return (int) crc.getValue();
+    }
+
+    private void delete() {
+      SegmentLog.delete(file);
+    }
+  }
+}
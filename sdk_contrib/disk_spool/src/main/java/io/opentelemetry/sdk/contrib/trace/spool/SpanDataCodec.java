@@ -0,0 +1,416 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.SpanData.Event;
+import io.opentelemetry.sdk.trace.data.SpanData.Link;
+import io.opentelemetry.sdk.trace.data.SpanDataImpl;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.TraceState;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Encodes batches of {@link SpanData} in a compact binary format, so they can be written to the
+ * spool and exported by any {@code SpanExporter} once decoded.
+ *
+ * <p>The format starts with a version byte, a batch written with another version is rejected by
+ * {@link #decode(byte[])}. Enum values are written by name, so they do not depend on the order of
+ * the constants.
+ */
+final class SpanDataCodec {
+  static final byte VERSION = 1;
+
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  private static final byte TYPE_STRING = 0;
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_LONG = 2;
+  private static final byte TYPE_DOUBLE = 3;
+  private static final byte TYPE_STRING_ARRAY = 4;
+  private static final byte TYPE_BOOLEAN_ARRAY = 5;
+  private static final byte TYPE_LONG_ARRAY = 6;
+  private static final byte TYPE_DOUBLE_ARRAY = 7;
+
+  static byte[] encode(Collection<SpanData> spans) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 * spans.size());
+    DataOutputStream output = new DataOutputStream(bytes);
+    try {
+      output.writeByte(VERSION);
+      output.writeInt(spans.size());
+      for (SpanData span : spans) {
+        writeSpan(output, span);
+      }
+      output.flush();
+    } catch (IOException e) {
+      // Never thrown by a ByteArrayOutputStream.
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static List<SpanData> decode(byte[] bytes) throws IOException {
+    DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+    byte version = input.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported spool format version: " + version);
+    }
+    int count = input.readInt();
+    List<SpanData> spans = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      spans.add(readSpan(input));
+    }
+    return spans;
+  }
+
+  private static void writeSpan(DataOutputStream output, SpanData span) throws IOException {
+    writeSpanContext(
+        output,
+        span.getTraceId(),
+        span.getSpanId(),
+        span.getTraceFlags(),
+        span.getTraceState(),
+        /* isRemote= */ false);
+    writeSpanId(output, span.getParentSpanId());
+    writeAttributes(output, span.getResource().getAttributes());
+    writeString(output, span.getInstrumentationLibraryInfo().getName());
+    writeString(output, span.getInstrumentationLibraryInfo().getVersion());
+    writeString(output, span.getName());
+    writeString(output, span.getKind().name());
+    output.writeLong(span.getStartEpochNanos());
+    output.writeLong(span.getEndEpochNanos());
+    writeAttributes(output, span.getAttributes());
+    output.writeInt(span.getEvents().size());
+    for (Event event : span.getEvents()) {
+      writeString(output, event.getName());
+      output.writeLong(event.getEpochNanos());
+      writeAttributes(output, event.getAttributes());
+      output.writeInt(event.getTotalAttributeCount());
+    }
+    output.writeInt(span.getLinks().size());
+    for (Link link : span.getLinks()) {
+      SpanContext context = link.getContext();
+      writeSpanContext(
+          output,
+          context.getTraceId(),
+          context.getSpanId(),
+          context.getTraceFlags(),
+          context.getTraceState(),
+          context.isRemote());
+      writeAttributes(output, link.getAttributes());
+      output.writeInt(link.getTotalAttributeCount());
+    }
+    writeString(output, span.getStatus().getCanonicalCode().name());
+    writeString(output, span.getStatus().getDescription());
+    output.writeBoolean(span.getHasRemoteParent());
+    output.writeBoolean(span.getHasEnded());
+    output.writeInt(span.getTotalRecordedEvents());
+    output.writeInt(span.getTotalRecordedLinks());
+    output.writeInt(span.getTotalAttributeCount());
+  }
+
+  private static SpanData readSpan(DataInputStream input) throws IOException {
+    SpanDataImpl.Builder builder = SpanDataImpl.newBuilder();
+    SpanContext context = readSpanContext(input);
+    builder
+        .setTraceId(context.getTraceId())
+        .setSpanId(context.getSpanId())
+        .setTraceFlags(context.getTraceFlags())
+        .setTraceState(context.getTraceState())
+        .setParentSpanId(readSpanId(input))
+        .setResource(Resource.create(readAttributes(input)));
+    String libraryName = readString(input);
+    builder
+        .setInstrumentationLibraryInfo(
+            InstrumentationLibraryInfo.create(
+                libraryName == null ? "" : libraryName, readString(input)))
+        .setName(readNonNullString(input))
+        .setKind(Kind.valueOf(readNonNullString(input)))
+        .setStartEpochNanos(input.readLong())
+        .setEndEpochNanos(input.readLong())
+        .setAttributes(readAttributes(input));
+    int eventCount = input.readInt();
+    List<Event> events = new ArrayList<>(eventCount);
+    for (int i = 0; i < eventCount; i++) {
+      String name = readNonNullString(input);
+      long epochNanos = input.readLong();
+      Map<String, AttributeValue> attributes = readAttributes(input);
+      events.add(Event.create(epochNanos, name, attributes, input.readInt()));
+    }
+    int linkCount = input.readInt();
+    List<Link> links = new ArrayList<>(linkCount);
+    for (int i = 0; i < linkCount; i++) {
+      SpanContext linkContext = readSpanContext(input);
+      Map<String, AttributeValue> attributes = readAttributes(input);
+      links.add(Link.create(linkContext, attributes, input.readInt()));
+    }
+    Status status =
+        Status.CanonicalCode.valueOf(readNonNullString(input))
+            .toStatus()
+            .withDescription(readString(input));
+    return builder
+        .setEvents(events)
+        .setLinks(links)
+        .setStatus(status)
+        .setHasRemoteParent(input.readBoolean())
+        .setHasEnded(input.readBoolean())
+        .setTotalRecordedEvents(input.readInt())
+        .setTotalRecordedLinks(input.readInt())
+        .setTotalAttributeCount(input.readInt())
+        .build();
+  }
+
+  private static void writeSpanContext(
+      DataOutputStream output,
+      TraceId traceId,
+      SpanId spanId,
+      TraceFlags traceFlags,
+      TraceState traceState,
+      boolean isRemote)
+      throws IOException {
+    byte[] traceIdBytes = new byte[TraceId.getSize()];
+    traceId.copyBytesTo(traceIdBytes, 0);
+    output.write(traceIdBytes);
+    writeSpanId(output, spanId);
+    output.writeByte(traceFlags.getByte());
+    List<TraceState.Entry> entries = traceState.getEntries();
+    output.writeInt(entries.size());
+    for (TraceState.Entry entry : entries) {
+      writeString(output, entry.getKey());
+      writeString(output, entry.getValue());
+    }
+    output.writeBoolean(isRemote);
+  }
+
+  private static SpanContext readSpanContext(DataInputStream input) throws IOException {
+    byte[] traceIdBytes = new byte[TraceId.getSize()];
+    input.readFully(traceIdBytes);
+    TraceId traceId = TraceId.fromBytes(traceIdBytes, 0);
+    SpanId spanId = readSpanId(input);
+    TraceFlags traceFlags = TraceFlags.fromByte(input.readByte());
+    int entryCount = input.readInt();
+    TraceState.Builder traceState = TraceState.builder();
+    // TraceState.Builder.set adds the entries in front, so they are added in reverse order.
+    List<String> keysAndValues = new ArrayList<>(entryCount * 2);
+    for (int i = 0; i < entryCount; i++) {
+      keysAndValues.add(readNonNullString(input));
+      keysAndValues.add(readNonNullString(input));
+    }
+    for (int i = keysAndValues.size() - 2; i >= 0; i -= 2) {
+      traceState.set(keysAndValues.get(i), keysAndValues.get(i + 1));
+    }
+    return input.readBoolean()
+        ? SpanContext.createFromRemoteParent(traceId, spanId, traceFlags, traceState.build())
+        : SpanContext.create(traceId, spanId, traceFlags, traceState.build());
+  }
+
+  private static void writeSpanId(DataOutputStream output, SpanId spanId) throws IOException {
+    byte[] spanIdBytes = new byte[SpanId.getSize()];
+    spanId.copyBytesTo(spanIdBytes, 0);
+    output.write(spanIdBytes);
+  }
+
+  private static SpanId readSpanId(DataInputStream input) throws IOException {
+    byte[] spanIdBytes = new byte[SpanId.getSize()];
+    input.readFully(spanIdBytes);
+    return SpanId.fromBytes(spanIdBytes, 0);
+  }
+
+  private static void writeAttributes(
+      DataOutputStream output, Map<String, AttributeValue> attributes) throws IOException {
+    output.writeInt(attributes.size());
+    for (Map.Entry<String, AttributeValue> entry : attributes.entrySet()) {
+      writeString(output, entry.getKey());
+      writeAttributeValue(output, entry.getValue());
+    }
+  }
+
+  private static Map<String, AttributeValue> readAttributes(DataInputStream input)
+      throws IOException {
+    int count = input.readInt();
+    if (count == 0) {
+      return Collections.emptyMap();
+    }
+    Map<String, AttributeValue> attributes = new LinkedHashMap<>(count * 2);
+    for (int i = 0; i < count; i++) {
+      String key = readNonNullString(input);
+      attributes.put(key, readAttributeValue(input));
+    }
+    return Collections.unmodifiableMap(attributes);
+  }
+
+  private static void writeAttributeValue(DataOutputStream output, AttributeValue value)
+      throws IOException {
+    switch (value.getType()) {
+      case STRING:
+        output.writeByte(TYPE_STRING);
+        writeString(output, value.getStringValue());
+        return;
+      case BOOLEAN:
+        output.writeByte(TYPE_BOOLEAN);
+        output.writeBoolean(value.getBooleanValue());
+        return;
+      case LONG:
+        output.writeByte(TYPE_LONG);
+        output.writeLong(value.getLongValue());
+        return;
+      case DOUBLE:
+        output.writeByte(TYPE_DOUBLE);
+        output.writeDouble(value.getDoubleValue());
+        return;
+      case STRING_ARRAY:
+        output.writeByte(TYPE_STRING_ARRAY);
+        output.writeInt(value.getStringArrayValue().size());
+        for (String element : value.getStringArrayValue()) {
+          writeString(output, element);
+        }
+        return;
+      case BOOLEAN_ARRAY:
+        output.writeByte(TYPE_BOOLEAN_ARRAY);
+        output.writeInt(value.getBooleanArrayValue().size());
+        for (Boolean element : value.getBooleanArrayValue()) {
+          output.writeBoolean(element);
+        }
+        return;
+      case LONG_ARRAY:
+        output.writeByte(TYPE_LONG_ARRAY);
+        output.writeInt(value.getLongArrayValue().size());
+        for (Long element : value.getLongArrayValue()) {
+          output.writeLong(element);
+        }
+        return;
+      case DOUBLE_ARRAY:
+        output.writeByte(TYPE_DOUBLE_ARRAY);
+        output.writeInt(value.getDoubleArrayValue().size());
+        for (Double element : value.getDoubleArrayValue()) {
+          output.writeDouble(element);
+        }
+        return;
+    }
+    throw new IllegalStateException("Unknown attribute type: " + value.getType());
+  }
+
+  private static AttributeValue readAttributeValue(DataInputStream input) throws IOException {
+    byte type = input.readByte();
+    switch (type) {
+      case TYPE_STRING:
+        return AttributeValue.stringAttributeValue(readNonNullString(input));
+      case TYPE_BOOLEAN:
+        return AttributeValue.booleanAttributeValue(input.readBoolean());
+      case TYPE_LONG:
+        return AttributeValue.longAttributeValue(input.readLong());
+      case TYPE_DOUBLE:
+        return AttributeValue.doubleAttributeValue(input.readDouble());
+      case TYPE_STRING_ARRAY:
+        return AttributeValue.arrayAttributeValue(readStringArray(input));
+      case TYPE_BOOLEAN_ARRAY:
+        return AttributeValue.arrayAttributeValue(readBooleanArray(input));
+      case TYPE_LONG_ARRAY:
+        return AttributeValue.arrayAttributeValue(readLongArray(input));
+      case TYPE_DOUBLE_ARRAY:
+        return AttributeValue.arrayAttributeValue(readDoubleArray(input));
+      default:
+        throw new IOException("Unknown attribute type: " + type);
+    }
+  }
+
+  private static String[] readStringArray(DataInputStream input) throws IOException {
+    String[] values = new String[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readString(input);
+    }
+    return values;
+  }
+
+  private static Boolean[] readBooleanArray(DataInputStream input) throws IOException {
+    Boolean[] values = new Boolean[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = input.readBoolean();
+    }
+    return values;
+  }
+
+  private static Long[] readLongArray(DataInputStream input) throws IOException {
+    Long[] values = new Long[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = input.readLong();
+    }
+    return values;
+  }
+
+  private static Double[] readDoubleArray(DataInputStream input) throws IOException {
+    Double[] values = new Double[input.readInt()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = input.readDouble();
+    }
+    return values;
+  }
+
+  // DataOutputStream.writeUTF is limited to 64KB, strings are written as their UTF-8 length
+  // followed by the bytes, a null string has a length of -1.
+  private static void writeString(DataOutputStream output, @Nullable String value)
+      throws IOException {
+    if (value == null) {
+      output.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  @Nullable
+  private static String readString(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static String readNonNullString(DataInputStream input) throws IOException {
+    String value = readString(input);
+    if (value == null) {
+      throw new IOException("Unexpected null string");
+    }
+    return value;
+  }
+
+  private SpanDataCodec() {}
+}
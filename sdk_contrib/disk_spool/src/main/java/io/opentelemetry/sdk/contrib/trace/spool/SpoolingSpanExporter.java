@@ -0,0 +1,296 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import io.opentelemetry.internal.Utils;
+import io.opentelemetry.sdk.common.DaemonThreadFactory;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link SpanExporter} that spools the batches its delegate fails to export to the local disk, so
+ * the spans survive long outages of the backend and restarts of the process. Only the batches the
+ * delegate fails to export with {@link ResultCode#FAILURE_RETRYABLE} are spooled, for example by
+ * the OTLP exporter while the collector is unavailable. The batches failing with {@link
+ * ResultCode#FAILURE} are dropped, the backend would reject them again.
+ *
+ * <p>The batches are encoded and appended to a log of memory-mapped segment files in the spool
+ * directory. A background thread exports the spooled batches in order once the delegate succeeds
+ * again, and retries the oldest batch every {@code replayIntervalMillis} while it fails with {@link
+ * ResultCode#FAILURE_RETRYABLE}. While the spool is not empty new batches are appended to it as
+ * well, so the spans are exported in order.
+ *
+ * <p>The disk usage is bounded by {@code maxSegments * segmentSizeBytes}. When the spool is full
+ * the oldest segment is evicted with the batches it holds. Every record has a CRC32 checksum, so
+ * the batches written before a crash are replayed when the exporter is created again with the same
+ * directory, and a partially written batch is ignored. A batch may be exported twice if the process
+ * stops right after it was exported from the spool.
+ *
+ * <p>The delegate is called concurrently by the caller and by the replay thread, so it must support
+ * concurrent calls to {@link SpanExporter#export(Collection)}.
+ *
+ * @since 0.5.0
+ */
+@ThreadSafe
+public final class SpoolingSpanExporter implements SpanExporter {
+  private static final Logger logger = Logger.getLogger(SpoolingSpanExporter.class.getName());
+  private static final String REPLAY_THREAD_NAME =
+      SpoolingSpanExporter.class.getSimpleName() + "_ReplayThread";
+
+  private final SpanExporter spanExporter;
+  private final SegmentLog log;
+  private final long replayIntervalMillis;
+  // Serializes the replays of the replay thread and of flush().
+  private final Object replayLock = new Object();
+  private final Thread replayThread;
+
+  private SpoolingSpanExporter(
+      SpanExporter spanExporter, SegmentLog log, long replayIntervalMillis) {
+    this.spanExporter = spanExporter;
+    this.log = log;
+    this.replayIntervalMillis = replayIntervalMillis;
+    this.replayThread = new DaemonThreadFactory(REPLAY_THREAD_NAME).newThread(new Replayer());
+    this.replayThread.start();
+  }
+
+  /**
+   * Returns a new Builder for {@link SpoolingSpanExporter}.
+   *
+   * @param spanExporter the {@code SpanExporter} the spans are exported to.
+   * @param directory the directory of the spool, only used by this exporter.
+   * @return a new {@link Builder}.
+   * @throws NullPointerException if {@code spanExporter} or {@code directory} is {@code null}.
+   */
+  public static Builder newBuilder(SpanExporter spanExporter, File directory) {
+    return new Builder(spanExporter, directory);
+  }
+
+  /**
+   * Exports the spans with the delegate, or appends them to the spool if the delegate fails with
+   * {@link ResultCode#FAILURE_RETRYABLE} or the spool is not empty.
+   *
+   * @param spans the collection of sampled Spans to be exported.
+   * @return {@link ResultCode#SUCCESS} if the spans were exported or spooled.
+   */
+  @Override
+  public ResultCode export(Collection<SpanData> spans) {
+    if (spans.isEmpty()) {
+      return ResultCode.SUCCESS;
+    }
+    if (log.isEmpty()) {
+      ResultCode resultCode = exportOnce(spans);
+      if (resultCode != ResultCode.FAILURE_RETRYABLE) {
+        return resultCode;
+      }
+    }
+    return spool(spans);
+  }
+
+  /**
+   * Exports the spooled batches until the spool is empty or the delegate fails, then flushes the
+   * delegate.
+   *
+   * @return {@link ResultCode#SUCCESS} if the spool is empty and the delegate was flushed.
+   */
+  @Override
+  public ResultCode flush() {
+    boolean empty = replay();
+    ResultCode resultCode = spanExporter.flush();
+    return empty ? resultCode : ResultCode.FAILURE;
+  }
+
+  /**
+   * Stops the replay thread and shuts down the delegate. The batches remaining in the spool are
+   * replayed by the next exporter created with the same directory.
+   */
+  @Override
+  public void shutdown() {
+    replayThread.interrupt();
+    synchronized (replayLock) {
+      log.close();
+    }
+    spanExporter.shutdown();
+  }
+
+  // Returns true if the spool is empty.
+  boolean isSpoolEmpty() {
+    return log.isEmpty();
+  }
+
+  private ResultCode spool(Collection<SpanData> spans) {
+    byte[] payload = SpanDataCodec.encode(spans);
+    if (payload.length > log.getMaxRecordSize()) {
+      logger.log(
+          Level.WARNING,
+          "Batch of {0} spans larger than a spool segment, dropping it.",
+          spans.size());
+      return ResultCode.FAILURE;
+    }
+    try {
+      log.append(payload);
+      return ResultCode.SUCCESS;
+    } catch (IOException e) {
+      logger.log(Level.WARNING, "Failed to spool a batch of spans.", e);
+      return ResultCode.FAILURE;
+    }
+  }
+
+  // Exports the spooled batches in order, returns true if the spool is empty.
+  private boolean replay() {
+    synchronized (replayLock) {
+      SegmentLog.Record record;
+      while ((record = log.peek()) != null) {
+        List<SpanData> spans;
+        try {
+          spans = SpanDataCodec.decode(record.getPayload());
+        } catch (IOException | RuntimeException e) {
+          logger.log(Level.WARNING, "Dropping a spooled batch that cannot be decoded.", e);
+          log.consume(record);
+          continue;
+        }
+        ResultCode resultCode = exportOnce(spans);
+        if (resultCode == ResultCode.FAILURE_RETRYABLE) {
+          return false;
+        }
+        if (resultCode != ResultCode.SUCCESS) {
+          logger.log(
+              Level.WARNING,
+              "Failed to export a spooled batch of {0} spans, dropping it.",
+              spans.size());
+        }
+        log.consume(record);
+      }
+      return true;
+    }
+  }
+
+  private ResultCode exportOnce(Collection<SpanData> spans) {
+    // In case of any exception thrown by the service handlers catch and log.
+    try {
+      return spanExporter.export(spans);
+    } catch (Throwable t) {
+      logger.log(Level.WARNING, "Exception thrown by the export.", t);
+      return ResultCode.FAILURE;
+    }
+  }
+
+  private final class Replayer implements Runnable {
+    @Override
+    public void run() {
+      try {
+        while (!Thread.currentThread().isInterrupted()) {
+          if (replay()) {
+            log.awaitRecord(replayIntervalMillis);
+          } else {
+            // The delegate failed, wait before trying again.
+            TimeUnit.MILLISECONDS.sleep(replayIntervalMillis);
+          }
+        }
+      } catch (InterruptedException e) {
+        // Preserve the interruption status as per guidance.
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Builder class for {@link SpoolingSpanExporter}. */
+  public static final class Builder {
+    private static final int DEFAULT_SEGMENT_SIZE_BYTES = 16 * 1024 * 1024;
+    private static final int DEFAULT_MAX_SEGMENTS = 16;
+    private static final long DEFAULT_REPLAY_INTERVAL_MILLIS = 5_000;
+
+    private final SpanExporter spanExporter;
+    private final File directory;
+    private int segmentSizeBytes = DEFAULT_SEGMENT_SIZE_BYTES;
+    private int maxSegments = DEFAULT_MAX_SEGMENTS;
+    private long replayIntervalMillis = DEFAULT_REPLAY_INTERVAL_MILLIS;
+
+    private Builder(SpanExporter spanExporter, File directory) {
+      this.spanExporter = Objects.requireNonNull(spanExporter, "spanExporter");
+      this.directory = Objects.requireNonNull(directory, "directory");
+    }
+
+    /**
+     * Sets the size of a segment file of the spool. A batch larger than a segment is dropped.
+     *
+     * <p>Default value is {@code 16} MiB.
+     *
+     * @param segmentSizeBytes the size of a segment file in bytes.
+     * @return this.
+     * @throws IllegalArgumentException if {@code segmentSizeBytes} is smaller than {@code 1024}.
+     */
+    public Builder setSegmentSizeBytes(int segmentSizeBytes) {
+      Utils.checkArgument(segmentSizeBytes >= 1024, "segmentSizeBytes must be at least 1024.");
+      this.segmentSizeBytes = segmentSizeBytes;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of segment files of the spool, the oldest segment is evicted when a
+     * new one is needed.
+     *
+     * <p>Default value is {@code 16}.
+     *
+     * @param maxSegments the maximum number of segment files.
+     * @return this.
+     * @throws IllegalArgumentException if {@code maxSegments} is smaller than {@code 2}.
+     */
+    public Builder setMaxSegments(int maxSegments) {
+      Utils.checkArgument(maxSegments >= 2, "maxSegments must be at least 2.");
+      this.maxSegments = maxSegments;
+      return this;
+    }
+
+    /**
+     * Sets the delay before exporting a spooled batch again after the delegate failed to export it.
+     *
+     * <p>Default value is {@code 5000}ms.
+     *
+     * @param replayIntervalMillis the delay between two replays in milliseconds.
+     * @return this.
+     * @throws IllegalArgumentException if {@code replayIntervalMillis} is not positive.
+     */
+    public Builder setReplayIntervalMillis(long replayIntervalMillis) {
+      Utils.checkArgument(replayIntervalMillis > 0, "replayIntervalMillis must be positive.");
+      this.replayIntervalMillis = replayIntervalMillis;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link SpoolingSpanExporter}, the batches already in the spool directory are
+     * replayed.
+     *
+     * @return a new {@link SpoolingSpanExporter}.
+     * @throws IOException if the spool directory cannot be created or read.
+     */
+    public SpoolingSpanExporter build() throws IOException {
+      return new SpoolingSpanExporter(
+          spanExporter,
+          SegmentLog.open(directory, segmentSizeBytes, maxSegments),
+          replayIntervalMillis);
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SegmentLog}. */
+@RunWith(JUnit4.class)
+public class SegmentLogTest {
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+  private static final int SEGMENT_SIZE = 1024;
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private File directory;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.newFolder("spool");
+  }
+
+  @Test
+  public void appendPeekConsume() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    assertThat(log.isEmpty()).isTrue();
+    assertThat(log.peek()).isNull();
+
+    log.append(bytes("first"));
+    log.append(bytes("second"));
+    assertThat(log.isEmpty()).isFalse();
+
+    SegmentLog.Record record = log.peek();
+    assertThat(string(record)).isEqualTo("first");
+    // Not consumed yet.
+    assertThat(string(log.peek())).isEqualTo("first");
+    log.consume(record);
+    // Consuming twice does nothing.
+    log.consume(record);
+    record = log.peek();
+    assertThat(string(record)).isEqualTo("second");
+    log.consume(record);
+    assertThat(log.peek()).isNull();
+    assertThat(log.isEmpty()).isTrue();
+    log.close();
+  }
+
+  @Test
+  public void append_RollsToNewSegment() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    byte[] payload = new byte[SEGMENT_SIZE / 2];
+    log.append(payload);
+    log.append(payload);
+    assertThat(log.getSegmentCount()).isEqualTo(2);
+    assertThat(directory.listFiles()).hasLength(2);
+
+    // The first segment is deleted once all its records are consumed.
+    log.consume(log.peek());
+    log.consume(log.peek());
+    assertThat(log.peek()).isNull();
+    assertThat(log.getSegmentCount()).isEqualTo(1);
+    assertThat(directory.listFiles()).hasLength(1);
+    log.close();
+  }
+
+  @Test
+  public void append_EvictsOldestSegment() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 2);
+    byte[] payload = new byte[SEGMENT_SIZE / 2];
+    assertThat(log.append(named(payload, 0))).isEqualTo(0);
+    assertThat(log.append(named(payload, 1))).isEqualTo(0);
+    assertThat(log.append(named(payload, 2))).isEqualTo(1);
+    assertThat(log.getSegmentCount()).isEqualTo(2);
+    assertThat(directory.listFiles()).hasLength(2);
+
+    SegmentLog.Record record = log.peek();
+    assertThat(record.getPayload()[0]).isEqualTo(1);
+    log.consume(record);
+    assertThat(log.peek().getPayload()[0]).isEqualTo(2);
+    log.close();
+  }
+
+  @Test
+  public void append_RecordLargerThanSegment() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 2);
+    log.append(new byte[log.getMaxRecordSize()]);
+    thrown.expect(IllegalArgumentException.class);
+    log.append(new byte[log.getMaxRecordSize() + 1]);
+  }
+
+  @Test
+  public void open_RecoversRecords() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    log.append(bytes("first"));
+    log.append(bytes("second"));
+    log.append(bytes("third"));
+    log.consume(log.peek());
+    log.close();
+
+    SegmentLog reopened = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    SegmentLog.Record record = reopened.peek();
+    assertThat(string(record)).isEqualTo("second");
+    // New records go to a new segment, after the recovered ones.
+    reopened.append(bytes("fourth"));
+    assertThat(reopened.getSegmentCount()).isEqualTo(2);
+    reopened.consume(record);
+    record = reopened.peek();
+    assertThat(string(record)).isEqualTo("third");
+    reopened.consume(record);
+    record = reopened.peek();
+    assertThat(string(record)).isEqualTo("fourth");
+    reopened.consume(record);
+    assertThat(reopened.isEmpty()).isTrue();
+    reopened.close();
+  }
+
+  @Test
+  public void open_FullyConsumedSegmentIsDeleted() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    log.append(bytes("first"));
+    log.consume(log.peek());
+    log.close();
+
+    SegmentLog reopened = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    assertThat(reopened.isEmpty()).isTrue();
+    assertThat(reopened.peek()).isNull();
+    assertThat(directory.listFiles()).isEmpty();
+    reopened.close();
+  }
+
+  @Test
+  public void open_StopsAtCorruptedRecord() throws IOException {
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    log.append(bytes("first"));
+    log.append(bytes("second"));
+    log.append(bytes("third"));
+    log.close();
+
+    // Corrupts the payload of the second record.
+    File segment = directory.listFiles()[0];
+    int secondPayloadOffset =
+        SegmentLog.HEADER_SIZE + 2 * SegmentLog.RECORD_HEADER_SIZE + "first".length();
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.seek(secondPayloadOffset);
+      file.write('S');
+    }
+
+    SegmentLog reopened = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    SegmentLog.Record record = reopened.peek();
+    assertThat(string(record)).isEqualTo("first");
+    reopened.consume(record);
+    assertThat(reopened.peek()).isNull();
+    reopened.close();
+  }
+
+  @Test
+  public void open_DeletesForeignFiles() throws IOException {
+    File foreign = new File(directory, String.format("%020d", 0) + SegmentLog.SEGMENT_SUFFIX);
+    try (RandomAccessFile file = new RandomAccessFile(foreign, "rw")) {
+      file.setLength(SEGMENT_SIZE);
+    }
+
+    SegmentLog log = SegmentLog.open(directory, SEGMENT_SIZE, 4);
+    assertThat(log.isEmpty()).isTrue();
+    assertThat(foreign.exists()).isFalse();
+    log.close();
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(UTF_8);
+  }
+
+  private static byte[] named(byte[] payload, int name) {
+    byte[] copy = Arrays.copyOf(payload, payload.length);
+    copy[0] = (byte) name;
+    return copy;
+  }
+
+  private static String string(SegmentLog.Record record) {
+    return new String(record.getPayload(), UTF_8);
+  }
+}
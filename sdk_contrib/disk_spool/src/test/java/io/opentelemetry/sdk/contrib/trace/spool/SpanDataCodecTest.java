@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.common.AttributeValue;
+import io.opentelemetry.sdk.common.InstrumentationLibraryInfo;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.data.SpanData.Event;
+import io.opentelemetry.sdk.trace.data.SpanData.Link;
+import io.opentelemetry.sdk.trace.data.SpanDataImpl;
+import io.opentelemetry.trace.Span.Kind;
+import io.opentelemetry.trace.SpanContext;
+import io.opentelemetry.trace.SpanId;
+import io.opentelemetry.trace.Status;
+import io.opentelemetry.trace.TraceFlags;
+import io.opentelemetry.trace.TraceId;
+import io.opentelemetry.trace.TraceState;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpanDataCodec}. */
+@RunWith(JUnit4.class)
+public class SpanDataCodecTest {
+  private static final String TRACE_ID = "00000000000000000000000000abc123";
+  private static final String SPAN_ID = "0000000000def456";
+  private static final String PARENT_SPAN_ID = "0000000000aef789";
+
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  @Test
+  public void roundTrip() throws IOException {
+    SpanData span = newFullSpan();
+    SpanData minimal = newSpan("minimal");
+
+    List<SpanData> decoded =
+        SpanDataCodec.decode(SpanDataCodec.encode(Arrays.asList(span, minimal)));
+
+    assertThat(decoded).containsExactly(span, minimal).inOrder();
+    assertThat(decoded.get(0).getTraceState().get("vendor1")).isEqualTo("value1");
+    assertThat(decoded.get(0).getTraceState().getEntries())
+        .isEqualTo(span.getTraceState().getEntries());
+  }
+
+  @Test
+  public void roundTrip_Empty() throws IOException {
+    assertThat(SpanDataCodec.decode(SpanDataCodec.encode(Collections.<SpanData>emptyList())))
+        .isEmpty();
+  }
+
+  @Test
+  public void decode_UnknownVersion() throws IOException {
+    byte[] encoded = SpanDataCodec.encode(Collections.singletonList(newSpan("span")));
+    encoded[0] = SpanDataCodec.VERSION + 1;
+    thrown.expect(IOException.class);
+    SpanDataCodec.decode(encoded);
+  }
+
+  @Test
+  public void decode_Truncated() throws IOException {
+    byte[] encoded = SpanDataCodec.encode(Collections.singletonList(newFullSpan()));
+    thrown.expect(IOException.class);
+    SpanDataCodec.decode(Arrays.copyOf(encoded, encoded.length / 2));
+  }
+
+  static SpanData newSpan(String name) {
+    return SpanDataImpl.newBuilder()
+        .setTraceId(TraceId.fromLowerBase16(TRACE_ID, 0))
+        .setSpanId(SpanId.fromLowerBase16(SPAN_ID, 0))
+        .setTraceFlags(TraceFlags.getDefault())
+        .setName(name)
+        .setKind(Kind.INTERNAL)
+        .setStatus(Status.OK)
+        .setStartEpochNanos(100)
+        .setEndEpochNanos(200)
+        .setHasRemoteParent(false)
+        .setHasEnded(true)
+        .setTotalRecordedEvents(0)
+        .setTotalRecordedLinks(0)
+        .build();
+  }
+
+  private static SpanData newFullSpan() {
+    Map<String, AttributeValue> attributes = new LinkedHashMap<>();
+    attributes.put("string", AttributeValue.stringAttributeValue("value"));
+    attributes.put("boolean", AttributeValue.booleanAttributeValue(true));
+    attributes.put("long", AttributeValue.longAttributeValue(42));
+    attributes.put("double", AttributeValue.doubleAttributeValue(4.2));
+    attributes.put("strings", AttributeValue.arrayAttributeValue("a", "b"));
+    attributes.put("booleans", AttributeValue.arrayAttributeValue(true, false));
+    attributes.put("longs", AttributeValue.arrayAttributeValue(1L, 2L));
+    attributes.put("doubles", AttributeValue.arrayAttributeValue(1.5, 2.5));
+    TraceState traceState =
+        TraceState.builder().set("vendor2", "value2").set("vendor1", "value1").build();
+    SpanContext linkContext =
+        SpanContext.createFromRemoteParent(
+            TraceId.fromLowerBase16(TRACE_ID, 0),
+            SpanId.fromLowerBase16(PARENT_SPAN_ID, 0),
+            TraceFlags.builder().setIsSampled(true).build(),
+            traceState);
+    return SpanDataImpl.newBuilder()
+        .setTraceId(TraceId.fromLowerBase16(TRACE_ID, 0))
+        .setSpanId(SpanId.fromLowerBase16(SPAN_ID, 0))
+        .setTraceFlags(TraceFlags.builder().setIsSampled(true).build())
+        .setTraceState(traceState)
+        .setParentSpanId(SpanId.fromLowerBase16(PARENT_SPAN_ID, 0))
+        .setResource(
+            Resource.create(
+                Collections.singletonMap(
+                    "service.name", AttributeValue.stringAttributeValue("spool"))))
+        .setInstrumentationLibraryInfo(InstrumentationLibraryInfo.create("library", "1.0"))
+        .setName("full")
+        .setKind(Kind.SERVER)
+        .setStatus(Status.UNAVAILABLE.withDescription("unavailable"))
+        .setStartEpochNanos(1505855794_194009601L)
+        .setEndEpochNanos(1505855799_465726528L)
+        .setAttributes(attributes)
+        .setTotalAttributeCount(12)
+        .setEvents(
+            Collections.singletonList(
+                Event.create(
+                    1505855799_433901068L,
+                    "event",
+                    Collections.singletonMap("key", AttributeValue.longAttributeValue(1)),
+                    3)))
+        .setLinks(
+            Collections.singletonList(
+                Link.create(
+                    linkContext,
+                    Collections.singletonMap("key", AttributeValue.booleanAttributeValue(false)),
+                    2)))
+        .setHasRemoteParent(true)
+        .setHasEnded(true)
+        .setTotalRecordedEvents(5)
+        .setTotalRecordedLinks(4)
+        .build();
+  }
+}
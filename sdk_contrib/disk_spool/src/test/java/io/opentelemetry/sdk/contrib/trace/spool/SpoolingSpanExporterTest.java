@@ -0,0 +1,264 @@
+/*
+ * Copyright 2019, OpenTelemetry Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.opentelemetry.sdk.contrib.trace.spool;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link SpoolingSpanExporter}. */
+@RunWith(JUnit4.class)
+public class SpoolingSpanExporterTest {
+  private static final List<SpanData> FIRST =
+      Collections.singletonList(SpanDataCodecTest.newSpan("first"));
+  private static final List<SpanData> SECOND =
+      Collections.singletonList(SpanDataCodecTest.newSpan("second"));
+  private static final List<SpanData> THIRD =
+      Collections.singletonList(SpanDataCodecTest.newSpan("third"));
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+  @Rule public final ExpectedException thrown = ExpectedException.none();
+
+  private final FakeSpanExporter delegate = new FakeSpanExporter();
+  private File directory;
+  private SpoolingSpanExporter exporter;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = folder.newFolder("spool");
+    exporter = newExporter();
+  }
+
+  @After
+  public void tearDown() {
+    exporter.shutdown();
+  }
+
+  @Test
+  public void export_DelegateSucceeds() {
+    assertThat(exporter.export(FIRST)).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(delegate.getExported()).containsExactly(FIRST);
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+  }
+
+  @Test
+  public void export_DelegateFails_SpoolsAndReplaysInOrder() {
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    assertThat(exporter.export(FIRST)).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(exporter.isSpoolEmpty()).isFalse();
+
+    // Once the delegate succeeds again, new batches are spooled after the spooled ones.
+    delegate.setResultCode(SpanExporter.ResultCode.SUCCESS);
+    assertThat(exporter.export(SECOND)).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(exporter.flush()).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+    assertThat(delegate.getSuccessfulExports()).containsExactly(FIRST, SECOND).inOrder();
+  }
+
+  @Test
+  public void export_DelegateFailsNotRetryable_DropsBatch() {
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE);
+    assertThat(exporter.export(FIRST)).isEqualTo(SpanExporter.ResultCode.FAILURE);
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+  }
+
+  @Test
+  public void export_DelegateThrows_DropsBatch() {
+    delegate.setThrow(true);
+    assertThat(exporter.export(FIRST)).isEqualTo(SpanExporter.ResultCode.FAILURE);
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+  }
+
+  @Test
+  public void flush_DropsSpooledBatchFailingNotRetryable() {
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    exporter.export(FIRST);
+    exporter.export(SECOND);
+
+    // The spooled batches are dropped instead of holding back the next ones.
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE);
+    exporter.flush();
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+    delegate.setResultCode(SpanExporter.ResultCode.SUCCESS);
+    assertThat(exporter.export(THIRD)).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(delegate.getSuccessfulExports()).containsExactly(THIRD);
+  }
+
+  @Test
+  public void replayThread_ExportsWhenDelegateRecovers() throws Exception {
+    exporter.shutdown();
+    exporter =
+        SpoolingSpanExporter.newBuilder(delegate, directory).setReplayIntervalMillis(10).build();
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    exporter.export(FIRST);
+    exporter.export(SECOND);
+
+    delegate.setResultCode(SpanExporter.ResultCode.SUCCESS);
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (!exporter.isSpoolEmpty() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+    assertThat(delegate.getSuccessfulExports()).containsExactly(FIRST, SECOND).inOrder();
+  }
+
+  @Test
+  public void build_ReplaysSpoolOfPreviousExporter() throws IOException {
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    exporter.export(FIRST);
+    exporter.export(SECOND);
+    exporter.shutdown();
+
+    FakeSpanExporter newDelegate = new FakeSpanExporter();
+    exporter = SpoolingSpanExporter.newBuilder(newDelegate, directory).build();
+    assertThat(exporter.isSpoolEmpty()).isFalse();
+    exporter.export(THIRD);
+    assertThat(exporter.flush()).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(newDelegate.getSuccessfulExports()).containsExactly(FIRST, SECOND, THIRD).inOrder();
+  }
+
+  @Test
+  public void export_DiskUsageIsBounded() throws IOException {
+    exporter.shutdown();
+    exporter =
+        SpoolingSpanExporter.newBuilder(delegate, directory)
+            .setSegmentSizeBytes(1024)
+            .setMaxSegments(2)
+            .build();
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    for (int i = 0; i < 100; i++) {
+      assertThat(exporter.export(FIRST)).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    }
+    assertThat(directory.listFiles()).hasLength(2);
+
+    // Only the most recent batches are left.
+    delegate.setResultCode(SpanExporter.ResultCode.SUCCESS);
+    delegate.clear();
+    assertThat(exporter.flush()).isEqualTo(SpanExporter.ResultCode.SUCCESS);
+    assertThat(delegate.getSuccessfulExports().size()).isGreaterThan(0);
+    assertThat(delegate.getSuccessfulExports().size()).isLessThan(100);
+  }
+
+  @Test
+  public void export_BatchLargerThanSegment() throws IOException {
+    exporter.shutdown();
+    exporter =
+        SpoolingSpanExporter.newBuilder(delegate, directory).setSegmentSizeBytes(1024).build();
+    delegate.setResultCode(SpanExporter.ResultCode.FAILURE_RETRYABLE);
+    List<SpanData> spans = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      spans.add(SpanDataCodecTest.newSpan("span"));
+    }
+    assertThat(exporter.export(spans)).isEqualTo(SpanExporter.ResultCode.FAILURE);
+    assertThat(exporter.isSpoolEmpty()).isTrue();
+  }
+
+  @Test
+  public void shutdown_ShutsDownDelegate() {
+    exporter.shutdown();
+    assertThat(delegate.isShutdown()).isTrue();
+  }
+
+  @Test
+  public void setMaxSegments_TooSmall() {
+    thrown.expect(IllegalArgumentException.class);
+    SpoolingSpanExporter.newBuilder(delegate, directory).setMaxSegments(1);
+  }
+
+  @Test
+  public void setReplayIntervalMillis_NonPositive() {
+    thrown.expect(IllegalArgumentException.class);
+    SpoolingSpanExporter.newBuilder(delegate, directory).setReplayIntervalMillis(0);
+  }
+
+  private SpoolingSpanExporter newExporter() throws IOException {
+    // The replay thread does not interfere with the tests, flush() replays the spool.
+    return SpoolingSpanExporter.newBuilder(delegate, directory)
+        .setReplayIntervalMillis(Long.MAX_VALUE / 2)
+        .build();
+  }
+
+  private static final class FakeSpanExporter implements SpanExporter {
+    private final List<List<SpanData>> exported = new ArrayList<>();
+    private final List<List<SpanData>> successfulExports = new ArrayList<>();
+    private ResultCode resultCode = ResultCode.SUCCESS;
+    private boolean throwException;
+    private boolean shutdown;
+
+    @Override
+    public synchronized ResultCode export(Collection<SpanData> spans) {
+      exported.add(new ArrayList<>(spans));
+      if (throwException) {
+        throw new IllegalStateException("Export failed");
+      }
+      if (resultCode == ResultCode.SUCCESS) {
+        successfulExports.add(new ArrayList<>(spans));
+      }
+      return resultCode;
+    }
+
+    @Override
+    public ResultCode flush() {
+      return ResultCode.SUCCESS;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+      shutdown = true;
+    }
+
+    synchronized void setResultCode(ResultCode resultCode) {
+      this.resultCode = resultCode;
+    }
+
+    synchronized void setThrow(boolean throwException) {
+      this.throwException = throwException;
+    }
+
+    synchronized void clear() {
+      exported.clear();
+      successfulExports.clear();
+    }
+
+    synchronized List<List<SpanData>> getExported() {
+      return new ArrayList<>(exported);
+    }
+
+    synchronized List<List<SpanData>> getSuccessfulExports() {
+      return new ArrayList<>(successfulExports);
+    }
+
+    synchronized boolean isShutdown() {
+      return shutdown;
+    }
+  }
+}
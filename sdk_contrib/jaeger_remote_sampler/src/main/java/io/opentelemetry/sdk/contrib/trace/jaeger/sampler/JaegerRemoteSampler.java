@@ -52,7 +52,7 @@ public class JaegerRemoteSampler implements Sampler {
 
   private final String serviceName;
   private final SamplingManagerBlockingStub stub;
-  private Sampler sampler;
+  private volatile Sampler sampler;
   private final ScheduledExecutorService scheduledExecutorService;
 
   @SuppressWarnings("FutureReturnValueIgnored")